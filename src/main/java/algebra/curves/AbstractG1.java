@@ -7,7 +7,11 @@
 
 package algebra.curves;
 
+import algebra.fields.MontgomeryParameters;
 import algebra.groups.AbstractGroup;
+import common.OffHeapLongArray;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class AbstractG1<G1T extends AbstractG1<G1T>> extends AbstractGroup<G1T> {
 
@@ -15,5 +19,64 @@ public abstract class AbstractG1<G1T extends AbstractG1<G1T>> extends AbstractGr
 
   public abstract int bitSize();
 
-  public abstract AbstractG1<G1T> toAffineCoordinates();
+  public abstract G1T toAffineCoordinates();
+
+  /**
+   * Returns the points in affine coordinates, in the same order. Implementations batch the
+   * inversions of the Z coordinates (see FieldUtils.batchInverse()), this default converts the
+   * points one at a time.
+   */
+  public List<G1T> batchToAffineCoordinates(final List<G1T> points) {
+    final List<G1T> result = new ArrayList<>(points.size());
+    for (G1T point : points) {
+      result.add(point.toAffineCoordinates());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the Montgomery parameters of the coordinates written by storeAffine(), or null when the
+   * points have no packed affine form, see BatchAffineMSM.
+   */
+  public MontgomeryParameters affineParameters() {
+    return null;
+  }
+
+  /* Returns the number of longs written by storeAffine(), see G1Vector. */
+  public int affineLength() {
+    throw new UnsupportedOperationException(
+        this.getClass().getSimpleName() + " has no packed affine form");
+  }
+
+  /**
+   * Writes this point in affine coordinates, as the Montgomery form limbs of X and Y, at the given
+   * index of array. The point at infinity has no affine coordinates, and is written as (0, 0).
+   */
+  public void storeAffine(final OffHeapLongArray array, final long index) {
+    throw new UnsupportedOperationException(
+        this.getClass().getSimpleName() + " has no packed affine form");
+  }
+
+  /**
+   * Returns whether this point is the point at infinity or has Z = 1, so that storeAffine() writes
+   * it without an inversion.
+   */
+  public boolean isAffine() {
+    return false;
+  }
+
+  /* Version of storeAffine() writing at offset of a long[], see BatchAffineMSM. */
+  public void storeAffine(final long[] array, final int offset) {
+    throw new UnsupportedOperationException(
+        this.getClass().getSimpleName() + " has no packed affine form");
+  }
+
+  /**
+   * Sets this point, which must be owned by the caller (see mutableCopy()), to the point written at
+   * index of array by storeAffine(), and returns it.
+   */
+  public G1T loadAffine(final OffHeapLongArray array, final long index) {
+    throw new UnsupportedOperationException(
+        this.getClass().getSimpleName() + " has no packed affine form");
+  }
 }
@@ -8,6 +8,8 @@
 package algebra.curves;
 
 import algebra.groups.AbstractGroup;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class AbstractG2<G2T extends AbstractG2<G2T>> extends AbstractGroup<G2T> {
 
@@ -15,5 +17,18 @@ public abstract class AbstractG2<G2T extends AbstractG2<G2T>> extends AbstractGr
 
   public abstract int bitSize();
 
-  public abstract AbstractG2<G2T> toAffineCoordinates();
+  public abstract G2T toAffineCoordinates();
+
+  /**
+   * Returns the points in affine coordinates, in the same order. Implementations batch the
+   * inversions of the Z coordinates (see FieldUtils.batchInverse()), this default converts the
+   * points one at a time.
+   */
+  public List<G2T> batchToAffineCoordinates(final List<G2T> points) {
+    final List<G2T> result = new ArrayList<>(points.size());
+    for (G2T point : points) {
+      result.add(point.toAffineCoordinates());
+    }
+    return result;
+  }
 }
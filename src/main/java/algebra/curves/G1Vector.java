@@ -0,0 +1,117 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.curves;
+
+import common.OffHeapLongArray;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Vector of G1 points stored off-heap, in direct memory or in a memory-mapped file (see
+ * OffHeapLongArray), in the packed affine form of AbstractG1.storeAffine(). This holds the large
+ * vectors of a proving key outside of the Java heap, and VariableBaseMSM.serialMSM() runs over it
+ * by loading the points one at a time into a single point owned by the MSM.
+ */
+public class G1Vector<G1T extends AbstractG1<G1T>> {
+
+  private final G1T groupFactory;
+  private final int stride;
+  private final int size;
+  private final OffHeapLongArray points;
+
+  private G1Vector(final OffHeapLongArray points, final int size, final G1T groupFactory) {
+    this.groupFactory = groupFactory;
+    this.stride = groupFactory.affineLength();
+    this.size = size;
+    this.points = points;
+    assert (points.length() == (long) size * stride);
+  }
+
+  /* Returns a vector of size points at infinity, in direct memory. */
+  public static <G1T extends AbstractG1<G1T>> G1Vector<G1T> allocateDirect(
+      final int size, final G1T groupFactory) {
+    return new G1Vector<>(
+        OffHeapLongArray.allocateDirect((long) size * groupFactory.affineLength()),
+        size,
+        groupFactory);
+  }
+
+  /**
+   * Returns a vector of size points mapped to the given file, see OffHeapLongArray.map(). A new
+   * file holds size points at infinity, and an existing file the points of a previously mapped
+   * vector over the same group.
+   */
+  public static <G1T extends AbstractG1<G1T>> G1Vector<G1T> map(
+      final Path file, final int size, final G1T groupFactory) throws IOException {
+    return map(file, 0, size, groupFactory);
+  }
+
+  /* Version of map() whose points start at the long at offset of the file, e.g. after a header. */
+  public static <G1T extends AbstractG1<G1T>> G1Vector<G1T> map(
+      final Path file, final long offset, final int size, final G1T groupFactory)
+      throws IOException {
+    return new G1Vector<>(
+        OffHeapLongArray.map(file, offset, (long) size * groupFactory.affineLength()),
+        size,
+        groupFactory);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /* Returns the zero element of the group of the points */
+  public G1T zero() {
+    return groupFactory.zero();
+  }
+
+  /* Returns a new point equal to the ith point of the vector. */
+  public G1T get(final int i) {
+    return get(i, groupFactory.zero().mutableCopy());
+  }
+
+  /**
+   * Loads the ith point of the vector into point, which must be owned by the caller (see
+   * AbstractGroup.mutableCopy()), and returns it. This does not allocate.
+   */
+  public G1T get(final int i, final G1T point) {
+    return point.loadAffine(points, (long) i * stride);
+  }
+
+  /**
+   * Copies the packed affine coordinates of the ith point of the vector (see
+   * AbstractG1.storeAffine()) to dst at dstOffset.
+   */
+  public void getAffine(final int i, final long[] dst, final int dstOffset) {
+    points.get((long) i * stride, dst, dstOffset, stride);
+  }
+
+  /* Writes the points of a mapped vector to its file, see OffHeapLongArray.force(). */
+  public void force() {
+    points.force();
+  }
+
+  /* Sets the ith point of the vector to point, which is converted to affine coordinates. */
+  public void set(final int i, final G1T point) {
+    point.storeAffine(points, (long) i * stride);
+  }
+
+  /**
+   * Sets the points [from, from + input.size()) of the vector to input, converting them to affine
+   * coordinates with a batched inversion (see AbstractG1.batchToAffineCoordinates()).
+   */
+  public G1Vector<G1T> setAll(final int from, final List<G1T> input) {
+    assert (from + input.size() <= size);
+    final List<G1T> affine = groupFactory.batchToAffineCoordinates(input);
+    for (int i = 0; i < affine.size(); i++) {
+      set(from + i, affine.get(i));
+    }
+    return this;
+  }
+}
@@ -0,0 +1,92 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.curves;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * Parameters of an endomorphism phi of a group of order r such that phi(P) = lambda * P (see
+ * AbstractGroup.endomorphism()). On G1, whose curve has j-invariant 0, phi(x, y) = (beta * x, y),
+ * where beta and lambda are cube roots of unity in Fq and Fr. On G2, phi is derived from the
+ * untwist-Frobenius-twist endomorphism psi, e.g. in BNG2 and BLSG2, and beta is null.
+ *
+ * <p>A scalar k is decomposed into k = k1 + k2 * lambda mod r, with |k1| and |k2| of about half the
+ * bits of r, with the short basis (a1, b1), (a2, b2) of the lattice of the (x, y) such that x + y *
+ * lambda = 0 mod r. See Gallant, Lambert and Vanstone, "Faster Point Multiplication on Elliptic
+ * Curves with Efficient Endomorphisms", CRYPTO 2001.
+ *
+ * <p>As phi(P) = lambda * P only holds on the subgroup of order r, the decomposition is only used
+ * on its points, and with the scalars below r (see AbstractGroup.mul()).
+ */
+public class GLVParameters implements Serializable {
+  /* The cube root of unity of Fq of G1, or null, and the eigenvalue of phi in Fr */
+  public final BigInteger beta;
+  public final BigInteger lambda;
+  /* The order r of the group */
+  public final BigInteger order;
+  /* Upper bound on the bit length of the decomposed scalars, see decompose() */
+  public final int numBits;
+
+  private final BigInteger a1;
+  private final BigInteger b1;
+  private final BigInteger a2;
+  private final BigInteger b2;
+  /* g1 = round(b2 * 2^shift / r) and g2 = round(-b1 * 2^shift / r), see decompose() */
+  private final int shift;
+  private final BigInteger g1;
+  private final BigInteger g2;
+
+  public GLVParameters(
+      final BigInteger beta,
+      final BigInteger lambda,
+      final BigInteger order,
+      final BigInteger a1,
+      final BigInteger b1,
+      final BigInteger a2,
+      final BigInteger b2) {
+    assert (a1.add(b1.multiply(lambda)).mod(order).signum() == 0);
+    assert (a2.add(b2.multiply(lambda)).mod(order).signum() == 0);
+    assert (a1.multiply(b2).subtract(a2.multiply(b1)).equals(order));
+
+    this.beta = beta;
+    this.lambda = lambda;
+    this.order = order;
+    this.a1 = a1;
+    this.b1 = b1;
+    this.a2 = a2;
+    this.b2 = b2;
+    this.numBits = a1.abs().add(a2.abs()).max(b1.abs().add(b2.abs())).bitLength();
+    this.shift = 2 * order.bitLength();
+    this.g1 = roundedDivide(b2.shiftLeft(shift), order);
+    this.g2 = roundedDivide(b1.negate().shiftLeft(shift), order);
+  }
+
+  /**
+   * Returns {k1, k2}, with k = k1 + k2 * lambda mod r and |k1|, |k2| of at most numBits bits: with
+   * c1 ~ b2 * k / r and c2 ~ -b1 * k / r, (k1, k2) = (k, 0) - c1 * (a1, b1) - c2 * (a2, b2). The
+   * quotients are approximated within 1 with the precomputed g1 and g2, without division, so that
+   * |k1| < |a1| + |a2| and |k2| < |b1| + |b2|. The decomposed scalars may be negative.
+   */
+  public BigInteger[] decompose(final BigInteger scalar) {
+    final BigInteger k =
+        scalar.signum() >= 0 && scalar.compareTo(order) < 0 ? scalar : scalar.mod(order);
+    final BigInteger c1 = k.multiply(g1).shiftRight(shift);
+    final BigInteger c2 = k.multiply(g2).shiftRight(shift);
+
+    final BigInteger k1 = k.subtract(c1.multiply(a1)).subtract(c2.multiply(a2));
+    final BigInteger k2 = c1.multiply(b1).add(c2.multiply(b2)).negate();
+    return new BigInteger[] {k1, k2};
+  }
+
+  /* Returns the integer closest to n / d, for d > 0 */
+  private static BigInteger roundedDivide(final BigInteger n, final BigInteger d) {
+    final BigInteger[] qr = n.shiftLeft(1).add(d).divideAndRemainder(d.shiftLeft(1));
+    return qr[1].signum() < 0 ? qr[0].subtract(BigInteger.ONE) : qr[0];
+  }
+}
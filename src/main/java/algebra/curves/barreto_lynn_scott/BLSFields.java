@@ -10,6 +10,13 @@ public interface BLSFields {
 
     public abstract Fp element();
 
+    /* Returns the Montgomery form element backing the arithmetic of this element */
+    public abstract MontgomeryFp montgomeryElement();
+
+    public MontgomeryParameters montgomeryParameters() {
+      return this.montgomeryElement().montgomeryParameters();
+    }
+
     public abstract BLSFrT zero();
 
     public abstract BLSFrT one();
@@ -18,22 +25,24 @@ public interface BLSFields {
 
     public abstract BLSFrT construct(final Fp element);
 
+    public abstract BLSFrT construct(final MontgomeryFp element);
+
     public abstract String toString();
 
     public BLSFrT add(final BLSFrT other) {
-      return this.construct(this.element().add(other.element()));
+      return this.construct(this.montgomeryElement().add(other.montgomeryElement()));
     }
 
     public BLSFrT sub(final BLSFrT other) {
-      return this.construct(this.element().sub(other.element()));
+      return this.construct(this.montgomeryElement().sub(other.montgomeryElement()));
     }
 
     public BLSFrT mul(final BLSFrT other) {
-      return this.construct(this.element().mul(other.element()));
+      return this.construct(this.montgomeryElement().mul(other.montgomeryElement()));
     }
 
     public boolean isZero() {
-      return this.equals(this.zero());
+      return this.montgomeryElement().isZero();
     }
 
     public boolean isSpecial() {
@@ -41,35 +50,74 @@ public interface BLSFields {
     }
 
     public boolean isOne() {
-      return this.equals(this.one());
+      return this.montgomeryElement().isOne();
     }
 
     public BLSFrT random(final Long seed, final byte[] secureSeed) {
-      return this.construct(this.element().random(seed, secureSeed));
+      return this.construct(this.montgomeryElement().random(seed, secureSeed));
     }
 
     public BLSFrT negate() {
-      return this.construct(this.element().negate());
+      return this.construct(this.montgomeryElement().negate());
     }
 
     public BLSFrT inverse() {
-      return this.construct(this.element().inverse());
+      return this.construct(this.montgomeryElement().inverse());
     }
 
     public BLSFrT square() {
-      return this.construct(this.element().square());
+      return this.construct(this.montgomeryElement().square());
+    }
+
+    /* The assign methods below update the backing MontgomeryFp, and thus this element, in place */
+    public BLSFrT mutableCopy() {
+      return this.construct(this.montgomeryElement().mutableCopy());
+    }
+
+    public BLSFrT set(final BLSFrT other) {
+      this.montgomeryElement().set(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFrT addAssign(final BLSFrT other) {
+      this.montgomeryElement().addAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFrT subAssign(final BLSFrT other) {
+      this.montgomeryElement().subAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFrT mulAssign(final BLSFrT other) {
+      this.montgomeryElement().mulAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFrT squareAssign() {
+      this.montgomeryElement().squareAssign();
+      return this.self();
+    }
+
+    public BLSFrT negateAssign() {
+      this.montgomeryElement().negateAssign();
+      return this.self();
     }
 
     public BLSFrT rootOfUnity(final long size) {
-      return this.construct(this.element().rootOfUnity(size));
+      return this.construct(this.montgomeryElement().rootOfUnity(size));
+    }
+
+    public boolean hasRootOfUnity(final long order) {
+      return this.montgomeryElement().hasRootOfUnity(order);
     }
 
     public int bitSize() {
-      return this.element().bitSize();
+      return this.montgomeryElement().bitSize();
     }
 
     public BigInteger toBigInteger() {
-      return this.element().toBigInteger();
+      return this.montgomeryElement().toBigInteger();
     }
 
     public boolean equals(final BLSFrT other) {
@@ -77,7 +125,7 @@ public interface BLSFields {
         return false;
       }
 
-      return this.element().equals(other.element());
+      return this.montgomeryElement().equals(other.montgomeryElement());
     }
   }
 
@@ -86,6 +134,13 @@ public interface BLSFields {
       extends AbstractFieldElementExpanded<BLSFqT> {
     public abstract Fp element();
 
+    /* Returns the Montgomery form element backing the arithmetic of this element */
+    public abstract MontgomeryFp montgomeryElement();
+
+    public MontgomeryParameters montgomeryParameters() {
+      return this.montgomeryElement().montgomeryParameters();
+    }
+
     public abstract BLSFqT zero();
 
     public abstract BLSFqT one();
@@ -96,18 +151,20 @@ public interface BLSFields {
 
     public abstract BLSFqT construct(final Fp element);
 
+    public abstract BLSFqT construct(final MontgomeryFp element);
+
     public abstract String toString();
 
     public BLSFqT add(final BLSFqT other) {
-      return this.construct(this.element().add(other.element()));
+      return this.construct(this.montgomeryElement().add(other.montgomeryElement()));
     }
 
     public BLSFqT sub(final BLSFqT other) {
-      return this.construct(this.element().sub(other.element()));
+      return this.construct(this.montgomeryElement().sub(other.montgomeryElement()));
     }
 
     public BLSFqT mul(final BLSFqT other) {
-      return this.construct(this.element().mul(other.element()));
+      return this.construct(this.montgomeryElement().mul(other.montgomeryElement()));
     }
 
     public BLSFqT mul(final Fp other) {
@@ -115,7 +172,7 @@ public interface BLSFields {
     }
 
     public boolean isZero() {
-      return this.equals(this.zero());
+      return this.montgomeryElement().isZero();
     }
 
     public boolean isSpecial() {
@@ -123,35 +180,74 @@ public interface BLSFields {
     }
 
     public boolean isOne() {
-      return this.equals(this.one());
+      return this.montgomeryElement().isOne();
     }
 
     public BLSFqT random(final Long seed, final byte[] secureSeed) {
-      return this.construct(this.element().random(seed, secureSeed));
+      return this.construct(this.montgomeryElement().random(seed, secureSeed));
     }
 
     public BLSFqT negate() {
-      return this.construct(this.element().negate());
+      return this.construct(this.montgomeryElement().negate());
     }
 
     public BLSFqT inverse() {
-      return this.construct(this.element().inverse());
+      return this.construct(this.montgomeryElement().inverse());
     }
 
     public BLSFqT square() {
-      return this.construct(this.element().square());
+      return this.construct(this.montgomeryElement().square());
+    }
+
+    /* The assign methods below update the backing MontgomeryFp, and thus this element, in place */
+    public BLSFqT mutableCopy() {
+      return this.construct(this.montgomeryElement().mutableCopy());
+    }
+
+    public BLSFqT set(final BLSFqT other) {
+      this.montgomeryElement().set(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFqT addAssign(final BLSFqT other) {
+      this.montgomeryElement().addAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFqT subAssign(final BLSFqT other) {
+      this.montgomeryElement().subAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFqT mulAssign(final BLSFqT other) {
+      this.montgomeryElement().mulAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BLSFqT squareAssign() {
+      this.montgomeryElement().squareAssign();
+      return this.self();
+    }
+
+    public BLSFqT negateAssign() {
+      this.montgomeryElement().negateAssign();
+      return this.self();
     }
 
     public BLSFqT rootOfUnity(final long size) {
-      return this.construct(this.element().rootOfUnity(size));
+      return this.construct(this.montgomeryElement().rootOfUnity(size));
+    }
+
+    public boolean hasRootOfUnity(final long order) {
+      return this.montgomeryElement().hasRootOfUnity(order);
     }
 
     public int bitSize() {
-      return this.element().bitSize();
+      return this.montgomeryElement().bitSize();
     }
 
     public BigInteger toBigInteger() {
-      return this.element().toBigInteger();
+      return this.montgomeryElement().toBigInteger();
     }
 
     public boolean equals(final BLSFqT other) {
@@ -159,7 +255,7 @@ public interface BLSFields {
         return false;
       }
 
-      return this.element().equals(other.element());
+      return this.montgomeryElement().equals(other.montgomeryElement());
     }
   }
 
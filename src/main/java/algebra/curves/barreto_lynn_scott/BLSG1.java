@@ -1,10 +1,17 @@
 package algebra.curves.barreto_lynn_scott;
 
 import algebra.curves.AbstractG1;
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_lynn_scott.BLSFields.BLSFq;
 import algebra.curves.barreto_lynn_scott.BLSFields.BLSFr;
 import algebra.curves.barreto_lynn_scott.abstract_bls_parameters.AbstractBLSG1Parameters;
+import algebra.fields.FieldUtils;
+import algebra.fields.MontgomeryFp;
+import algebra.fields.MontgomeryParameters;
+import common.OffHeapLongArray;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public abstract class BLSG1<
         BLSFrT extends BLSFr<BLSFrT>,
@@ -16,6 +23,8 @@ public abstract class BLSG1<
   protected final BLSFqT X;
   protected final BLSFqT Y;
   public final BLSFqT Z;
+  /* Temporaries of addAssign() and dblAssign(), allocated on first use */
+  private transient ArrayList<BLSFqT> scratch;
 
   public BLSG1(
       final BLSFqT X, final BLSFqT Y, final BLSFqT Z, final BLSG1ParametersT G1Parameters) {
@@ -51,6 +60,15 @@ public abstract class BLSG1<
       return this.self();
     }
 
+    // Use the mixed addition when one of the points is in affine coordinates
+    if (other.Z.isOne()) {
+      return this.mixedAdd(other);
+    }
+
+    if (this.Z.isOne()) {
+      return other.mixedAdd(this.self());
+    }
+
     // No need to handle points of order 2,4
     // (they cannot exist in a prime-order subgroup)
 
@@ -106,6 +124,56 @@ public abstract class BLSG1<
     return this.construct(X3, Y3, Z3);
   }
 
+  /**
+   * Returns this + other, for a point other in affine coordinates (Z = 1, see
+   * toAffineCoordinates()), with the mixed addition formulas: 7M + 4S instead of the 11M + 5S of
+   * add(), which calls mixedAdd() when one of its operands is in affine coordinates.
+   */
+  public BLSG1T mixedAdd(final BLSG1T other) {
+    assert (other.Z.isOne());
+
+    if (isZero()) {
+      return other;
+    }
+
+    // http://www.hyperelliptic.org/EFD/g1p/auto-shortw-jacobian-0.html#addition-madd-2007-bl
+
+    // Z1Z1 = Z1^2
+    final BLSFqT Z1Z1 = this.Z.square();
+    // U2 = X2 * Z1Z1
+    final BLSFqT U2 = other.X.mul(Z1Z1);
+    // S2 = Y2 * Z1 * Z1Z1
+    final BLSFqT S2 = other.Y.mul(this.Z).mul(Z1Z1);
+
+    if (this.X.equals(U2) && this.Y.equals(S2)) {
+      return dbl();
+    }
+
+    // H = U2 - X1
+    final BLSFqT H = U2.sub(this.X);
+    // HH = H^2
+    final BLSFqT HH = H.square();
+    // I = 4 * HH
+    BLSFqT I = HH.add(HH);
+    I = I.add(I);
+    // J = H * I
+    final BLSFqT J = H.mul(I);
+    // r = 2 * (S2 - Y1)
+    final BLSFqT S2MinusY1 = S2.sub(this.Y);
+    final BLSFqT r = S2MinusY1.add(S2MinusY1);
+    // V = X1 * I
+    final BLSFqT V = this.X.mul(I);
+    // X3 = r^2 - J - 2 * V
+    final BLSFqT X3 = r.square().sub(J).sub(V.add(V));
+    // Y3 = r * (V - X3) - 2 * Y1 * J
+    final BLSFqT Y1_J = this.Y.mul(J);
+    final BLSFqT Y3 = r.mul(V.sub(X3)).sub(Y1_J.add(Y1_J));
+    // Z3 = (Z1 + H)^2 - Z1Z1 - HH
+    final BLSFqT Z3 = this.Z.add(H).square().sub(Z1Z1).sub(HH);
+
+    return this.construct(X3, Y3, Z3);
+  }
+
   public BLSG1T sub(final BLSG1T other) {
     return this.add(other.negate());
   }
@@ -140,6 +208,15 @@ public abstract class BLSG1<
     return this.construct(this.X, this.Y.negate(), this.Z);
   }
 
+  public GLVParameters glvParameters() {
+    return this.G1Parameters.glvParameters();
+  }
+
+  /* In Jacobian coordinates, phi(X : Y : Z) = (beta * X : Y : Z) */
+  public BLSG1T endomorphism() {
+    return this.construct(this.X.mul(this.G1Parameters.glvBeta()), this.Y, this.Z);
+  }
+
   public BLSG1T dbl() {
     // Handle point at infinity
     if (this.isZero()) {
@@ -179,17 +256,251 @@ public abstract class BLSG1<
     return this.construct(X3, Y3, Z3);
   }
 
+  public BLSG1T mutableCopy() {
+    return this.construct(this.X.mutableCopy(), this.Y.mutableCopy(), this.Z.mutableCopy());
+  }
+
+  public BLSG1T set(final BLSG1T other) {
+    this.X.set(other.X);
+    this.Y.set(other.Y);
+    this.Z.set(other.Z);
+    return this.self();
+  }
+
+  /**
+   * In-place version of add(), which updates the coordinates of this point with the assign methods
+   * of BLSFq and does not allocate once the temporaries exist. The formulas and special cases are
+   * the same as in add().
+   */
+  public BLSG1T addAssign(final BLSG1T other) {
+    return addAssign(other, false);
+  }
+
+  /* In-place version of sub(), see addAssign() */
+  public BLSG1T subAssign(final BLSG1T other) {
+    return addAssign(other, true);
+  }
+
+  /* Sets this = this + other, or this = this - other when negate is set */
+  private BLSG1T addAssign(final BLSG1T other, final boolean negate) {
+    assert (other != null);
+
+    if (other.isZero()) {
+      return this.self();
+    }
+
+    if (isZero()) {
+      set(other);
+      if (negate) {
+        this.Y.negateAssign();
+      }
+      return this.self();
+    }
+
+    if (other.Z.isOne()) {
+      return mixedAddAssign(other, negate);
+    }
+
+    final ArrayList<BLSFqT> t = scratch();
+    final BLSFqT Z1Z1 = t.get(0).set(this.Z).squareAssign();
+    final BLSFqT Z2Z2 = t.get(1).set(other.Z).squareAssign();
+    final BLSFqT U1 = t.get(2).set(this.X).mulAssign(Z2Z2);
+    final BLSFqT U2 = t.get(3).set(other.X).mulAssign(Z1Z1);
+    // S1 = Y1 * Z2 * Z2Z2
+    final BLSFqT S1 = t.get(4).set(this.Y).mulAssign(other.Z).mulAssign(Z2Z2);
+    // S2 = Y2 * Z1 * Z1Z1
+    final BLSFqT S2 = t.get(5).set(other.Y).mulAssign(this.Z).mulAssign(Z1Z1);
+    if (negate) {
+      S2.negateAssign();
+    }
+
+    if (U1.equals(U2) && S1.equals(S2)) {
+      return dblAssign();
+    }
+
+    // H = U2-U1
+    final BLSFqT H = U2.subAssign(U1);
+    // I = (2 * H)^2
+    final BLSFqT I = t.get(6).set(H).addAssign(H).squareAssign();
+    // J = H * I
+    final BLSFqT J = t.get(7).set(H).mulAssign(I);
+    // r = 2 * (S2-S1)
+    final BLSFqT r = S2.subAssign(S1);
+    r.addAssign(r);
+    // V = U1 * I
+    final BLSFqT V = U1.mulAssign(I);
+    // Z3 = ((Z1+Z2)^2-Z1Z1-Z2Z2) * H
+    this.Z.addAssign(other.Z).squareAssign().subAssign(Z1Z1).subAssign(Z2Z2).mulAssign(H);
+    // X3 = r^2 - J - 2 * V
+    this.X.set(r).squareAssign().subAssign(J).subAssign(V).subAssign(V);
+    // Y3 = r * (V-X3)-2 * S1 * J
+    final BLSFqT S1_J = S1.mulAssign(J);
+    this.Y.set(V.subAssign(this.X).mulAssign(r)).subAssign(S1_J).subAssign(S1_J);
+
+    return this.self();
+  }
+
+  /* In-place version of mixedAdd(), see addAssign(other, negate) */
+  private BLSG1T mixedAddAssign(final BLSG1T other, final boolean negate) {
+    final ArrayList<BLSFqT> t = scratch();
+    // Z1Z1 = Z1^2
+    final BLSFqT Z1Z1 = t.get(0).set(this.Z).squareAssign();
+    // U2 = X2 * Z1Z1
+    final BLSFqT U2 = t.get(1).set(other.X).mulAssign(Z1Z1);
+    // S2 = Y2 * Z1 * Z1Z1
+    final BLSFqT S2 = t.get(2).set(other.Y).mulAssign(this.Z).mulAssign(Z1Z1);
+    if (negate) {
+      S2.negateAssign();
+    }
+
+    if (this.X.equals(U2) && this.Y.equals(S2)) {
+      return dblAssign();
+    }
+
+    // H = U2 - X1
+    final BLSFqT H = U2.subAssign(this.X);
+    // HH = H^2
+    final BLSFqT HH = t.get(3).set(H).squareAssign();
+    // I = 4 * HH
+    final BLSFqT I = t.get(4).set(HH).addAssign(HH);
+    I.addAssign(I);
+    // J = H * I
+    final BLSFqT J = t.get(5).set(H).mulAssign(I);
+    // r = 2 * (S2 - Y1)
+    final BLSFqT r = S2.subAssign(this.Y);
+    r.addAssign(r);
+    // V = X1 * I
+    final BLSFqT V = I.mulAssign(this.X);
+    final BLSFqT Y1_J = t.get(6).set(this.Y).mulAssign(J);
+    // Z3 = (Z1 + H)^2 - Z1Z1 - HH
+    this.Z.addAssign(H).squareAssign().subAssign(Z1Z1).subAssign(HH);
+    // X3 = r^2 - J - 2 * V
+    this.X.set(r).squareAssign().subAssign(J).subAssign(V).subAssign(V);
+    // Y3 = r * (V - X3) - 2 * Y1 * J
+    this.Y.set(V.subAssign(this.X).mulAssign(r)).subAssign(Y1_J).subAssign(Y1_J);
+
+    return this.self();
+  }
+
+  /* In-place version of dbl(), see addAssign() */
+  public BLSG1T dblAssign() {
+    if (isZero()) {
+      return this.self();
+    }
+
+    final ArrayList<BLSFqT> t = scratch();
+    // A = X1^2
+    final BLSFqT A = t.get(0).set(this.X).squareAssign();
+    // B = Y1^2
+    final BLSFqT B = t.get(1).set(this.Y).squareAssign();
+    // C = B^2
+    final BLSFqT C = t.get(2).set(B).squareAssign();
+    // D = 2 * ((X1 + B)^2 - A - C)
+    final BLSFqT D = t.get(3).set(this.X).addAssign(B).squareAssign().subAssign(A).subAssign(C);
+    D.addAssign(D);
+    // E = 3 * A
+    final BLSFqT E = t.get(4).set(A).addAssign(A).addAssign(A);
+    // Z3 = 2 * Y1 * Z1
+    this.Z.mulAssign(this.Y);
+    this.Z.addAssign(this.Z);
+    // X3 = E^2 - 2 D
+    this.X.set(E).squareAssign().subAssign(D).subAssign(D);
+    // Y3 = E * (D - X3) - 8 * C
+    C.addAssign(C);
+    C.addAssign(C);
+    C.addAssign(C);
+    this.Y.set(D.subAssign(this.X).mulAssign(E)).subAssign(C);
+
+    return this.self();
+  }
+
+  private ArrayList<BLSFqT> scratch() {
+    if (scratch == null) {
+      scratch = new ArrayList<>(8);
+      for (int i = 0; i < 8; i++) {
+        scratch.add(this.X.mutableCopy());
+      }
+    }
+    return scratch;
+  }
+
   public BLSG1T toAffineCoordinates() {
-    if (this.isZero()) {
+    if (isZero()) {
       return this.construct(this.X.zero(), this.Y.one(), this.Z.zero());
+    } else if (this.Z.isOne()) {
+      // A copy, which does not alias this when it is an accumulator (see mutableCopy())
+      return this.mutableCopy();
     } else {
-      BLSFqT ZInverse = this.Z.inverse();
-      BLSFqT Z2Inverse = ZInverse.square();
-      BLSFqT Z3Inverse = Z2Inverse.mul(ZInverse);
+      final BLSFqT ZInverse = this.Z.inverse();
+      final BLSFqT Z2Inverse = ZInverse.square();
+      final BLSFqT Z3Inverse = Z2Inverse.mul(ZInverse);
       return this.construct(this.X.mul(Z2Inverse), this.Y.mul(Z3Inverse), this.Z.one());
     }
   }
 
+  public List<BLSG1T> batchToAffineCoordinates(final List<BLSG1T> points) {
+    final List<BLSFqT> Zs = new ArrayList<>(points.size());
+    for (BLSG1T point : points) {
+      Zs.add(point.Z);
+    }
+    final List<BLSFqT> ZInverses = FieldUtils.batchInverse(Zs);
+
+    final List<BLSG1T> result = new ArrayList<>(points.size());
+    for (int i = 0; i < points.size(); i++) {
+      final BLSG1T point = points.get(i);
+      if (point.isZero() || point.Z.isOne()) {
+        result.add(point.toAffineCoordinates());
+      } else {
+        final BLSFqT ZInverse = ZInverses.get(i);
+        final BLSFqT Z2Inverse = ZInverse.square();
+        final BLSFqT Z3Inverse = Z2Inverse.mul(ZInverse);
+        result.add(this.construct(point.X.mul(Z2Inverse), point.Y.mul(Z3Inverse), point.Z.one()));
+      }
+    }
+    return result;
+  }
+
+  public MontgomeryParameters affineParameters() {
+    return this.X.montgomeryElement().FpParameters.montgomeryParameters();
+  }
+
+  public int affineLength() {
+    return 2 * affineParameters().numLimbs;
+  }
+
+  public void storeAffine(final OffHeapLongArray array, final long index) {
+    final BLSG1T affine = this.toAffineCoordinates();
+    if (affine.isZero()) {
+      for (int i = 0; i < affineLength(); i++) {
+        array.put(index + i, 0L);
+      }
+      return;
+    }
+    affine.X.montgomeryElement().store(array, index);
+    affine.Y.montgomeryElement().store(array, index + affineLength() / 2);
+  }
+
+  public boolean isAffine() {
+    return this.isZero() || this.Z.isOne();
+  }
+
+  public void storeAffine(final long[] array, final int offset) {
+    final BLSG1T affine = this.isAffine() ? this.self() : this.toAffineCoordinates();
+    if (affine.isZero()) {
+      Arrays.fill(array, offset, offset + affineLength(), 0L);
+      return;
+    }
+    affine.X.montgomeryElement().store(array, offset);
+    affine.Y.montgomeryElement().store(array, offset + affineLength() / 2);
+  }
+
+  public BLSG1T loadAffine(final OffHeapLongArray array, final long index) {
+    final MontgomeryFp x = this.X.montgomeryElement().load(array, index);
+    final MontgomeryFp y = this.Y.montgomeryElement().load(array, index + affineLength() / 2);
+    this.Z.set(x.isZero() && y.isZero() ? this.Z.zero() : this.Z.one());
+    return this.self();
+  }
+
   public int bitSize() {
     return Math.max(this.X.bitSize(), Math.max(this.Y.bitSize(), this.Z.bitSize()));
   }
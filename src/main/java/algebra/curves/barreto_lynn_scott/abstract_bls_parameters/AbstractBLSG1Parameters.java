@@ -1,5 +1,6 @@
 package algebra.curves.barreto_lynn_scott.abstract_bls_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_lynn_scott.BLSFields.BLSFq;
 import algebra.curves.barreto_lynn_scott.BLSFields.BLSFr;
 import algebra.curves.barreto_lynn_scott.BLSG1;
@@ -21,4 +22,9 @@ public abstract class AbstractBLSG1Parameters<
   public abstract BLSFrT oneFr();
 
   public abstract ArrayList<Integer> fixedBaseWindowTable();
+
+  /* The cube root of unity beta of the endomorphism phi(x, y) = (beta * x, y), see BLSG1 */
+  public abstract BLSFqT glvBeta();
+
+  public abstract GLVParameters glvParameters();
 }
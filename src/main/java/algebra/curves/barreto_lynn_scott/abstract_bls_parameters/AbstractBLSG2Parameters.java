@@ -1,5 +1,6 @@
 package algebra.curves.barreto_lynn_scott.abstract_bls_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_lynn_scott.BLSFields.BLSFq;
 import algebra.curves.barreto_lynn_scott.BLSFields.BLSFq2;
 import algebra.curves.barreto_lynn_scott.BLSFields.BLSFr;
@@ -24,4 +25,11 @@ public abstract class AbstractBLSG2Parameters<
   public abstract BLSFrT oneFr();
 
   public abstract ArrayList<Integer> fixedBaseWindowTable();
+
+  /* The coefficients of psi^2(x, y) = (cX * x, cY * y), see BLSG2.endomorphism() */
+  public abstract BLSFq2T psi2CoefficientX();
+
+  public abstract BLSFq2T psi2CoefficientY();
+
+  public abstract GLVParameters glvParameters();
 }
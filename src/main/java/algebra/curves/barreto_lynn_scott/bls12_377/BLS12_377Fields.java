@@ -6,6 +6,7 @@ import algebra.fields.Fp;
 import algebra.fields.Fp12_2Over3Over2;
 import algebra.fields.Fp2;
 import algebra.fields.Fp6_3Over2;
+import algebra.fields.MontgomeryFp;
 import java.math.BigInteger;
 
 public class BLS12_377Fields {
@@ -16,10 +17,14 @@ public class BLS12_377Fields {
     public static final BLS12_377Fr ONE = new BLS12_377Fr(FrParameters.ONE());
     public static final BLS12_377Fr MULTIPLICATIVE_GENERATOR =
         new BLS12_377Fr(FrParameters.multiplicativeGenerator());
-    public Fp element;
+    public MontgomeryFp montgomeryElement;
 
     public BLS12_377Fr(final BigInteger number) {
-      this.element = new Fp(number, FrParameters);
+      this.montgomeryElement = new MontgomeryFp(number, FrParameters);
+    }
+
+    public BLS12_377Fr(final MontgomeryFp element) {
+      this.montgomeryElement = element;
     }
 
     public BLS12_377Fr(final Fp number) {
@@ -39,7 +44,11 @@ public class BLS12_377Fields {
     }
 
     public Fp element() {
-      return element;
+      return montgomeryElement.toFp();
+    }
+
+    public MontgomeryFp montgomeryElement() {
+      return montgomeryElement;
     }
 
     public BLS12_377Fr zero() {
@@ -66,8 +75,12 @@ public class BLS12_377Fields {
       return new BLS12_377Fr(element);
     }
 
+    public BLS12_377Fr construct(final MontgomeryFp element) {
+      return new BLS12_377Fr(element);
+    }
+
     public String toString() {
-      return this.element.toString();
+      return this.montgomeryElement.toString();
     }
   }
 
@@ -79,14 +92,18 @@ public class BLS12_377Fields {
     public static final BLS12_377Fq MULTIPLICATIVE_GENERATOR =
         new BLS12_377Fq(FqParameters.multiplicativeGenerator());
 
-    public Fp element;
+    public MontgomeryFp montgomeryElement;
 
     public BLS12_377Fq(final Fp element) {
-      this.element = element;
+      this(element.toBigInteger());
     }
 
     public BLS12_377Fq(final BigInteger number) {
-      this.element = new Fp(number, FqParameters);
+      this.montgomeryElement = new MontgomeryFp(number, FqParameters);
+    }
+
+    public BLS12_377Fq(final MontgomeryFp element) {
+      this.montgomeryElement = element;
     }
 
     public BLS12_377Fq(final String number) {
@@ -102,7 +119,11 @@ public class BLS12_377Fields {
     }
 
     public Fp element() {
-      return element;
+      return montgomeryElement.toFp();
+    }
+
+    public MontgomeryFp montgomeryElement() {
+      return montgomeryElement;
     }
 
     public BLS12_377Fq zero() {
@@ -125,6 +146,10 @@ public class BLS12_377Fields {
       return new BLS12_377Fq(element);
     }
 
+    public BLS12_377Fq construct(final MontgomeryFp element) {
+      return new BLS12_377Fq(element);
+    }
+
     public BLS12_377Fq construct(final String element) {
       return new BLS12_377Fq(element);
     }
@@ -134,7 +159,7 @@ public class BLS12_377Fields {
     }
 
     public String toString() {
-      return this.element.toString();
+      return this.montgomeryElement.toString();
     }
   }
 
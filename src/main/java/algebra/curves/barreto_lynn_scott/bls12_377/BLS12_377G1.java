@@ -11,7 +11,17 @@ public class BLS12_377G1
   public static final BLS12_377G1Parameters G1Parameters = new BLS12_377G1Parameters();
 
   public BLS12_377G1(final BLS12_377Fq X, final BLS12_377Fq Y, final BLS12_377Fq Z) {
-    super(X, Y, Z, G1Parameters);
+    this(X, Y, Z, G1Parameters);
+  }
+
+  /* Constructor of the constants of BLS12_377G1Parameters, which are built before G1Parameters is
+   * set when BLS12_377G1 is initialized first, e.g. by an executor that deserializes a point */
+  public BLS12_377G1(
+      final BLS12_377Fq X,
+      final BLS12_377Fq Y,
+      final BLS12_377Fq Z,
+      final BLS12_377G1Parameters parameters) {
+    super(X, Y, Z, parameters);
   }
 
   public BLS12_377G1 self() {
@@ -12,7 +12,17 @@ public class BLS12_377G2
   private static final BLS12_377G2Parameters G2Parameters = new BLS12_377G2Parameters();
 
   public BLS12_377G2(final BLS12_377Fq2 X, final BLS12_377Fq2 Y, final BLS12_377Fq2 Z) {
-    super(X, Y, Z, G2Parameters);
+    this(X, Y, Z, G2Parameters);
+  }
+
+  /* Constructor of the constants of BLS12_377G2Parameters, which are built before G2Parameters is
+   * set when BLS12_377G2 is initialized first, e.g. by an executor that deserializes a point */
+  public BLS12_377G2(
+      final BLS12_377Fq2 X,
+      final BLS12_377Fq2 Y,
+      final BLS12_377Fq2 Z,
+      final BLS12_377G2Parameters parameters) {
+    super(X, Y, Z, parameters);
   }
 
   public BLS12_377G2 self() {
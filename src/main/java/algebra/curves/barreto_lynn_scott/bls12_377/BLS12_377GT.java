@@ -19,7 +19,13 @@ public class BLS12_377GT
   private static final BLS12_377GTParameters GTParameters = new BLS12_377GTParameters();
 
   public BLS12_377GT(final BLS12_377Fq12 value) {
-    super(value, GTParameters);
+    this(value, GTParameters);
+  }
+
+  /* Constructor of the constants of BLS12_377GTParameters, which are built before GTParameters is
+   * set when BLS12_377GT is initialized first, e.g. by an executor that deserializes a point */
+  public BLS12_377GT(final BLS12_377Fq12 value, final BLS12_377GTParameters parameters) {
+    super(value, parameters);
   }
 
   public BLS12_377GT construct(final BLS12_377Fq12 element) {
@@ -1,10 +1,12 @@
 package algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_lynn_scott.abstract_bls_parameters.AbstractBLSG1Parameters;
 import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fq;
 import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fr;
 import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377G1;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -12,15 +14,32 @@ public class BLS12_377G1Parameters
     extends AbstractBLSG1Parameters<BLS12_377Fr, BLS12_377Fq, BLS12_377G1, BLS12_377G1Parameters>
     implements Serializable {
 
+  private static final BLS12_377G1Parameters PARAMETERS = new BLS12_377G1Parameters();
+
   public static final BLS12_377G1 ZERO =
-      new BLS12_377G1(BLS12_377Fq.ZERO, BLS12_377Fq.ONE, BLS12_377Fq.ZERO);
+      new BLS12_377G1(BLS12_377Fq.ZERO, BLS12_377Fq.ONE, BLS12_377Fq.ZERO, PARAMETERS);
   public static final BLS12_377G1 ONE =
       new BLS12_377G1(
           new BLS12_377Fq(
               "81937999373150964239938255573465948239988671502647976594219695644855304257327692006745978603320413799295628339695"),
           new BLS12_377Fq(
               "241266749859715473739788878240585681733927191168601896383759122102112907357779751001206799952863815012735208165030"),
-          BLS12_377Fq.ONE);
+          BLS12_377Fq.ONE,
+          PARAMETERS);
+  /* The GLV endomorphism (x, y) -> (beta * x, y) = lambda * (x, y), see GLVParameters */
+  public static final BLS12_377Fq GLV_BETA =
+      new BLS12_377Fq(
+          "258664426012969093929703085429980814127835149614277183275038967946009968870203535512256352201271898244626862047231");
+  public static final GLVParameters GLV =
+      new GLVParameters(
+          GLV_BETA.toBigInteger(),
+          new BigInteger(
+              "8444461749428370424248824938781546531284005582649182570233710176290576793600"),
+          BLS12_377Fr.FrParameters.modulus(),
+          new BigInteger("1"),
+          new BigInteger("-91893752504881257701523279626832445440"),
+          new BigInteger("91893752504881257701523279626832445441"),
+          new BigInteger("1"));
   public static final ArrayList<Integer> fixedBaseWindowTable =
       new ArrayList<>(
           Arrays.asList(
@@ -67,4 +86,12 @@ public class BLS12_377G1Parameters
   public ArrayList<Integer> fixedBaseWindowTable() {
     return fixedBaseWindowTable;
   }
+
+  public BLS12_377Fq glvBeta() {
+    return GLV_BETA;
+  }
+
+  public GLVParameters glvParameters() {
+    return GLV;
+  }
 }
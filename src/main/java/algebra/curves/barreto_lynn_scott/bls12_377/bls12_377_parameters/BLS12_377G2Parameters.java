@@ -1,11 +1,13 @@
 package algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_lynn_scott.abstract_bls_parameters.AbstractBLSG2Parameters;
 import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fq;
 import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fq2;
 import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fr;
 import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377G2;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -14,8 +16,10 @@ public class BLS12_377G2Parameters
         BLS12_377Fr, BLS12_377Fq, BLS12_377Fq2, BLS12_377G2, BLS12_377G2Parameters>
     implements Serializable {
 
+  private static final BLS12_377G2Parameters PARAMETERS = new BLS12_377G2Parameters();
+
   public static final BLS12_377G2 ZERO =
-      new BLS12_377G2(BLS12_377Fq2.ZERO, BLS12_377Fq2.ONE, BLS12_377Fq2.ZERO);
+      new BLS12_377G2(BLS12_377Fq2.ZERO, BLS12_377Fq2.ONE, BLS12_377Fq2.ZERO, PARAMETERS);
   public static final BLS12_377G2 ONE =
       new BLS12_377G2(
           new BLS12_377Fq2(
@@ -28,7 +32,28 @@ public class BLS12_377G2Parameters
                   "168863299724668977183029941347596462608978380503965103341003918678547611204475537878680436662916294540335494194722"),
               new BLS12_377Fq(
                   "233892497287475762251335351893618429603672921469864392767514552093535653615809913098097380147379993375817193725968")),
-          BLS12_377Fq2.ONE);
+          BLS12_377Fq2.ONE,
+          PARAMETERS);
+  /* psi^2(x, y) = (PSI2_X * x, PSI2_Y * y) = lambda * (x, y), see BLSG2.endomorphism() */
+  public static final BLS12_377Fq2 PSI2_X =
+      new BLS12_377Fq2(
+          new BLS12_377Fq(
+              "80949648264912719408558363140637477264845294720710499478137287262712535938301461879813459410945"),
+          new BLS12_377Fq("0"));
+  public static final BLS12_377Fq2 PSI2_Y =
+      new BLS12_377Fq2(
+          new BLS12_377Fq(
+              "258664426012969094010652733694893533536393512754914660539884262666720468348340822774968888139573360124440321458176"),
+          new BLS12_377Fq("0"));
+  public static final GLVParameters GLV =
+      new GLVParameters(
+          null,
+          new BigInteger("91893752504881257701523279626832445441"),
+          BLS12_377Fr.FrParameters.modulus(),
+          new BigInteger("91893752504881257701523279626832445441"),
+          new BigInteger("-1"),
+          new BigInteger("1"),
+          new BigInteger("91893752504881257701523279626832445440"));
   public static final ArrayList<Integer> fixedBaseWindowTable =
       new ArrayList<>(
           Arrays.asList(
@@ -75,4 +100,16 @@ public class BLS12_377G2Parameters
   public ArrayList<Integer> fixedBaseWindowTable() {
     return fixedBaseWindowTable;
   }
+
+  public BLS12_377Fq2 psi2CoefficientX() {
+    return PSI2_X;
+  }
+
+  public BLS12_377Fq2 psi2CoefficientY() {
+    return PSI2_Y;
+  }
+
+  public GLVParameters glvParameters() {
+    return GLV;
+  }
 }
@@ -16,7 +16,9 @@ public class BLS12_377GTParameters
         BLS12_377GT,
         BLS12_377GTParameters> {
 
-  public static final BLS12_377GT ONE = new BLS12_377GT(BLS12_377Fq12.ONE);
+  private static final BLS12_377GTParameters PARAMETERS = new BLS12_377GTParameters();
+
+  public static final BLS12_377GT ONE = new BLS12_377GT(BLS12_377Fq12.ONE, PARAMETERS);
 
   public BLS12_377GT ONE() {
     return ONE;
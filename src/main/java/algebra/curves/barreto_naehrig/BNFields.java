@@ -10,6 +10,13 @@ public interface BNFields {
 
     public abstract Fp element();
 
+    /* Returns the Montgomery form element backing the arithmetic of this element */
+    public abstract MontgomeryFp montgomeryElement();
+
+    public MontgomeryParameters montgomeryParameters() {
+      return this.montgomeryElement().montgomeryParameters();
+    }
+
     public abstract BNFrT zero();
 
     public abstract BNFrT one();
@@ -18,22 +25,24 @@ public interface BNFields {
 
     public abstract BNFrT construct(final Fp element);
 
+    public abstract BNFrT construct(final MontgomeryFp element);
+
     public abstract String toString();
 
     public BNFrT add(final BNFrT other) {
-      return this.construct(this.element().add(other.element()));
+      return this.construct(this.montgomeryElement().add(other.montgomeryElement()));
     }
 
     public BNFrT sub(final BNFrT other) {
-      return this.construct(this.element().sub(other.element()));
+      return this.construct(this.montgomeryElement().sub(other.montgomeryElement()));
     }
 
     public BNFrT mul(final BNFrT other) {
-      return this.construct(this.element().mul(other.element()));
+      return this.construct(this.montgomeryElement().mul(other.montgomeryElement()));
     }
 
     public boolean isZero() {
-      return this.equals(this.zero());
+      return this.montgomeryElement().isZero();
     }
 
     public boolean isSpecial() {
@@ -41,35 +50,74 @@ public interface BNFields {
     }
 
     public boolean isOne() {
-      return this.equals(this.one());
+      return this.montgomeryElement().isOne();
     }
 
     public BNFrT random(final Long seed, final byte[] secureSeed) {
-      return this.construct(this.element().random(seed, secureSeed));
+      return this.construct(this.montgomeryElement().random(seed, secureSeed));
     }
 
     public BNFrT negate() {
-      return this.construct(this.element().negate());
+      return this.construct(this.montgomeryElement().negate());
     }
 
     public BNFrT inverse() {
-      return this.construct(this.element().inverse());
+      return this.construct(this.montgomeryElement().inverse());
     }
 
     public BNFrT square() {
-      return this.construct(this.element().square());
+      return this.construct(this.montgomeryElement().square());
+    }
+
+    /* The assign methods below update the backing MontgomeryFp, and thus this element, in place */
+    public BNFrT mutableCopy() {
+      return this.construct(this.montgomeryElement().mutableCopy());
+    }
+
+    public BNFrT set(final BNFrT other) {
+      this.montgomeryElement().set(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFrT addAssign(final BNFrT other) {
+      this.montgomeryElement().addAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFrT subAssign(final BNFrT other) {
+      this.montgomeryElement().subAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFrT mulAssign(final BNFrT other) {
+      this.montgomeryElement().mulAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFrT squareAssign() {
+      this.montgomeryElement().squareAssign();
+      return this.self();
+    }
+
+    public BNFrT negateAssign() {
+      this.montgomeryElement().negateAssign();
+      return this.self();
     }
 
     public BNFrT rootOfUnity(final long size) {
-      return this.construct(this.element().rootOfUnity(size));
+      return this.construct(this.montgomeryElement().rootOfUnity(size));
+    }
+
+    public boolean hasRootOfUnity(final long order) {
+      return this.montgomeryElement().hasRootOfUnity(order);
     }
 
     public int bitSize() {
-      return this.element().bitSize();
+      return this.montgomeryElement().bitSize();
     }
 
     public BigInteger toBigInteger() {
-      return this.element().toBigInteger();
+      return this.montgomeryElement().toBigInteger();
     }
 
     public boolean equals(final BNFrT other) {
@@ -77,7 +125,7 @@ public interface BNFields {
         return false;
       }
 
-      return this.element().equals(other.element());
+      return this.montgomeryElement().equals(other.montgomeryElement());
     }
   }
 
@@ -86,6 +134,13 @@ public interface BNFields {
       extends AbstractFieldElementExpanded<BNFqT> {
     public abstract Fp element();
 
+    /* Returns the Montgomery form element backing the arithmetic of this element */
+    public abstract MontgomeryFp montgomeryElement();
+
+    public MontgomeryParameters montgomeryParameters() {
+      return this.montgomeryElement().montgomeryParameters();
+    }
+
     public abstract BNFqT zero();
 
     public abstract BNFqT one();
@@ -96,18 +151,20 @@ public interface BNFields {
 
     public abstract BNFqT construct(final Fp element);
 
+    public abstract BNFqT construct(final MontgomeryFp element);
+
     public abstract String toString();
 
     public BNFqT add(final BNFqT other) {
-      return this.construct(this.element().add(other.element()));
+      return this.construct(this.montgomeryElement().add(other.montgomeryElement()));
     }
 
     public BNFqT sub(final BNFqT other) {
-      return this.construct(this.element().sub(other.element()));
+      return this.construct(this.montgomeryElement().sub(other.montgomeryElement()));
     }
 
     public BNFqT mul(final BNFqT other) {
-      return this.construct(this.element().mul(other.element()));
+      return this.construct(this.montgomeryElement().mul(other.montgomeryElement()));
     }
 
     public BNFqT mul(final Fp other) {
@@ -115,7 +172,7 @@ public interface BNFields {
     }
 
     public boolean isZero() {
-      return this.equals(this.zero());
+      return this.montgomeryElement().isZero();
     }
 
     public boolean isSpecial() {
@@ -123,35 +180,74 @@ public interface BNFields {
     }
 
     public boolean isOne() {
-      return this.equals(this.one());
+      return this.montgomeryElement().isOne();
     }
 
     public BNFqT random(final Long seed, final byte[] secureSeed) {
-      return this.construct(this.element().random(seed, secureSeed));
+      return this.construct(this.montgomeryElement().random(seed, secureSeed));
     }
 
     public BNFqT negate() {
-      return this.construct(this.element().negate());
+      return this.construct(this.montgomeryElement().negate());
     }
 
     public BNFqT inverse() {
-      return this.construct(this.element().inverse());
+      return this.construct(this.montgomeryElement().inverse());
     }
 
     public BNFqT square() {
-      return this.construct(this.element().square());
+      return this.construct(this.montgomeryElement().square());
+    }
+
+    /* The assign methods below update the backing MontgomeryFp, and thus this element, in place */
+    public BNFqT mutableCopy() {
+      return this.construct(this.montgomeryElement().mutableCopy());
+    }
+
+    public BNFqT set(final BNFqT other) {
+      this.montgomeryElement().set(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFqT addAssign(final BNFqT other) {
+      this.montgomeryElement().addAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFqT subAssign(final BNFqT other) {
+      this.montgomeryElement().subAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFqT mulAssign(final BNFqT other) {
+      this.montgomeryElement().mulAssign(other.montgomeryElement());
+      return this.self();
+    }
+
+    public BNFqT squareAssign() {
+      this.montgomeryElement().squareAssign();
+      return this.self();
+    }
+
+    public BNFqT negateAssign() {
+      this.montgomeryElement().negateAssign();
+      return this.self();
     }
 
     public BNFqT rootOfUnity(final long size) {
-      return this.construct(this.element().rootOfUnity(size));
+      return this.construct(this.montgomeryElement().rootOfUnity(size));
+    }
+
+    public boolean hasRootOfUnity(final long order) {
+      return this.montgomeryElement().hasRootOfUnity(order);
     }
 
     public int bitSize() {
-      return this.element().bitSize();
+      return this.montgomeryElement().bitSize();
     }
 
     public BigInteger toBigInteger() {
-      return this.element().toBigInteger();
+      return this.montgomeryElement().toBigInteger();
     }
 
     public boolean equals(final BNFqT other) {
@@ -159,7 +255,7 @@ public interface BNFields {
         return false;
       }
 
-      return this.element().equals(other.element());
+      return this.montgomeryElement().equals(other.montgomeryElement());
     }
   }
 
@@ -8,10 +8,17 @@
 package algebra.curves.barreto_naehrig;
 
 import algebra.curves.AbstractG1;
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.BNFields.BNFq;
 import algebra.curves.barreto_naehrig.BNFields.BNFr;
 import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNG1Parameters;
+import algebra.fields.FieldUtils;
+import algebra.fields.MontgomeryFp;
+import algebra.fields.MontgomeryParameters;
+import common.OffHeapLongArray;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Generic code to construct and operate on BN G1 points. This class is used to represent a BN G1
@@ -29,6 +36,8 @@ public abstract class BNG1<
   protected final BNFqT X;
   protected final BNFqT Y;
   public final BNFqT Z;
+  /* Temporaries of addAssign() and dblAssign(), allocated on first use */
+  private transient ArrayList<BNFqT> scratch;
 
   public BNG1(final BNFqT X, final BNFqT Y, final BNFqT Z, final BNG1ParametersT G1Parameters) {
     this.X = X;
@@ -63,6 +72,15 @@ public abstract class BNG1<
       return this.self();
     }
 
+    // Use the mixed addition when one of the points is in affine coordinates
+    if (other.Z.isOne()) {
+      return this.mixedAdd(other);
+    }
+
+    if (this.Z.isOne()) {
+      return other.mixedAdd(this.self());
+    }
+
     // No need to handle points of order 2,4
     // (they cannot exist in a modulus-order subgroup)
 
@@ -118,6 +136,56 @@ public abstract class BNG1<
     return this.construct(X3, Y3, Z3);
   }
 
+  /**
+   * Returns this + other, for a point other in affine coordinates (Z = 1, see
+   * toAffineCoordinates()), with the mixed addition formulas: 7M + 4S instead of the 11M + 5S of
+   * add(), which calls mixedAdd() when one of its operands is in affine coordinates.
+   */
+  public BNG1T mixedAdd(final BNG1T other) {
+    assert (other.Z.isOne());
+
+    if (isZero()) {
+      return other;
+    }
+
+    // http://www.hyperelliptic.org/EFD/g1p/auto-shortw-jacobian-0.html#addition-madd-2007-bl
+
+    // Z1Z1 = Z1^2
+    final BNFqT Z1Z1 = this.Z.square();
+    // U2 = X2 * Z1Z1
+    final BNFqT U2 = other.X.mul(Z1Z1);
+    // S2 = Y2 * Z1 * Z1Z1
+    final BNFqT S2 = other.Y.mul(this.Z).mul(Z1Z1);
+
+    if (this.X.equals(U2) && this.Y.equals(S2)) {
+      return dbl();
+    }
+
+    // H = U2 - X1
+    final BNFqT H = U2.sub(this.X);
+    // HH = H^2
+    final BNFqT HH = H.square();
+    // I = 4 * HH
+    BNFqT I = HH.add(HH);
+    I = I.add(I);
+    // J = H * I
+    final BNFqT J = H.mul(I);
+    // r = 2 * (S2 - Y1)
+    final BNFqT S2MinusY1 = S2.sub(this.Y);
+    final BNFqT r = S2MinusY1.add(S2MinusY1);
+    // V = X1 * I
+    final BNFqT V = this.X.mul(I);
+    // X3 = r^2 - J - 2 * V
+    final BNFqT X3 = r.square().sub(J).sub(V.add(V));
+    // Y3 = r * (V - X3) - 2 * Y1 * J
+    final BNFqT Y1_J = this.Y.mul(J);
+    final BNFqT Y3 = r.mul(V.sub(X3)).sub(Y1_J.add(Y1_J));
+    // Z3 = (Z1 + H)^2 - Z1Z1 - HH
+    final BNFqT Z3 = this.Z.add(H).square().sub(Z1Z1).sub(HH);
+
+    return this.construct(X3, Y3, Z3);
+  }
+
   public BNG1T sub(final BNG1T other) {
     return this.add(other.negate());
   }
@@ -152,6 +220,15 @@ public abstract class BNG1<
     return this.construct(this.X, this.Y.negate(), this.Z);
   }
 
+  public GLVParameters glvParameters() {
+    return this.G1Parameters.glvParameters();
+  }
+
+  /* In Jacobian coordinates, phi(X : Y : Z) = (beta * X : Y : Z) */
+  public BNG1T endomorphism() {
+    return this.construct(this.X.mul(this.G1Parameters.glvBeta()), this.Y, this.Z);
+  }
+
   public BNG1T dbl() {
     // Handle point at infinity
     if (isZero()) {
@@ -191,17 +268,251 @@ public abstract class BNG1<
     return this.construct(X3, Y3, Z3);
   }
 
+  public BNG1T mutableCopy() {
+    return this.construct(this.X.mutableCopy(), this.Y.mutableCopy(), this.Z.mutableCopy());
+  }
+
+  public BNG1T set(final BNG1T other) {
+    this.X.set(other.X);
+    this.Y.set(other.Y);
+    this.Z.set(other.Z);
+    return this.self();
+  }
+
+  /**
+   * In-place version of add(), which updates the coordinates of this point with the assign methods
+   * of BNFq and does not allocate once the temporaries exist. The formulas and special cases are
+   * the same as in add().
+   */
+  public BNG1T addAssign(final BNG1T other) {
+    return addAssign(other, false);
+  }
+
+  /* In-place version of sub(), see addAssign() */
+  public BNG1T subAssign(final BNG1T other) {
+    return addAssign(other, true);
+  }
+
+  /* Sets this = this + other, or this = this - other when negate is set */
+  private BNG1T addAssign(final BNG1T other, final boolean negate) {
+    assert (other != null);
+
+    if (other.isZero()) {
+      return this.self();
+    }
+
+    if (isZero()) {
+      set(other);
+      if (negate) {
+        this.Y.negateAssign();
+      }
+      return this.self();
+    }
+
+    if (other.Z.isOne()) {
+      return mixedAddAssign(other, negate);
+    }
+
+    final ArrayList<BNFqT> t = scratch();
+    final BNFqT Z1Z1 = t.get(0).set(this.Z).squareAssign();
+    final BNFqT Z2Z2 = t.get(1).set(other.Z).squareAssign();
+    final BNFqT U1 = t.get(2).set(this.X).mulAssign(Z2Z2);
+    final BNFqT U2 = t.get(3).set(other.X).mulAssign(Z1Z1);
+    // S1 = Y1 * Z2 * Z2Z2
+    final BNFqT S1 = t.get(4).set(this.Y).mulAssign(other.Z).mulAssign(Z2Z2);
+    // S2 = Y2 * Z1 * Z1Z1
+    final BNFqT S2 = t.get(5).set(other.Y).mulAssign(this.Z).mulAssign(Z1Z1);
+    if (negate) {
+      S2.negateAssign();
+    }
+
+    if (U1.equals(U2) && S1.equals(S2)) {
+      return dblAssign();
+    }
+
+    // H = U2-U1
+    final BNFqT H = U2.subAssign(U1);
+    // I = (2 * H)^2
+    final BNFqT I = t.get(6).set(H).addAssign(H).squareAssign();
+    // J = H * I
+    final BNFqT J = t.get(7).set(H).mulAssign(I);
+    // r = 2 * (S2-S1)
+    final BNFqT r = S2.subAssign(S1);
+    r.addAssign(r);
+    // V = U1 * I
+    final BNFqT V = U1.mulAssign(I);
+    // Z3 = ((Z1+Z2)^2-Z1Z1-Z2Z2) * H
+    this.Z.addAssign(other.Z).squareAssign().subAssign(Z1Z1).subAssign(Z2Z2).mulAssign(H);
+    // X3 = r^2 - J - 2 * V
+    this.X.set(r).squareAssign().subAssign(J).subAssign(V).subAssign(V);
+    // Y3 = r * (V-X3)-2 * S1 * J
+    final BNFqT S1_J = S1.mulAssign(J);
+    this.Y.set(V.subAssign(this.X).mulAssign(r)).subAssign(S1_J).subAssign(S1_J);
+
+    return this.self();
+  }
+
+  /* In-place version of mixedAdd(), see addAssign(other, negate) */
+  private BNG1T mixedAddAssign(final BNG1T other, final boolean negate) {
+    final ArrayList<BNFqT> t = scratch();
+    // Z1Z1 = Z1^2
+    final BNFqT Z1Z1 = t.get(0).set(this.Z).squareAssign();
+    // U2 = X2 * Z1Z1
+    final BNFqT U2 = t.get(1).set(other.X).mulAssign(Z1Z1);
+    // S2 = Y2 * Z1 * Z1Z1
+    final BNFqT S2 = t.get(2).set(other.Y).mulAssign(this.Z).mulAssign(Z1Z1);
+    if (negate) {
+      S2.negateAssign();
+    }
+
+    if (this.X.equals(U2) && this.Y.equals(S2)) {
+      return dblAssign();
+    }
+
+    // H = U2 - X1
+    final BNFqT H = U2.subAssign(this.X);
+    // HH = H^2
+    final BNFqT HH = t.get(3).set(H).squareAssign();
+    // I = 4 * HH
+    final BNFqT I = t.get(4).set(HH).addAssign(HH);
+    I.addAssign(I);
+    // J = H * I
+    final BNFqT J = t.get(5).set(H).mulAssign(I);
+    // r = 2 * (S2 - Y1)
+    final BNFqT r = S2.subAssign(this.Y);
+    r.addAssign(r);
+    // V = X1 * I
+    final BNFqT V = I.mulAssign(this.X);
+    final BNFqT Y1_J = t.get(6).set(this.Y).mulAssign(J);
+    // Z3 = (Z1 + H)^2 - Z1Z1 - HH
+    this.Z.addAssign(H).squareAssign().subAssign(Z1Z1).subAssign(HH);
+    // X3 = r^2 - J - 2 * V
+    this.X.set(r).squareAssign().subAssign(J).subAssign(V).subAssign(V);
+    // Y3 = r * (V - X3) - 2 * Y1 * J
+    this.Y.set(V.subAssign(this.X).mulAssign(r)).subAssign(Y1_J).subAssign(Y1_J);
+
+    return this.self();
+  }
+
+  /* In-place version of dbl(), see addAssign() */
+  public BNG1T dblAssign() {
+    if (isZero()) {
+      return this.self();
+    }
+
+    final ArrayList<BNFqT> t = scratch();
+    // A = X1^2
+    final BNFqT A = t.get(0).set(this.X).squareAssign();
+    // B = Y1^2
+    final BNFqT B = t.get(1).set(this.Y).squareAssign();
+    // C = B^2
+    final BNFqT C = t.get(2).set(B).squareAssign();
+    // D = 2 * ((X1 + B)^2 - A - C)
+    final BNFqT D = t.get(3).set(this.X).addAssign(B).squareAssign().subAssign(A).subAssign(C);
+    D.addAssign(D);
+    // E = 3 * A
+    final BNFqT E = t.get(4).set(A).addAssign(A).addAssign(A);
+    // Z3 = 2 * Y1 * Z1
+    this.Z.mulAssign(this.Y);
+    this.Z.addAssign(this.Z);
+    // X3 = E^2 - 2 D
+    this.X.set(E).squareAssign().subAssign(D).subAssign(D);
+    // Y3 = E * (D - X3) - 8 * C
+    C.addAssign(C);
+    C.addAssign(C);
+    C.addAssign(C);
+    this.Y.set(D.subAssign(this.X).mulAssign(E)).subAssign(C);
+
+    return this.self();
+  }
+
+  private ArrayList<BNFqT> scratch() {
+    if (scratch == null) {
+      scratch = new ArrayList<>(8);
+      for (int i = 0; i < 8; i++) {
+        scratch.add(this.X.mutableCopy());
+      }
+    }
+    return scratch;
+  }
+
   public BNG1T toAffineCoordinates() {
     if (isZero()) {
       return this.construct(this.X.zero(), this.Y.one(), this.Z.zero());
+    } else if (this.Z.isOne()) {
+      // A copy, which does not alias this when it is an accumulator (see mutableCopy())
+      return this.mutableCopy();
     } else {
-      BNFqT ZInverse = this.Z.inverse();
-      BNFqT Z2Inverse = ZInverse.square();
-      BNFqT Z3Inverse = Z2Inverse.mul(ZInverse);
+      final BNFqT ZInverse = this.Z.inverse();
+      final BNFqT Z2Inverse = ZInverse.square();
+      final BNFqT Z3Inverse = Z2Inverse.mul(ZInverse);
       return this.construct(this.X.mul(Z2Inverse), this.Y.mul(Z3Inverse), this.Z.one());
     }
   }
 
+  public List<BNG1T> batchToAffineCoordinates(final List<BNG1T> points) {
+    final List<BNFqT> Zs = new ArrayList<>(points.size());
+    for (BNG1T point : points) {
+      Zs.add(point.Z);
+    }
+    final List<BNFqT> ZInverses = FieldUtils.batchInverse(Zs);
+
+    final List<BNG1T> result = new ArrayList<>(points.size());
+    for (int i = 0; i < points.size(); i++) {
+      final BNG1T point = points.get(i);
+      if (point.isZero() || point.Z.isOne()) {
+        result.add(point.toAffineCoordinates());
+      } else {
+        final BNFqT ZInverse = ZInverses.get(i);
+        final BNFqT Z2Inverse = ZInverse.square();
+        final BNFqT Z3Inverse = Z2Inverse.mul(ZInverse);
+        result.add(this.construct(point.X.mul(Z2Inverse), point.Y.mul(Z3Inverse), point.Z.one()));
+      }
+    }
+    return result;
+  }
+
+  public MontgomeryParameters affineParameters() {
+    return this.X.montgomeryElement().FpParameters.montgomeryParameters();
+  }
+
+  public int affineLength() {
+    return 2 * affineParameters().numLimbs;
+  }
+
+  public void storeAffine(final OffHeapLongArray array, final long index) {
+    final BNG1T affine = this.toAffineCoordinates();
+    if (affine.isZero()) {
+      for (int i = 0; i < affineLength(); i++) {
+        array.put(index + i, 0L);
+      }
+      return;
+    }
+    affine.X.montgomeryElement().store(array, index);
+    affine.Y.montgomeryElement().store(array, index + affineLength() / 2);
+  }
+
+  public boolean isAffine() {
+    return this.isZero() || this.Z.isOne();
+  }
+
+  public void storeAffine(final long[] array, final int offset) {
+    final BNG1T affine = this.isAffine() ? this.self() : this.toAffineCoordinates();
+    if (affine.isZero()) {
+      Arrays.fill(array, offset, offset + affineLength(), 0L);
+      return;
+    }
+    affine.X.montgomeryElement().store(array, offset);
+    affine.Y.montgomeryElement().store(array, offset + affineLength() / 2);
+  }
+
+  public BNG1T loadAffine(final OffHeapLongArray array, final long index) {
+    final MontgomeryFp x = this.X.montgomeryElement().load(array, index);
+    final MontgomeryFp y = this.Y.montgomeryElement().load(array, index + affineLength() / 2);
+    this.Z.set(x.isZero() && y.isZero() ? this.Z.zero() : this.Z.one());
+    return this.self();
+  }
+
   public int bitSize() {
     return Math.max(this.X.bitSize(), Math.max(this.Y.bitSize(), this.Z.bitSize()));
   }
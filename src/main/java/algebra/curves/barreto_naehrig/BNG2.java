@@ -8,11 +8,14 @@
 package algebra.curves.barreto_naehrig;
 
 import algebra.curves.AbstractG2;
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.BNFields.BNFq;
 import algebra.curves.barreto_naehrig.BNFields.BNFq2;
 import algebra.curves.barreto_naehrig.BNFields.BNFr;
 import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNG2Parameters;
+import algebra.fields.FieldUtils;
 import java.util.ArrayList;
+import java.util.List;
 
 public abstract class BNG2<
         BNFrT extends BNFr<BNFrT>,
@@ -58,6 +61,15 @@ public abstract class BNG2<
       return this.self();
     }
 
+    // Use the mixed addition when one of the points is in affine coordinates
+    if (other.Z.isOne()) {
+      return this.mixedAdd(other);
+    }
+
+    if (this.Z.isOne()) {
+      return other.mixedAdd(this.self());
+    }
+
     // No need to handle points of order 2,4
     // (they cannot exist in a modulus-order subgroup)
 
@@ -113,6 +125,56 @@ public abstract class BNG2<
     return this.construct(X3, Y3, Z3);
   }
 
+  /**
+   * Returns this + other, for a point other in affine coordinates (Z = 1, see
+   * toAffineCoordinates()), with the mixed addition formulas: 7M + 4S instead of the 11M + 5S of
+   * add(), which calls mixedAdd() when one of its operands is in affine coordinates.
+   */
+  public BNG2T mixedAdd(final BNG2T other) {
+    assert (other.Z.isOne());
+
+    if (isZero()) {
+      return other;
+    }
+
+    // http://www.hyperelliptic.org/EFD/g1p/auto-shortw-jacobian-0.html#addition-madd-2007-bl
+
+    // Z1Z1 = Z1^2
+    final BNFq2T Z1Z1 = this.Z.square();
+    // U2 = X2 * Z1Z1
+    final BNFq2T U2 = other.X.mul(Z1Z1);
+    // S2 = Y2 * Z1 * Z1Z1
+    final BNFq2T S2 = other.Y.mul(this.Z).mul(Z1Z1);
+
+    if (this.X.equals(U2) && this.Y.equals(S2)) {
+      return dbl();
+    }
+
+    // H = U2 - X1
+    final BNFq2T H = U2.sub(this.X);
+    // HH = H^2
+    final BNFq2T HH = H.square();
+    // I = 4 * HH
+    BNFq2T I = HH.add(HH);
+    I = I.add(I);
+    // J = H * I
+    final BNFq2T J = H.mul(I);
+    // r = 2 * (S2 - Y1)
+    final BNFq2T S2MinusY1 = S2.sub(this.Y);
+    final BNFq2T r = S2MinusY1.add(S2MinusY1);
+    // V = X1 * I
+    final BNFq2T V = this.X.mul(I);
+    // X3 = r^2 - J - 2 * V
+    final BNFq2T X3 = r.square().sub(J).sub(V.add(V));
+    // Y3 = r * (V - X3) - 2 * Y1 * J
+    final BNFq2T Y1_J = this.Y.mul(J);
+    final BNFq2T Y3 = r.mul(V.sub(X3)).sub(Y1_J.add(Y1_J));
+    // Z3 = (Z1 + H)^2 - Z1Z1 - HH
+    final BNFq2T Z3 = this.Z.add(H).square().sub(Z1Z1).sub(HH);
+
+    return this.construct(X3, Y3, Z3);
+  }
+
   public BNG2T sub(final BNG2T other) {
     return this.add(other.negate());
   }
@@ -180,6 +242,23 @@ public abstract class BNG2<
     return this.construct(this.X, this.Y.negate(), this.Z);
   }
 
+  public GLVParameters glvParameters() {
+    return this.G2Parameters.glvParameters();
+  }
+
+  /**
+   * Returns psi(this), where psi = untwist-Frobenius-twist is the endomorphism of the twist such
+   * that psi(P) = (q mod r) * P on G2, see GLVParameters: in Jacobian coordinates, psi(X : Y : Z) =
+   * (cX * conj(X) : cY * conj(Y) : conj(Z)). The eigenvalue only holds on the subgroup of order r
+   * of the twist, to which mul() restricts the decomposition, see AbstractGroup.mul().
+   */
+  public BNG2T endomorphism() {
+    return this.construct(
+        this.X.FrobeniusMap(1).mul(this.G2Parameters.psiCoefficientX()),
+        this.Y.FrobeniusMap(1).mul(this.G2Parameters.psiCoefficientY()),
+        this.Z.FrobeniusMap(1));
+  }
+
   public void setX(final BNFq2T X) {
     this.X = X;
   }
@@ -195,6 +274,9 @@ public abstract class BNG2<
   public BNG2T toAffineCoordinates() {
     if (isZero()) {
       return this.construct(this.X.zero(), this.Y.one(), this.Z.zero());
+    } else if (this.Z.isOne()) {
+      // A copy, which does not alias this when it is an accumulator (see mutableCopy())
+      return this.mutableCopy();
     } else {
       final BNFq2T ZInverse = this.Z.inverse();
       final BNFq2T Z2Inverse = ZInverse.square();
@@ -203,6 +285,28 @@ public abstract class BNG2<
     }
   }
 
+  public List<BNG2T> batchToAffineCoordinates(final List<BNG2T> points) {
+    final List<BNFq2T> Zs = new ArrayList<>(points.size());
+    for (BNG2T point : points) {
+      Zs.add(point.Z);
+    }
+    final List<BNFq2T> ZInverses = FieldUtils.batchInverse(Zs);
+
+    final List<BNG2T> result = new ArrayList<>(points.size());
+    for (int i = 0; i < points.size(); i++) {
+      final BNG2T point = points.get(i);
+      if (point.isZero() || point.Z.isOne()) {
+        result.add(point.toAffineCoordinates());
+      } else {
+        final BNFq2T ZInverse = ZInverses.get(i);
+        final BNFq2T Z2Inverse = ZInverse.square();
+        final BNFq2T Z3Inverse = Z2Inverse.mul(ZInverse);
+        result.add(this.construct(point.X.mul(Z2Inverse), point.Y.mul(Z3Inverse), point.Z.one()));
+      }
+    }
+    return result;
+  }
+
   public int bitSize() {
     return Math.max(this.X.bitSize(), Math.max(this.Y.bitSize(), this.Z.bitSize()));
   }
@@ -7,6 +7,7 @@
 
 package algebra.curves.barreto_naehrig.abstract_bn_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.BNFields.BNFq;
 import algebra.curves.barreto_naehrig.BNFields.BNFr;
 import algebra.curves.barreto_naehrig.BNG1;
@@ -28,4 +29,9 @@ public abstract class AbstractBNG1Parameters<
   public abstract BNFrT oneFr();
 
   public abstract ArrayList<Integer> fixedBaseWindowTable();
+
+  /* The cube root of unity beta of the endomorphism phi(x, y) = (beta * x, y), see BNG1 */
+  public abstract BNFqT glvBeta();
+
+  public abstract GLVParameters glvParameters();
 }
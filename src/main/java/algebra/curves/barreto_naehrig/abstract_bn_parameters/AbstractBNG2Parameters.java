@@ -7,6 +7,7 @@
 
 package algebra.curves.barreto_naehrig.abstract_bn_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.BNFields.BNFq;
 import algebra.curves.barreto_naehrig.BNFields.BNFq2;
 import algebra.curves.barreto_naehrig.BNFields.BNFr;
@@ -30,4 +31,11 @@ public abstract class AbstractBNG2Parameters<
   public abstract BNFrT oneFr();
 
   public abstract ArrayList<Integer> fixedBaseWindowTable();
+
+  /* The coefficients of psi(x, y) = (cX * conj(x), cY * conj(y)), see BNG2.endomorphism() */
+  public abstract BNFq2T psiCoefficientX();
+
+  public abstract BNFq2T psiCoefficientY();
+
+  public abstract GLVParameters glvParameters();
 }
@@ -6,6 +6,7 @@ import algebra.fields.Fp;
 import algebra.fields.Fp12_2Over3Over2;
 import algebra.fields.Fp2;
 import algebra.fields.Fp6_3Over2;
+import algebra.fields.MontgomeryFp;
 import java.math.BigInteger;
 
 public class BN254aFields {
@@ -18,10 +19,14 @@ public class BN254aFields {
     public static final BN254aFr MULTIPLICATIVE_GENERATOR =
         new BN254aFr(FrParameters.multiplicativeGenerator());
 
-    public Fp element;
+    public MontgomeryFp montgomeryElement;
 
     public BN254aFr(final BigInteger number) {
-      this.element = new Fp(number, FrParameters);
+      this.montgomeryElement = new MontgomeryFp(number, FrParameters);
+    }
+
+    public BN254aFr(final MontgomeryFp element) {
+      this.montgomeryElement = element;
     }
 
     public BN254aFr(final Fp number) {
@@ -41,7 +46,11 @@ public class BN254aFields {
     }
 
     public Fp element() {
-      return element;
+      return montgomeryElement.toFp();
+    }
+
+    public MontgomeryFp montgomeryElement() {
+      return montgomeryElement;
     }
 
     public BN254aFr zero() {
@@ -68,8 +77,12 @@ public class BN254aFields {
       return new BN254aFr(element);
     }
 
+    public BN254aFr construct(final MontgomeryFp element) {
+      return new BN254aFr(element);
+    }
+
     public String toString() {
-      return this.element.toString();
+      return this.montgomeryElement.toString();
     }
   }
 
@@ -82,14 +95,18 @@ public class BN254aFields {
     public static final BN254aFq MULTIPLICATIVE_GENERATOR =
         new BN254aFq(FqParameters.multiplicativeGenerator());
 
-    public Fp element;
+    public MontgomeryFp montgomeryElement;
 
     public BN254aFq(final Fp element) {
-      this.element = element;
+      this(element.toBigInteger());
     }
 
     public BN254aFq(final BigInteger number) {
-      this.element = new Fp(number, FqParameters);
+      this.montgomeryElement = new MontgomeryFp(number, FqParameters);
+    }
+
+    public BN254aFq(final MontgomeryFp element) {
+      this.montgomeryElement = element;
     }
 
     public BN254aFq(final String number) {
@@ -105,7 +122,11 @@ public class BN254aFields {
     }
 
     public Fp element() {
-      return element;
+      return montgomeryElement.toFp();
+    }
+
+    public MontgomeryFp montgomeryElement() {
+      return montgomeryElement;
     }
 
     public BN254aFq zero() {
@@ -128,6 +149,10 @@ public class BN254aFields {
       return new BN254aFq(element);
     }
 
+    public BN254aFq construct(final MontgomeryFp element) {
+      return new BN254aFq(element);
+    }
+
     public BN254aFq construct(final String element) {
       return new BN254aFq(element);
     }
@@ -137,7 +162,7 @@ public class BN254aFields {
     }
 
     public String toString() {
-      return this.element.toString();
+      return this.montgomeryElement.toString();
     }
   }
 
@@ -26,7 +26,14 @@ public class BN254aG1 extends BNG1<BN254aFr, BN254aFq, BN254aG1, BN254aG1Paramet
   public static final BN254aG1Parameters G1Parameters = new BN254aG1Parameters();
 
   public BN254aG1(final BN254aFq X, final BN254aFq Y, final BN254aFq Z) {
-    super(X, Y, Z, G1Parameters);
+    this(X, Y, Z, G1Parameters);
+  }
+
+  /* Constructor of the constants of BN254aG1Parameters, which are built before G1Parameters is set
+   * when BN254aG1 is initialized first, e.g. by an executor that deserializes a point */
+  public BN254aG1(
+      final BN254aFq X, final BN254aFq Y, final BN254aFq Z, final BN254aG1Parameters parameters) {
+    super(X, Y, Z, parameters);
   }
 
   public BN254aG1 self() {
@@ -18,7 +18,17 @@ public class BN254aG2 extends BNG2<BN254aFr, BN254aFq, BN254aFq2, BN254aG2, BN25
   private static final BN254aG2Parameters G2Parameters = new BN254aG2Parameters();
 
   public BN254aG2(final BN254aFq2 X, final BN254aFq2 Y, final BN254aFq2 Z) {
-    super(X, Y, Z, G2Parameters);
+    this(X, Y, Z, G2Parameters);
+  }
+
+  /* Constructor of the constants of BN254aG2Parameters, which are built before G2Parameters is set
+   * when BN254aG2 is initialized first, e.g. by an executor that deserializes a point */
+  public BN254aG2(
+      final BN254aFq2 X,
+      final BN254aFq2 Y,
+      final BN254aFq2 Z,
+      final BN254aG2Parameters parameters) {
+    super(X, Y, Z, parameters);
   }
 
   public BN254aG2 self() {
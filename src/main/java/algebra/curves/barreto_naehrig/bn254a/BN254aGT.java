@@ -20,7 +20,13 @@ public class BN254aGT
   private static final BN254aGTParameters GTParameters = new BN254aGTParameters();
 
   public BN254aGT(final BN254aFq12 value) {
-    super(value, GTParameters);
+    this(value, GTParameters);
+  }
+
+  /* Constructor of the constants of BN254aGTParameters, which are built before GTParameters is set
+   * when BN254aGT is initialized first, e.g. by an executor that deserializes a point */
+  public BN254aGT(final BN254aFq12 value, final BN254aGTParameters parameters) {
+    super(value, parameters);
   }
 
   public BN254aGT construct(final BN254aFq12 element) {
@@ -7,11 +7,13 @@
 
 package algebra.curves.barreto_naehrig.bn254a.bn254a_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNG1Parameters;
 import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFq;
 import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
 import algebra.curves.barreto_naehrig.bn254a.BN254aG1;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -19,8 +21,24 @@ public class BN254aG1Parameters
     extends AbstractBNG1Parameters<BN254aFr, BN254aFq, BN254aG1, BN254aG1Parameters>
     implements Serializable {
 
-  public static final BN254aG1 ZERO = new BN254aG1(BN254aFq.ZERO, BN254aFq.ONE, BN254aFq.ZERO);
-  public static final BN254aG1 ONE = new BN254aG1(BN254aFq.ONE, new BN254aFq(2), BN254aFq.ONE);
+  private static final BN254aG1Parameters PARAMETERS = new BN254aG1Parameters();
+
+  public static final BN254aG1 ZERO =
+      new BN254aG1(BN254aFq.ZERO, BN254aFq.ONE, BN254aFq.ZERO, PARAMETERS);
+  public static final BN254aG1 ONE =
+      new BN254aG1(BN254aFq.ONE, new BN254aFq(2), BN254aFq.ONE, PARAMETERS);
+  /* The GLV endomorphism (x, y) -> (beta * x, y) = lambda * (x, y), see GLVParameters */
+  public static final BN254aFq GLV_BETA =
+      new BN254aFq("2203960485148121921418603742825762020974279258880205651966");
+  public static final GLVParameters GLV =
+      new GLVParameters(
+          GLV_BETA.toBigInteger(),
+          new BigInteger("4407920970296243842393367215006156084916469457145843978461"),
+          BN254aFr.FrParameters.modulus(),
+          new BigInteger("9931322734385697763"),
+          new BigInteger("-147946756881789319000765030803803410728"),
+          new BigInteger("147946756881789319010696353538189108491"),
+          new BigInteger("9931322734385697763"));
   public static final ArrayList<Integer> fixedBaseWindowTable =
       new ArrayList<>(
           Arrays.asList(
@@ -67,4 +85,12 @@ public class BN254aG1Parameters
   public ArrayList<Integer> fixedBaseWindowTable() {
     return fixedBaseWindowTable;
   }
+
+  public BN254aFq glvBeta() {
+    return GLV_BETA;
+  }
+
+  public GLVParameters glvParameters() {
+    return GLV;
+  }
 }
@@ -7,12 +7,14 @@
 
 package algebra.curves.barreto_naehrig.bn254a.bn254a_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNG2Parameters;
 import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFq;
 import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFq2;
 import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
 import algebra.curves.barreto_naehrig.bn254a.BN254aG2;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -20,7 +22,10 @@ public class BN254aG2Parameters
     extends AbstractBNG2Parameters<BN254aFr, BN254aFq, BN254aFq2, BN254aG2, BN254aG2Parameters>
     implements Serializable {
 
-  public static final BN254aG2 ZERO = new BN254aG2(BN254aFq2.ZERO, BN254aFq2.ONE, BN254aFq2.ZERO);
+  private static final BN254aG2Parameters PARAMETERS = new BN254aG2Parameters();
+
+  public static final BN254aG2 ZERO =
+      new BN254aG2(BN254aFq2.ZERO, BN254aFq2.ONE, BN254aFq2.ZERO, PARAMETERS);
   public static final BN254aG2 ONE =
       new BN254aG2(
           new BN254aFq2(
@@ -33,7 +38,30 @@ public class BN254aG2Parameters
                   "8495653923123431417604973247489272438418190587263600148770280649306958101930"),
               new BN254aFq(
                   "4082367875863433681332203403145435568316851327593401208105741076214120093531")),
-          new BN254aFq2(1, 0));
+          new BN254aFq2(1, 0),
+          PARAMETERS);
+  /* psi(x, y) = (PSI_X * conj(x), PSI_Y * conj(y)) = lambda * (x, y), see BNG2.endomorphism() */
+  public static final BN254aFq2 PSI_X =
+      new BN254aFq2(
+          new BN254aFq(
+              "21575463638280843010398324269430826099269044274347216827212613867836435027261"),
+          new BN254aFq(
+              "10307601595873709700152284273816112264069230130616436755625194854815875713954"));
+  public static final BN254aFq2 PSI_Y =
+      new BN254aFq2(
+          new BN254aFq(
+              "2821565182194536844548159561693502659359617185244120367078079554186484126554"),
+          new BN254aFq(
+              "3505843767911556378687030309984248845540243509899259641013678093033130930403"));
+  public static final GLVParameters GLV =
+      new GLVParameters(
+          null,
+          new BigInteger("147946756881789318990833708069417712966"),
+          BN254aFr.FrParameters.modulus(),
+          new BigInteger("147946756881789318990833708069417712966"),
+          new BigInteger("-1"),
+          new BigInteger("29793968203157093287"),
+          new BigInteger("147946756881789319020627676272574806255"));
   public static final ArrayList<Integer> fixedBaseWindowTable =
       new ArrayList<>(
           Arrays.asList(
@@ -80,4 +108,16 @@ public class BN254aG2Parameters
   public ArrayList<Integer> fixedBaseWindowTable() {
     return fixedBaseWindowTable;
   }
+
+  public BN254aFq2 psiCoefficientX() {
+    return PSI_X;
+  }
+
+  public BN254aFq2 psiCoefficientY() {
+    return PSI_Y;
+  }
+
+  public GLVParameters glvParameters() {
+    return GLV;
+  }
 }
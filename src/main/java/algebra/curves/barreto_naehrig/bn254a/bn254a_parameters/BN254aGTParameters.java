@@ -18,7 +18,9 @@ public class BN254aGTParameters
     extends AbstractBNGTParameters<
         BN254aFq, BN254aFq2, BN254aFq6, BN254aFq12, BN254aGT, BN254aGTParameters> {
 
-  public static final BN254aGT ONE = new BN254aGT(BN254aFq12.ONE);
+  private static final BN254aGTParameters PARAMETERS = new BN254aGTParameters();
+
+  public static final BN254aGT ONE = new BN254aGT(BN254aFq12.ONE, PARAMETERS);
 
   public BN254aGT ONE() {
     return ONE;
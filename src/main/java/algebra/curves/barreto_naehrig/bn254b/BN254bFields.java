@@ -6,6 +6,7 @@ import algebra.fields.Fp;
 import algebra.fields.Fp12_2Over3Over2;
 import algebra.fields.Fp2;
 import algebra.fields.Fp6_3Over2;
+import algebra.fields.MontgomeryFp;
 import java.math.BigInteger;
 
 public class BN254bFields {
@@ -19,10 +20,14 @@ public class BN254bFields {
     public static final BN254bFr MULTIPLICATIVE_GENERATOR =
         new BN254bFr(FrParameters.multiplicativeGenerator());
 
-    public Fp element;
+    public MontgomeryFp montgomeryElement;
 
     public BN254bFr(final BigInteger number) {
-      this.element = new Fp(number, FrParameters);
+      this.montgomeryElement = new MontgomeryFp(number, FrParameters);
+    }
+
+    public BN254bFr(final MontgomeryFp element) {
+      this.montgomeryElement = element;
     }
 
     public BN254bFr(final Fp number) {
@@ -42,7 +47,11 @@ public class BN254bFields {
     }
 
     public Fp element() {
-      return element;
+      return montgomeryElement.toFp();
+    }
+
+    public MontgomeryFp montgomeryElement() {
+      return montgomeryElement;
     }
 
     public BN254bFr zero() {
@@ -69,8 +78,12 @@ public class BN254bFields {
       return new BN254bFr(element);
     }
 
+    public BN254bFr construct(final MontgomeryFp element) {
+      return new BN254bFr(element);
+    }
+
     public String toString() {
-      return this.element.toString();
+      return this.montgomeryElement.toString();
     }
   }
 
@@ -83,14 +96,18 @@ public class BN254bFields {
     public static final BN254bFq MULTIPLICATIVE_GENERATOR =
         new BN254bFq(FqParameters.multiplicativeGenerator());
 
-    public Fp element;
+    public MontgomeryFp montgomeryElement;
 
     public BN254bFq(final Fp element) {
-      this.element = element;
+      this(element.toBigInteger());
     }
 
     public BN254bFq(final BigInteger number) {
-      this.element = new Fp(number, FqParameters);
+      this.montgomeryElement = new MontgomeryFp(number, FqParameters);
+    }
+
+    public BN254bFq(final MontgomeryFp element) {
+      this.montgomeryElement = element;
     }
 
     public BN254bFq(final String number) {
@@ -106,7 +123,11 @@ public class BN254bFields {
     }
 
     public Fp element() {
-      return element;
+      return montgomeryElement.toFp();
+    }
+
+    public MontgomeryFp montgomeryElement() {
+      return montgomeryElement;
     }
 
     public BN254bFq zero() {
@@ -129,6 +150,10 @@ public class BN254bFields {
       return new BN254bFq(element);
     }
 
+    public BN254bFq construct(final MontgomeryFp element) {
+      return new BN254bFq(element);
+    }
+
     public BN254bFq construct(final String element) {
       return new BN254bFq(element);
     }
@@ -138,7 +163,7 @@ public class BN254bFields {
     }
 
     public String toString() {
-      return this.element.toString();
+      return this.montgomeryElement.toString();
     }
   }
 
@@ -17,7 +17,14 @@ public class BN254bG1 extends BNG1<BN254bFr, BN254bFq, BN254bG1, BN254bG1Paramet
   public static final BN254bG1Parameters G1Parameters = new BN254bG1Parameters();
 
   public BN254bG1(final BN254bFq X, final BN254bFq Y, final BN254bFq Z) {
-    super(X, Y, Z, G1Parameters);
+    this(X, Y, Z, G1Parameters);
+  }
+
+  /* Constructor of the constants of BN254bG1Parameters, which are built before G1Parameters is set
+   * when BN254bG1 is initialized first, e.g. by an executor that deserializes a point */
+  public BN254bG1(
+      final BN254bFq X, final BN254bFq Y, final BN254bFq Z, final BN254bG1Parameters parameters) {
+    super(X, Y, Z, parameters);
   }
 
   public BN254bG1 self() {
@@ -18,7 +18,17 @@ public class BN254bG2 extends BNG2<BN254bFr, BN254bFq, BN254bFq2, BN254bG2, BN25
   private static final BN254bG2Parameters G2Parameters = new BN254bG2Parameters();
 
   public BN254bG2(final BN254bFq2 X, final BN254bFq2 Y, final BN254bFq2 Z) {
-    super(X, Y, Z, G2Parameters);
+    this(X, Y, Z, G2Parameters);
+  }
+
+  /* Constructor of the constants of BN254bG2Parameters, which are built before G2Parameters is set
+   * when BN254bG2 is initialized first, e.g. by an executor that deserializes a point */
+  public BN254bG2(
+      final BN254bFq2 X,
+      final BN254bFq2 Y,
+      final BN254bFq2 Z,
+      final BN254bG2Parameters parameters) {
+    super(X, Y, Z, parameters);
   }
 
   public BN254bG2 self() {
@@ -20,7 +20,13 @@ public class BN254bGT
   private static final BN254bGTParameters GTParameters = new BN254bGTParameters();
 
   public BN254bGT(final BN254bFq12 value) {
-    super(value, GTParameters);
+    this(value, GTParameters);
+  }
+
+  /* Constructor of the constants of BN254bGTParameters, which are built before GTParameters is set
+   * when BN254bGT is initialized first, e.g. by an executor that deserializes a point */
+  public BN254bGT(final BN254bFq12 value, final BN254bGTParameters parameters) {
+    super(value, parameters);
   }
 
   public BN254bGT construct(final BN254bFq12 element) {
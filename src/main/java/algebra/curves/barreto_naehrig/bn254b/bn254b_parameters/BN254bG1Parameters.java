@@ -7,11 +7,13 @@
 
 package algebra.curves.barreto_naehrig.bn254b.bn254b_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNG1Parameters;
 import algebra.curves.barreto_naehrig.bn254b.BN254bFields.BN254bFq;
 import algebra.curves.barreto_naehrig.bn254b.BN254bFields.BN254bFr;
 import algebra.curves.barreto_naehrig.bn254b.BN254bG1;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -19,13 +21,29 @@ public class BN254bG1Parameters
     extends AbstractBNG1Parameters<BN254bFr, BN254bFq, BN254bG1, BN254bG1Parameters>
     implements Serializable {
 
-  public static final BN254bG1 ZERO = new BN254bG1(BN254bFq.ZERO, BN254bFq.ONE, BN254bFq.ZERO);
+  private static final BN254bG1Parameters PARAMETERS = new BN254bG1Parameters();
+
+  public static final BN254bG1 ZERO =
+      new BN254bG1(BN254bFq.ZERO, BN254bFq.ONE, BN254bFq.ZERO, PARAMETERS);
   public static final BN254bG1 ONE =
       new BN254bG1(
           new BN254bFq("6"),
           new BN254bFq(
               "8804219299324514492806343261084073560212908759422749787101710634723026910978"),
-          BN254bFq.ONE);
+          BN254bFq.ONE,
+          PARAMETERS);
+  /* The GLV endomorphism (x, y) -> (beta * x, y) = lambda * (x, y), see GLVParameters */
+  public static final BN254bFq GLV_BETA =
+      new BN254bFq("1891821976532905075271094601591818816183701273916840345601");
+  public static final GLVParameters GLV =
+      new GLVParameters(
+          GLV_BETA.toBigInteger(),
+          new BigInteger("3783643953065810150141312320570977956362005749045353512961"),
+          BN254bFr.FrParameters.modulus(),
+          new BigInteger("9438418919061716993"),
+          new BigInteger("-133625627537553225325693847343714009088"),
+          new BigInteger("133625627537553225335132266262775726081"),
+          new BigInteger("9438418919061716993"));
   public static final ArrayList<Integer> fixedBaseWindowTable =
       new ArrayList<>(
           Arrays.asList(
@@ -72,4 +90,12 @@ public class BN254bG1Parameters
   public ArrayList<Integer> fixedBaseWindowTable() {
     return fixedBaseWindowTable;
   }
+
+  public BN254bFq glvBeta() {
+    return GLV_BETA;
+  }
+
+  public GLVParameters glvParameters() {
+    return GLV;
+  }
 }
@@ -7,12 +7,14 @@
 
 package algebra.curves.barreto_naehrig.bn254b.bn254b_parameters;
 
+import algebra.curves.GLVParameters;
 import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNG2Parameters;
 import algebra.curves.barreto_naehrig.bn254b.BN254bFields.BN254bFq;
 import algebra.curves.barreto_naehrig.bn254b.BN254bFields.BN254bFq2;
 import algebra.curves.barreto_naehrig.bn254b.BN254bFields.BN254bFr;
 import algebra.curves.barreto_naehrig.bn254b.BN254bG2;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -20,7 +22,10 @@ public class BN254bG2Parameters
     extends AbstractBNG2Parameters<BN254bFr, BN254bFq, BN254bFq2, BN254bG2, BN254bG2Parameters>
     implements Serializable {
 
-  public static final BN254bG2 ZERO = new BN254bG2(BN254bFq2.ZERO, BN254bFq2.ONE, BN254bFq2.ZERO);
+  private static final BN254bG2Parameters PARAMETERS = new BN254bG2Parameters();
+
+  public static final BN254bG2 ZERO =
+      new BN254bG2(BN254bFq2.ZERO, BN254bFq2.ONE, BN254bFq2.ZERO, PARAMETERS);
   public static final BN254bG2 ONE =
       new BN254bG2(
           new BN254bFq2(
@@ -33,7 +38,30 @@ public class BN254bG2Parameters
                   "942715487274747883577565654509921632861746790272414915686456132777971395793"),
               new BN254bFq(
                   "10226306760398461226809375285904929090012967024146452193615342198255969027831")),
-          new BN254bFq2(1, 0));
+          new BN254bFq2(1, 0),
+          PARAMETERS);
+  /* psi(x, y) = (PSI_X * conj(x), PSI_Y * conj(y)) = lambda * (x, y), see BNG2.endomorphism() */
+  public static final BN254bFq2 PSI_X =
+      new BN254bFq2(
+          new BN254bFq(
+              "4219883591014163367905881574021031215493473653793212010160902933860880418057"),
+          new BN254bFq(
+              "2651212873738315799336967630323287311248564116383877570845186714307597874614"));
+  public static final BN254bFq2 PSI_Y =
+      new BN254bFq2(
+          new BN254bFq(
+              "13912320527472757632173617297762501558452172370347548758566367565831315297252"),
+          new BN254bFq(
+              "1205068982561693439199800845949398625559407190263521519935490725156185227042"));
+  public static final GLVParameters GLV =
+      new GLVParameters(
+          null,
+          new BigInteger("133625627537553225316255428424652292096"),
+          BN254bFr.FrParameters.modulus(),
+          new BigInteger("133625627537553225316255428424652292096"),
+          new BigInteger("-1"),
+          new BigInteger("28315256757185150977"),
+          new BigInteger("133625627537553225344570685181837443075"));
   public static final ArrayList<Integer> fixedBaseWindowTable =
       new ArrayList<>(
           Arrays.asList(
@@ -80,4 +108,16 @@ public class BN254bG2Parameters
   public ArrayList<Integer> fixedBaseWindowTable() {
     return fixedBaseWindowTable;
   }
+
+  public BN254bFq2 psiCoefficientX() {
+    return PSI_X;
+  }
+
+  public BN254bFq2 psiCoefficientY() {
+    return PSI_Y;
+  }
+
+  public GLVParameters glvParameters() {
+    return GLV;
+  }
 }
@@ -18,7 +18,9 @@ public class BN254bGTParameters
     extends AbstractBNGTParameters<
         BN254bFq, BN254bFq2, BN254bFq6, BN254bFq12, BN254bGT, BN254bGTParameters> {
 
-  public static final BN254bGT ONE = new BN254bGT(BN254bFq12.ONE);
+  private static final BN254bGTParameters PARAMETERS = new BN254bGTParameters();
+
+  public static final BN254bGT ONE = new BN254bGT(BN254bFq12.ONE, PARAMETERS);
 
   public BN254bGT ONE() {
     return ONE;
@@ -0,0 +1,147 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fft;
+
+import java.io.Serializable;
+
+/**
+ * Layout of the blocks of the distributed FFT of batchSize vectors of size n = n_0 * ... * n_{d-1},
+ * see FFTAuxiliary.distributedRadix2FFTBlocks. The position pos = a_0 + n_0 * (a_1 + n_1 * (...))
+ * of an element is split into the coordinates a_l < n_l. The pass j computes the FFTs of size n_j
+ * along the lines of the coordinate j, i.e. the elements whose other coordinates are equal, and
+ * holds its lines in numBlocks(j) blocks of consecutive lines. In a block, the element of
+ * coordinate a_j of the line t of the vector p is at (p * blockLines + t) * n_j + a_j.
+ */
+class BlockLayout implements Serializable {
+  private final long size;
+  private final int batchSize;
+  private final long[] dimensions;
+  /* strides[l] = n_0 * ... * n_{l-1} */
+  private final long[] strides;
+  /* outputStrides[l] = n_{l+1} * ... * n_{d-1} */
+  private final long[] outputStrides;
+  private final long[] blockLines;
+
+  /**
+   * Splits the lines of each pass into at least numPartitions blocks (rounded down to a power of
+   * two) and into blocks of at most maxBlockLength elements when the lines allow it. The number of
+   * blocks is a power of two, which divides the number of lines of the mixed-radix sizes 3 * 2^k.
+   */
+  BlockLayout(
+      final long[] dimensions,
+      final int batchSize,
+      final int numPartitions,
+      final long maxBlockLength) {
+    final int d = dimensions.length;
+    this.dimensions = dimensions.clone();
+    this.batchSize = batchSize;
+    this.strides = new long[d];
+    this.outputStrides = new long[d];
+    this.blockLines = new long[d];
+
+    long stride = 1;
+    for (int l = 0; l < d; l++) {
+      strides[l] = stride;
+      stride *= dimensions[l];
+    }
+    this.size = stride;
+    long outputStride = 1;
+    for (int l = d - 1; l >= 0; l--) {
+      outputStrides[l] = outputStride;
+      outputStride *= dimensions[l];
+    }
+
+    final long memoryBlocks = (batchSize * size + maxBlockLength - 1) / maxBlockLength;
+    final long minBlocks =
+        Math.max(
+            Long.highestOneBit(Math.max(1, numPartitions)),
+            Long.highestOneBit(Math.max(1, 2 * memoryBlocks - 1)));
+    for (int l = 0; l < d; l++) {
+      final long numLines = size / dimensions[l];
+      blockLines[l] = numLines / Math.min(Long.lowestOneBit(numLines), minBlocks);
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  int numPasses() {
+    return dimensions.length;
+  }
+
+  long dimension(final int j) {
+    return dimensions[j];
+  }
+
+  long stride(final int j) {
+    return strides[j];
+  }
+
+  long outputStride(final int j) {
+    return outputStrides[j];
+  }
+
+  long numBlocks(final int j) {
+    return size / dimensions[j] / blockLines[j];
+  }
+
+  /* Number of lines of each vector in a block of the pass j */
+  int blockLines(final int j) {
+    return (int) blockLines[j];
+  }
+
+  int blockLength(final int j) {
+    return (int) (batchSize * blockLines[j] * dimensions[j]);
+  }
+
+  long coordinate(final int l, final long pos) {
+    return pos / strides[l] % dimensions[l];
+  }
+
+  private long line(final int j, final long pos) {
+    return pos % strides[j] + strides[j] * (pos / (strides[j] * dimensions[j]));
+  }
+
+  /* Returns the block of the pass j holding the position pos. */
+  long block(final int j, final long pos) {
+    return line(j, pos) / blockLines[j];
+  }
+
+  /* Returns the index, in its block of the pass j, of the position pos of the vector p. */
+  int index(final int j, final long pos, final int p) {
+    return (int)
+        ((p * blockLines[j] + line(j, pos) % blockLines[j]) * dimensions[j] + coordinate(j, pos));
+  }
+
+  /* Returns the vector of the element at index in a block of the pass j. */
+  int vector(final int j, final int index) {
+    return (int) (index / (blockLines[j] * dimensions[j]));
+  }
+
+  /* Returns the position of the element at index in the block of the pass j. */
+  long position(final int j, final long block, final int index) {
+    final long line = block * blockLines[j] + index / dimensions[j] % blockLines[j];
+    final long coordinate = index % dimensions[j];
+    return line % strides[j]
+        + strides[j] * coordinate
+        + strides[j] * dimensions[j] * (line / strides[j]);
+  }
+
+  /**
+   * Returns the index in the output of the FFT of the position pos after the last pass, whose
+   * coordinates b_l are the outputs of the FFTs of size n_l: sum_{l} b_l * outputStride(l).
+   */
+  long outputIndex(final long pos) {
+    long result = 0;
+    for (int l = 0; l < dimensions.length; l++) {
+      result += coordinate(l, pos) * outputStrides[l];
+    }
+    return result;
+  }
+}
@@ -0,0 +1,42 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fft;
+
+import org.apache.spark.Partitioner;
+
+/**
+ * Partitioner of the blocks of the distributed FFT, keyed by their Long index in [0,
+ * numPartitions): block i goes to partition i, so that each partition holds exactly one block.
+ */
+class BlockPartitioner extends Partitioner {
+  private final int numPartitions;
+
+  BlockPartitioner(final int numPartitions) {
+    this.numPartitions = numPartitions;
+  }
+
+  @Override
+  public int numPartitions() {
+    return numPartitions;
+  }
+
+  @Override
+  public int getPartition(final Object key) {
+    return (int) (((Long) key) % numPartitions);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return o instanceof BlockPartitioner && ((BlockPartitioner) o).numPartitions == numPartitions;
+  }
+
+  @Override
+  public int hashCode() {
+    return numPartitions;
+  }
+}
@@ -1,12 +1,19 @@
 package algebra.fft;
 
 import algebra.fields.AbstractFieldElementExpanded;
-import common.MathUtils;
 import configuration.Configuration;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.spark.api.java.JavaPairRDD;
 import scala.Tuple2;
 
 public class DistributedFFT {
+  /* Maximum length of the lines of the passes of the distributed FFTs, see dimensions() */
+  public static final long MAX_LINE_LENGTH = 1L << 15;
+  /* Estimate of the memory, in bytes, of an element of the blocks of the distributed FFTs */
+  private static final long ELEMENT_BYTES = 256;
+  /* Fraction of the memory of a task for a line */
+  private static final long LINE_MEMORY_FRACTION = 64;
 
   /** Compute the distributed FFT, over the domain S, of the vector input. */
   public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
@@ -15,7 +22,7 @@ public class DistributedFFT {
           final long rows,
           final long columns,
           final FieldT fieldFactory) {
-    return FFTAuxiliary.distributedRadix2FFT(input, rows, columns, false, fieldFactory);
+    return radix2FFT(input, new long[] {rows, columns}, fieldFactory);
   }
 
   /** Compute the distributed inverse FFT, over the domain S, of the vector input. */
@@ -25,7 +32,7 @@ public class DistributedFFT {
           final long rows,
           final long columns,
           final FieldT fieldFactory) {
-    return FFTAuxiliary.distributedRadix2FFT(input, rows, columns, true, fieldFactory);
+    return radix2InverseFFT(input, new long[] {rows, columns}, fieldFactory);
   }
 
   /** Compute the distributed FFT, over the domain g*S, of the vector input. */
@@ -36,8 +43,7 @@ public class DistributedFFT {
           final long rows,
           final long columns,
           final FieldT fieldFactory) {
-    return radix2FFT(
-        FFTAuxiliary.distributedMultiplyByCoset(input, g), rows, columns, fieldFactory);
+    return radix2CosetFFT(input, g, new long[] {rows, columns}, fieldFactory);
   }
 
   /** Compute the distributed inverse FFT, over the domain g*S, of the vector input. */
@@ -48,8 +54,160 @@ public class DistributedFFT {
           final long rows,
           final long columns,
           final FieldT fieldFactory) {
-    return FFTAuxiliary.distributedMultiplyByCoset(
-        radix2InverseFFT(input, rows, columns, fieldFactory), g.inverse());
+    return radix2CosetInverseFFT(input, g, new long[] {rows, columns}, fieldFactory);
+  }
+
+  /**
+   * Returns the dimensions n_0, ..., n_{d-1} of the distributed FFTs over a domain of the given
+   * size (a power of two or 3 * 2^k, see EvaluationDomain.lowestDomainSize), balanced powers of two
+   * whose product is size, the last one multiplied by 3 on the mixed-radix sizes. A line of n_j
+   * elements is held by a single task, so that d is the smallest number of dimensions, at least 2,
+   * whose lines hold at most MAX_LINE_LENGTH elements, and at most a fraction of the memory of a
+   * task (see Configuration.numMemory and numCores). The first dimension is the smallest, as the
+   * rows of the two-dimensional FFTs.
+   */
+  public static long[] dimensions(final long size, final Configuration config) {
+    final long taskMemory = ((long) config.numMemory() << 30) / Math.max(1, config.numCores());
+    final long maxLineLength =
+        Math.max(2, Math.min(MAX_LINE_LENGTH, taskMemory / LINE_MEMORY_FRACTION / ELEMENT_BYTES));
+    final int logSize = Long.numberOfTrailingZeros(size);
+    final int logLine = Math.max(1, 63 - Long.numberOfLeadingZeros(maxLineLength));
+    final int sizeBits = 64 - Long.numberOfLeadingZeros(size - 1);
+    final int d = Math.max(2, (sizeBits + logLine - 1) / logLine);
+
+    final long[] dimensions = new long[d];
+    for (int j = 0; j < d; j++) {
+      dimensions[j] = 1L << (logSize / d + (j >= d - logSize % d ? 1 : 0));
+    }
+    dimensions[d - 1] *= size >> logSize;
+    return dimensions;
+  }
+
+  /** Compute the distributed FFT, over the domain S, of the vector input, see dimensions(). */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, FieldT> radix2FFT(
+          final JavaPairRDD<Long, FieldT> input,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    return FFTAuxiliary.distributedRadix2FFT(input, dimensions, false, null, fieldFactory);
+  }
+
+  /** Compute the distributed inverse FFT, over the domain S, of the vector input. */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, FieldT> radix2InverseFFT(
+          final JavaPairRDD<Long, FieldT> input,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    return FFTAuxiliary.distributedRadix2FFT(input, dimensions, true, null, fieldFactory);
+  }
+
+  /** Compute the distributed FFT, over the domain g*S, of the vector input. */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, FieldT> radix2CosetFFT(
+          final JavaPairRDD<Long, FieldT> input,
+          final FieldT g,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    return FFTAuxiliary.distributedRadix2FFT(input, dimensions, false, g, fieldFactory);
+  }
+
+  /** Compute the distributed inverse FFT, over the domain g*S, of the vector input. */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, FieldT> radix2CosetInverseFFT(
+          final JavaPairRDD<Long, FieldT> input,
+          final FieldT g,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    return FFTAuxiliary.distributedRadix2FFT(input, dimensions, true, g, fieldFactory);
+  }
+
+  /**
+   * Compute the distributed FFTs, over the domain S, of the vectors inputs in one pass, e.g. of the
+   * polynomials A, B and C of a QAP: the element i of the result holds the list of the elements i
+   * of the FFTs of the inputs, in order. The inputs are batched without join, and share the
+   * shuffles of a single FFT.
+   */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, ArrayList<FieldT>> batchRadix2FFT(
+          final List<JavaPairRDD<Long, FieldT>> inputs,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    final long size = size(dimensions);
+    return FFTAuxiliary.distributedBatchRadix2FFT(
+        batch(inputs, size), inputs.size(), dimensions, false, null, fieldFactory);
+  }
+
+  /** Compute the distributed inverse FFTs, over the domain S, of the vectors inputs in one pass. */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, ArrayList<FieldT>> batchRadix2InverseFFT(
+          final List<JavaPairRDD<Long, FieldT>> inputs,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    final long size = size(dimensions);
+    return FFTAuxiliary.distributedBatchRadix2FFT(
+        batch(inputs, size), inputs.size(), dimensions, true, null, fieldFactory);
+  }
+
+  /**
+   * Compute the distributed FFTs, over the domain g*S, of the batchSize vectors whose elements i
+   * are listed by the element i of input, e.g. the result of batchRadix2InverseFFT.
+   */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, ArrayList<FieldT>> batchRadix2CosetFFT(
+          final JavaPairRDD<Long, ArrayList<FieldT>> input,
+          final int batchSize,
+          final FieldT g,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    return FFTAuxiliary.distributedBatchRadix2FFT(
+        unbatch(input, size(dimensions)), batchSize, dimensions, false, g, fieldFactory);
+  }
+
+  /** Compute the distributed inverse FFTs, over the domain g*S, of the batched vectors input. */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, ArrayList<FieldT>> batchRadix2CosetInverseFFT(
+          final JavaPairRDD<Long, ArrayList<FieldT>> input,
+          final int batchSize,
+          final FieldT g,
+          final long[] dimensions,
+          final FieldT fieldFactory) {
+    return FFTAuxiliary.distributedBatchRadix2FFT(
+        unbatch(input, size(dimensions)), batchSize, dimensions, true, g, fieldFactory);
+  }
+
+  private static long size(final long[] dimensions) {
+    long size = 1;
+    for (long n : dimensions) {
+      size *= n;
+    }
+    return size;
+  }
+
+  /* Keys the element i of the input p by p * size + i, see FFTAuxiliary.distributedBatchRadix2FFT. */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, FieldT> batch(
+          final List<JavaPairRDD<Long, FieldT>> inputs, final long size) {
+    JavaPairRDD<Long, FieldT> result = inputs.get(0);
+    for (int p = 1; p < inputs.size(); p++) {
+      final long offset = p * size;
+      result =
+          result.union(inputs.get(p).mapToPair(term -> new Tuple2<>(offset + term._1, term._2)));
+    }
+    return result;
+  }
+
+  /* Keys the element p of the list i of input by p * size + i. */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, FieldT> unbatch(
+          final JavaPairRDD<Long, ArrayList<FieldT>> input, final long size) {
+    return input.flatMapToPair(
+        term -> {
+          final ArrayList<Tuple2<Long, FieldT>> elements = new ArrayList<>(term._2.size());
+          for (int p = 0; p < term._2.size(); p++) {
+            elements.add(new Tuple2<>(p * size + term._1, term._2.get(p)));
+          }
+          return elements.iterator();
+        });
   }
 
   /**
@@ -61,16 +219,16 @@ public class DistributedFFT {
   public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
       JavaPairRDD<Long, FieldT> lagrangeCoeffs(
           final FieldT t, final long size, final Configuration config) {
-    final long radix2Size = MathUtils.lowestPowerOfTwo(size);
-    return FFTAuxiliary.distributedRadix2LagrangeCoefficients(t, radix2Size, config);
+    final long domainSize = EvaluationDomain.lowestDomainSize(size, t);
+    return FFTAuxiliary.distributedRadix2LagrangeCoefficients(t, domainSize, config);
   }
 
   /** Evaluate the vanishing polynomial of S at the field element t. */
   public static <FieldT extends AbstractFieldElementExpanded<FieldT>> FieldT computeZ(
       final FieldT t, final long size) {
-    final long radix2Size = MathUtils.lowestPowerOfTwo(size);
+    final long domainSize = EvaluationDomain.lowestDomainSize(size, t);
     final FieldT one = t.one();
-    return t.pow(radix2Size).sub(one);
+    return t.pow(domainSize).sub(one);
   }
 
   /**
@@ -0,0 +1,399 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fft;
+
+import algebra.fields.AbstractFieldElementExpanded;
+import algebra.fields.FieldVector;
+import common.MathUtils;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Evaluation domain S={omega^{0},...,omega^{n-1}} of a field, of size n = 2^k or, for the fields
+ * with cube roots of unity (e.g. the scalar fields of BN254 and BLS12-377), n = 3 * 2^k, together
+ * with a coset g*S, holding everything the FFTs over S and g*S reuse between calls: omega,
+ * omega^{-1}, n^{-1}, g^{-1}, Z(g)^{-1}, the twiddle factors of the forward and inverse FFTs, and
+ * the powers of g and g^{-1} of the coset shifts.
+ *
+ * <p>The tables are FieldVectors, built on first use and not serialized. The FFTs of lists run on a
+ * FieldVector copy of their input or, for the fields without a Montgomery form (e.g. ComplexField),
+ * on the list itself with powers computed on each call. Domains are obtained from get(), which
+ * keeps the most recently used ones in a cache bounded by the size of their tables (see
+ * CACHE_BYTES), so that the repeated FFTs of the same size (e.g. in R1CStoQAP and BACE, or the row
+ * and column FFTs of DistributedFFT on each executor) share them.
+ */
+public class EvaluationDomain<FieldT extends AbstractFieldElementExpanded<FieldT>>
+    implements Serializable {
+  /**
+   * Maximum size in bytes of the tables of the domains kept by the cache of get(), set by the
+   * system property zkspark.fft.domainCacheBytes. The most recently used domain is kept whatever
+   * its size.
+   */
+  public static final long CACHE_BYTES = Long.getLong("zkspark.fft.domainCacheBytes", 1L << 28);
+
+  private static final LinkedHashMap<List<Object>, EvaluationDomain<?>> cache =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /* Indices of the tables built on first use */
+  private static final int TWIDDLES = 0;
+  private static final int INVERSE_TWIDDLES = 1;
+  private static final int COSET_POWERS = 2;
+  private static final int COSET_INVERSE_POWERS = 3;
+  private static final int SCALED_COSET_POWERS_BIT_REVERSED = 4;
+  private static final int NUM_TABLES = 5;
+
+  public final int domainSize;
+  private final FieldT omega;
+  private final FieldT omegaInverse;
+  private final FieldT sizeInverse;
+  private final FieldT coset;
+  private final FieldT cosetInverse;
+  /* Whether the elements of the field pack into a FieldVector */
+  private final boolean packed;
+
+  /* Tables built on first use, and their total size in bytes */
+  private transient FieldT inverseZCoset;
+  private transient ArrayList<FieldVector<FieldT>> tables;
+  private transient volatile long tableBytes;
+
+  private EvaluationDomain(final int domainSize, final FieldT coset) {
+    this.domainSize = domainSize;
+    this.omega = coset.rootOfUnity(domainSize);
+    this.omegaInverse = omega.inverse();
+    this.sizeInverse = coset.construct(domainSize).inverse();
+    this.coset = coset;
+    this.cosetInverse = coset.inverse();
+    this.packed = coset.montgomeryParameters() != null;
+  }
+
+  /**
+   * Returns the domain of size lowestDomainSize(size), with the coset defined by the multiplicative
+   * generator of the field of fieldFactory.
+   */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>> EvaluationDomain<FieldT> get(
+      final long size, final FieldT fieldFactory) {
+    return get(size, fieldFactory, fieldFactory.multiplicativeGenerator());
+  }
+
+  /* Returns the domain of size lowestDomainSize(size), with the coset defined by g. */
+  @SuppressWarnings("unchecked")
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>> EvaluationDomain<FieldT> get(
+      final long size, final FieldT fieldFactory, final FieldT g) {
+    final int domainSize = (int) lowestDomainSize(size, fieldFactory);
+    // -1 identifies the field among the fields of the same class, e.g. of Fp.
+    final List<Object> key =
+        Arrays.asList(
+            fieldFactory.getClass(),
+            fieldFactory.one().negate().toString(),
+            domainSize,
+            g.toString());
+    synchronized (cache) {
+      EvaluationDomain<?> domain = cache.get(key);
+      if (domain == null) {
+        domain = new EvaluationDomain<>(domainSize, g);
+        cache.put(key, domain);
+      }
+      return (EvaluationDomain<FieldT>) domain;
+    }
+  }
+
+  /**
+   * Evicts the least recently used domains until the tables of the cached domains fit in
+   * CACHE_BYTES, keeping at least the most recently used one. It only reads tableBytes, so that it
+   * may be called while holding the lock of a domain.
+   */
+  private static void trimCache() {
+    synchronized (cache) {
+      long bytes = 0;
+      for (final EvaluationDomain<?> domain : cache.values()) {
+        bytes += domain.tableBytes;
+      }
+      final Iterator<EvaluationDomain<?>> eldest = cache.values().iterator();
+      while (bytes > CACHE_BYTES && cache.size() > 1) {
+        bytes -= eldest.next().tableBytes;
+        eldest.remove();
+      }
+    }
+  }
+
+  /* Returns the size in bytes of the tables built so far. */
+  long tableBytes() {
+    return tableBytes;
+  }
+
+  /* Returns the table of the given index, built by build on first use. */
+  private FieldVector<FieldT> table(final int index, final Supplier<FieldVector<FieldT>> build) {
+    final FieldVector<FieldT> table;
+    synchronized (this) {
+      if (tables == null) {
+        tables = new ArrayList<>(Collections.nCopies(NUM_TABLES, null));
+      }
+      if (tables.get(index) != null) {
+        return tables.get(index);
+      }
+      table = build.get();
+      tables.set(index, table);
+      tableBytes += (long) Long.BYTES * table.limbs().length;
+    }
+    trimCache();
+    return table;
+  }
+
+  /**
+   * Returns the size of the smallest domain of the field of fieldFactory holding at least size
+   * elements: the lowest power of two at least size or, if it is smaller and the field has the
+   * roots of unity of its order, the lowest 3 * 2^k at least size, with k >= 1. E.g. a circuit of
+   * 2^25 + 1 constraints is then interpolated on 3 * 2^24 points rather than 2^26.
+   */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>> long lowestDomainSize(
+      final long size, final FieldT fieldFactory) {
+    final long radix2Size = MathUtils.lowestPowerOfTwo(size);
+    final long radix3Size = 3 * Math.max(2, MathUtils.lowestPowerOfTwo((size + 2) / 3));
+    if (radix3Size < radix2Size && fieldFactory.hasRootOfUnity(radix3Size)) {
+      return radix3Size;
+    }
+    return radix2Size;
+  }
+
+  public FieldT omega() {
+    return omega;
+  }
+
+  public FieldT omegaInverse() {
+    return omegaInverse;
+  }
+
+  /* Returns n^{-1} */
+  public FieldT sizeInverse() {
+    return sizeInverse;
+  }
+
+  public FieldT coset() {
+    return coset;
+  }
+
+  public FieldT cosetInverse() {
+    return cosetInverse;
+  }
+
+  /* Returns the inverse of the vanishing polynomial of S at g, Z(g)^{-1} = (g^{n}-1)^{-1}. */
+  public synchronized FieldT inverseZCoset() {
+    if (inverseZCoset == null) {
+      inverseZCoset = coset.pow(domainSize).sub(coset.one()).inverse();
+    }
+    return inverseZCoset;
+  }
+
+  /* Returns the twiddle factors omega^{0},...,omega^{n/2-1} of the FFT. */
+  public FieldVector<FieldT> twiddleVector() {
+    return table(TWIDDLES, () -> FFTAuxiliary.powerVector(omega, domainSize / 2));
+  }
+
+  /* Returns the twiddle factors omega^{0},...,omega^{-(n/2-1)} of the inverse FFT. */
+  public FieldVector<FieldT> inverseTwiddleVector() {
+    return table(INVERSE_TWIDDLES, () -> FFTAuxiliary.powerVector(omegaInverse, domainSize / 2));
+  }
+
+  /* Returns the powers g^{0},...,g^{n-1} of the coset shift. */
+  public FieldVector<FieldT> cosetPowerVector() {
+    return table(COSET_POWERS, () -> FFTAuxiliary.powerVector(coset, domainSize));
+  }
+
+  /* Returns the powers g^{0},...,g^{-(n-1)} of the inverse coset shift. */
+  public FieldVector<FieldT> cosetInversePowerVector() {
+    return table(COSET_INVERSE_POWERS, () -> FFTAuxiliary.powerVector(cosetInverse, domainSize));
+  }
+
+  /**
+   * Returns n^{-1} * g^{i} at index bitReverse(i), the coset shift and the scaling of the inverse
+   * FFT of evaluationsOnCoset, in the bit-reversed order of its coefficients (see
+   * FFTAuxiliary.bitReversed).
+   */
+  public FieldVector<FieldT> scaledCosetPowerVectorBitReversed() {
+    return table(
+        SCALED_COSET_POWERS_BIT_REVERSED,
+        () -> FFTAuxiliary.bitReversed(cosetPowerVector(), domainSize).scaleAssign(sizeInverse));
+  }
+
+  /*
+   * Runs fft on a FieldVector copy of input, and stores the result in input. The elements of input
+   * on return are new elements, owned by the caller.
+   */
+  private void onVector(final List<FieldT> input, final Consumer<FieldVector<FieldT>> fft) {
+    final FieldVector<FieldT> vector = new FieldVector<>(input, coset);
+    fft.accept(vector);
+    for (int i = 0; i < input.size(); i++) {
+      input.set(i, vector.get(i));
+    }
+  }
+
+  /**
+   * Computes the FFT over S of input, with the twiddles of the inverse FFT if inverse, and without
+   * its scaling by n^{-1}, and stores the result in input.
+   */
+  void unscaledRadix2FFT(final List<FieldT> input, final boolean inverse) {
+    assert (input.size() == domainSize);
+    if (packed) {
+      final FieldVector<FieldT> twiddles = inverse ? inverseTwiddleVector() : twiddleVector();
+      onVector(input, vector -> FFTAuxiliary.serialRadix2FFT(vector, twiddles));
+      return;
+    }
+    FFTAuxiliary.serialRadix2FFT(
+        input, FFTAuxiliary.powers(inverse ? omegaInverse : omega, domainSize / 2));
+  }
+
+  /** Compute the FFT, over the domain S, of the vector input, and stores the result in input. */
+  public void radix2FFT(final List<FieldT> input) {
+    assert (input.size() == domainSize);
+    if (packed) {
+      onVector(input, this::radix2FFT);
+      return;
+    }
+    unscaledRadix2FFT(input, false);
+  }
+
+  /**
+   * Compute the inverse FFT, over the domain S, of the vector input, and stores the result in
+   * input.
+   */
+  public void radix2InverseFFT(final List<FieldT> input) {
+    assert (input.size() == domainSize);
+    if (packed) {
+      onVector(input, this::radix2InverseFFT);
+      return;
+    }
+    unscaledRadix2FFT(input, true);
+
+    // The FFT above leaves mutable copies in input, which are scaled in place.
+    for (int i = 0; i < domainSize; ++i) {
+      input.set(i, input.get(i).mulAssign(sizeInverse));
+    }
+  }
+
+  /** Compute the FFT, over the domain g*S, of the vector input, and stores the result in input. */
+  public void radix2CosetFFT(final List<FieldT> input) {
+    if (packed) {
+      onVector(input, this::radix2CosetFFT);
+      return;
+    }
+    FFTAuxiliary.multiplyByCoset(input, coset);
+    radix2FFT(input);
+  }
+
+  /**
+   * Compute the inverse FFT, over the domain g*S, of the vector input, and stores the result in
+   * input.
+   */
+  public void radix2CosetInverseFFT(final List<FieldT> input) {
+    if (packed) {
+      onVector(input, this::radix2CosetInverseFFT);
+      return;
+    }
+    radix2InverseFFT(input);
+    FFTAuxiliary.multiplyByCoset(input, cosetInverse);
+  }
+
+  /**
+   * Multiply by the evaluation, on the coset g*S, of the inverse of the vanishing polynomial of S,
+   * and stores the result in input.
+   */
+  public void divideByZOnCoset(final List<FieldT> input) {
+    assert (input.size() == domainSize);
+    final FieldT inverseZ = inverseZCoset();
+    for (int i = 0; i < domainSize; i++) {
+      input.set(i, input.get(i).mul(inverseZ));
+    }
+  }
+
+  /* FieldVector version of radix2FFT, see FieldVector. */
+  public void radix2FFT(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.serialRadix2FFT(input, twiddleVector());
+  }
+
+  /* FieldVector version of radix2InverseFFT. */
+  public void radix2InverseFFT(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.serialRadix2FFT(input, inverseTwiddleVector());
+    FFTAuxiliary.mulAssign(input, input.limbs(sizeInverse), 0, FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+
+  /* FieldVector version of radix2CosetFFT. */
+  public void radix2CosetFFT(final FieldVector<FieldT> input) {
+    FFTAuxiliary.mulAssign(
+        input, cosetPowerVector().limbs(), 1, FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+    radix2FFT(input);
+  }
+
+  /* FieldVector version of radix2CosetInverseFFT. */
+  public void radix2CosetInverseFFT(final FieldVector<FieldT> input) {
+    radix2InverseFFT(input);
+    FFTAuxiliary.mulAssign(
+        input, cosetInversePowerVector().limbs(), 1, FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+
+  /**
+   * Compute the FFT, over the domain S, of the vector input in the natural order, and stores the
+   * result in input in bit-reversed order, without permutation (see FFTAuxiliary.radix2DIF).
+   */
+  public void radix2FFTToBitReversed(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.radix2DIF(input, twiddleVector(), FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+
+  /* Inverse version of radix2FFTToBitReversed. */
+  public void radix2InverseFFTToBitReversed(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.radix2DIF(input, inverseTwiddleVector(), FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+    FFTAuxiliary.mulAssign(input, input.limbs(sizeInverse), 0, FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+
+  /**
+   * Compute the FFT, over the domain S, of the vector input in bit-reversed order, and stores the
+   * result in input in the natural order, without permutation (see FFTAuxiliary.radix2DIT).
+   */
+  public void radix2FFTFromBitReversed(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.radix2DIT(input, twiddleVector(), FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+
+  /* Inverse version of radix2FFTFromBitReversed. */
+  public void radix2InverseFFTFromBitReversed(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.radix2DIT(input, inverseTwiddleVector(), FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+    FFTAuxiliary.mulAssign(input, input.limbs(sizeInverse), 0, FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+
+  /**
+   * Replaces the evaluations on S, in input, of a polynomial of degree less than n by its
+   * evaluations on g*S, i.e. radix2InverseFFT followed by radix2CosetFFT. The inverse FFT leaves
+   * the coefficients in bit-reversed order, where they are scaled and shifted by a single table,
+   * and the FFT takes them back to the natural order, so that no permutation is needed.
+   */
+  public void evaluationsOnCoset(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.radix2DIF(input, inverseTwiddleVector(), FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+    FFTAuxiliary.mulAssign(
+        input, scaledCosetPowerVectorBitReversed().limbs(), 1, FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+    FFTAuxiliary.radix2DIT(input, twiddleVector(), FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+
+  /* FieldVector version of divideByZOnCoset. */
+  public void divideByZOnCoset(final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    FFTAuxiliary.mulAssign(
+        input, input.limbs(inverseZCoset()), 0, FFTAuxiliary.PARALLEL_FFT_THRESHOLD);
+  }
+}
@@ -1,177 +1,1269 @@
 package algebra.fft;
 
 import algebra.fields.AbstractFieldElementExpanded;
+import algebra.fields.FieldUtils;
+import algebra.fields.FieldVector;
+import algebra.fields.FixedBasePowers;
+import algebra.fields.MontgomeryParameters;
+import algebra.fields.OffHeapFieldVector;
 import common.Combiner;
 import common.MathUtils;
 import common.Utils;
 import configuration.Configuration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 import org.apache.spark.api.java.JavaPairRDD;
 import scala.Tuple2;
 
 public class FFTAuxiliary {
 
+  /**
+   * Size from which serialRadix2FFT runs on the common ForkJoinPool: the stages are split into
+   * recursive halves of at most this size, and the butterflies of the later stages into chunks of
+   * half this size. It is set by the system property zkspark.fft.parallelThreshold, e.g. to a size
+   * larger than any domain to run the FFTs on a single thread.
+   */
+  static final int PARALLEL_FFT_THRESHOLD =
+      Integer.getInteger("zkspark.fft.parallelThreshold", 1 << 14);
+
   /**
    * Compute the radix-2 FFT of the vector a over the set S={omega^{0},...,omega^{m-1}}. Result is
-   * stored in ArrayList input.
+   * stored in ArrayList input. The twiddle factors are read from twiddles, which holds the powers
+   * omega^{0},...,omega^{m/2-1} (see EvaluationDomain).
+   *
+   * <p>The size m is a power of two or, on the mixed-radix domains, 3 * 2^k with k >= 1: the FFTs
+   * of size 2^k of the three interleaved subsequences are then combined by radix-3 butterflies (see
+   * radix3Length).
+   *
+   * <p>The elements of input are replaced by mutable copies once, and the butterflies are then
+   * computed in place with the assign methods of FieldT. The elements of input on return are
+   * therefore owned by the caller.
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void serialRadix2FFT(
+      final List<FieldT> input, final List<FieldT> twiddles) {
+    serialRadix2FFT(input, twiddles, PARALLEL_FFT_THRESHOLD);
+  }
+
+  /**
+   * serialRadix2FFT, run in parallel from the given size (see PARALLEL_FFT_THRESHOLD). Each
+   * butterfly is computed as in the single-threaded FFT, so that the results are identical.
    */
   static <FieldT extends AbstractFieldElementExpanded<FieldT>> void serialRadix2FFT(
-      final List<FieldT> input, final FieldT omega) {
+      final List<FieldT> input, final List<FieldT> twiddles, final int parallelThreshold) {
     final int n = input.size();
-    final int logn = MathUtils.log2(n);
     if (n == 1) {
+      input.set(0, input.get(0).mutableCopy());
       return;
     }
 
-    assert (n == (1 << logn));
+    final int length = radix2Length(n);
+    final int logLength = MathUtils.log2(length);
+    if (length < n) {
+      /* The element 3a + r moves to the subsequence r, at r * length + a. */
+      final List<FieldT> elements = new ArrayList<>(input);
+      for (int i = 0; i < n; i++) {
+        input.set((i % 3) * length + i / 3, elements.get(i));
+      }
+    }
+
+    /* swapping in place (from Storer's book) */
+    for (int offset = 0; offset < n; offset += length) {
+      for (int k = 0; k < length; ++k) {
+        final int rk = MathUtils.bitReverse(k, logLength);
+        if (k < rk) {
+          Collections.swap(input, offset + k, offset + rk);
+        }
+        if (k <= rk) {
+          input.set(offset + k, input.get(offset + k).mutableCopy());
+          if (k < rk) {
+            input.set(offset + rk, input.get(offset + rk).mutableCopy());
+          }
+        }
+      }
+    }
+
+    assert (twiddles.size() >= n / 2);
+    final FieldT one = input.get(0).one();
+    final int numTwiddles = n / 2;
+    final Supplier<Radix2Stage> butterflies =
+        () ->
+            new Radix2Stage() {
+              private FieldT t = one.mutableCopy();
+
+              public void apply(final int offset, final int m, final int from, final int to) {
+                // omega^{stride} is 2m-th root of unity
+                final int stride = numTwiddles / m;
+                for (int j = from; j < to; ++j) {
+                  final FieldT u = input.get(offset + j);
+                  t = t.set(input.get(offset + j + m)).mulAssign(twiddles.get(j * stride));
+                  input.set(offset + j + m, input.get(offset + j + m).set(u).subAssign(t));
+                  input.set(offset + j, u.addAssign(t));
+                }
+              }
+            };
+    final int threshold = input instanceof RandomAccess ? parallelThreshold : n;
+    for (int offset = 0; offset < n; offset += length) {
+      radix2Stages(butterflies, offset, length, threshold);
+    }
+    if (length < n) {
+      radix3Butterflies(input, twiddles, length, threshold);
+    }
+  }
+
+  /**
+   * Returns the size of the radix-2 FFTs of an FFT of size n, i.e. n for a power of two, and n / 3
+   * for the mixed-radix sizes n = 3 * 2^k, k >= 1. The FFT of size 3 * 2^k is computed by the FFTs
+   * of size 2^k of the subsequences r = 0, 1, 2 of the elements 3a + r, held in this order, one
+   * after the other, and by radix-3 butterflies on the elements k, k + 2^k and k + 2 * 2^k (see
+   * radix3Butterfly). The twiddles are the same n/2 powers of omega as for the radix-2 FFTs.
+   */
+  static int radix2Length(final int n) {
+    final int length = n % 3 == 0 ? n / 3 : n;
+    assert (MathUtils.isPowerOfTwo(length) && (length == n || length > 1));
+    return length;
+  }
+
+  /**
+   * Radix-3 butterflies of serialRadix2FFT, on the FFTs of size length of the three subsequences of
+   * input, with the n/2 twiddles omega^{0},...,omega^{n/2-1}, where n = 3 * length.
+   */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>> void radix3Butterflies(
+      final List<FieldT> input,
+      final List<FieldT> twiddles,
+      final int length,
+      final int parallelThreshold) {
+    final int numTwiddles = 3 * length / 2;
+    /* omega^{length} is a primitive cube root of unity */
+    final FieldT zeta = twiddles.get(length);
+    final FieldT one = input.get(0).one();
+    final IntRange butterflies =
+        (from, to) -> {
+          FieldT b = one.mutableCopy();
+          FieldT c = one.mutableCopy();
+          FieldT d = one.mutableCopy();
+          for (int k = from; k < to; k++) {
+            final FieldT x0 = input.get(k);
+            final FieldT x1 = input.get(k + length);
+            final FieldT x2 = input.get(k + 2 * length);
+            // omega^{2k} = -omega^{2k - n/2} beyond the table.
+            b = b.set(x1).mulAssign(twiddles.get(k));
+            if (2 * k < numTwiddles) {
+              c = c.set(x2).mulAssign(twiddles.get(2 * k));
+            } else {
+              c = c.set(x2).mulAssign(twiddles.get(2 * k - numTwiddles)).negateAssign();
+            }
+            d = d.set(b).subAssign(c).mulAssign(zeta);
+            input.set(k + length, x1.set(x0).subAssign(c).addAssign(d));
+            input.set(k + 2 * length, x2.set(x0).subAssign(b).subAssign(d));
+            input.set(k, x0.addAssign(b).addAssign(c));
+          }
+        };
+    parallelFor(length, parallelThreshold, butterflies);
+  }
+
+  /* Returns the count powers base^{0},...,base^{count-1}. */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> ArrayList<FieldT> powers(
+      final FieldT base, final int count) {
+    final ArrayList<FieldT> result = new ArrayList<>(count);
+    FieldT power = base.one();
+    for (int i = 0; i < count; i++) {
+      result.add(power);
+      power = power.mul(base);
+    }
+    return result;
+  }
+
+  /* FieldVector version of powers. */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> FieldVector<FieldT> powerVector(
+      final FieldT base, final int count) {
+    final FieldVector<FieldT> result = new FieldVector<>(count, base);
+    FieldT power = base.one().mutableCopy();
+    for (int i = 0; i < count; i++) {
+      result.set(i, power);
+      power = power.mulAssign(base);
+    }
+    return result;
+  }
+
+  /* Number of elements of an OffHeapFieldVector processed at a time by the FFT */
+  static final int OFF_HEAP_FFT_BLOCK_SIZE = 1 << 12;
+
+  /**
+   * FieldVector version of serialRadix2FFT, which computes the butterflies directly on the packed
+   * limbs of input.
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void serialRadix2FFT(
+      final FieldVector<FieldT> input, final FieldVector<FieldT> twiddles) {
+    if (input.size() >= SIX_STEP_FFT_THRESHOLD && MathUtils.isPowerOfTwo(input.size())) {
+      sixStepRadix2FFT(input, twiddles, PARALLEL_FFT_THRESHOLD);
+    } else {
+      serialRadix2FFT(input, twiddles, PARALLEL_FFT_THRESHOLD);
+    }
+  }
+
+  /* FieldVector version of serialRadix2FFT, run in parallel from the given size. */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void serialRadix2FFT(
+      final FieldVector<FieldT> input,
+      final FieldVector<FieldT> twiddles,
+      final int parallelThreshold) {
+    final int n = input.size();
+    if (n == 1) {
+      return;
+    }
+
+    final int numLimbs = input.numLimbs();
+    bitReverse(input.limbs(), 0, n, numLimbs, new long[numLimbs]);
+    radix2DIT(input, twiddles, parallelThreshold);
+  }
+
+  /**
+   * Decimation-in-time FFT of input, from the bit-reversed order to the natural order, i.e.
+   * serialRadix2FFT without its bit-reversal permutation. With radix2DIF, which leaves its output
+   * in bit-reversed order, chained transforms (e.g. an inverse FFT followed by a coset FFT, see
+   * EvaluationDomain.evaluationsOnCoset) skip the permutations entirely. On the mixed-radix sizes,
+   * the bit-reversed order is that of bitReversed(), and the radix-3 butterflies follow the radix-2
+   * stages.
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void radix2DIT(
+      final FieldVector<FieldT> input,
+      final FieldVector<FieldT> twiddles,
+      final int parallelThreshold) {
+    final int n = input.size();
+    if (n == 1) {
+      return;
+    }
+
+    final int length = radix2Length(n);
+    assert (twiddles.size() >= n / 2);
+    final Supplier<Radix2Stage> stages =
+        butterflies(input.montgomeryParameters(), input.limbs(), twiddles.limbs(), n / 2);
+    for (int offset = 0; offset < n; offset += length) {
+      radix2Stages(stages, offset, length, parallelThreshold);
+    }
+    if (length < n) {
+      radix3Butterflies(input, twiddles, false, parallelThreshold);
+    }
+  }
+
+  /**
+   * Decimation-in-frequency FFT of input, from the natural order to the bit-reversed order: the
+   * stages of radix2DIT in reverse, with Gentleman-Sande butterflies. Element i of the output is
+   * the element bitReverse(i) of the FFT. On the mixed-radix sizes, the radix-3 butterflies precede
+   * the radix-2 stages.
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void radix2DIF(
+      final FieldVector<FieldT> input,
+      final FieldVector<FieldT> twiddles,
+      final int parallelThreshold) {
+    final int n = input.size();
+    if (n == 1) {
+      return;
+    }
+
+    final int length = radix2Length(n);
+    assert (twiddles.size() >= n / 2);
+    if (length < n) {
+      radix3Butterflies(input, twiddles, true, parallelThreshold);
+    }
+    final Supplier<Radix2Stage> stages =
+        difButterflies(input.montgomeryParameters(), input.limbs(), twiddles.limbs(), n / 2);
+    for (int offset = 0; offset < n; offset += length) {
+      difStages(stages, offset, length, parallelThreshold);
+    }
+  }
+
+  /**
+   * Radix-3 butterflies of radix2DIT, or if dif of radix2DIF, on the three thirds of input, with
+   * the n/2 twiddles of the FFT of size n (see radix3Butterfly).
+   */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>> void radix3Butterflies(
+      final FieldVector<FieldT> input,
+      final FieldVector<FieldT> twiddles,
+      final boolean dif,
+      final int parallelThreshold) {
+    final MontgomeryParameters montgomery = input.montgomeryParameters();
+    final int numLimbs = montgomery.numLimbs;
+    final long[] a = input.limbs();
+    final long[] w = twiddles.limbs();
+    final int length = input.size() / 3;
+    final int numTwiddles = 3 * length / 2;
+    final IntRange butterflies =
+        (from, to) -> {
+          final long[] t = new long[3 * numLimbs];
+          final long[] scratch = new long[montgomery.scratchLength()];
+          for (int k = from; k < to; k++) {
+            // omega^{2k} = -omega^{2k - n/2} beyond the table.
+            final boolean negate = 2 * k >= numTwiddles;
+            radix3Butterfly(
+                montgomery,
+                a,
+                k * numLimbs,
+                (k + length) * numLimbs,
+                (k + 2 * length) * numLimbs,
+                w,
+                k * numLimbs,
+                (negate ? 2 * k - numTwiddles : 2 * k) * numLimbs,
+                negate,
+                length * numLimbs,
+                dif,
+                t,
+                scratch);
+          }
+        };
+    parallelFor(length, parallelThreshold, butterflies);
+  }
 
+  /**
+   * Radix-3 butterfly on (x0, x1, x2) = (a[u0], a[u1], a[u2]), with the twiddles w1 = w[w1Offset],
+   * w2 = w[w2Offset], negated if negateW2, and the cube root of unity zeta = w[zetaOffset]. The
+   * decimation-in-time butterfly sets, with b = w1 * x1 and c = w2 * x2,
+   *
+   * <p>(x0, x1, x2) = (x0 + b + c, x0 + zeta * b + zeta^2 * c, x0 + zeta^2 * b + zeta * c),
+   *
+   * <p>and the decimation-in-frequency butterfly applies w1 and w2 after the same sums of x0, x1
+   * and x2. As zeta^2 = -1 - zeta, both use a single multiplication by zeta, of b - c or x1 - x2. t
+   * holds three temporary elements.
+   */
+  private static void radix3Butterfly(
+      final MontgomeryParameters montgomery,
+      final long[] a,
+      final int u0,
+      final int u1,
+      final int u2,
+      final long[] w,
+      final int w1Offset,
+      final int w2Offset,
+      final boolean negateW2,
+      final int zetaOffset,
+      final boolean dif,
+      final long[] t,
+      final long[] scratch) {
+    final int numLimbs = montgomery.numLimbs;
+    final int b = 0;
+    final int c = numLimbs;
+    final int d = 2 * numLimbs;
+    if (dif) {
+      montgomery.sub(a, u1, a, u2, t, d);
+      montgomery.mul(t, d, w, zetaOffset, t, d, scratch);
+      montgomery.sub(a, u0, a, u2, t, b);
+      montgomery.add(t, b, t, d, t, b);
+      montgomery.sub(a, u0, a, u1, t, c);
+      montgomery.sub(t, c, t, d, t, c);
+      montgomery.add(a, u0, a, u1, a, u0);
+      montgomery.add(a, u0, a, u2, a, u0);
+      montgomery.mul(t, b, w, w1Offset, a, u1, scratch);
+      montgomery.mul(t, c, w, w2Offset, a, u2, scratch);
+      if (negateW2) {
+        montgomery.negate(a, u2, a, u2);
+      }
+      return;
+    }
+
+    montgomery.mul(a, u1, w, w1Offset, t, b, scratch);
+    montgomery.mul(a, u2, w, w2Offset, t, c, scratch);
+    if (negateW2) {
+      montgomery.negate(t, c, t, c);
+    }
+    montgomery.sub(t, b, t, c, t, d);
+    montgomery.mul(t, d, w, zetaOffset, t, d, scratch);
+    montgomery.sub(a, u0, t, c, a, u1);
+    montgomery.add(a, u1, t, d, a, u1);
+    montgomery.sub(a, u0, t, b, a, u2);
+    montgomery.sub(a, u2, t, d, a, u2);
+    montgomery.add(a, u0, t, b, a, u0);
+    montgomery.add(a, u0, t, c, a, u0);
+  }
+
+  /**
+   * Returns a copy of the length elements of vector, permuted in bit-reversed order. On the
+   * mixed-radix sizes 3 * 2^k, the element 3a + r is at r * 2^k + bitReverse(a) (see radix2Length).
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> FieldVector<FieldT> bitReversed(
+      final FieldVector<FieldT> vector, final int length) {
+    final FieldVector<FieldT> result = vector.slice(0, length);
+    final int numLimbs = result.numLimbs();
+    bitReverse(result.limbs(), 0, length, numLimbs, new long[numLimbs]);
+    return result;
+  }
+
+  /* Permutes the length elements of a at offset in bit-reversed order, using t as temporary. */
+  private static void bitReverse(
+      final long[] a, final int offset, final int length, final int numLimbs, final long[] t) {
+    final int radix2Length = radix2Length(length);
+    if (radix2Length < length) {
+      /* The element 3a + r moves to the subsequence r, at r * radix2Length + a. */
+      final long[] elements =
+          Arrays.copyOfRange(a, offset * numLimbs, (offset + length) * numLimbs);
+      for (int i = 0; i < length; i++) {
+        final int position = offset + (i % 3) * radix2Length + i / 3;
+        System.arraycopy(elements, i * numLimbs, a, position * numLimbs, numLimbs);
+      }
+      for (int r = 0; r < 3; r++) {
+        bitReverse(a, offset + r * radix2Length, radix2Length, numLimbs, t);
+      }
+      return;
+    }
+
+    final int logLength = MathUtils.log2(length);
     /* swapping in place (from Storer's book) */
-    for (int k = 0; k < n; ++k) {
-      final int rk = MathUtils.bitReverse(k, logn);
+    for (int k = 0; k < length; ++k) {
+      final int rk = MathUtils.bitReverse(k, logLength);
       if (k < rk) {
-        Collections.swap(input, k, rk);
+        System.arraycopy(a, (offset + k) * numLimbs, t, 0, numLimbs);
+        System.arraycopy(a, (offset + rk) * numLimbs, a, (offset + k) * numLimbs, numLimbs);
+        System.arraycopy(t, 0, a, (offset + rk) * numLimbs, numLimbs);
       }
     }
+  }
+
+  /**
+   * Size from which the FieldVector FFTs use sixStepRadix2FFT, set by the system property
+   * zkspark.fft.sixStepThreshold. The extra twiddle multiplications of the six-step FFT only pay
+   * off once the butterflies of the iterative FFT are bound by memory rather than by the
+   * multiplications, hence the large default.
+   */
+  static final int SIX_STEP_FFT_THRESHOLD =
+      Integer.getInteger("zkspark.fft.sixStepThreshold", 1 << 24);
 
-    int m = 1; // invariant: m = 2^{s-1}
-    for (int s = 1; s <= logn; ++s) {
-      // w_m is 2^s-th root of unity now
-      final FieldT w_m = omega.pow(n / (2 * m));
+  /* Side of the square tiles of the blocked transposes of sixStepRadix2FFT */
+  private static final int TRANSPOSE_TILE = 16;
 
+  /**
+   * Six-step version of the FieldVector serialRadix2FFT, for the large domains on which the
+   * butterflies of the later stages and the bit-reversal stride across the whole vector. The n = n1
+   * * n2 elements are viewed as an n2 x n1 matrix, and the FFT is computed by: a transpose, n1 FFTs
+   * of size n2 on the rows, a multiplication by the twiddles omega^{j1 * k2}, a transpose, n2 FFTs
+   * of size n1 on the rows, and a final transpose into the natural order. Each row FFT runs on a
+   * contiguous block of about sqrt(n) elements, which stays in cache, the transposes are blocked,
+   * and the rows are distributed over the common ForkJoinPool (see PARALLEL_FFT_THRESHOLD).
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void sixStepRadix2FFT(
+      final FieldVector<FieldT> input,
+      final FieldVector<FieldT> twiddles,
+      final int parallelThreshold) {
+    final int n = input.size();
+    final int logn = MathUtils.log2(n);
+    if (n < 4) {
+      serialRadix2FFT(input, twiddles, parallelThreshold);
+      return;
+    }
+
+    assert (n == (1 << logn));
+    assert (twiddles.size() >= n / 2);
+
+    final MontgomeryParameters montgomery = input.montgomeryParameters();
+    final int numLimbs = input.numLimbs();
+    final int n1 = 1 << (logn / 2);
+    final int n2 = n / n1;
+    final long[] a = input.limbs();
+    final long[] b = new long[a.length];
+
+    transpose(a, b, n2, n1, numLimbs, parallelThreshold);
+    rowFFTs(montgomery, b, n1, n2, twiddles.limbs(), n / 2, true, parallelThreshold);
+    transpose(b, a, n1, n2, numLimbs, parallelThreshold);
+    rowFFTs(montgomery, a, n2, n1, twiddles.limbs(), n / 2, false, parallelThreshold);
+    transpose(a, b, n2, n1, numLimbs, parallelThreshold);
+    System.arraycopy(b, 0, a, 0, a.length);
+  }
+
+  /**
+   * Computes the FFTs of the numRows contiguous rows of length rowLength of a, with the twiddles of
+   * butterflies(), and if multiplyTwiddles, multiplies the element k of row j by omega^{j * k},
+   * where omega is the (2 * numTwiddles)-th root of unity of the twiddles.
+   */
+  private static void rowFFTs(
+      final MontgomeryParameters montgomery,
+      final long[] a,
+      final int numRows,
+      final int rowLength,
+      final long[] twiddles,
+      final int numTwiddles,
+      final boolean multiplyTwiddles,
+      final int parallelThreshold) {
+    final int numLimbs = montgomery.numLimbs;
+    final Supplier<Radix2Stage> stages = butterflies(montgomery, a, twiddles, numTwiddles);
+    final IntRange rows =
+        (from, to) -> {
+          final Radix2Stage stage = stages.get();
+          final long[] t = new long[numLimbs];
+          final long[] scratch = new long[montgomery.scratchLength()];
+          for (int j = from; j < to; j++) {
+            final int offset = j * rowLength;
+            bitReverse(a, offset, rowLength, numLimbs, t);
+            radix2Stages(stage, offset, rowLength);
+            if (multiplyTwiddles && j > 0) {
+              for (int k = 1; k < rowLength; k++) {
+                // omega^{j * k} = -omega^{j * k - numTwiddles} beyond the table.
+                final int e = j * k;
+                final int i = (offset + k) * numLimbs;
+                if (e < numTwiddles) {
+                  montgomery.mul(a, i, twiddles, e * numLimbs, a, i, scratch);
+                } else {
+                  montgomery.mul(a, i, twiddles, (e - numTwiddles) * numLimbs, a, i, scratch);
+                  montgomery.negate(a, i, a, i);
+                }
+              }
+            }
+          }
+        };
+    parallelFor(numRows, Math.max(1, parallelThreshold / rowLength), rows);
+  }
+
+  /* Sets dst to the transpose of the rows x columns matrix src, of elements of numLimbs limbs. */
+  private static void transpose(
+      final long[] src,
+      final long[] dst,
+      final int rows,
+      final int columns,
+      final int numLimbs,
+      final int parallelThreshold) {
+    final int rowTiles = (rows + TRANSPOSE_TILE - 1) / TRANSPOSE_TILE;
+    final IntRange tiles =
+        (from, to) -> {
+          for (int r0 = from * TRANSPOSE_TILE;
+              r0 < Math.min(rows, to * TRANSPOSE_TILE);
+              r0 += TRANSPOSE_TILE) {
+            for (int c0 = 0; c0 < columns; c0 += TRANSPOSE_TILE) {
+              for (int r = r0; r < Math.min(rows, r0 + TRANSPOSE_TILE); r++) {
+                for (int c = c0; c < Math.min(columns, c0 + TRANSPOSE_TILE); c++) {
+                  System.arraycopy(
+                      src, (r * columns + c) * numLimbs, dst, (c * rows + r) * numLimbs, numLimbs);
+                }
+              }
+            }
+          }
+        };
+    final int tilesPerTask = Math.max(1, parallelThreshold / (TRANSPOSE_TILE * columns));
+    parallelFor(rowTiles, tilesPerTask, tiles);
+  }
+
+  /**
+   * OffHeapFieldVector version of serialRadix2FFT. The first stages, whose butterflies stay within
+   * blocks of blockSize elements, are computed one block at a time on the heap, and each later
+   * stage streams the two halves of its butterflies through the heap in blocks. On the mixed-radix
+   * sizes, the radix-3 butterflies stream the three thirds of input in the same way.
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void serialRadix2FFT(
+      final OffHeapFieldVector<FieldT> input, final FieldT omega, final int blockSize) {
+    final int n = input.size();
+    if (n == 1) {
+      return;
+    }
+
+    final int length = radix2Length(n);
+    final int logLength = MathUtils.log2(length);
+    assert (MathUtils.isPowerOfTwo(blockSize) && blockSize > 1);
+
+    final MontgomeryParameters montgomery = input.montgomeryParameters();
+    final int numLimbs = input.numLimbs();
+    /* The radix-2 FFTs are over the powers of omega^{n / length}. */
+    final FieldT radix2Omega = length < n ? omega.pow(3) : omega;
+    final long[][] roots = stageRoots(input.limbs(radix2Omega), length, montgomery);
+
+    final long[] u = new long[numLimbs];
+    final long[] v = new long[numLimbs];
+    if (length < n) {
+      /* The element 3a + r moves to r * length + a, along the cycles of the permutation. */
+      final BitSet moved = new BitSet(n);
+      for (int start = 0; start < n; start++) {
+        if (moved.get(start)) {
+          continue;
+        }
+        input.get(start, 1, u, 0);
+        int i = start;
+        do {
+          i = (i % 3) * length + i / 3;
+          input.get(i, 1, v, 0);
+          input.put(i, 1, u, 0);
+          moved.set(i);
+          System.arraycopy(v, 0, u, 0, numLimbs);
+        } while (i != start);
+      }
+    }
+
+    /* swapping in place (from Storer's book) */
+    for (int offset = 0; offset < n; offset += length) {
+      for (int k = 0; k < length; ++k) {
+        final int rk = MathUtils.bitReverse(k, logLength);
+        if (k < rk) {
+          input.get(offset + k, 1, u, 0);
+          input.get(offset + rk, 1, v, 0);
+          input.put(offset + k, 1, v, 0);
+          input.put(offset + rk, 1, u, 0);
+        }
+      }
+    }
+
+    final int blockLength = Math.min(length, blockSize);
+    final int logBlockLength = MathUtils.log2(blockLength);
+    final long[] block = new long[3 * blockLength * numLimbs];
+    // The stages within a block only use the powers of the blockLength-th root of unity.
+    final long[] blockTwiddles =
+        powerVector(radix2Omega.pow(length / blockLength), blockLength / 2).limbs();
+    for (int i = 0; i < n; i += blockLength) {
+      input.get(i, blockLength, block, 0);
+      radix2Stages(
+          butterflies(montgomery, block, blockTwiddles, blockLength / 2).get(), 0, blockLength);
+      input.put(i, blockLength, block, 0);
+    }
+
+    // From here on m >= blockLength, and the halves are processed blockLength / 2 at a time.
+    final int half = blockLength / 2;
+    final int halfOffset = half * numLimbs;
+    final long[] w = new long[numLimbs];
+    final long[] t = new long[3 * numLimbs];
+    final long[] scratch = new long[montgomery.scratchLength()];
+    for (int s = logBlockLength + 1; s <= logLength; ++s) {
+      final int m = 1 << (s - 1);
       for (int k = 0; k < n; k += 2 * m) {
-        FieldT w = omega.one();
-        for (int j = 0; j < m; ++j) {
-          final FieldT t = w.mul(input.get(k + j + m));
-          input.set(k + j + m, input.get(k + j).sub(t));
-          input.set(k + j, input.get(k + j).add(t));
-          w = w.mul(w_m);
+        System.arraycopy(montgomery.one, 0, w, 0, numLimbs);
+        for (int j = 0; j < m; j += half) {
+          input.get(k + j, half, block, 0);
+          input.get(k + j + m, half, block, halfOffset);
+          for (int l = 0; l < half; l++) {
+            butterfly(montgomery, block, l * numLimbs, halfOffset + l * numLimbs, w, 0, t, scratch);
+            montgomery.mul(w, 0, roots[s], 0, w, 0, scratch);
+          }
+          input.put(k + j, half, block, 0);
+          input.put(k + j + m, half, block, halfOffset);
         }
       }
-      m *= 2;
     }
+    if (length == n) {
+      return;
+    }
+
+    /* Radix-3 butterflies, with w = (omega^{k}, omega^{2k}, omega^{length}) by running products. */
+    final int third = blockLength * numLimbs;
+    final long[] omegaLimbs = input.limbs(omega);
+    final long[] omegaSquare = new long[numLimbs];
+    montgomery.square(omegaLimbs, 0, omegaSquare, 0);
+    final long[] twiddles = new long[3 * numLimbs];
+    System.arraycopy(montgomery.one, 0, twiddles, 0, numLimbs);
+    System.arraycopy(montgomery.one, 0, twiddles, numLimbs, numLimbs);
+    System.arraycopy(input.limbs(omega.pow(length)), 0, twiddles, 2 * numLimbs, numLimbs);
+    for (int k = 0; k < length; k += blockLength) {
+      for (int r = 0; r < 3; r++) {
+        input.get(k + r * length, blockLength, block, r * third);
+      }
+      for (int l = 0; l < blockLength; l++) {
+        radix3Butterfly(
+            montgomery,
+            block,
+            l * numLimbs,
+            third + l * numLimbs,
+            2 * third + l * numLimbs,
+            twiddles,
+            0,
+            numLimbs,
+            false,
+            2 * numLimbs,
+            false,
+            t,
+            scratch);
+        montgomery.mul(twiddles, 0, omegaLimbs, 0, twiddles, 0, scratch);
+        montgomery.mul(twiddles, numLimbs, omegaSquare, 0, twiddles, numLimbs, scratch);
+      }
+      for (int r = 0; r < 3; r++) {
+        input.put(k + r * length, blockLength, block, r * third);
+      }
+    }
+  }
+
+  /* Returns the roots omega^{n / 2^s}, for s = 1, ..., log(n), indexed by s. */
+  private static long[][] stageRoots(
+      final long[] omega, final int n, final MontgomeryParameters montgomery) {
+    final int logn = MathUtils.log2(n);
+    final long[][] roots = new long[logn + 1][];
+    roots[logn] = omega;
+    for (int s = logn - 1; s >= 1; s--) {
+      roots[s] = new long[omega.length];
+      montgomery.square(roots[s + 1], 0, roots[s], 0);
+    }
+    return roots;
+  }
+
+  /**
+   * Sets input[i] = input[i] * factors[i * stride] for all i, where factors holds elements in
+   * Montgomery form, e.g. the powers of a coset shift, or a single scalar with a stride of 0. This
+   * runs on the common ForkJoinPool, in chunks of parallelThreshold elements, for the larger
+   * inputs.
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void mulAssign(
+      final FieldVector<FieldT> input,
+      final long[] factors,
+      final int stride,
+      final int parallelThreshold) {
+    final MontgomeryParameters montgomery = input.montgomeryParameters();
+    final int numLimbs = input.numLimbs();
+    final long[] a = input.limbs();
+    final IntRange mulRange =
+        (from, to) -> {
+          final long[] scratch = new long[montgomery.scratchLength()];
+          for (int i = from; i < to; i++) {
+            montgomery.mul(
+                a, i * numLimbs, factors, i * stride * numLimbs, a, i * numLimbs, scratch);
+          }
+        };
+
+    parallelFor(input.size(), parallelThreshold, mulRange);
+  }
+
+  /* Computes the elements [from, to) of a loop. */
+  private interface IntRange {
+    void apply(final int from, final int to);
+  }
+
+  /**
+   * Computes the elements [0, count) of the loop body, on this thread if count <= chunk, and
+   * otherwise in chunks of chunk elements on the common ForkJoinPool.
+   */
+  private static void parallelFor(final int count, final int chunk, final IntRange body) {
+    if (count <= chunk) {
+      body.apply(0, count);
+      return;
+    }
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int from = 0; from < count; from += chunk) {
+      final int start = from;
+      final int end = Math.min(count, from + chunk);
+      tasks.add(ForkJoinTask.adapt(() -> body.apply(start, end)));
+    }
+    if (ForkJoinTask.inForkJoinPool()) {
+      ForkJoinTask.invokeAll(tasks);
+    } else {
+      ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+  }
+
+  /* Computes the butterflies [from, to) of the stage of half-size m on the 2m elements at offset. */
+  private interface Radix2Stage {
+    void apply(final int offset, final int m, final int from, final int to);
+  }
+
+  /**
+   * Returns butterflies on the limbs of a, for Radix2Stage. twiddles holds, in Montgomery form, the
+   * numTwiddles first powers of a primitive (2 * numTwiddles)-th root of unity, where 2 *
+   * numTwiddles is a multiple of the length of the FFT. Each Radix2Stage returned owns its
+   * temporaries, and is used by a single thread.
+   */
+  private static Supplier<Radix2Stage> butterflies(
+      final MontgomeryParameters montgomery,
+      final long[] a,
+      final long[] twiddles,
+      final int numTwiddles) {
+    final int numLimbs = montgomery.numLimbs;
+    return () -> {
+      final long[] t = new long[numLimbs];
+      final long[] scratch = new long[montgomery.scratchLength()];
+      return (offset, m, from, to) -> {
+        final int stride = numTwiddles / m;
+        for (int j = from; j < to; ++j) {
+          butterfly(
+              montgomery,
+              a,
+              (offset + j) * numLimbs,
+              (offset + j + m) * numLimbs,
+              twiddles,
+              j * stride * numLimbs,
+              t,
+              scratch);
+        }
+      };
+    };
+  }
+
+  /**
+   * Returns Gentleman-Sande butterflies on the limbs of a, for the decimation-in-frequency stages,
+   * with the twiddles of butterflies().
+   */
+  private static Supplier<Radix2Stage> difButterflies(
+      final MontgomeryParameters montgomery,
+      final long[] a,
+      final long[] twiddles,
+      final int numTwiddles) {
+    final int numLimbs = montgomery.numLimbs;
+    return () -> {
+      final long[] t = new long[numLimbs];
+      final long[] scratch = new long[montgomery.scratchLength()];
+      return (offset, m, from, to) -> {
+        final int stride = numTwiddles / m;
+        for (int j = from; j < to; ++j) {
+          final int u = (offset + j) * numLimbs;
+          final int v = (offset + j + m) * numLimbs;
+          montgomery.sub(a, u, a, v, t, 0);
+          montgomery.add(a, u, a, v, a, u);
+          montgomery.mul(t, 0, twiddles, j * stride * numLimbs, a, v, scratch);
+        }
+      };
+    };
   }
 
-  /** A distributed version of serialRadix2FFT. */
+  /**
+   * Computes all the stages of the FFT on the length elements at offset, on this thread. The stages
+   * are computed two at a time, as radix-4 butterflies: the butterflies of the stages of half-size
+   * m and 2m on the elements j, j+m, j+2m and j+3m of a block of 4m elements follow each other,
+   * while the four elements are in cache, which halves the passes over the elements.
+   */
+  private static void radix2Stages(final Radix2Stage stage, final int offset, final int length) {
+    int m = 1;
+    if ((MathUtils.log2(length) & 1) == 1) {
+      for (int k = offset; k < offset + length; k += 2) {
+        stage.apply(k, 1, 0, 1);
+      }
+      m = 2;
+    }
+    for (; m < length; m *= 4) {
+      for (int k = offset; k < offset + length; k += 4 * m) {
+        for (int j = 0; j < m; j++) {
+          stage.apply(k, m, j, j + 1);
+          stage.apply(k + 2 * m, m, j, j + 1);
+          stage.apply(k, 2 * m, j, j + 1);
+          stage.apply(k, 2 * m, j + m, j + m + 1);
+        }
+      }
+    }
+  }
+
+  /* Decimation-in-frequency version of radix2Stages: the stages from half-size length / 2 to 1. */
+  private static void difStages(final Radix2Stage stage, final int offset, final int length) {
+    int m = length / 2;
+    for (; m >= 2; m /= 4) {
+      final int h = m / 2;
+      for (int k = offset; k < offset + length; k += 2 * m) {
+        for (int j = 0; j < h; j++) {
+          stage.apply(k, m, j, j + 1);
+          stage.apply(k, m, j + h, j + h + 1);
+          stage.apply(k, h, j, j + 1);
+          stage.apply(k + m, h, j, j + 1);
+        }
+      }
+    }
+    if (m == 1) {
+      for (int k = offset; k < offset + length; k += 2) {
+        stage.apply(k, 1, 0, 1);
+      }
+    }
+  }
+
+  /* Decimation-in-frequency version of radix2Stages on the common ForkJoinPool. */
+  private static void difStages(
+      final Supplier<Radix2Stage> stages,
+      final int offset,
+      final int length,
+      final int parallelThreshold) {
+    if (length <= parallelThreshold) {
+      difStages(stages.get(), offset, length);
+    } else {
+      ForkJoinPool.commonPool()
+          .invoke(
+              ForkJoinTask.adapt(
+                  () -> parallelDifStages(stages, offset, length, parallelThreshold)));
+    }
+  }
+
+  private static void parallelDifStages(
+      final Supplier<Radix2Stage> stages,
+      final int offset,
+      final int length,
+      final int parallelThreshold) {
+    if (length <= parallelThreshold) {
+      difStages(stages.get(), offset, length);
+      return;
+    }
+    final int m = length / 2;
+    parallelFor(
+        m,
+        Math.max(1, parallelThreshold / 2),
+        (from, to) -> stages.get().apply(offset, m, from, to));
+
+    ForkJoinTask.invokeAll(
+        ForkJoinTask.adapt(() -> parallelDifStages(stages, offset, m, parallelThreshold)),
+        ForkJoinTask.adapt(() -> parallelDifStages(stages, offset + m, m, parallelThreshold)));
+  }
+
+  /**
+   * Computes all the stages of the FFT on the length bit-reversed elements at offset, on the common
+   * ForkJoinPool if length > parallelThreshold: the first stages run on the two halves in parallel,
+   * recursively, and the butterflies of the last stage in chunks.
+   */
+  private static void radix2Stages(
+      final Supplier<Radix2Stage> stages,
+      final int offset,
+      final int length,
+      final int parallelThreshold) {
+    if (length <= parallelThreshold) {
+      radix2Stages(stages.get(), offset, length);
+    } else {
+      ForkJoinPool.commonPool()
+          .invoke(
+              ForkJoinTask.adapt(
+                  () -> parallelRadix2Stages(stages, offset, length, parallelThreshold)));
+    }
+  }
+
+  private static void parallelRadix2Stages(
+      final Supplier<Radix2Stage> stages,
+      final int offset,
+      final int length,
+      final int parallelThreshold) {
+    if (length <= parallelThreshold) {
+      radix2Stages(stages.get(), offset, length);
+      return;
+    }
+    final int m = length / 2;
+    ForkJoinTask.invokeAll(
+        ForkJoinTask.adapt(() -> parallelRadix2Stages(stages, offset, m, parallelThreshold)),
+        ForkJoinTask.adapt(() -> parallelRadix2Stages(stages, offset + m, m, parallelThreshold)));
+
+    parallelFor(
+        m,
+        Math.max(1, parallelThreshold / 2),
+        (from, to) -> stages.get().apply(offset, m, from, to));
+  }
+
+  /* Sets (a[u], a[v]) = (a[u] + w * a[v], a[u] - w * a[v]), using t as temporary. */
+  private static void butterfly(
+      final MontgomeryParameters montgomery,
+      final long[] a,
+      final int u,
+      final int v,
+      final long[] w,
+      final int wOffset,
+      final long[] t,
+      final long[] scratch) {
+    montgomery.mul(a, v, w, wOffset, t, 0, scratch);
+    montgomery.sub(a, u, t, 0, a, v);
+    montgomery.add(a, u, t, 0, a, u);
+  }
+
+  /**
+   * Maximum number of elements of a block of the distributed FFT, when the lines of its passes
+   * allow it, set by the system property zkspark.fft.maxBlockLength (see BlockLayout).
+   */
+  static final long MAX_FFT_BLOCK_LENGTH = Long.getLong("zkspark.fft.maxBlockLength", 1L << 22);
+
+  /** A distributed version of serialRadix2FFT, see distributedRadix2FFTBlocks. */
   static <FieldT extends AbstractFieldElementExpanded<FieldT>>
       JavaPairRDD<Long, FieldT> distributedRadix2FFT(
           final JavaPairRDD<Long, FieldT> input,
-          final long rows,
-          final long columns,
+          final long[] dimensions,
+          final boolean inverse,
+          final FieldT g,
+          final FieldT fieldFactory) {
+    final BlockLayout layout =
+        new BlockLayout(dimensions, 1, input.getNumPartitions(), MAX_FFT_BLOCK_LENGTH);
+    return distributedRadix2FFTBlocks(input, layout, inverse, g, fieldFactory)
+        .flatMapToPair(
+            block -> {
+              /* Serialize and order evaluation results. */
+              final ArrayList<FieldT> elements = block._2;
+              final ArrayList<Tuple2<Long, FieldT>> outputs = new ArrayList<>(elements.size());
+              for (int i = 0; i < elements.size(); i++) {
+                final long position = layout.position(0, block._1, i);
+                outputs.add(new Tuple2<>(layout.outputIndex(position), elements.get(i)));
+              }
+
+              return outputs.iterator();
+            });
+  }
+
+  /**
+   * Batched version of distributedRadix2FFT, which computes the FFTs of batchSize vectors in one
+   * pass. The element i of the vector p is keyed by p * size + i in input, and the result holds,
+   * for each index i, the list of the elements i of the FFTs of the batchSize vectors.
+   */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, ArrayList<FieldT>> distributedBatchRadix2FFT(
+          final JavaPairRDD<Long, FieldT> input,
+          final int batchSize,
+          final long[] dimensions,
           final boolean inverse,
+          final FieldT g,
           final FieldT fieldFactory) {
-    assert (MathUtils.isPowerOfTwo(rows));
-    assert (MathUtils.isPowerOfTwo(columns));
+    final BlockLayout layout =
+        new BlockLayout(dimensions, batchSize, input.getNumPartitions(), MAX_FFT_BLOCK_LENGTH);
+    return distributedRadix2FFTBlocks(input, layout, inverse, g, fieldFactory)
+        .flatMapToPair(
+            block -> {
+              final ArrayList<FieldT> elements = block._2;
+              final int vectorLength = elements.size() / batchSize;
+              final ArrayList<Tuple2<Long, ArrayList<FieldT>>> outputs =
+                  new ArrayList<>(vectorLength);
+              for (int i = 0; i < vectorLength; i++) {
+                final ArrayList<FieldT> values = new ArrayList<>(batchSize);
+                for (int p = 0; p < batchSize; p++) {
+                  values.add(elements.get(p * vectorLength + i));
+                }
+                final long position = layout.position(0, block._1, i);
+                outputs.add(new Tuple2<>(layout.outputIndex(position), values));
+              }
+
+              return outputs.iterator();
+            });
+  }
+
+  /**
+   * Computes the FFTs of the vectors of input, keyed as in distributedBatchRadix2FFT, over the
+   * domain S or, if g is not null, over the coset g*S: the input of the FFT is multiplied by g^{i},
+   * and the output of the inverse FFT by g^{-i}.
+   *
+   * <p>The FFT of size n = n_0 * ... * n_{d-1} is computed in d passes, from the last dimension to
+   * the first, on the blocks of lines of the layout: the pass j computes the FFTs of size n_j along
+   * its lines, followed by the twiddles of the pass j-1, by running products along the lines (see
+   * [S11], recursively on n = n_0 * (n_1 * ... * n_{d-1})). The input is gathered once into the
+   * blocks of the first pass, and each following pass is a single shuffle, of one piece per pair of
+   * blocks. The lines of a pass of a d-dimensional split hold n^{1/d} elements, see
+   * DistributedFFT.dimensions. Returns the blocks of the last pass.
+   */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, ArrayList<FieldT>> distributedRadix2FFTBlocks(
+          final JavaPairRDD<Long, FieldT> input,
+          final BlockLayout layout,
+          final boolean inverse,
+          final FieldT g,
+          final FieldT fieldFactory) {
+    assert (layout.numPasses() >= 2);
+    assert (fieldFactory.hasRootOfUnity(layout.size()));
 
     /* Initialization */
-    final long size = rows * columns;
-    final FieldT omegaShift = fieldFactory.rootOfUnity(size);
+    final long size = layout.size();
+    final int first = layout.numPasses() - 1;
+    final FieldT omegaShift =
+        inverse ? fieldFactory.rootOfUnity(size).inverse() : fieldFactory.rootOfUnity(size);
     final Combiner<FieldT> combine = new Combiner<>();
-    final SerialFFT<FieldT> rowDomain = new SerialFFT<>(rows, fieldFactory);
-    final SerialFFT<FieldT> columnDomain = new SerialFFT<>(columns, fieldFactory);
+    final Combiner<Tuple2<int[], ArrayList<FieldT>>> combinePieces = new Combiner<>();
 
-    /* Algorithm 1: Forward FFT, Mapper */
-    final JavaPairRDD<Long, FieldT> columnGroups =
+    /* Gather the input into the blocks of the first pass. */
+    JavaPairRDD<Long, ArrayList<FieldT>> blocks =
         input
             .mapToPair(
                 element -> {
-                  /* AbstractGroup the array of inputs into rows using the combiner. */
-                  final long group = element._1 % rows;
-                  final long index = element._1 / rows;
+                  final long position = element._1 % size;
+                  final int p = (int) (element._1 / size);
+                  final long index = layout.index(first, position, p);
 
-                  return new Tuple2<>(group, new Tuple2<>(index, element._2));
+                  return new Tuple2<>(
+                      layout.block(first, position), new Tuple2<>(index, element._2));
                 })
-            .combineByKey(combine.createGroup, combine.mergeElement, combine.mergeCombiner)
-            .mapValues(
-                partition -> {
-                  /* Compute the forward FFT, on domain size columns, for each group. */
-                  ArrayList<FieldT> groupArray = Utils.convertFromPairs(partition, (int) columns);
-
-                  if (inverse) {
-                    columnDomain.radix2InverseFFT(groupArray);
-                  } else {
-                    columnDomain.radix2FFT(groupArray);
-                  }
-
-                  return groupArray;
-                })
-            .flatMapToPair(
-                element -> {
-                  /* Bitshift and map to key j. */
-                  final long index = element._1;
-
-                  ArrayList<Tuple2<Long, FieldT>> combinedNumbers = new ArrayList<>();
-                  for (int i = 0; i < columns; i++) {
-                    final FieldT nthRoot =
-                        inverse ? omegaShift.pow(index * i).inverse() : omegaShift.pow(index * i);
-                    combinedNumbers.add(
-                        new Tuple2<>(i * rows + index, nthRoot.mul(element._2.get(i))));
+            .combineByKey(
+                combine.createGroup,
+                combine.mergeElement,
+                combine.mergeCombiner,
+                new BlockPartitioner((int) layout.numBlocks(first)))
+            .mapToPair(
+                block -> {
+                  final ArrayList<FieldT> elements =
+                      Utils.convertFromPairs(block._2, layout.blockLength(first));
+                  if (g != null && !inverse) {
+                    /* Multiply the element at position i by g^{i}, by running products. */
+                    final int n = (int) layout.dimension(first);
+                    final FieldT step = g.pow(layout.stride(first));
+                    for (int line = 0; line < elements.size(); line += n) {
+                      FieldT factor = g.pow(layout.position(first, block._1, line));
+                      for (int a = 0; a < n; a++) {
+                        elements.set(line + a, elements.get(line + a).mul(factor));
+                        factor = factor.mul(step);
+                      }
+                    }
                   }
 
-                  return combinedNumbers.iterator();
+                  distributedRadix2Pass(
+                      layout, first, block._1, elements, fieldFactory, omegaShift, inverse, g);
+                  return new Tuple2<>(block._1, elements);
                 });
 
-    /* Algorithm 2: Forward FFT, Reducer */
-    return columnGroups
-        .mapToPair(
-            element -> {
-              /* AbstractGroup the array of inputs into columns using the combiner. */
-              final long group = element._1 / rows;
-              final long index = element._1 % rows;
-
-              return new Tuple2<>(group, new Tuple2<>(index, element._2));
-            })
-        .combineByKey(combine.createGroup, combine.mergeElement, combine.mergeCombiner)
-        .mapValues(
-            partition -> {
-              /* Compute the forward FFT, on domain size rows, for each group. */
-              ArrayList<FieldT> groupArray = Utils.convertFromPairs(partition, (int) rows);
-
-              if (inverse) {
-                rowDomain.radix2InverseFFT(groupArray);
-              } else {
-                rowDomain.radix2FFT(groupArray);
-              }
+    for (int j = first - 1; j >= 0; j--) {
+      final int pass = j;
+      blocks =
+          blocks
+              .flatMapToPair(
+                  block -> {
+                    /* Split the block into pieces, by block of the next pass. */
+                    final ArrayList<FieldT> elements = block._2;
+                    final int numBlocks = (int) layout.numBlocks(pass);
+                    final int[] destinations = new int[elements.size()];
+                    final int[] indices = new int[elements.size()];
+                    final int[] counts = new int[numBlocks];
+                    for (int i = 0; i < elements.size(); i++) {
+                      final long position = layout.position(pass + 1, block._1, i);
+                      destinations[i] = (int) layout.block(pass, position);
+                      indices[i] = layout.index(pass, position, layout.vector(pass + 1, i));
+                      counts[destinations[i]]++;
+                    }
 
-              return groupArray;
-            })
-        .flatMapToPair(
-            element -> {
-              /* Serialize and order evaluation results. */
-              final long index = element._1;
+                    final int[][] pieceIndices = new int[numBlocks][];
+                    final List<ArrayList<FieldT>> pieceElements = new ArrayList<>(numBlocks);
+                    for (int b = 0; b < numBlocks; b++) {
+                      pieceIndices[b] = new int[counts[b]];
+                      pieceElements.add(new ArrayList<>(counts[b]));
+                    }
+                    for (int i = 0; i < elements.size(); i++) {
+                      final int b = destinations[i];
+                      pieceIndices[b][pieceElements.get(b).size()] = indices[i];
+                      pieceElements.get(b).add(elements.get(i));
+                    }
 
-              ArrayList<Tuple2<Long, FieldT>> outputs = new ArrayList<>();
-              for (int i = 0; i < rows; i++) {
-                outputs.add(new Tuple2<>(i * columns + index, element._2.get(i)));
-              }
+                    final ArrayList<Tuple2<Long, Tuple2<Long, Tuple2<int[], ArrayList<FieldT>>>>>
+                        pieces = new ArrayList<>();
+                    for (int b = 0; b < numBlocks; b++) {
+                      if (counts[b] > 0) {
+                        pieces.add(
+                            new Tuple2<>(
+                                (long) b,
+                                new Tuple2<>(
+                                    block._1,
+                                    new Tuple2<>(pieceIndices[b], pieceElements.get(b)))));
+                      }
+                    }
 
-              return outputs.iterator();
-            });
+                    return pieces.iterator();
+                  })
+              .combineByKey(
+                  combinePieces.createGroup,
+                  combinePieces.mergeElement,
+                  combinePieces.mergeCombiner,
+                  new BlockPartitioner((int) layout.numBlocks(pass)))
+              .mapToPair(
+                  block -> {
+                    /* Assemble the block from its pieces. */
+                    final ArrayList<FieldT> elements =
+                        new ArrayList<>(
+                            Collections.nCopies(layout.blockLength(pass), fieldFactory.zero()));
+                    for (final Tuple2<Long, Tuple2<int[], ArrayList<FieldT>>> piece : block._2) {
+                      final int[] indices = piece._2._1;
+                      for (int i = 0; i < indices.length; i++) {
+                        elements.set(indices[i], piece._2._2.get(i));
+                      }
+                    }
+
+                    distributedRadix2Pass(
+                        layout, pass, block._1, elements, fieldFactory, omegaShift, inverse, g);
+                    return new Tuple2<>(block._1, elements);
+                  });
+    }
+
+    return blocks;
+  }
+
+  /**
+   * Computes the pass j of distributedRadix2FFTBlocks on the elements of the given block: the FFTs
+   * of size n_j along its lines, followed by the twiddles of the pass j-1, or, after the last pass
+   * of an inverse FFT over g*S, by the coset shift g^{-i} of the output i. The scaling of the
+   * inverse FFT is applied with the twiddles of the first pass.
+   *
+   * <p>The FFTs of the lines run on the cached domain of size n_j of the field, with its default
+   * coset, whose roots of unity are powers of omegaShift, the root of unity of the whole FFT (or
+   * its inverse) from which the twiddles of the pass are computed.
+   */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>> void distributedRadix2Pass(
+      final BlockLayout layout,
+      final int j,
+      final long block,
+      final List<FieldT> elements,
+      final FieldT fieldFactory,
+      final FieldT omegaShift,
+      final boolean inverse,
+      final FieldT g) {
+    final int n = (int) layout.dimension(j);
+    final EvaluationDomain<FieldT> domain = EvaluationDomain.get(n, fieldFactory);
+    for (int line = 0; line < elements.size(); line += n) {
+      domain.unscaledRadix2FFT(elements.subList(line, line + n), inverse);
+    }
+
+    /* The factor of the output b_j of the line is root^{base + b_j * step}. */
+    final FieldT root;
+    if (j > 0) {
+      /* omega_M^{a_{j-1} * k_j}, for the FFT of size M = n_{j-1} * ... * n_{d-1} */
+      root = omegaShift.pow(layout.stride(j - 1));
+    } else if (g != null && inverse) {
+      root = g.inverse();
+    } else {
+      return;
+    }
+    final FieldT scale =
+        inverse && j == layout.numPasses() - 1
+            ? fieldFactory.construct(layout.size()).inverse()
+            : fieldFactory.one();
+
+    /* The lines of the vectors of the batch follow each other, and share their factors. */
+    final int vectorLength = layout.blockLines(j) * n;
+    for (int line = 0; line < vectorLength; line += n) {
+      final long position = layout.position(j, block, line);
+      /* k_j without its coordinate j, i.e. sum_{l > j} b_l * outputStride(l) */
+      long rest = 0;
+      for (int l = j + 1; l < layout.numPasses(); l++) {
+        rest += layout.coordinate(l, position) * layout.outputStride(l);
+      }
+      final long a = j > 0 ? layout.coordinate(j - 1, position) : 1;
+      FieldT factor = root.pow(a * rest).mul(scale);
+      final FieldT step = root.pow(a * layout.outputStride(j));
+      for (int b = 0; b < n; b++) {
+        for (int i = line + b; i < elements.size(); i += vectorLength) {
+          elements.set(i, elements.get(i).mulAssign(factor));
+        }
+        factor = factor.mulAssign(step);
+      }
+    }
   }
 
   /** Translate the vector input to a coset defined by g. Result is stored in ArrayList input. */
   static <FieldT extends AbstractFieldElementExpanded<FieldT>> void multiplyByCoset(
       final List<FieldT> input, final FieldT g) {
-    FieldT coset = g;
+    FieldT coset = g.mutableCopy();
     for (int i = 1; i < input.size(); ++i) {
       input.set(i, input.get(i).mul(coset));
-      coset = coset.mul(g);
+      coset = coset.mulAssign(g);
     }
   }
 
-  /** A distributed version of multiplyByCoset. */
-  static <FieldT extends AbstractFieldElementExpanded<FieldT>>
-      JavaPairRDD<Long, FieldT> distributedMultiplyByCoset(
-          final JavaPairRDD<Long, FieldT> input, final FieldT g) {
+  /* FieldVector version of multiplyByCoset. */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void multiplyByCoset(
+      final FieldVector<FieldT> input, final FieldT g) {
+    final MontgomeryParameters montgomery = input.montgomeryParameters();
+    final int numLimbs = input.numLimbs();
+    final long[] a = input.limbs();
+    final long[] scratch = input.scratch();
+    final long[] gLimbs = input.limbs(g);
+    final long[] coset = gLimbs.clone();
+    for (int i = 1; i < input.size(); ++i) {
+      montgomery.mul(a, i * numLimbs, coset, 0, a, i * numLimbs, scratch);
+      montgomery.mul(coset, 0, gLimbs, 0, coset, 0, scratch);
+    }
+  }
 
-    return input.mapToPair(term -> new Tuple2<>(term._1, term._2.mul(g.pow(term._1))));
+  /* OffHeapFieldVector version of multiplyByCoset. */
+  static <FieldT extends AbstractFieldElementExpanded<FieldT>> void multiplyByCoset(
+      final OffHeapFieldVector<FieldT> input, final FieldT g, final int blockSize) {
+    final MontgomeryParameters montgomery = input.montgomeryParameters();
+    final int numLimbs = input.numLimbs();
+    final long[] scratch = new long[montgomery.scratchLength()];
+    final long[] gLimbs = input.limbs(g);
+    final long[] coset = montgomery.one.clone();
+    final long[] block = new long[Math.min(input.size(), blockSize) * numLimbs];
+    for (int i = 0; i < input.size(); i += blockSize) {
+      final int count = Math.min(blockSize, input.size() - i);
+      input.get(i, count, block, 0);
+      for (int offset = 0; offset < count * numLimbs; offset += numLimbs) {
+        montgomery.mul(block, offset, coset, 0, block, offset, scratch);
+        montgomery.mul(coset, 0, gLimbs, 0, coset, 0, scratch);
+      }
+      input.put(i, count, block, 0);
+    }
   }
 
   /**
    * Compute the m Lagrange coefficients, relative to the set S={omega^{0},...,omega^{m-1}}, at the
-   * field element t.
+   * field element t, where m is the size of a domain of the field (see
+   * EvaluationDomain.lowestDomainSize).
    */
   static <FieldT extends AbstractFieldElementExpanded<FieldT>>
       List<FieldT> serialRadix2LagrangeCoefficients(final FieldT t, final int m) {
@@ -181,7 +1273,7 @@ public class FFTAuxiliary {
       return coeff;
     }
 
-    assert (m == (1 << MathUtils.log2(m)));
+    assert (t.hasRootOfUnity(m));
 
     final FieldT omega = t.rootOfUnity(m);
     final FieldT one = t.one();
@@ -215,12 +1307,20 @@ public class FFTAuxiliary {
      */
     final FieldT Z = t.pow(m).sub(one);
     final FieldT mInverse = t.construct(m).inverse();
-    FieldT l = Z.mul(mInverse);
-    FieldT r = one;
+
+    // The m inversions of (t-\omega^i) are batched.
+    final List<FieldT> denominators = new ArrayList<>(m);
+    FieldT r = one.mutableCopy();
     for (int i = 0; i < m; ++i) {
-      lagrangeCoefficients.set(i, l.mul(t.sub(r).inverse()));
-      l = l.mul(omega);
-      r = r.mul(omega);
+      denominators.add(t.sub(r));
+      r = r.mulAssign(omega);
+    }
+    final List<FieldT> denominatorInverses = FieldUtils.batchInverse(denominators);
+
+    FieldT l = Z.mul(mInverse).mutableCopy();
+    for (int i = 0; i < m; ++i) {
+      lagrangeCoefficients.set(i, denominatorInverses.get(i).mulAssign(l));
+      l = l.mulAssign(omega);
     }
 
     return lagrangeCoefficients;
@@ -236,7 +1336,7 @@ public class FFTAuxiliary {
           .parallelizePairs(Collections.singletonList(new Tuple2<>((long) 0, t.one())));
     }
 
-    assert (m == (1 << MathUtils.log2(m)));
+    assert (t.hasRootOfUnity(m));
 
     final FieldT omega = t.rootOfUnity(m);
     final FieldT one = t.one();
@@ -246,11 +1346,12 @@ public class FFTAuxiliary {
      * If t equals one of the roots of unity in S={omega^{0},...,omega^{m-1}}
      * then output 1 at the right place, and 0 elsewhere
      */
+    final FixedBasePowers<FieldT> omegaPowers = new FixedBasePowers<>(omega, m - 1);
     if (t.pow(m).equals(one)) {
       return Utils.fillRDD(m, zero, config)
           .mapToPair(
               term -> {
-                if (!omega.pow(term._1).equals(t)) {
+                if (!omegaPowers.pow(term._1).equals(t)) {
                   return term;
                 }
                 return new Tuple2<>(term._1, one);
@@ -272,7 +1373,7 @@ public class FFTAuxiliary {
     return Utils.fillRDD(m, zero, config)
         .mapToPair(
             term -> {
-              final FieldT omega_i = omega.pow(term._1);
+              final FieldT omega_i = omegaPowers.pow(term._1);
               final FieldT l_i = l.mul(omega_i);
 
               return new Tuple2<>(term._1, l_i.mul(t.sub(omega_i).inverse()));
@@ -283,7 +1384,7 @@ public class FFTAuxiliary {
       HashMap<Long, FieldT> subsequenceRadix2LagrangeCoefficients(
           final FieldT t, final long m, final List<Long> indices) {
 
-    assert (m == (1 << MathUtils.log2(m)));
+    assert (t.hasRootOfUnity(m));
 
     final HashMap<Long, FieldT> coefficients = new HashMap<>();
 
@@ -318,11 +1419,18 @@ public class FFTAuxiliary {
     final FieldT mInverse = t.construct(m).inverse();
     final FieldT l = Z.mul(mInverse);
 
+    // The inversions of (t-\omega^i) are batched.
+    final List<FieldT> numerators = new ArrayList<>(indices.size());
+    final List<FieldT> denominators = new ArrayList<>(indices.size());
     for (Long index : indices) {
       final FieldT omega_i = omega.pow(index);
-      final FieldT l_i = l.mul(omega_i);
+      numerators.add(l.mul(omega_i));
+      denominators.add(t.sub(omega_i));
+    }
+    final List<FieldT> denominatorInverses = FieldUtils.batchInverse(denominators);
 
-      coefficients.put(index, l_i.mul(t.sub(omega_i).inverse()));
+    for (int i = 0; i < indices.size(); i++) {
+      coefficients.put(indices.get(i), numerators.get(i).mulAssign(denominatorInverses.get(i)));
     }
     return coefficients;
   }
@@ -1,7 +1,8 @@
 package algebra.fft;
 
 import algebra.fields.AbstractFieldElementExpanded;
-import common.MathUtils;
+import algebra.fields.FieldVector;
+import algebra.fields.OffHeapFieldVector;
 import java.io.Serializable;
 import java.util.List;
 
@@ -10,18 +11,26 @@ public class SerialFFT<FieldT extends AbstractFieldElementExpanded<FieldT>>
 
   public final int domainSize;
   private final FieldT omega;
+  /* Cached domain of the FFTs, looked up again after deserialization (see EvaluationDomain) */
+  private transient EvaluationDomain<FieldT> domain;
 
   public SerialFFT(final long _domainSize, final FieldT fieldFactory) {
     assert (_domainSize > 1);
-    domainSize = (int) MathUtils.lowestPowerOfTwo(_domainSize);
-    omega = fieldFactory.rootOfUnity(domainSize);
+    domain = EvaluationDomain.get(_domainSize, fieldFactory);
+    domainSize = domain.domainSize;
+    omega = domain.omega();
+  }
+
+  private EvaluationDomain<FieldT> domain() {
+    if (domain == null) {
+      domain = EvaluationDomain.get(domainSize, omega);
+    }
+    return domain;
   }
 
   /** Compute the FFT, over the domain S, of the vector input, and stores the result in input. */
   public void radix2FFT(final List<FieldT> input) {
-    assert (input.size() == domainSize);
-
-    FFTAuxiliary.serialRadix2FFT(input, omega);
+    domain().radix2FFT(input);
   }
 
   /**
@@ -29,18 +38,15 @@ public class SerialFFT<FieldT extends AbstractFieldElementExpanded<FieldT>>
    * input.
    */
   public void radix2InverseFFT(final List<FieldT> input) {
-    assert (input.size() == domainSize);
-
-    FFTAuxiliary.serialRadix2FFT(input, omega.inverse());
-
-    final FieldT constant = input.get(0).construct(domainSize).inverse();
-    for (int i = 0; i < domainSize; ++i) {
-      input.set(i, input.get(i).mul(constant));
-    }
+    domain().radix2InverseFFT(input);
   }
 
   /** Compute the FFT, over the domain g*S, of the vector input, and stores the result in input. */
   public void radix2CosetFFT(final List<FieldT> input, final FieldT g) {
+    if (g.equals(domain().coset())) {
+      domain().radix2CosetFFT(input);
+      return;
+    }
     FFTAuxiliary.multiplyByCoset(input, g);
     this.radix2FFT(input);
   }
@@ -50,10 +56,112 @@ public class SerialFFT<FieldT extends AbstractFieldElementExpanded<FieldT>>
    * input.
    */
   public void radix2CosetInverseFFT(final List<FieldT> input, final FieldT g) {
+    if (g.equals(domain().coset())) {
+      domain().radix2CosetInverseFFT(input);
+      return;
+    }
+    this.radix2InverseFFT(input);
+    FFTAuxiliary.multiplyByCoset(input, g.inverse());
+  }
+
+  /* FieldVector version of radix2FFT, see FieldVector. */
+  public void radix2FFT(final FieldVector<FieldT> input) {
+    domain().radix2FFT(input);
+  }
+
+  /* FieldVector version of radix2InverseFFT. */
+  public void radix2InverseFFT(final FieldVector<FieldT> input) {
+    domain().radix2InverseFFT(input);
+  }
+
+  /* FieldVector version of radix2CosetFFT. */
+  public void radix2CosetFFT(final FieldVector<FieldT> input, final FieldT g) {
+    if (g.equals(domain().coset())) {
+      domain().radix2CosetFFT(input);
+      return;
+    }
+    FFTAuxiliary.multiplyByCoset(input, g);
+    this.radix2FFT(input);
+  }
+
+  /* FieldVector version of radix2CosetInverseFFT. */
+  public void radix2CosetInverseFFT(final FieldVector<FieldT> input, final FieldT g) {
+    if (g.equals(domain().coset())) {
+      domain().radix2CosetInverseFFT(input);
+      return;
+    }
     this.radix2InverseFFT(input);
     FFTAuxiliary.multiplyByCoset(input, g.inverse());
   }
 
+  /**
+   * Natural-in, bit-reversed-out FFT over the domain S: element i of input holds, on return, the
+   * element bitReverse(i) of radix2FFT(input). The bit-reversal permutation of radix2FFT is
+   * skipped, for the callers that only apply elementwise operations to the result, or take it back
+   * with radix2InverseFFTFromBitReversed. On the domains of size 3 * 2^k, the element j of
+   * radix2FFT(input) is at the index given by FFTAuxiliary.bitReversed instead.
+   */
+  public void radix2FFTToBitReversed(final FieldVector<FieldT> input) {
+    domain().radix2FFTToBitReversed(input);
+  }
+
+  /* Natural-in, bit-reversed-out version of radix2InverseFFT. */
+  public void radix2InverseFFTToBitReversed(final FieldVector<FieldT> input) {
+    domain().radix2InverseFFTToBitReversed(input);
+  }
+
+  /* Bit-reversed-in, natural-out version of radix2FFT. */
+  public void radix2FFTFromBitReversed(final FieldVector<FieldT> input) {
+    domain().radix2FFTFromBitReversed(input);
+  }
+
+  /* Bit-reversed-in, natural-out version of radix2InverseFFT. */
+  public void radix2InverseFFTFromBitReversed(final FieldVector<FieldT> input) {
+    domain().radix2InverseFFTFromBitReversed(input);
+  }
+
+  /**
+   * Replaces the evaluations on S of a polynomial by its evaluations on g*S, as radix2InverseFFT
+   * followed by radix2CosetFFT, without bit-reversal permutation for the coset of the domain (see
+   * EvaluationDomain.evaluationsOnCoset).
+   */
+  public void evaluationsOnCoset(final FieldVector<FieldT> input, final FieldT g) {
+    if (g.equals(domain().coset())) {
+      domain().evaluationsOnCoset(input);
+      return;
+    }
+    this.radix2InverseFFT(input);
+    this.radix2CosetFFT(input, g);
+  }
+
+  /* OffHeapFieldVector version of radix2FFT, see OffHeapFieldVector. */
+  public void radix2FFT(final OffHeapFieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+
+    FFTAuxiliary.serialRadix2FFT(input, omega, FFTAuxiliary.OFF_HEAP_FFT_BLOCK_SIZE);
+  }
+
+  /* OffHeapFieldVector version of radix2InverseFFT. */
+  public void radix2InverseFFT(final OffHeapFieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+
+    FFTAuxiliary.serialRadix2FFT(
+        input, domain().omegaInverse(), FFTAuxiliary.OFF_HEAP_FFT_BLOCK_SIZE);
+    input.scaleAssign(domain().sizeInverse(), FFTAuxiliary.OFF_HEAP_FFT_BLOCK_SIZE);
+  }
+
+  /* OffHeapFieldVector version of radix2CosetFFT. */
+  public void radix2CosetFFT(final OffHeapFieldVector<FieldT> input, final FieldT g) {
+    FFTAuxiliary.multiplyByCoset(input, g, FFTAuxiliary.OFF_HEAP_FFT_BLOCK_SIZE);
+    this.radix2FFT(input);
+  }
+
+  /* OffHeapFieldVector version of radix2CosetInverseFFT. */
+  public void radix2CosetInverseFFT(final OffHeapFieldVector<FieldT> input, final FieldT g) {
+    this.radix2InverseFFT(input);
+    FFTAuxiliary.multiplyByCoset(input, g.inverse(), FFTAuxiliary.OFF_HEAP_FFT_BLOCK_SIZE);
+  }
+
   /**
    * Evaluate all Lagrange polynomials.
    *
@@ -88,9 +196,27 @@ public class SerialFFT<FieldT extends AbstractFieldElementExpanded<FieldT>>
    * and stores the result in input.
    */
   public void divideByZOnCoset(final FieldT coset, final List<FieldT> input) {
-    final FieldT inverseZCoset = computeZ(coset).inverse();
+    assert (input.size() == domainSize);
+    final FieldT inverseZCoset = inverseZCoset(coset);
     for (int i = 0; i < domainSize; i++) {
       input.set(i, input.get(i).mul(inverseZCoset));
     }
   }
+
+  /* FieldVector version of divideByZOnCoset. */
+  public void divideByZOnCoset(final FieldT coset, final FieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    input.scaleAssign(inverseZCoset(coset));
+  }
+
+  /* OffHeapFieldVector version of divideByZOnCoset. */
+  public void divideByZOnCoset(final FieldT coset, final OffHeapFieldVector<FieldT> input) {
+    assert (input.size() == domainSize);
+    input.scaleAssign(inverseZCoset(coset), FFTAuxiliary.OFF_HEAP_FFT_BLOCK_SIZE);
+  }
+
+  /* Returns Z(coset)^{-1}, cached by the domain for its own coset. */
+  private FieldT inverseZCoset(final FieldT coset) {
+    return coset.equals(domain().coset()) ? domain().inverseZCoset() : computeZ(coset).inverse();
+  }
 }
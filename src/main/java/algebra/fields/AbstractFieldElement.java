@@ -45,16 +45,61 @@ public abstract class AbstractFieldElement<FieldT extends AbstractFieldElement<F
   /* Returns this^(-1) */
   public abstract FieldT inverse();
 
+  /**
+   * Returns a copy of this element that is owned by the caller, and can therefore be updated with
+   * the assign methods below. Immutable implementations return this.
+   */
+  public FieldT mutableCopy() {
+    return this.self();
+  }
+
+  /*
+   * The assign methods below update this element in place and return it when the implementation
+   * supports it (e.g. MontgomeryFp), and otherwise fall back to the immutable operations. They must
+   * only be called on an element owned by the caller (see mutableCopy()), and the returned element
+   * must always be used, e.g. acc = acc.addAssign(other).
+   */
+
+  /* Sets this = other */
+  public FieldT set(final FieldT other) {
+    return other;
+  }
+
+  /* Sets this = this + other */
+  public FieldT addAssign(final FieldT other) {
+    return this.add(other);
+  }
+
+  /* Sets this = this - other */
+  public FieldT subAssign(final FieldT other) {
+    return this.sub(other);
+  }
+
+  /* Sets this = this * other */
+  public FieldT mulAssign(final FieldT other) {
+    return this.mul(other);
+  }
+
+  /* Sets this = this^2 */
+  public FieldT squareAssign() {
+    return this.square();
+  }
+
+  /* Sets this = -this */
+  public FieldT negateAssign() {
+    return this.negate();
+  }
+
   /* Returns this^exponent with long exponent */
   public FieldT pow(final long exponent) {
-    FieldT value = this.self();
-    FieldT result = this.one();
+    FieldT value = this.mutableCopy();
+    FieldT result = this.one().mutableCopy();
     long currentExponent = exponent;
     while (currentExponent > 0) {
       if (currentExponent % 2 == 1) {
-        result = result.mul(value);
+        result = result.mulAssign(value);
       }
-      value = value.square();
+      value = value.squareAssign();
       currentExponent >>= 1;
     }
     return result;
@@ -62,16 +107,16 @@ public abstract class AbstractFieldElement<FieldT extends AbstractFieldElement<F
 
   /* Returns this^exponent with BigInteger exponent */
   public FieldT pow(final BigInteger exponent) {
-    FieldT value = this.self();
-    FieldT result = this.one();
+    FieldT value = this.mutableCopy();
+    FieldT result = this.one().mutableCopy();
 
     BigInteger currentExponent = exponent;
     final BigInteger TWO = BigInteger.ONE.add(BigInteger.ONE);
     while (currentExponent.compareTo(BigInteger.ZERO) == 1) {
       if (currentExponent.mod(TWO).equals(BigInteger.ONE)) {
-        result = result.mul(value);
+        result = result.mulAssign(value);
       }
-      value = value.square();
+      value = value.squareAssign();
       currentExponent = currentExponent.shiftRight(1);
     }
     return result;
@@ -7,6 +7,7 @@
 
 package algebra.fields;
 
+import common.MathUtils;
 import java.math.BigInteger;
 
 public abstract class AbstractFieldElementExpanded<
@@ -16,6 +17,14 @@ public abstract class AbstractFieldElementExpanded<
   /* Returns omega s.t. omega^order == one() */
   public abstract FieldT rootOfUnity(final long order);
 
+  /**
+   * Returns true if rootOfUnity(order) is a primitive root of unity of the given order, i.e. if the
+   * field has an evaluation domain of size order. Only powers of two are assumed by default.
+   */
+  public boolean hasRootOfUnity(final long order) {
+    return order > 0 && MathUtils.isPowerOfTwo(order);
+  }
+
   /* Returns a generator of the multiplicative subgroup of the field */
   public abstract FieldT multiplicativeGenerator();
 
@@ -27,4 +36,27 @@ public abstract class AbstractFieldElementExpanded<
 
   /* Returns this as a BigInteger */
   public abstract BigInteger toBigInteger();
+
+  /**
+   * Returns this as a MontgomeryFp, for prime fields whose elements can be packed into the limbs of
+   * a FieldVector. The returned element backs this element, and may only be updated in place when
+   * this element is owned by the caller (see mutableCopy()).
+   */
+  public MontgomeryFp montgomeryElement() {
+    throw new UnsupportedOperationException(
+        this.getClass().getSimpleName() + " has no Montgomery form");
+  }
+
+  /**
+   * Returns the Montgomery constants of the field when its elements support montgomeryElement(),
+   * and null otherwise.
+   */
+  public MontgomeryParameters montgomeryParameters() {
+    return null;
+  }
+
+  /* Returns field element as FieldT(element), see montgomeryElement() */
+  public FieldT construct(final MontgomeryFp element) {
+    return this.construct(element.toBigInteger());
+  }
 }
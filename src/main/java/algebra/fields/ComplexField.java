@@ -104,6 +104,10 @@ public class ComplexField extends AbstractFieldElementExpanded<ComplexField> {
     return new ComplexField(Math.cos(x), Math.sin(x));
   }
 
+  public boolean hasRootOfUnity(final long order) {
+    return order > 0;
+  }
+
   public ComplexField pow(final long exponent) {
     ComplexField result = this.one();
     ComplexField value = this;
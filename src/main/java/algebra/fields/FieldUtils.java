@@ -0,0 +1,70 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FieldUtils {
+
+  /**
+   * Returns the list of inverses of the given elements, using Montgomery's trick: the n inversions
+   * cost a single inversion and 3n multiplications. Zero elements have no inverse and are returned
+   * as they are, so that e.g. the Z coordinates of points at infinity can be batched with the
+   * others. The input list is left unchanged and the non-zero inverses are new elements.
+   *
+   * <p>See: Montgomery, "Speeding the Pollard and Elliptic Curve Methods of Factorization", Section
+   * 10.3.1.
+   */
+  public static <FieldT extends AbstractFieldElement<FieldT>> List<FieldT> batchInverse(
+      final List<FieldT> elements) {
+    final int n = elements.size();
+    final List<FieldT> result = new ArrayList<>(n);
+    if (n == 0) {
+      return result;
+    }
+
+    // Store the prefix products a_0 * ... * a_{i-1} of the non-zero elements.
+    FieldT accumulator = elements.get(0).one().mutableCopy();
+    for (int i = 0; i < n; i++) {
+      final FieldT element = elements.get(i);
+      if (element.isZero()) {
+        result.add(element);
+      } else {
+        result.add(accumulator.mutableCopy());
+        accumulator = accumulator.mulAssign(element);
+      }
+    }
+
+    // Walk back from the inverse of the full product, using a_i^{-1} = prefix_i * (a_0...a_i)^{-1}.
+    FieldT inverse = accumulator.inverse().mutableCopy();
+    for (int i = n - 1; i >= 0; i--) {
+      final FieldT element = elements.get(i);
+      if (element.isZero()) {
+        continue;
+      }
+
+      result.set(i, result.get(i).mulAssign(inverse));
+      inverse = inverse.mulAssign(element);
+    }
+
+    return result;
+  }
+
+  /* Array version of batchInverse(), see above. */
+  public static <FieldT extends AbstractFieldElement<FieldT>> FieldT[] batchInverse(
+      final FieldT[] elements) {
+    final FieldT[] result = Arrays.copyOf(elements, elements.length);
+    final List<FieldT> inverses = batchInverse(Arrays.asList(elements));
+    for (int i = 0; i < result.length; i++) {
+      result[i] = inverses.get(i);
+    }
+    return result;
+  }
+}
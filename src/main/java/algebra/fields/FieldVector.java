@@ -0,0 +1,199 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import algebra.fields.abstractfieldparameters.AbstractFpParameters;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vector of prime field elements packed, in Montgomery form, into a single flat long[] of limbs
+ * (see MontgomeryParameters). Compared to an ArrayList<FieldT>, this avoids one object (and one
+ * backing array) per element, keeps the elements contiguous in memory for the FFT and QAP loops,
+ * and serializes as a single primitive array.
+ *
+ * <p>Elements are copied in and out of the vector by get() and set(), and the arithmetic methods
+ * update the vector in place. FieldT must be a prime field supporting montgomeryElement().
+ */
+public class FieldVector<FieldT extends AbstractFieldElementExpanded<FieldT>>
+    implements Serializable {
+
+  private final FieldT fieldFactory;
+  private final AbstractFpParameters FpParameters;
+  private final int numLimbs;
+  private final int size;
+  private final long[] limbs;
+  /* Scratch buffer of the Montgomery multiplications, allocated on first use */
+  private transient long[] scratch;
+
+  /* Takes ownership of limbs, which must hold size reduced elements in Montgomery form. */
+  FieldVector(final long[] limbs, final int size, final FieldT fieldFactory) {
+    this.fieldFactory = fieldFactory;
+    this.FpParameters = fieldFactory.montgomeryElement().FpParameters;
+    this.numLimbs = FpParameters.montgomeryParameters().numLimbs;
+    this.size = size;
+    this.limbs = limbs;
+    assert (limbs.length == size * numLimbs);
+  }
+
+  /* Returns a vector of size zero elements. */
+  public FieldVector(final int size, final FieldT fieldFactory) {
+    this(
+        new long
+            [size * fieldFactory.montgomeryElement().FpParameters.montgomeryParameters().numLimbs],
+        size,
+        fieldFactory);
+  }
+
+  /* Returns a vector holding a copy of the given elements. */
+  public FieldVector(final List<FieldT> elements, final FieldT fieldFactory) {
+    this(elements.size(), fieldFactory);
+    for (int i = 0; i < size; i++) {
+      set(i, elements.get(i));
+    }
+  }
+
+  public MontgomeryParameters montgomeryParameters() {
+    return FpParameters.montgomeryParameters();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int numLimbs() {
+    return numLimbs;
+  }
+
+  /**
+   * Returns the backing array, in which element i is stored in Montgomery form at offset i *
+   * numLimbs(). Updates to the array are reflected in the vector.
+   */
+  public long[] limbs() {
+    return limbs;
+  }
+
+  /* Returns the Montgomery form limbs of the given element of this field. */
+  public long[] limbs(final FieldT element) {
+    return element.montgomeryElement().limbs.clone();
+  }
+
+  /* Returns a new element equal to the ith element of the vector. */
+  public FieldT get(final int i) {
+    final long[] element = new long[numLimbs];
+    System.arraycopy(limbs, i * numLimbs, element, 0, numLimbs);
+    return fieldFactory.construct(new MontgomeryFp(element, FpParameters));
+  }
+
+  /* Sets the ith element of the vector to a copy of element. */
+  public void set(final int i, final FieldT element) {
+    System.arraycopy(element.montgomeryElement().limbs, 0, limbs, i * numLimbs, numLimbs);
+  }
+
+  /* Sets the ith element of the vector to the jth element of other. */
+  public void set(final int i, final FieldVector<FieldT> other, final int j) {
+    System.arraycopy(other.limbs, j * numLimbs, limbs, i * numLimbs, numLimbs);
+  }
+
+  /* Returns the elements of the vector as new elements. */
+  public ArrayList<FieldT> toList() {
+    final ArrayList<FieldT> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(get(i));
+    }
+    return result;
+  }
+
+  /* Returns a copy of the elements [from, to) of the vector. */
+  public FieldVector<FieldT> slice(final int from, final int to) {
+    assert (0 <= from && from <= to && to <= size);
+    final long[] result = new long[(to - from) * numLimbs];
+    System.arraycopy(limbs, from * numLimbs, result, 0, result.length);
+    return new FieldVector<>(result, to - from, fieldFactory);
+  }
+
+  public FieldVector<FieldT> copy() {
+    return slice(0, size);
+  }
+
+  /* Sets this[i] = this[i] + other[i] for all i, and returns this. */
+  public FieldVector<FieldT> addAssign(final FieldVector<FieldT> other) {
+    assert (other.size == size);
+    final MontgomeryParameters montgomery = montgomeryParameters();
+    for (int offset = 0; offset < limbs.length; offset += numLimbs) {
+      montgomery.add(limbs, offset, other.limbs, offset, limbs, offset);
+    }
+    return this;
+  }
+
+  /* Sets this[i] = this[i] - other[i] for all i, and returns this. */
+  public FieldVector<FieldT> subAssign(final FieldVector<FieldT> other) {
+    assert (other.size == size);
+    final MontgomeryParameters montgomery = montgomeryParameters();
+    for (int offset = 0; offset < limbs.length; offset += numLimbs) {
+      montgomery.sub(limbs, offset, other.limbs, offset, limbs, offset);
+    }
+    return this;
+  }
+
+  /* Sets this[i] = this[i] * other[i] for all i, and returns this. */
+  public FieldVector<FieldT> mulAssign(final FieldVector<FieldT> other) {
+    assert (other.size == size);
+    final MontgomeryParameters montgomery = montgomeryParameters();
+    final long[] t = scratch();
+    for (int offset = 0; offset < limbs.length; offset += numLimbs) {
+      montgomery.mul(limbs, offset, other.limbs, offset, limbs, offset, t);
+    }
+    return this;
+  }
+
+  /* Sets this[i] = this[i] * scalar for all i, and returns this. */
+  public FieldVector<FieldT> scaleAssign(final FieldT scalar) {
+    final MontgomeryParameters montgomery = montgomeryParameters();
+    final long[] s = scalar.montgomeryElement().limbs;
+    final long[] t = scratch();
+    for (int offset = 0; offset < limbs.length; offset += numLimbs) {
+      montgomery.mul(limbs, offset, s, 0, limbs, offset, t);
+    }
+    return this;
+  }
+
+  /* Returns a scratch buffer for the multiplications of MontgomeryParameters. */
+  public long[] scratch() {
+    if (scratch == null) {
+      scratch = new long[montgomeryParameters().scratchLength()];
+    }
+    return scratch;
+  }
+
+  public boolean equals(final FieldVector<FieldT> other) {
+    return other != null && size == other.size && Arrays.equals(limbs, other.limbs);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (o == null) {
+      return false;
+    }
+    if (!(o instanceof FieldVector<?>)) {
+      return false;
+    }
+    final FieldVector<?> other = (FieldVector<?>) o;
+    return size == other.size && Arrays.equals(limbs, other.limbs);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(limbs);
+  }
+}
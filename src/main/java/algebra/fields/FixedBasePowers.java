@@ -0,0 +1,96 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Fixed-base exponentiation of a field element, for the loops that raise the same base (e.g. a root
+ * of unity, a coset shift or the toxic waste t) to many exponents bounded by maxExponent.
+ *
+ * <p>The exponent is split into numWindows windows of windowSize bits, and the table holds base^(j
+ * * 2^(windowSize * k)) for each window k and digit j < 2^windowSize, so that pow() costs at most
+ * numWindows - 1 multiplications and no squaring. The table is serializable, and is built once on
+ * the driver and then shipped to, or broadcast to, the executors.
+ */
+public class FixedBasePowers<FieldT extends AbstractFieldElement<FieldT>> implements Serializable {
+  /* The default window size is the largest one not exceeding MAX_WINDOW_SIZE bits */
+  public static final int MAX_WINDOW_SIZE = 8;
+
+  private final FieldT one;
+  private final int exponentBits;
+  private final int windowSize;
+  private final ArrayList<ArrayList<FieldT>> table;
+
+  /* Builds the table of base for exponents in [0, maxExponent]. */
+  public FixedBasePowers(final FieldT base, final long maxExponent) {
+    this(base, maxExponent, defaultWindowSize(exponentBits(maxExponent)));
+  }
+
+  public FixedBasePowers(final FieldT base, final long maxExponent, final int windowSize) {
+    assert (maxExponent >= 0 && windowSize > 0 && windowSize < 31);
+    this.one = base.one();
+    this.exponentBits = exponentBits(maxExponent);
+    this.windowSize = windowSize;
+
+    final int numWindows = (exponentBits + windowSize - 1) / windowSize;
+    final int innerLimit = 1 << windowSize;
+    this.table = new ArrayList<>(numWindows);
+
+    FieldT windowBase = base;
+    for (int k = 0; k < numWindows; k++) {
+      final ArrayList<FieldT> row = new ArrayList<>(innerLimit);
+      row.add(one);
+      for (int j = 1; j < innerLimit; j++) {
+        row.add(row.get(j - 1).mul(windowBase));
+      }
+      table.add(row);
+      /* windowBase^(2^windowSize) for the next window */
+      windowBase = row.get(innerLimit - 1).mul(windowBase);
+    }
+  }
+
+  private static int exponentBits(final long maxExponent) {
+    return Math.max(1, Long.SIZE - Long.numberOfLeadingZeros(maxExponent));
+  }
+
+  /* Splits exponentBits into the fewest windows of at most MAX_WINDOW_SIZE bits, of equal size. */
+  private static int defaultWindowSize(final int exponentBits) {
+    final int numWindows = (exponentBits + MAX_WINDOW_SIZE - 1) / MAX_WINDOW_SIZE;
+    return (exponentBits + numWindows - 1) / numWindows;
+  }
+
+  public int windowSize() {
+    return windowSize;
+  }
+
+  public int numWindows() {
+    return table.size();
+  }
+
+  /* Returns base^exponent, for 0 <= exponent <= maxExponent, as a new element. */
+  public FieldT pow(final long exponent) {
+    assert (exponent >= 0 && (exponentBits == Long.SIZE - 1 || exponent >>> exponentBits == 0));
+    final long mask = (1L << windowSize) - 1;
+
+    FieldT result = null;
+    for (int k = 0; k < table.size(); k++) {
+      final int digit = (int) ((exponent >>> (k * windowSize)) & mask);
+      if (digit == 0) {
+        continue;
+      }
+      if (result == null) {
+        result = table.get(k).get(digit).mutableCopy();
+      } else {
+        result = result.mulAssign(table.get(k).get(digit));
+      }
+    }
+    return result == null ? one.mutableCopy() : result;
+  }
+}
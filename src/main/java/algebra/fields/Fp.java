@@ -50,6 +50,14 @@ public class Fp extends AbstractFieldElementExpanded<Fp> {
     return new Fp(number.multiply(other), FpParameters);
   }
 
+  public MontgomeryFp montgomeryElement() {
+    return new MontgomeryFp(this);
+  }
+
+  public MontgomeryParameters montgomeryParameters() {
+    return FpParameters.montgomeryParameters();
+  }
+
   public Fp zero() {
     return FpParameters.ZERO();
   }
@@ -103,6 +111,10 @@ public class Fp extends AbstractFieldElementExpanded<Fp> {
   }
 
   public Fp rootOfUnity(final long order) {
+    if (order % 3 == 0) {
+      return radix3RootOfUnity(order);
+    }
+
     final BigInteger root = FpParameters.root();
     final long s = FpParameters.s();
     final long logOrder = MathUtils.log2(order);
@@ -117,6 +129,41 @@ public class Fp extends AbstractFieldElementExpanded<Fp> {
     return new Fp(root.modPow(exponent, FpParameters.modulus()), FpParameters);
   }
 
+  /**
+   * Returns the root of unity of order 3 * 2^k, for the fields in which 3 divides p - 1. It is
+   * omega = r^x * c^y, where r = rootOfUnity(2^k), c is a cube root of unity, x = 3^{-1} mod 2^k
+   * and y = 2^{-k} mod 3, so that omega^3 = r and omega^{2^k} = c: the roots of the orders dividing
+   * order are then powers of each other, as those of the powers of two.
+   */
+  private Fp radix3RootOfUnity(final long order) {
+    assert (hasRootOfUnity(order));
+    final BigInteger modulus = FpParameters.modulus();
+    final long radix2Order = order / 3;
+    final BigInteger cubeRoot =
+        FpParameters.multiplicativeGenerator()
+            .toBigInteger()
+            .modPow(modulus.subtract(BigInteger.ONE).divide(BigInteger.valueOf(3)), modulus);
+    final BigInteger x = BigInteger.valueOf(3).modInverse(BigInteger.valueOf(radix2Order));
+    final BigInteger y = BigInteger.valueOf(radix2Order % 3);
+
+    final BigInteger root = rootOfUnity(radix2Order).number.modPow(x, modulus);
+    return new Fp(root.multiply(cubeRoot.modPow(y, modulus)), FpParameters);
+  }
+
+  /* The field has roots of unity of orders 2^k for k <= s, and 3 * 2^k if 3 divides p - 1. */
+  public boolean hasRootOfUnity(final long order) {
+    if (order <= 0) {
+      return false;
+    }
+    final long radix2Order = order % 3 == 0 ? order / 3 : order;
+    if (!MathUtils.isPowerOfTwo(radix2Order)
+        || Long.numberOfTrailingZeros(radix2Order) > FpParameters.s()) {
+      return false;
+    }
+    return radix2Order == order
+        || FpParameters.modulus().subtract(BigInteger.ONE).mod(BigInteger.valueOf(3)).signum() == 0;
+  }
+
   public int bitSize() {
     return number.bitLength();
   }
@@ -56,16 +56,28 @@ public class Fp12_2Over3Over2 extends AbstractFieldElement<Fp12_2Over3Over2> {
   public Fp12_2Over3Over2 mul(final Fp12_2Over3Over2 other) {
     // Devegili OhEig, Scott Dahab
     // "Multiplication and Squaring on Pairing-Friendly Fields"
-    // Section 3 (Karatsuba)
+    // Section 3 (Karatsuba), with lazy reduction (see Fp2.unreduced())
     // https://eprint.iacr.org/2006/471.pdf
-    final Fp6_3Over2 v0 = c0.mul(other.c0);
-    final Fp6_3Over2 v1 = c1.mul(other.c1);
+    final BigInteger[][] a0 = c0.unreduced();
+    final BigInteger[][] a1 = c1.unreduced();
+    final BigInteger[][] b0 = other.c0.unreduced();
+    final BigInteger[][] b1 = other.c1.unreduced();
+    final BigInteger[][] v0 = c0.mulUnreduced(a0, b0);
+    final BigInteger[][] v1 = c0.mulUnreduced(a1, b1);
+    final BigInteger[][] factor = c0.mulUnreduced(Fp6_3Over2.add(a0, a1), Fp6_3Over2.add(b0, b1));
     return new Fp12_2Over3Over2(
-        v0.add(mulByNonResidue(v1)),
-        (c0.add(c1)).mul(other.c0.add(other.c1)).sub(v0).sub(v1),
+        c0.reduce(Fp6_3Over2.add(v0, mulByNonResidueUnreduced(v1))),
+        c0.reduce(Fp6_3Over2.sub(Fp6_3Over2.sub(factor, v0), v1)),
         Fp12Parameters);
   }
 
+  /* Unreduced version of mulByNonResidue(), see Fp2.unreduced() */
+  private BigInteger[][] mulByNonResidueUnreduced(final BigInteger[][] a) {
+    return new BigInteger[][] {
+      c0.c0.mulUnreduced(Fp12Parameters.nonresidue().unreduced(), a[2]), a[0], a[1]
+    };
+  }
+
   public Fp12_2Over3Over2 zero() {
     return Fp12Parameters.ZERO();
   }
@@ -94,12 +106,17 @@ public class Fp12_2Over3Over2 extends AbstractFieldElement<Fp12_2Over3Over2> {
   public Fp12_2Over3Over2 square() {
     // Devegili OhEig, Scott Dahab
     // "Multiplication and Squaring on Pairing-Friendly Fields"
-    // Section 3 (Complex squaring)
+    // Section 3 (Complex squaring), with lazy reduction (see Fp2.unreduced())
     // https://eprint.iacr.org/2006/471.pdf
-    final Fp6_3Over2 c0c1 = c0.mul(c1);
-    final Fp6_3Over2 factor = (c0.add(c1)).mul(c0.add(mulByNonResidue(c1)));
+    final BigInteger[][] a0 = c0.unreduced();
+    final BigInteger[][] a1 = c1.unreduced();
+    final BigInteger[][] c0c1 = c0.mulUnreduced(a0, a1);
+    final BigInteger[][] factor =
+        c0.mulUnreduced(Fp6_3Over2.add(a0, a1), Fp6_3Over2.add(a0, mulByNonResidueUnreduced(a1)));
     return new Fp12_2Over3Over2(
-        factor.sub(c0c1).sub(mulByNonResidue(c0c1)), c0c1.add(c0c1), Fp12Parameters);
+        c0.reduce(Fp6_3Over2.sub(Fp6_3Over2.sub(factor, c0c1), mulByNonResidueUnreduced(c0c1))),
+        c0.reduce(Fp6_3Over2.add(c0c1, c0c1)),
+        Fp12Parameters);
   }
 
   public Fp12_2Over3Over2 inverse() {
@@ -52,13 +52,8 @@ public class Fp2 extends AbstractFieldElement<Fp2> {
   public Fp2 mul(final Fp2 other) {
     // See: Devegili OhEig, Scott Dahab:
     // "Multiplication and Squaring on Pairing-Friendly Fields"
-    // Section 3 (Karatsuba)
-    final Fp c0C0 = c0.mul(other.c0);
-    final Fp c1C1 = c1.mul(other.c1);
-    return new Fp2(
-        c0C0.add(Fp2Parameters.nonresidue().mul(c1C1)),
-        (c0.add(c1)).mul(other.c0.add(other.c1)).sub(c0C0).sub(c1C1),
-        Fp2Parameters);
+    // Section 3 (Karatsuba), with lazy reduction (see mulUnreduced())
+    return reduce(mulUnreduced(unreduced(), other.unreduced()));
   }
 
   public Fp2 zero() {
@@ -88,11 +83,8 @@ public class Fp2 extends AbstractFieldElement<Fp2> {
   public Fp2 square() {
     // Devegili OhEig, Scott Dahab:
     // "Multiplication and Squaring on Pairing-Friendly Fields"
-    // Section 3 (Complex squaring)
-    final Fp c0c1 = c0.mul(c1);
-    final Fp factor = (c0.add(c1)).mul(c0.add(Fp2Parameters.nonresidue().mul(c1)));
-    return new Fp2(
-        factor.sub(c0c1).sub(Fp2Parameters.nonresidue().mul(c0c1)), c0c1.add(c0c1), Fp2Parameters);
+    // Section 3 (Complex squaring), with lazy reduction (see squareUnreduced())
+    return reduce(squareUnreduced(unreduced()));
   }
 
   public Fp2 inverse() {
@@ -112,6 +104,52 @@ public class Fp2 extends AbstractFieldElement<Fp2> {
         c0, Fp2Parameters.FrobeniusMapCoefficientsC1()[(int) power % 2].mul(c1), Fp2Parameters);
   }
 
+  /*
+   * Lazy reduction. The methods below compute on the coefficients {c0, c1} of elements as
+   * BigIntegers that are not reduced mod p, and may be negative. The products of Fp2, Fp6_3Over2
+   * and Fp12_2Over3Over2 are thus accumulated at double width, and only reduced once per output
+   * coefficient by reduce(), instead of after every operation of Fp.
+   */
+
+  /* Returns the coefficients of this element */
+  BigInteger[] unreduced() {
+    return new BigInteger[] {c0.number, c1.number};
+  }
+
+  /* Returns the element of Fp2 with the given unreduced coefficients */
+  Fp2 reduce(final BigInteger[] a) {
+    return new Fp2(a[0], a[1], Fp2Parameters);
+  }
+
+  static BigInteger[] add(final BigInteger[] a, final BigInteger[] b) {
+    return new BigInteger[] {a[0].add(b[0]), a[1].add(b[1])};
+  }
+
+  static BigInteger[] sub(final BigInteger[] a, final BigInteger[] b) {
+    return new BigInteger[] {a[0].subtract(b[0]), a[1].subtract(b[1])};
+  }
+
+  /* Returns a * b, see mul() */
+  BigInteger[] mulUnreduced(final BigInteger[] a, final BigInteger[] b) {
+    final BigInteger nonresidue = Fp2Parameters.signedNonresidue();
+    final BigInteger a0b0 = a[0].multiply(b[0]);
+    final BigInteger a1b1 = a[1].multiply(b[1]);
+    return new BigInteger[] {
+      a0b0.add(nonresidue.multiply(a1b1)),
+      a[0].add(a[1]).multiply(b[0].add(b[1])).subtract(a0b0).subtract(a1b1)
+    };
+  }
+
+  /* Returns a^2, see square() */
+  BigInteger[] squareUnreduced(final BigInteger[] a) {
+    final BigInteger nonresidue = Fp2Parameters.signedNonresidue();
+    final BigInteger a0a1 = a[0].multiply(a[1]);
+    final BigInteger factor = a[0].add(a[1]).multiply(a[0].add(nonresidue.multiply(a[1])));
+    return new BigInteger[] {
+      factor.subtract(a0a1).subtract(nonresidue.multiply(a0a1)), a0a1.shiftLeft(1)
+    };
+  }
+
   public int bitSize() {
     return Math.max(c0.bitSize(), c1.bitSize());
   }
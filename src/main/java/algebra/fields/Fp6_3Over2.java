@@ -8,6 +8,7 @@
 package algebra.fields;
 
 import algebra.fields.abstractfieldparameters.AbstractFp6_3Over2_Parameters;
+import java.math.BigInteger;
 
 public class Fp6_3Over2 extends AbstractFieldElement<Fp6_3Over2> {
   protected final Fp2 c0;
@@ -48,21 +49,8 @@ public class Fp6_3Over2 extends AbstractFieldElement<Fp6_3Over2> {
   }
 
   public Fp6_3Over2 mul(final Fp6_3Over2 other) {
-    // Devegili OhEig, Scott Dahab
-    // "Multiplication and Squaring on Pairing-Friendly Fields"
-    // Section 4 (Karatsuba)
-    final Fp2 c0C0 = c0.mul(other.c0);
-    final Fp2 c1C1 = c1.mul(other.c1);
-    final Fp2 c2C2 = c2.mul(other.c2);
-    final Fp2 c0Factor = c1.add(c2).mul(other.c1.add(other.c2)).sub(c1C1).sub(c2C2);
-    final Fp2 c1Factor = c0.add(c1).mul(other.c0.add(other.c1)).sub(c0C0).sub(c1C1);
-    final Fp2 c2Factor = c0.add(c2).mul(other.c0.add(other.c2)).sub(c0C0).add(c1C1).sub(c2C2);
-
-    return new Fp6_3Over2(
-        c0C0.add(mulByNonResidue(c0Factor)),
-        c1Factor.add(mulByNonResidue(c2C2)),
-        c2Factor,
-        Fp6Parameters);
+    // Karatsuba with lazy reduction, see mulUnreduced()
+    return reduce(mulUnreduced(unreduced(), other.unreduced()));
   }
 
   public Fp6_3Over2 zero() {
@@ -94,22 +82,8 @@ public class Fp6_3Over2 extends AbstractFieldElement<Fp6_3Over2> {
   }
 
   public Fp6_3Over2 square() {
-    // Devegili OhEig, Scott Dahab
-    // "Multiplication and Squaring on Pairing-Friendly Fields"
-    // Section 4 (CH-SQR2)
-    final Fp2 s0 = c0.square();
-    final Fp2 c0c1 = c0.mul(c1);
-    final Fp2 s1 = c0c1.add(c0c1);
-    final Fp2 s2 = c0.sub(c1).add(c2).square();
-    final Fp2 c1c2 = c1.mul(c2);
-    final Fp2 s3 = c1c2.add(c1c2);
-    final Fp2 s4 = c2.square();
-
-    return new Fp6_3Over2(
-        s0.add(mulByNonResidue(s3)),
-        s1.add(mulByNonResidue(s4)),
-        s1.add(s2).add(s3).sub(s0).sub(s4),
-        Fp6Parameters);
+    // Chung-Hasan squaring with lazy reduction, see squareUnreduced()
+    return reduce(squareUnreduced(unreduced()));
   }
 
   public Fp6_3Over2 inverse() {
@@ -140,6 +114,72 @@ public class Fp6_3Over2 extends AbstractFieldElement<Fp6_3Over2> {
         Fp6Parameters);
   }
 
+  /* Lazy reduction, see Fp2.unreduced(). The coefficients of c0, c1 and c2 are a[0], a[1], a[2]. */
+
+  BigInteger[][] unreduced() {
+    return new BigInteger[][] {c0.unreduced(), c1.unreduced(), c2.unreduced()};
+  }
+
+  Fp6_3Over2 reduce(final BigInteger[][] a) {
+    return new Fp6_3Over2(c0.reduce(a[0]), c0.reduce(a[1]), c0.reduce(a[2]), Fp6Parameters);
+  }
+
+  static BigInteger[][] add(final BigInteger[][] a, final BigInteger[][] b) {
+    return new BigInteger[][] {Fp2.add(a[0], b[0]), Fp2.add(a[1], b[1]), Fp2.add(a[2], b[2])};
+  }
+
+  static BigInteger[][] sub(final BigInteger[][] a, final BigInteger[][] b) {
+    return new BigInteger[][] {Fp2.sub(a[0], b[0]), Fp2.sub(a[1], b[1]), Fp2.sub(a[2], b[2])};
+  }
+
+  BigInteger[] mulByNonResidueUnreduced(final BigInteger[] a) {
+    return c0.mulUnreduced(Fp6Parameters.nonresidue().unreduced(), a);
+  }
+
+  /* Returns a * b, see mul() */
+  BigInteger[][] mulUnreduced(final BigInteger[][] a, final BigInteger[][] b) {
+    // Devegili OhEig, Scott Dahab
+    // "Multiplication and Squaring on Pairing-Friendly Fields"
+    // Section 4 (Karatsuba)
+    final BigInteger[] c0C0 = c0.mulUnreduced(a[0], b[0]);
+    final BigInteger[] c1C1 = c0.mulUnreduced(a[1], b[1]);
+    final BigInteger[] c2C2 = c0.mulUnreduced(a[2], b[2]);
+    final BigInteger[] c0Factor =
+        Fp2.sub(Fp2.sub(c0.mulUnreduced(Fp2.add(a[1], a[2]), Fp2.add(b[1], b[2])), c1C1), c2C2);
+    final BigInteger[] c1Factor =
+        Fp2.sub(Fp2.sub(c0.mulUnreduced(Fp2.add(a[0], a[1]), Fp2.add(b[0], b[1])), c0C0), c1C1);
+    final BigInteger[] c2Factor =
+        Fp2.sub(
+            Fp2.add(Fp2.sub(c0.mulUnreduced(Fp2.add(a[0], a[2]), Fp2.add(b[0], b[2])), c0C0), c1C1),
+            c2C2);
+
+    return new BigInteger[][] {
+      Fp2.add(c0C0, mulByNonResidueUnreduced(c0Factor)),
+      Fp2.add(c1Factor, mulByNonResidueUnreduced(c2C2)),
+      c2Factor
+    };
+  }
+
+  /* Returns a^2, see square() */
+  BigInteger[][] squareUnreduced(final BigInteger[][] a) {
+    // Devegili OhEig, Scott Dahab
+    // "Multiplication and Squaring on Pairing-Friendly Fields"
+    // Section 4 (CH-SQR2)
+    final BigInteger[] s0 = c0.squareUnreduced(a[0]);
+    final BigInteger[] c0c1 = c0.mulUnreduced(a[0], a[1]);
+    final BigInteger[] s1 = Fp2.add(c0c1, c0c1);
+    final BigInteger[] s2 = c0.squareUnreduced(Fp2.add(Fp2.sub(a[0], a[1]), a[2]));
+    final BigInteger[] c1c2 = c0.mulUnreduced(a[1], a[2]);
+    final BigInteger[] s3 = Fp2.add(c1c2, c1c2);
+    final BigInteger[] s4 = c0.squareUnreduced(a[2]);
+
+    return new BigInteger[][] {
+      Fp2.add(s0, mulByNonResidueUnreduced(s3)),
+      Fp2.add(s1, mulByNonResidueUnreduced(s4)),
+      Fp2.sub(Fp2.sub(Fp2.add(Fp2.add(s1, s2), s3), s0), s4)
+    };
+  }
+
   public int bitSize() {
     return Math.max(c0.bitSize(), Math.max(c1.bitSize(), c2.bitSize()));
   }
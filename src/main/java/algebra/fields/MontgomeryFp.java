@@ -0,0 +1,233 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import algebra.fields.abstractfieldparameters.AbstractFpParameters;
+import common.OffHeapLongArray;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Prime field element stored in Montgomery form on fixed-width 64-bit limbs (see
+ * MontgomeryParameters). This is a drop-in replacement for Fp, over the same parameters, which
+ * avoids the BigInteger allocations and long divisions of Fp in add(), sub(), mul() and square().
+ * Copies returned by mutableCopy() can moreover be updated in place with the assign methods.
+ */
+public class MontgomeryFp extends AbstractFieldElementExpanded<MontgomeryFp> {
+  protected final long[] limbs;
+  public AbstractFpParameters FpParameters;
+  /* Scratch buffer of the in-place mulAssign() and squareAssign(), allocated on first use */
+  private transient long[] scratch;
+
+  /* Takes ownership of limbs, which must be the Montgomery form of a reduced element. */
+  protected MontgomeryFp(final long[] limbs, final AbstractFpParameters FpParameters) {
+    this.limbs = limbs;
+    this.FpParameters = FpParameters;
+  }
+
+  public MontgomeryFp(final BigInteger number, final AbstractFpParameters FpParameters) {
+    this(FpParameters.montgomeryParameters().toMontgomery(number), FpParameters);
+  }
+
+  public MontgomeryFp(final String number, final AbstractFpParameters FpParameters) {
+    this(new BigInteger(number), FpParameters);
+  }
+
+  public MontgomeryFp(final long number, final AbstractFpParameters FpParameters) {
+    this(BigInteger.valueOf(number), FpParameters);
+  }
+
+  public MontgomeryFp(final Fp element) {
+    this(element.toBigInteger(), element.FpParameters);
+  }
+
+  private MontgomeryParameters montgomery() {
+    return FpParameters.montgomeryParameters();
+  }
+
+  public MontgomeryFp self() {
+    return this;
+  }
+
+  public MontgomeryFp add(final MontgomeryFp other) {
+    final long[] result = new long[limbs.length];
+    montgomery().add(limbs, 0, other.limbs, 0, result, 0);
+    return new MontgomeryFp(result, FpParameters);
+  }
+
+  public MontgomeryFp sub(final MontgomeryFp other) {
+    final long[] result = new long[limbs.length];
+    montgomery().sub(limbs, 0, other.limbs, 0, result, 0);
+    return new MontgomeryFp(result, FpParameters);
+  }
+
+  public MontgomeryFp mul(final MontgomeryFp other) {
+    final long[] result = new long[limbs.length];
+    montgomery().mul(limbs, 0, other.limbs, 0, result, 0);
+    return new MontgomeryFp(result, FpParameters);
+  }
+
+  public MontgomeryFp zero() {
+    return new MontgomeryFp(new long[limbs.length], FpParameters);
+  }
+
+  public boolean isZero() {
+    return montgomery().isZero(limbs, 0);
+  }
+
+  public MontgomeryFp one() {
+    return new MontgomeryFp(montgomery().one.clone(), FpParameters);
+  }
+
+  public boolean isOne() {
+    return Arrays.equals(limbs, montgomery().one);
+  }
+
+  /* Returns the same elements as Fp.random() for the same seeds. */
+  public MontgomeryFp random(final Long seed, final byte[] secureSeed) {
+    if (secureSeed != null && secureSeed.length > 0) {
+      return new MontgomeryFp(new SecureRandom(secureSeed).nextLong(), FpParameters);
+    } else if (seed != null) {
+      return new MontgomeryFp(new Random(seed).nextLong(), FpParameters);
+    } else {
+      return new MontgomeryFp(new Random().nextLong(), FpParameters);
+    }
+  }
+
+  public MontgomeryFp negate() {
+    final long[] result = new long[limbs.length];
+    montgomery().negate(limbs, 0, result, 0);
+    return new MontgomeryFp(result, FpParameters);
+  }
+
+  public MontgomeryFp square() {
+    final long[] result = new long[limbs.length];
+    montgomery().square(limbs, 0, result, 0);
+    return new MontgomeryFp(result, FpParameters);
+  }
+
+  public MontgomeryFp mutableCopy() {
+    return new MontgomeryFp(limbs.clone(), FpParameters);
+  }
+
+  public MontgomeryFp set(final MontgomeryFp other) {
+    System.arraycopy(other.limbs, 0, limbs, 0, limbs.length);
+    return this;
+  }
+
+  public MontgomeryFp addAssign(final MontgomeryFp other) {
+    montgomery().add(limbs, 0, other.limbs, 0, limbs, 0);
+    return this;
+  }
+
+  public MontgomeryFp subAssign(final MontgomeryFp other) {
+    montgomery().sub(limbs, 0, other.limbs, 0, limbs, 0);
+    return this;
+  }
+
+  public MontgomeryFp mulAssign(final MontgomeryFp other) {
+    montgomery().mul(limbs, 0, other.limbs, 0, limbs, 0, scratch());
+    return this;
+  }
+
+  public MontgomeryFp squareAssign() {
+    montgomery().square(limbs, 0, limbs, 0, scratch());
+    return this;
+  }
+
+  public MontgomeryFp negateAssign() {
+    montgomery().negate(limbs, 0, limbs, 0);
+    return this;
+  }
+
+  /* Sets this element to the limbs at index of array, see OffHeapFieldVector, and returns it. */
+  public MontgomeryFp load(final OffHeapLongArray array, final long index) {
+    array.get(index, limbs, 0, limbs.length);
+    return this;
+  }
+
+  /* Writes the limbs of this element at index of array. */
+  public void store(final OffHeapLongArray array, final long index) {
+    array.put(index, limbs, 0, limbs.length);
+  }
+
+  /* Writes the limbs of this element at offset of array. */
+  public void store(final long[] array, final int offset) {
+    System.arraycopy(limbs, 0, array, offset, limbs.length);
+  }
+
+  private long[] scratch() {
+    if (scratch == null) {
+      scratch = new long[montgomery().scratchLength()];
+    }
+    return scratch;
+  }
+
+  public MontgomeryFp inverse() {
+    return new MontgomeryFp(toBigInteger().modInverse(FpParameters.modulus()), FpParameters);
+  }
+
+  public MontgomeryFp multiplicativeGenerator() {
+    return new MontgomeryFp(FpParameters.multiplicativeGenerator());
+  }
+
+  public MontgomeryFp rootOfUnity(final long order) {
+    return new MontgomeryFp(FpParameters.ONE().rootOfUnity(order));
+  }
+
+  public boolean hasRootOfUnity(final long order) {
+    return FpParameters.ONE().hasRootOfUnity(order);
+  }
+
+  public int bitSize() {
+    return toBigInteger().bitLength();
+  }
+
+  public MontgomeryFp construct(final BigInteger number) {
+    return new MontgomeryFp(number, FpParameters);
+  }
+
+  public MontgomeryFp construct(final long value) {
+    return new MontgomeryFp(value, FpParameters);
+  }
+
+  public BigInteger toBigInteger() {
+    return montgomery().fromMontgomery(limbs, 0);
+  }
+
+  public MontgomeryFp montgomeryElement() {
+    return this;
+  }
+
+  public MontgomeryParameters montgomeryParameters() {
+    return montgomery();
+  }
+
+  public MontgomeryFp construct(final MontgomeryFp element) {
+    return element;
+  }
+
+  /* Returns this as an Fp element over the same parameters */
+  public Fp toFp() {
+    return new Fp(toBigInteger(), FpParameters);
+  }
+
+  public String toString() {
+    return toBigInteger().toString();
+  }
+
+  public boolean equals(final MontgomeryFp other) {
+    if (other == null) {
+      return false;
+    }
+
+    return Arrays.equals(limbs, other.limbs);
+  }
+}
@@ -0,0 +1,400 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * Precomputed constants and fixed-width limb kernels for arithmetic modulo an odd prime p in
+ * Montgomery form. An element a is stored as the little-endian 64-bit limbs of a * R mod p, where R
+ * = 2^(64 * numLimbs). All kernels expect fully reduced inputs (i.e. < p) and return fully reduced
+ * outputs, so that the limb representation of an element is canonical and can be compared directly.
+ *
+ * <p>Kernels read their inputs and write their output at the given offsets, which allows the output
+ * to alias one of the inputs and allows operating directly on flat arrays of limbs.
+ */
+public class MontgomeryParameters implements Serializable {
+  public final int numLimbs;
+  /* The modulus p */
+  public final BigInteger modulusValue;
+  /* Limbs of the modulus p */
+  public final long[] modulus;
+  /* -p^{-1} mod 2^64 */
+  public final long inverse;
+  /* R mod p, i.e. one() in Montgomery form */
+  public final long[] one;
+  /* R^2 mod p, used to convert into Montgomery form */
+  public final long[] rSquared;
+
+  public MontgomeryParameters(final BigInteger modulus) {
+    assert (modulus.testBit(0));
+
+    this.modulusValue = modulus;
+    this.numLimbs = (modulus.bitLength() + 63) / 64;
+    this.modulus = toLimbs(modulus, numLimbs);
+
+    final BigInteger twoTo64 = BigInteger.ONE.shiftLeft(64);
+    this.inverse = modulus.modInverse(twoTo64).negate().mod(twoTo64).longValue();
+
+    final BigInteger R = BigInteger.ONE.shiftLeft(64 * numLimbs).mod(modulus);
+    this.one = toLimbs(R, numLimbs);
+    this.rSquared = toLimbs(R.multiply(R).mod(modulus), numLimbs);
+  }
+
+  /** Returns the limbs, in Montgomery form, of value mod p. */
+  public long[] toMontgomery(final BigInteger value) {
+    final long[] result = toLimbs(value.mod(modulusValue), numLimbs);
+    mul(result, 0, rSquared, 0, result, 0);
+    return result;
+  }
+
+  /** Returns the canonical integer represented by the Montgomery limbs at offset. */
+  public BigInteger fromMontgomery(final long[] a, final int aOffset) {
+    final long[] unit = new long[numLimbs];
+    unit[0] = 1;
+    final long[] result = new long[numLimbs];
+    mul(a, aOffset, unit, 0, result, 0);
+    return fromLimbs(result, 0, numLimbs);
+  }
+
+  /** Returns true if the limbs at offset represent zero. */
+  public boolean isZero(final long[] a, final int aOffset) {
+    for (int i = 0; i < numLimbs; i++) {
+      if (a[aOffset + i] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Sets r = a + b mod p. */
+  public void add(
+      final long[] a,
+      final int aOffset,
+      final long[] b,
+      final int bOffset,
+      final long[] r,
+      final int rOffset) {
+    long carry = 0;
+    for (int i = 0; i < numLimbs; i++) {
+      final long ai = a[aOffset + i];
+      final long s = ai + b[bOffset + i];
+      final long c1 = Long.compareUnsigned(s, ai) < 0 ? 1 : 0;
+      final long s2 = s + carry;
+      final long c2 = Long.compareUnsigned(s2, s) < 0 ? 1 : 0;
+      r[rOffset + i] = s2;
+      carry = c1 | c2;
+    }
+
+    if (carry != 0 || geqModulus(r, rOffset)) {
+      subtractModulus(r, rOffset);
+    }
+  }
+
+  /** Sets r = a - b mod p. */
+  public void sub(
+      final long[] a,
+      final int aOffset,
+      final long[] b,
+      final int bOffset,
+      final long[] r,
+      final int rOffset) {
+    long borrow = 0;
+    for (int i = 0; i < numLimbs; i++) {
+      final long ai = a[aOffset + i];
+      final long bi = b[bOffset + i];
+      final long d = ai - bi;
+      final long b1 = Long.compareUnsigned(ai, bi) < 0 ? 1 : 0;
+      final long d2 = d - borrow;
+      final long b2 = Long.compareUnsigned(d, borrow) < 0 ? 1 : 0;
+      r[rOffset + i] = d2;
+      borrow = b1 | b2;
+    }
+
+    if (borrow != 0) {
+      long carry = 0;
+      for (int i = 0; i < numLimbs; i++) {
+        final long ri = r[rOffset + i];
+        final long s = ri + modulus[i];
+        final long c1 = Long.compareUnsigned(s, ri) < 0 ? 1 : 0;
+        final long s2 = s + carry;
+        final long c2 = Long.compareUnsigned(s2, s) < 0 ? 1 : 0;
+        r[rOffset + i] = s2;
+        carry = c1 | c2;
+      }
+    }
+  }
+
+  /** Sets r = -a mod p. */
+  public void negate(final long[] a, final int aOffset, final long[] r, final int rOffset) {
+    if (isZero(a, aOffset)) {
+      for (int i = 0; i < numLimbs; i++) {
+        r[rOffset + i] = 0;
+      }
+      return;
+    }
+
+    long borrow = 0;
+    for (int i = 0; i < numLimbs; i++) {
+      final long pi = modulus[i];
+      final long ai = a[aOffset + i];
+      final long d = pi - ai;
+      final long b1 = Long.compareUnsigned(pi, ai) < 0 ? 1 : 0;
+      final long d2 = d - borrow;
+      final long b2 = Long.compareUnsigned(d, borrow) < 0 ? 1 : 0;
+      r[rOffset + i] = d2;
+      borrow = b1 | b2;
+    }
+  }
+
+  /**
+   * Sets r = a * b * R^{-1} mod p, using the Coarsely Integrated Operand Scanning (CIOS) method.
+   *
+   * <p>See: Koc, Acar, Kaliski: "Analyzing and Comparing Montgomery Multiplication Algorithms",
+   * Section 4.
+   */
+  public void mul(
+      final long[] a,
+      final int aOffset,
+      final long[] b,
+      final int bOffset,
+      final long[] r,
+      final int rOffset) {
+    mul(a, aOffset, b, bOffset, r, rOffset, new long[scratchLength()]);
+  }
+
+  /** Sets r = a * b * R^{-1} mod p, using the given buffer of scratchLength() limbs. */
+  public void mul(
+      final long[] a,
+      final int aOffset,
+      final long[] b,
+      final int bOffset,
+      final long[] r,
+      final int rOffset,
+      final long[] t) {
+    final int n = numLimbs;
+    for (int i = 0; i < n + 2; i++) {
+      t[i] = 0;
+    }
+
+    for (int i = 0; i < n; i++) {
+      // t = t + a * b[i]
+      final long bi = b[bOffset + i];
+      long carry = 0;
+      for (int j = 0; j < n; j++) {
+        final long aj = a[aOffset + j];
+        final long lo = aj * bi;
+        long hi = unsignedMultiplyHigh(aj, bi);
+        final long s = lo + t[j];
+        if (Long.compareUnsigned(s, lo) < 0) {
+          hi++;
+        }
+        final long s2 = s + carry;
+        if (Long.compareUnsigned(s2, s) < 0) {
+          hi++;
+        }
+        t[j] = s2;
+        carry = hi;
+      }
+      long s = t[n] + carry;
+      t[n + 1] = Long.compareUnsigned(s, carry) < 0 ? 1 : 0;
+      t[n] = s;
+
+      // t = (t + m * p) / 2^64
+      final long m = t[0] * inverse;
+      long lo = m * modulus[0];
+      long hi = unsignedMultiplyHigh(m, modulus[0]);
+      if (Long.compareUnsigned(lo + t[0], lo) < 0) {
+        hi++;
+      }
+      carry = hi;
+      for (int j = 1; j < n; j++) {
+        lo = m * modulus[j];
+        hi = unsignedMultiplyHigh(m, modulus[j]);
+        s = lo + t[j];
+        if (Long.compareUnsigned(s, lo) < 0) {
+          hi++;
+        }
+        final long s2 = s + carry;
+        if (Long.compareUnsigned(s2, s) < 0) {
+          hi++;
+        }
+        t[j - 1] = s2;
+        carry = hi;
+      }
+      s = t[n] + carry;
+      t[n - 1] = s;
+      t[n] = t[n + 1] + (Long.compareUnsigned(s, carry) < 0 ? 1 : 0);
+    }
+
+    finalReduction(t, 0, r, rOffset);
+  }
+
+  /**
+   * Sets r = a^2 * R^{-1} mod p. The double-width square is computed first, sharing the symmetric
+   * cross products a[i] * a[j] = a[j] * a[i], and is then reduced with Montgomery reduction.
+   */
+  public void square(final long[] a, final int aOffset, final long[] r, final int rOffset) {
+    square(a, aOffset, r, rOffset, new long[scratchLength()]);
+  }
+
+  /** Sets r = a^2 * R^{-1} mod p, using the given buffer of scratchLength() limbs. */
+  public void square(
+      final long[] a, final int aOffset, final long[] r, final int rOffset, final long[] w) {
+    final int n = numLimbs;
+    for (int i = 0; i < 2 * n + 1; i++) {
+      w[i] = 0;
+    }
+
+    // Cross products a[i] * a[j], for i < j.
+    for (int i = 0; i < n; i++) {
+      final long ai = a[aOffset + i];
+      long carry = 0;
+      for (int j = i + 1; j < n; j++) {
+        final long aj = a[aOffset + j];
+        final long lo = ai * aj;
+        long hi = unsignedMultiplyHigh(ai, aj);
+        final long s = lo + w[i + j];
+        if (Long.compareUnsigned(s, lo) < 0) {
+          hi++;
+        }
+        final long s2 = s + carry;
+        if (Long.compareUnsigned(s2, s) < 0) {
+          hi++;
+        }
+        w[i + j] = s2;
+        carry = hi;
+      }
+      w[i + n] = carry;
+    }
+
+    // Double the cross products.
+    w[2 * n] = w[2 * n - 1] >>> 63;
+    for (int i = 2 * n - 1; i > 0; i--) {
+      w[i] = (w[i] << 1) | (w[i - 1] >>> 63);
+    }
+    w[0] <<= 1;
+
+    // Add the diagonal terms a[i]^2.
+    long carry = 0;
+    for (int i = 0; i < n; i++) {
+      final long ai = a[aOffset + i];
+      final long lo = ai * ai;
+      final long hi = unsignedMultiplyHigh(ai, ai);
+
+      long s = w[2 * i] + lo;
+      long c = Long.compareUnsigned(s, lo) < 0 ? 1 : 0;
+      long s2 = s + carry;
+      c += Long.compareUnsigned(s2, s) < 0 ? 1 : 0;
+      w[2 * i] = s2;
+
+      s = w[2 * i + 1] + hi;
+      long c1 = Long.compareUnsigned(s, hi) < 0 ? 1 : 0;
+      s2 = s + c;
+      c1 += Long.compareUnsigned(s2, s) < 0 ? 1 : 0;
+      w[2 * i + 1] = s2;
+      carry = c1;
+    }
+    w[2 * n] += carry;
+
+    // Montgomery reduction of the double-width square.
+    for (int i = 0; i < n; i++) {
+      final long m = w[i] * inverse;
+      carry = 0;
+      for (int j = 0; j < n; j++) {
+        final long lo = m * modulus[j];
+        long hi = unsignedMultiplyHigh(m, modulus[j]);
+        final long s = lo + w[i + j];
+        if (Long.compareUnsigned(s, lo) < 0) {
+          hi++;
+        }
+        final long s2 = s + carry;
+        if (Long.compareUnsigned(s2, s) < 0) {
+          hi++;
+        }
+        w[i + j] = s2;
+        carry = hi;
+      }
+      for (int k = i + n; carry != 0 && k <= 2 * n; k++) {
+        final long s = w[k] + carry;
+        carry = Long.compareUnsigned(s, carry) < 0 ? 1 : 0;
+        w[k] = s;
+      }
+    }
+
+    finalReduction(w, n, r, rOffset);
+  }
+
+  /* Returns the number of limbs of the scratch buffers taken by mul() and square(). */
+  public int scratchLength() {
+    return 2 * numLimbs + 1;
+  }
+
+  /*
+   * Writes t mod p into r, given t < 2p stored on the numLimbs limbs at tOffset plus the carry limb
+   * that follows them.
+   */
+  private void finalReduction(
+      final long[] t, final int tOffset, final long[] r, final int rOffset) {
+    System.arraycopy(t, tOffset, r, rOffset, numLimbs);
+    if (t[tOffset + numLimbs] != 0 || geqModulus(r, rOffset)) {
+      subtractModulus(r, rOffset);
+    }
+  }
+
+  private boolean geqModulus(final long[] a, final int aOffset) {
+    for (int i = numLimbs - 1; i >= 0; i--) {
+      final int cmp = Long.compareUnsigned(a[aOffset + i], modulus[i]);
+      if (cmp != 0) {
+        return cmp > 0;
+      }
+    }
+    return true;
+  }
+
+  private void subtractModulus(final long[] a, final int aOffset) {
+    long borrow = 0;
+    for (int i = 0; i < numLimbs; i++) {
+      final long ai = a[aOffset + i];
+      final long pi = modulus[i];
+      final long d = ai - pi;
+      final long b1 = Long.compareUnsigned(ai, pi) < 0 ? 1 : 0;
+      final long d2 = d - borrow;
+      final long b2 = Long.compareUnsigned(d, borrow) < 0 ? 1 : 0;
+      a[aOffset + i] = d2;
+      borrow = b1 | b2;
+    }
+  }
+
+  /* Returns the high 64 bits of the unsigned 128-bit product a * b. */
+  static long unsignedMultiplyHigh(final long a, final long b) {
+    return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+  }
+
+  /** Returns the numLimbs little-endian 64-bit limbs of the non-negative value. */
+  public static long[] toLimbs(final BigInteger value, final int numLimbs) {
+    final long[] limbs = new long[numLimbs];
+    for (int i = 0; i < numLimbs; i++) {
+      limbs[i] = value.shiftRight(64 * i).longValue();
+    }
+    return limbs;
+  }
+
+  /** Returns the non-negative integer with the given little-endian 64-bit limbs. */
+  public static BigInteger fromLimbs(final long[] limbs, final int offset, final int numLimbs) {
+    final byte[] bytes = new byte[8 * numLimbs + 1];
+    for (int i = 0; i < numLimbs; i++) {
+      final long limb = limbs[offset + i];
+      for (int j = 0; j < 8; j++) {
+        bytes[bytes.length - 1 - (8 * i + j)] = (byte) (limb >>> (8 * j));
+      }
+    }
+    return new BigInteger(bytes);
+  }
+}
@@ -0,0 +1,133 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import algebra.fields.abstractfieldparameters.AbstractFpParameters;
+import common.OffHeapLongArray;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Off-heap version of FieldVector, which stores the Montgomery form limbs of the elements in an
+ * OffHeapLongArray, i.e. in direct memory or in a memory-mapped file. Vectors larger than the heap
+ * can thus be used, and SerialFFT runs over them in blocks, without creating an object per element.
+ * Elements are copied in and out of the vector with get() and set(), or in blocks of limbs with
+ * get() and put().
+ */
+public class OffHeapFieldVector<FieldT extends AbstractFieldElementExpanded<FieldT>> {
+
+  private final FieldT fieldFactory;
+  private final AbstractFpParameters FpParameters;
+  private final int numLimbs;
+  private final int size;
+  private final OffHeapLongArray limbs;
+
+  private OffHeapFieldVector(
+      final OffHeapLongArray limbs, final int size, final FieldT fieldFactory) {
+    this.fieldFactory = fieldFactory;
+    this.FpParameters = fieldFactory.montgomeryElement().FpParameters;
+    this.numLimbs = FpParameters.montgomeryParameters().numLimbs;
+    this.size = size;
+    this.limbs = limbs;
+    assert (limbs.length() == (long) size * numLimbs);
+  }
+
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>> long length(
+      final int size, final FieldT fieldFactory) {
+    return (long) size
+        * fieldFactory.montgomeryElement().FpParameters.montgomeryParameters().numLimbs;
+  }
+
+  /* Returns a vector of size zero elements, in direct memory. */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      OffHeapFieldVector<FieldT> allocateDirect(final int size, final FieldT fieldFactory) {
+    return new OffHeapFieldVector<>(
+        OffHeapLongArray.allocateDirect(length(size, fieldFactory)), size, fieldFactory);
+  }
+
+  /**
+   * Returns a vector of size elements mapped to the given file, see OffHeapLongArray.map(). A new
+   * file holds size zero elements, and an existing file the elements of a previously mapped vector
+   * over the same field.
+   */
+  public static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      OffHeapFieldVector<FieldT> map(final Path file, final int size, final FieldT fieldFactory)
+          throws IOException {
+    return new OffHeapFieldVector<>(
+        OffHeapLongArray.map(file, length(size, fieldFactory)), size, fieldFactory);
+  }
+
+  /* Copies the elements of vector into this vector, which must have the same size. */
+  public OffHeapFieldVector<FieldT> setAll(final FieldVector<FieldT> vector) {
+    assert (vector.size() == size);
+    limbs.put(0, vector.limbs(), 0, size * numLimbs);
+    return this;
+  }
+
+  /* Returns a copy of this vector on the heap. */
+  public FieldVector<FieldT> toFieldVector() {
+    final long[] result = new long[size * numLimbs];
+    limbs.get(0, result, 0, result.length);
+    return new FieldVector<>(result, size, fieldFactory);
+  }
+
+  public MontgomeryParameters montgomeryParameters() {
+    return FpParameters.montgomeryParameters();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int numLimbs() {
+    return numLimbs;
+  }
+
+  /* Returns the Montgomery form limbs of the given element of this field. */
+  public long[] limbs(final FieldT element) {
+    return element.montgomeryElement().limbs.clone();
+  }
+
+  /* Returns a new element equal to the ith element of the vector. */
+  public FieldT get(final int i) {
+    final MontgomeryFp element = new MontgomeryFp(new long[numLimbs], FpParameters);
+    return fieldFactory.construct(element.load(limbs, (long) i * numLimbs));
+  }
+
+  /* Sets the ith element of the vector to a copy of element. */
+  public void set(final int i, final FieldT element) {
+    element.montgomeryElement().store(limbs, (long) i * numLimbs);
+  }
+
+  /* Copies the limbs of the count elements starting at i into dst, from dstOffset. */
+  public void get(final int i, final int count, final long[] dst, final int dstOffset) {
+    limbs.get((long) i * numLimbs, dst, dstOffset, count * numLimbs);
+  }
+
+  /* Copies count elements of limbs from src, from srcOffset, into the vector starting at i. */
+  public void put(final int i, final int count, final long[] src, final int srcOffset) {
+    limbs.put((long) i * numLimbs, src, srcOffset, count * numLimbs);
+  }
+
+  /* Sets this[i] = this[i] * scalar for all i, processing blockSize elements at a time. */
+  public OffHeapFieldVector<FieldT> scaleAssign(final FieldT scalar, final int blockSize) {
+    final MontgomeryParameters montgomery = montgomeryParameters();
+    final long[] s = scalar.montgomeryElement().limbs;
+    final long[] scratch = new long[montgomery.scratchLength()];
+    final long[] block = new long[Math.min(size, blockSize) * numLimbs];
+    for (int i = 0; i < size; i += blockSize) {
+      final int count = Math.min(blockSize, size - i);
+      get(i, count, block, 0);
+      for (int offset = 0; offset < count * numLimbs; offset += numLimbs) {
+        montgomery.mul(block, offset, s, 0, block, offset, scratch);
+      }
+      put(i, count, block, 0);
+    }
+    return this;
+  }
+}
@@ -12,6 +12,8 @@ import algebra.fields.Fp2;
 import java.math.BigInteger;
 
 public abstract class AbstractFp2Parameters {
+  /* Lazily computed from nonresidue(), and recomputed after deserialization */
+  private transient BigInteger signedNonresidue;
 
   public abstract AbstractFpParameters FpParameters();
 
@@ -34,4 +36,20 @@ public abstract class AbstractFp2Parameters {
   public abstract Fp2 nqrTot();
 
   public abstract Fp[] FrobeniusMapCoefficientsC1();
+
+  /**
+   * Returns nonresidue() as the integer of least absolute value in its class mod p, e.g. -1 rather
+   * than p - 1, used by the lazy reduction of Fp2.
+   */
+  public BigInteger signedNonresidue() {
+    if (signedNonresidue == null) {
+      final BigInteger modulus = FpParameters().modulus();
+      final BigInteger nonresidue = nonresidue().toBigInteger();
+      signedNonresidue =
+          nonresidue.compareTo(modulus.shiftRight(1)) > 0
+              ? nonresidue.subtract(modulus)
+              : nonresidue;
+    }
+    return signedNonresidue;
+  }
 }
@@ -8,9 +8,13 @@
 package algebra.fields.abstractfieldparameters;
 
 import algebra.fields.Fp;
+import algebra.fields.MontgomeryParameters;
 import java.math.BigInteger;
 
 public abstract class AbstractFpParameters {
+  /* Lazily computed from modulus(), and recomputed after deserialization */
+  private transient MontgomeryParameters montgomeryParameters;
+
   public abstract BigInteger modulus();
 
   public abstract BigInteger root();
@@ -34,4 +38,12 @@ public abstract class AbstractFpParameters {
   public abstract Fp ZERO();
 
   public abstract Fp ONE();
+
+  /* Returns the Montgomery constants of the modulus, used by MontgomeryFp */
+  public MontgomeryParameters montgomeryParameters() {
+    if (montgomeryParameters == null) {
+      montgomeryParameters = new MontgomeryParameters(modulus());
+    }
+    return montgomeryParameters;
+  }
 }
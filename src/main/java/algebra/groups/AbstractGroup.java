@@ -7,6 +7,7 @@
 
 package algebra.groups;
 
+import algebra.curves.GLVParameters;
 import algebra.fields.AbstractFieldElementExpanded;
 import java.io.Serializable;
 import java.math.BigInteger;
@@ -24,25 +25,76 @@ public abstract class AbstractGroup<GroupT extends AbstractGroup<GroupT>> implem
   /* Returns this - other */
   public abstract GroupT sub(final GroupT other);
 
-  /* Returns (BigInteger) scalar * this */
+  /* Returns the parameters of the GLV endomorphism of the group, or null when it has none */
+  public GLVParameters glvParameters() {
+    return null;
+  }
+
+  /* Returns phi(this) = lambda * this, for the endomorphism phi of glvParameters() */
+  public GroupT endomorphism() {
+    throw new UnsupportedOperationException(
+        this.getClass().getSimpleName() + " has no GLV endomorphism");
+  }
+
+  /**
+   * Returns scalar * this. With the GLV endomorphism, a scalar below the order r of the group is
+   * decomposed into k1 + k2 * lambda mod r, and k1 * this + k2 * phi(this) is computed with an
+   * interleaved double-scalar multiplication, which shares the doublings of both halves of the
+   * scalar. As phi only acts as lambda on the subgroup of order r, this must then lie in that
+   * subgroup: the points that may lie outside of it, e.g. before their cofactor is cleared, are
+   * multiplied with mulNoEndomorphism(). The scalars of at least r also use mulNoEndomorphism(), so
+   * that e.g. mul(r) is zero exactly on the subgroup.
+   */
   public GroupT mul(final BigInteger scalar) {
+    final GLVParameters glv = glvParameters();
+    if (glv == null
+        || scalar.signum() < 0
+        || scalar.bitLength() <= glv.numBits
+        || scalar.compareTo(glv.order) >= 0) {
+      return mulNoEndomorphism(scalar);
+    }
+
+    final BigInteger[] k = glv.decompose(scalar);
+    final GroupT P = k[0].signum() < 0 ? this.negate() : this.self();
+    final GroupT Q = k[1].signum() < 0 ? this.endomorphism().negate() : this.endomorphism();
+    final GroupT PQ = P.add(Q);
+    final BigInteger k1 = k[0].abs();
+    final BigInteger k2 = k[1].abs();
+
+    GroupT result = this.zero().mutableCopy();
+    for (int i = Math.max(k1.bitLength(), k2.bitLength()) - 1; i >= 0; i--) {
+      result = result.dblAssign();
+      if (k1.testBit(i)) {
+        result = result.addAssign(k2.testBit(i) ? PQ : P);
+      } else if (k2.testBit(i)) {
+        result = result.addAssign(Q);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns (BigInteger) scalar * this, with the double-and-add method, which does not use the GLV
+   * endomorphism and so holds for every point of the group, see mul().
+   */
+  public GroupT mulNoEndomorphism(final BigInteger scalar) {
     GroupT base = this.self();
 
     if (scalar.equals(BigInteger.ONE)) {
       return base;
     }
 
-    GroupT result = base.zero();
+    GroupT result = base.zero().mutableCopy();
 
     boolean found = false;
     for (int i = scalar.bitLength() - 1; i >= 0; i--) {
       if (found) {
-        result = result.dbl();
+        result = result.dblAssign();
       }
 
       if (scalar.testBit(i)) {
         found = true;
-        result = result.add(base);
+        result = result.addAssign(base);
       }
     }
 
@@ -72,6 +124,38 @@ public abstract class AbstractGroup<GroupT extends AbstractGroup<GroupT>> implem
   /* Returns this+this */
   public abstract GroupT dbl();
 
+  /**
+   * Returns a copy of this element that is owned by the caller, and can therefore be used as an
+   * accumulator with addAssign() and dblAssign(). Immutable implementations return this.
+   */
+  public GroupT mutableCopy() {
+    return this.self();
+  }
+
+  /* Sets this = other, see addAssign() */
+  public GroupT set(final GroupT other) {
+    return other;
+  }
+
+  /**
+   * Sets this = this + other, in place when the implementation supports it, and returns the result.
+   * Must only be called on an element owned by the caller (see mutableCopy()), and the returned
+   * element must always be used, e.g. acc = acc.addAssign(other).
+   */
+  public GroupT addAssign(final GroupT other) {
+    return this.add(other);
+  }
+
+  /* Sets this = this - other, see addAssign() */
+  public GroupT subAssign(final GroupT other) {
+    return this.sub(other);
+  }
+
+  /* Sets this = this + this, see addAssign() */
+  public GroupT dblAssign() {
+    return this.dbl();
+  }
+
   /* Fixed base window table for G1 and G2. */
   public abstract ArrayList<Integer> fixedBaseWindowTable();
 
@@ -0,0 +1,488 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.msm;
+
+import algebra.curves.AbstractG1;
+import algebra.curves.G1Vector;
+import algebra.curves.GLVParameters;
+import algebra.fields.MontgomeryParameters;
+import common.OffHeapLongArray;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+/**
+ * Pippenger's algorithm whose buckets are held in affine coordinates, as the Montgomery limbs of
+ * their coordinates, and updated with affine additions. An affine addition needs an inversion,
+ * which is shared by a batch of additions with Montgomery's trick (see FieldUtils.batchInverse()),
+ * so that an addition to a bucket costs about 6M instead of the 7M + 4S of a mixed addition.
+ *
+ * <p>The additions of a window are gathered into batches of distinct buckets. An addition to a
+ * bucket that already has a pending addition in the batch waits in a small queue, and is scheduled
+ * again once the batch is processed. When the queue is full, e.g. when many scalars share their
+ * digits, the addition falls back to a mixed addition into a Jacobian bucket. The buckets are then
+ * summed in Jacobian coordinates, as in VariableBaseMSM.pippengerMSM().
+ *
+ * <p>The bases are read in the packed affine form of AbstractG1.storeAffine(), from a G1Vector or
+ * directly from a list of points in affine coordinates, e.g. the queries of a proving key (see
+ * Bases). With the GLV endomorphism, each scalar is decomposed into two scalars of half its bits
+ * (see VariableBaseMSM.glvScalars()), of the base and of its image (beta * x, y), which is computed
+ * from the packed form with a single multiplication.
+ *
+ * <p>An instance holds the buckets and temporaries of a single task of
+ * VariableBaseMSM.sumWindows(), and is not shared between threads.
+ */
+public class BatchAffineMSM<G1T extends AbstractG1<G1T>> {
+  /* Maximum number of additions sharing an inversion */
+  public static final int MAX_BATCH_SIZE = 1024;
+
+  private final Bases<G1T> bases;
+  private final int[] indices;
+  private final MontgomeryParameters field;
+  /* The Montgomery limbs of the beta of the GLV endomorphism, or null without the endomorphism */
+  private final long[] beta;
+  /* Number of limbs of a coordinate, and of an affine point */
+  private final int n;
+  private final int stride;
+  private final int numBuckets;
+  private final int batchSize;
+
+  /* The affine buckets, and whether they hold a point */
+  private final long[] buckets;
+  private final boolean[] nonEmpty;
+  /* Whether a bucket has a pending addition in the batch */
+  private final boolean[] busy;
+  /* The Jacobian buckets of the additions that did not fit in the queue, or null */
+  private final ArrayList<G1T> overflow;
+
+  /* The pending additions of the batch: their buckets, points and inversion products */
+  private final int[] batchBuckets;
+  private final long[] batchPoints;
+  private final long[] denominators;
+  private final long[] prefixes;
+  private int batchLength;
+
+  /* The additions waiting for their bucket, encoded as in schedule() */
+  private final int[] queueBuckets;
+  private final int[] queuePoints;
+  private int queueLength;
+  private boolean retrying;
+  private boolean draining;
+
+  /* Temporaries */
+  private final long[] product;
+  private final long[] inverse;
+  private final long[] lambda;
+  private final long[] t0;
+  private final long[] t1;
+  private final long[] scratch;
+  private final OffHeapLongArray bucketArray;
+  private final G1T bucketPoint;
+  private final G1T basePoint;
+
+  /**
+   * The bases of the MSMs, read by index: the points of a G1Vector, or of a list whose points are
+   * all in affine coordinates (see AbstractG1.isAffine()), which are then read without a copy.
+   */
+  interface Bases<G1T extends AbstractG1<G1T>> {
+    /* Returns the zero element of the group of the points */
+    G1T zero();
+
+    /* Returns the ith point, which may be loaded into point, see G1Vector.get(i, point) */
+    G1T get(final int i, final G1T point);
+
+    /* Copies the packed affine coordinates of the ith point to dst at dstOffset */
+    void getAffine(final int i, final long[] dst, final int dstOffset);
+  }
+
+  static <G1T extends AbstractG1<G1T>> Bases<G1T> bases(final G1Vector<G1T> vector) {
+    return new Bases<G1T>() {
+      public G1T zero() {
+        return vector.zero();
+      }
+
+      public G1T get(final int i, final G1T point) {
+        return vector.get(i, point);
+      }
+
+      public void getAffine(final int i, final long[] dst, final int dstOffset) {
+        vector.getAffine(i, dst, dstOffset);
+      }
+    };
+  }
+
+  static <G1T extends AbstractG1<G1T>> Bases<G1T> bases(final List<G1T> points, final G1T zero) {
+    return new Bases<G1T>() {
+      public G1T zero() {
+        return zero;
+      }
+
+      public G1T get(final int i, final G1T point) {
+        return points.get(i);
+      }
+
+      public void getAffine(final int i, final long[] dst, final int dstOffset) {
+        points.get(i).storeAffine(dst, dstOffset);
+      }
+    };
+  }
+
+  private BatchAffineMSM(
+      final Bases<G1T> bases, final int[] indices, final GLVParameters glv, final int numBuckets) {
+    this.bases = bases;
+    this.indices = indices;
+    this.field = bases.zero().affineParameters();
+    this.beta = glv == null ? null : field.toMontgomery(glv.beta);
+    this.n = field.numLimbs;
+    this.stride = 2 * n;
+    this.numBuckets = numBuckets;
+    this.batchSize = Math.max(1, Math.min(MAX_BATCH_SIZE, numBuckets / 4));
+
+    this.buckets = new long[numBuckets * stride];
+    this.nonEmpty = new boolean[numBuckets];
+    this.busy = new boolean[numBuckets];
+    this.overflow = new ArrayList<>(numBuckets);
+    for (int b = 0; b < numBuckets; b++) {
+      overflow.add(null);
+    }
+
+    /* The retried queue may fill the batch beyond batchSize, see process() */
+    final int capacity = 2 * batchSize;
+    this.batchBuckets = new int[capacity];
+    this.batchPoints = new long[capacity * stride];
+    this.denominators = new long[capacity * n];
+    this.prefixes = new long[capacity * n];
+    this.queueBuckets = new int[batchSize];
+    this.queuePoints = new int[batchSize];
+
+    this.product = new long[n];
+    this.inverse = new long[n];
+    this.lambda = new long[n];
+    this.t0 = new long[n];
+    this.t1 = new long[n];
+    this.scratch = new long[field.scratchLength()];
+    this.bucketArray = OffHeapLongArray.allocateDirect(stride);
+    this.bucketPoint = bases.zero().mutableCopy();
+    this.basePoint = bases.zero().mutableCopy();
+  }
+
+  /**
+   * Returns sum_i scalars(i) * bases.get(indices[i]) for 0 <= i < length, where the scalars have at
+   * most numBits bits. The windows and the signed digits are those of
+   * VariableBaseMSM.pippengerMSM(), over the decomposed scalars when the bases have the GLV
+   * endomorphism and numBits exceeds the bits of the decomposed scalars.
+   */
+  public static <G1T extends AbstractG1<G1T>> G1T pippengerMSM(
+      final int length,
+      final IntFunction<BigInteger> scalars,
+      final G1Vector<G1T> bases,
+      final int[] indices,
+      final int numBits) {
+    return pippengerMSM(
+        length, scalars, bases, indices, numBits, ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * pippengerMSM() with at most parallelism tasks, each with its own buckets, see
+   * VariableBaseMSM.sumWindows().
+   */
+  static <G1T extends AbstractG1<G1T>> G1T pippengerMSM(
+      final int length,
+      final IntFunction<BigInteger> scalars,
+      final G1Vector<G1T> bases,
+      final int[] indices,
+      final int numBits,
+      final int parallelism) {
+    return pippengerMSMs(
+            length, Collections.singletonList(scalars), bases(bases), indices, numBits, parallelism)
+        .get(0);
+  }
+
+  /**
+   * Returns the MSMs of each of the scalars over the same bases, see pippengerMSM(). The MSMs share
+   * the tasks of the windows, in which each MSM has its own buckets.
+   */
+  static <G1T extends AbstractG1<G1T>> List<G1T> pippengerMSMs(
+      final int length,
+      final List<IntFunction<BigInteger>> scalars,
+      final Bases<G1T> bases,
+      final int[] indices,
+      final int numBits,
+      final int parallelism) {
+    final GLVParameters glv = bases.zero().glvParameters();
+    if (glv != null && numBits > glv.numBits) {
+      final List<IntFunction<BigInteger>> glvScalars = new ArrayList<>(scalars.size());
+      for (IntFunction<BigInteger> msmScalars : scalars) {
+        final BigInteger[] decomposed =
+            VariableBaseMSM.glvScalars(length, msmScalars, glv, parallelism);
+        glvScalars.add(j -> decomposed[j]);
+      }
+      return pippengerMSMs(2 * length, glvScalars, bases, indices, glv, glv.numBits, parallelism);
+    }
+    return pippengerMSMs(length, scalars, bases, indices, null, numBits, parallelism);
+  }
+
+  /**
+   * With glv, the scalars 2 * i and 2 * i + 1 are those of the base indices[i] and of its image by
+   * the endomorphism.
+   */
+  private static <G1T extends AbstractG1<G1T>> List<G1T> pippengerMSMs(
+      final int length,
+      final List<IntFunction<BigInteger>> scalars,
+      final Bases<G1T> bases,
+      final int[] indices,
+      final GLVParameters glv,
+      final int numBits,
+      final int parallelism) {
+    final int numMSMs = scalars.size();
+    final int numChunks = VariableBaseMSM.numChunks(length, numBits, parallelism);
+    final int c = VariableBaseMSM.windowSize((length + numChunks - 1) / numChunks, numBits);
+    final int numWindows = numBits / c + 1;
+    final int[][][] digits = new int[numMSMs][][];
+    for (int j = 0; j < numMSMs; j++) {
+      digits[j] = VariableBaseMSM.signedDigits(length, scalars.get(j), c, numWindows, parallelism);
+    }
+
+    return VariableBaseMSM.sumWindows(
+        length,
+        c,
+        numWindows,
+        numChunks,
+        numMSMs,
+        bases.zero(),
+        () -> {
+          final List<BatchAffineMSM<G1T>> msms = new ArrayList<>(numMSMs);
+          for (int j = 0; j < numMSMs; j++) {
+            msms.add(new BatchAffineMSM<>(bases, indices, glv, 1 << (c - 1)));
+          }
+          return (k, from, to) -> {
+            final List<G1T> sums = new ArrayList<>(numMSMs);
+            for (int j = 0; j < numMSMs; j++) {
+              sums.add(msms.get(j).window(digits[j][k], from, to));
+            }
+            return sums;
+          };
+        },
+        parallelism);
+  }
+
+  /**
+   * Returns sum_i digits[i] * P_i for 0 <= i < digits.length, where P_i is bases.get(indices[i]),
+   * or with glv, the base indices[i >> 1] for even i and its image by the endomorphism for odd i,
+   * and the digits lie in [-2^(c-1), 2^(c-1)]. This sums a single set of buckets, e.g. over the
+   * precomputed multiples of the bases of PrecomputedMSM, in chunks of the digits over up to
+   * parallelism tasks.
+   */
+  static <G1T extends AbstractG1<G1T>> G1T bucketMSM(
+      final int[] digits,
+      final G1Vector<G1T> bases,
+      final int[] indices,
+      final GLVParameters glv,
+      final int c,
+      final int parallelism) {
+    final int length = digits.length;
+    final Bases<G1T> vector = bases(bases);
+    final int numChunks =
+        length < VariableBaseMSM.PARALLEL_MSM_THRESHOLD
+            ? 1
+            : Math.max(1, Math.min(parallelism, length / VariableBaseMSM.PARALLEL_MSM_THRESHOLD));
+
+    return VariableBaseMSM.sumWindows(
+            length,
+            c,
+            1,
+            numChunks,
+            1,
+            bases.zero(),
+            () -> {
+              final BatchAffineMSM<G1T> msm =
+                  new BatchAffineMSM<>(vector, indices, glv, 1 << (c - 1));
+              return (k, from, to) -> Collections.singletonList(msm.window(digits, from, to));
+            },
+            parallelism)
+        .get(0);
+  }
+
+  /* Returns sum_j (j + 1) * bucket_j of the window of the given digits over the points [from, to) */
+  private G1T window(final int[] digits, final int from, final int to) {
+    for (int i = from; i < to; i++) {
+      final int digit = digits[i];
+      if (digit != 0) {
+        schedule(Math.abs(digit) - 1, digit > 0 ? i : ~i);
+      }
+    }
+    draining = true;
+    while (batchLength > 0 || queueLength > 0) {
+      process();
+    }
+    draining = false;
+
+    final G1T zero = bases.zero();
+    G1T runningSum = zero.mutableCopy();
+    G1T result = zero.mutableCopy();
+    for (int b = numBuckets - 1; b >= 0; b--) {
+      if (nonEmpty[b]) {
+        bucketArray.put(0, buckets, b * stride, stride);
+        runningSum = runningSum.addAssign(bucketPoint.loadAffine(bucketArray, 0));
+        nonEmpty[b] = false;
+      }
+      if (overflow.get(b) != null) {
+        runningSum = runningSum.addAssign(overflow.get(b));
+        overflow.set(b, null);
+      }
+      result = result.addAssign(runningSum);
+    }
+    return result;
+  }
+
+  /**
+   * Schedules the addition of the point i to the given bucket, or its subtraction when point is the
+   * complement ~i of i.
+   */
+  private void schedule(final int bucket, final int point) {
+    if (busy[bucket]) {
+      if (queueLength < queueBuckets.length && !draining) {
+        queueBuckets[queueLength] = bucket;
+        queuePoints[queueLength] = point;
+        queueLength++;
+      } else {
+        addJacobian(bucket, point);
+      }
+      return;
+    }
+
+    final int offset = batchLength * stride;
+    final int i = point >= 0 ? point : ~point;
+    bases.getAffine(index(i), batchPoints, offset);
+    if (field.isZero(batchPoints, offset) && field.isZero(batchPoints, offset + n)) {
+      /* The point at infinity */
+      return;
+    }
+    if (beta != null && (i & 1) == 1) {
+      field.mul(batchPoints, offset, beta, 0, batchPoints, offset, scratch);
+    }
+    if (point < 0) {
+      field.negate(batchPoints, offset + n, batchPoints, offset + n);
+    }
+
+    if (!nonEmpty[bucket]) {
+      System.arraycopy(batchPoints, offset, buckets, bucket * stride, stride);
+      nonEmpty[bucket] = true;
+      return;
+    }
+
+    batchBuckets[batchLength] = bucket;
+    busy[bucket] = true;
+    batchLength++;
+    if (batchLength >= batchSize && !retrying) {
+      process();
+    }
+  }
+
+  /* Adds the point, or subtracts its complement, to the Jacobian bucket, with a mixed addition. */
+  private void addJacobian(final int bucket, final int point) {
+    G1T sum = overflow.get(bucket);
+    if (sum == null) {
+      sum = bases.zero().mutableCopy();
+    }
+    final int i = point >= 0 ? point : ~point;
+    G1T base = bases.get(index(i), basePoint);
+    if (beta != null && (i & 1) == 1) {
+      base = base.endomorphism();
+    }
+    overflow.set(bucket, point >= 0 ? sum.addAssign(base) : sum.subAssign(base));
+  }
+
+  /* Returns the index in bases of the point i, see pippengerMSM() */
+  private int index(final int i) {
+    return indices[beta != null ? i >> 1 : i];
+  }
+
+  /* Processes the batch, then schedules the queued additions again. */
+  private void process() {
+    processBatch();
+
+    retrying = true;
+    final int length = queueLength;
+    queueLength = 0;
+    for (int j = 0; j < length; j++) {
+      schedule(queueBuckets[j], queuePoints[j]);
+    }
+    retrying = false;
+  }
+
+  /**
+   * Adds the points of the batch to their buckets: with P1 = (x1, y1) the bucket and P2 = (x2, y2)
+   * the point, lambda = (y2 - y1) / (x2 - x1), or 3 * x1^2 / (2 * y1) when P1 = P2, then x3 =
+   * lambda^2 - x1 - x2 and y3 = lambda * (x1 - x3) - y1. The denominators are inverted at once.
+   */
+  private void processBatch() {
+    System.arraycopy(field.one, 0, product, 0, n);
+    for (int j = 0; j < batchLength; j++) {
+      final int bucket = batchBuckets[j] * stride;
+      final int point = j * stride;
+      final int d = j * n;
+      if (!equal(buckets, bucket, batchPoints, point)) {
+        field.sub(batchPoints, point, buckets, bucket, denominators, d);
+      } else if (equal(buckets, bucket + n, batchPoints, point + n)) {
+        field.add(buckets, bucket + n, buckets, bucket + n, denominators, d);
+      } else {
+        /* P2 = -P1, the bucket is cleared below */
+        System.arraycopy(field.one, 0, denominators, d, n);
+      }
+      System.arraycopy(product, 0, prefixes, d, n);
+      field.mul(product, 0, denominators, d, product, 0, scratch);
+    }
+
+    final BigInteger value = field.fromMontgomery(product, 0);
+    System.arraycopy(field.toMontgomery(value.modInverse(field.modulusValue)), 0, inverse, 0, n);
+
+    for (int j = batchLength - 1; j >= 0; j--) {
+      final int b = batchBuckets[j];
+      final int bucket = b * stride;
+      final int point = j * stride;
+      final int d = j * n;
+      busy[b] = false;
+
+      /* lambda = 1 / denominator_j, then inverse = 1 / (denominator_0 * ... * denominator_{j-1}) */
+      field.mul(inverse, 0, prefixes, d, lambda, 0, scratch);
+      field.mul(inverse, 0, denominators, d, inverse, 0, scratch);
+
+      if (!equal(buckets, bucket, batchPoints, point)) {
+        field.sub(batchPoints, point + n, buckets, bucket + n, t0, 0);
+      } else if (equal(buckets, bucket + n, batchPoints, point + n)) {
+        field.square(buckets, bucket, t1, 0, scratch);
+        field.add(t1, 0, t1, 0, t0, 0);
+        field.add(t0, 0, t1, 0, t0, 0);
+      } else {
+        nonEmpty[b] = false;
+        continue;
+      }
+      field.mul(t0, 0, lambda, 0, lambda, 0, scratch);
+
+      /* t1 = x3 = lambda^2 - x1 - x2 */
+      field.square(lambda, 0, t1, 0, scratch);
+      field.sub(t1, 0, buckets, bucket, t1, 0);
+      field.sub(t1, 0, batchPoints, point, t1, 0);
+      /* y3 = lambda * (x1 - x3) - y1 */
+      field.sub(buckets, bucket, t1, 0, t0, 0);
+      field.mul(t0, 0, lambda, 0, t0, 0, scratch);
+      field.sub(t0, 0, buckets, bucket + n, buckets, bucket + n);
+      System.arraycopy(t1, 0, buckets, bucket, n);
+    }
+    batchLength = 0;
+  }
+
+  private boolean equal(final long[] a, final int aOffset, final long[] b, final int bOffset) {
+    return Arrays.equals(a, aOffset, aOffset + n, b, bOffset, bOffset + n);
+  }
+}
@@ -9,6 +9,7 @@ package algebra.msm;
 
 import algebra.curves.AbstractG1;
 import algebra.curves.AbstractG2;
+import algebra.curves.GLVParameters;
 import algebra.fields.AbstractFieldElementExpanded;
 import algebra.groups.AbstractGroup;
 import java.math.BigInteger;
@@ -42,12 +43,17 @@ public class FixedBaseMSM {
     return window > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) window;
   }
 
-  /** Computes the window table for a given base element. */
+  /**
+   * Computes the window table for a given base element. When the group has the GLV endomorphism and
+   * scalarSize exceeds the bits of the decomposed scalars, the table only covers these bits, see
+   * serialMSM().
+   */
   public static <GroupT extends AbstractGroup<GroupT>> List<List<GroupT>> getWindowTable(
       final GroupT base, final int scalarSize, final int windowSize) {
 
+    final int tableSize = tableSize(base, scalarSize);
     final int numWindows =
-        (scalarSize % windowSize == 0) ? scalarSize / windowSize : scalarSize / windowSize + 1;
+        (tableSize % windowSize == 0) ? tableSize / windowSize : tableSize / windowSize + 1;
     final int innerLimit = (int) Math.pow(2, windowSize);
 
     final List<List<GroupT>> windowTable = new ArrayList<>();
@@ -74,6 +80,18 @@ public class FixedBaseMSM {
     return windowTable;
   }
 
+  /* Returns the number of bits of the scalars covered by the window table, see getWindowTable() */
+  private static <GroupT extends AbstractGroup<GroupT>> int tableSize(
+      final GroupT base, final int scalarSize) {
+    final GLVParameters glv = base.glvParameters();
+    return glv != null && scalarSize > glv.numBits ? glv.numBits : scalarSize;
+  }
+
+  /**
+   * Returns scalar * base from the window table of base. With the GLV endomorphism phi, the scalar
+   * is decomposed into k1 + k2 * lambda, and the result is k1 * base + phi(k2 * base), where both
+   * products are read from the same table of half the size.
+   */
   public static <T extends AbstractGroup<T>, FieldT extends AbstractFieldElementExpanded<FieldT>>
       T serialMSM(
           final int scalarSize,
@@ -81,8 +99,27 @@ public class FixedBaseMSM {
           final List<List<T>> multiplesOfBase,
           final FieldT scalar) {
 
-    final int outerc = (scalarSize + windowSize - 1) / windowSize;
     final BigInteger bigScalar = scalar.toBigInteger();
+    final T zero = multiplesOfBase.get(0).get(0);
+    final int tableSize = tableSize(zero, scalarSize);
+    if (tableSize == scalarSize) {
+      return windowMSM(scalarSize, windowSize, multiplesOfBase, bigScalar);
+    }
+
+    final BigInteger[] k = zero.glvParameters().decompose(bigScalar);
+    final T res1 = windowMSM(tableSize, windowSize, multiplesOfBase, k[0].abs());
+    final T res2 = windowMSM(tableSize, windowSize, multiplesOfBase, k[1].abs()).endomorphism();
+    return (k[0].signum() < 0 ? res1.negate() : res1).add(k[1].signum() < 0 ? res2.negate() : res2);
+  }
+
+  /* Returns bigScalar * base, for a scalar of at most scalarSize bits */
+  private static <T extends AbstractGroup<T>> T windowMSM(
+      final int scalarSize,
+      final int windowSize,
+      final List<List<T>> multiplesOfBase,
+      final BigInteger bigScalar) {
+
+    final int outerc = (scalarSize + windowSize - 1) / windowSize;
 
     T res = multiplesOfBase.get(0).get(0);
 
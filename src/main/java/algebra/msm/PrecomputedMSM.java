@@ -0,0 +1,315 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.msm;
+
+import algebra.curves.AbstractG1;
+import algebra.curves.G1Vector;
+import algebra.curves.GLVParameters;
+import algebra.fields.AbstractFieldElementExpanded;
+import common.OffHeapLongArray;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+/**
+ * Multi-scalar multiplication over fixed G1 bases, e.g. the queries of a proving key, with the
+ * multiples 2^(c * k) * P_i of each base P_i precomputed for the numWindows windows of c bits of
+ * the scalars. The signed digits of all the windows (see VariableBaseMSM.signedDigits()) then go
+ * into a single set of 2^(c-1) buckets, which is summed once, and the MSM needs no doublings, at
+ * the cost of numWindows points per base. With the GLV endomorphism, the table covers the bits of
+ * the decomposed scalars, and the images of the multiples are computed from their packed form as in
+ * BatchAffineMSM.
+ *
+ * <p>The table is a G1Vector, in direct memory or in a memory-mapped file, whose point i *
+ * numWindows + k is 2^(c * k) * P_i, in the packed affine form of AbstractG1.storeAffine(). The
+ * window size only depends on the number of bases and on the bits of the scalars (see
+ * windowSize()), so that a file is reopened with the length and numBits it was written with. A file
+ * starts with a header of HEADER_LONGS longs, which load() checks before reusing the table: MAGIC,
+ * VERSION, numBits, the window size, the number of bases, the SHA-256 hash of their packed affine
+ * coordinates, and a flag set once the table is complete.
+ */
+public class PrecomputedMSM<G1T extends AbstractG1<G1T>> {
+  /* Number of bases whose multiples are converted to affine coordinates at once, see setAll() */
+  private static final int PRECOMPUTATION_CHUNK = 256;
+
+  /* The header of a table file: its fields, followed by the hash of the bases and the flag */
+  private static final long MAGIC = 0x7a6b50726543544dL;
+  private static final long VERSION = 1;
+  private static final int HASH_INDEX = 5;
+  private static final int HASH_LONGS = 4;
+  private static final int COMPLETE_INDEX = HASH_INDEX + HASH_LONGS;
+  public static final int HEADER_LONGS = COMPLETE_INDEX + 1;
+
+  private final G1Vector<G1T> table;
+  /* The header of a mapped table, or null in direct memory */
+  private final OffHeapLongArray header;
+  private final int length;
+  /* The GLV endomorphism of the bases, or null, and the bits of the scalars covered by the table */
+  private final GLVParameters glv;
+  private final int numBits;
+  private final int windowSize;
+  private final int numWindows;
+
+  private PrecomputedMSM(
+      final G1Vector<G1T> table,
+      final OffHeapLongArray header,
+      final int length,
+      final int numBits,
+      final G1T groupFactory) {
+    final GLVParameters glvParameters = groupFactory.glvParameters();
+    this.glv = glvParameters != null && numBits > glvParameters.numBits ? glvParameters : null;
+    this.length = length;
+    this.numBits = glv != null ? glv.numBits : numBits;
+    this.windowSize = windowSize(length, numBits, groupFactory);
+    this.numWindows = this.numBits / windowSize + 1;
+    this.table = table;
+    this.header = header;
+    assert (table.size() == tableSize(length, numBits, groupFactory));
+  }
+
+  /**
+   * Returns a table for length bases, whose points are at infinity until set with setAll(), in
+   * direct memory. The scalars of msm() have at most numBits bits, e.g. those of the order of G1.
+   */
+  public static <G1T extends AbstractG1<G1T>> PrecomputedMSM<G1T> allocateDirect(
+      final int length, final int numBits, final G1T groupFactory) {
+    final int size = tableSize(length, numBits, groupFactory);
+    return new PrecomputedMSM<>(
+        G1Vector.allocateDirect(size, groupFactory), null, length, numBits, groupFactory);
+  }
+
+  /**
+   * Returns a table for length bases mapped to the given file (see G1Vector.map()), after its
+   * header. A new file holds points at infinity until set with setAll(), and an existing file the
+   * table previously written with the same length and numBits. The header is not checked, see
+   * load().
+   */
+  public static <G1T extends AbstractG1<G1T>> PrecomputedMSM<G1T> map(
+      final Path file, final int length, final int numBits, final G1T groupFactory)
+      throws IOException {
+    final int size = tableSize(length, numBits, groupFactory);
+    return new PrecomputedMSM<>(
+        G1Vector.map(file, HEADER_LONGS, size, groupFactory),
+        OffHeapLongArray.map(file, HEADER_LONGS),
+        length,
+        numBits,
+        groupFactory);
+  }
+
+  /**
+   * Returns the number of points of the table of length bases, i.e. numWindows points per base,
+   * each of groupFactory.affineLength() longs.
+   */
+  public static <G1T extends AbstractG1<G1T>> int tableSize(
+      final int length, final int numBits, final G1T groupFactory) {
+    final GLVParameters glv = groupFactory.glvParameters();
+    final int bits = glv != null && numBits > glv.numBits ? glv.numBits : numBits;
+    return Math.multiplyExact(length, bits / windowSize(length, numBits, groupFactory) + 1);
+  }
+
+  /**
+   * Returns the table of the non-empty bases, mapped to the given file. An existing file whose
+   * header matches the table, i.e. its numBits, window size and number of bases, and the hash of
+   * the bases, and whose precomputation completed, is reused as is. Otherwise, the table is
+   * precomputed into the file, and marked complete once written, so that the table of a fixed set
+   * of bases, e.g. of the proving key of a fixed circuit, is only precomputed once across runs.
+   */
+  public static <G1T extends AbstractG1<G1T>> PrecomputedMSM<G1T> load(
+      final Path file, final List<G1T> bases, final int numBits) throws IOException {
+    final PrecomputedMSM<G1T> result = map(file, bases.size(), numBits, bases.get(0));
+    final long[] expected = result.header(hash(bases));
+    boolean matches = result.header.get(COMPLETE_INDEX) == 1;
+    for (int i = 0; i < COMPLETE_INDEX && matches; i++) {
+      matches = result.header.get(i) == expected[i];
+    }
+    if (matches) {
+      return result;
+    }
+
+    result.setAll(0, bases);
+    result.header.put(0, expected, 0, COMPLETE_INDEX);
+    result.table.force();
+    result.header.put(COMPLETE_INDEX, 1);
+    result.header.force();
+    return result;
+  }
+
+  /* Returns the header of the table of the bases of the given hash, without its flag. */
+  private long[] header(final long[] hash) {
+    final long[] result = new long[COMPLETE_INDEX];
+    result[0] = MAGIC;
+    result[1] = VERSION;
+    result[2] = numBits;
+    result[3] = windowSize;
+    result[4] = length;
+    System.arraycopy(hash, 0, result, HASH_INDEX, HASH_LONGS);
+    return result;
+  }
+
+  /* Returns the SHA-256 hash of the packed affine coordinates of the bases, in HASH_LONGS longs. */
+  private static <G1T extends AbstractG1<G1T>> long[] hash(final List<G1T> bases) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    final long[] point = new long[bases.get(0).affineLength()];
+    final ByteBuffer bytes = ByteBuffer.allocate(point.length * Long.BYTES);
+    for (G1T base : bases) {
+      base.storeAffine(point, 0);
+      bytes.clear();
+      bytes.asLongBuffer().put(point);
+      digest.update(bytes.array());
+    }
+
+    final ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+    final long[] result = new long[HASH_LONGS];
+    for (int i = 0; i < HASH_LONGS; i++) {
+      result[i] = hash.getLong();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the window size c of a table for length bases and scalars of numBits bits, which
+   * minimizes the number of group additions of msm(): each of the numBits / c + 1 windows adds the
+   * bases, or twice as many points with the GLV endomorphism, to the buckets, which are summed once
+   * with 2^c additions. The window size is bounded by VariableBaseMSM.MAX_WINDOW_SIZE.
+   */
+  public static <G1T extends AbstractG1<G1T>> int windowSize(
+      final int length, final int numBits, final G1T groupFactory) {
+    final GLVParameters glv = groupFactory.glvParameters();
+    final boolean decompose = glv != null && numBits > glv.numBits;
+    final int bits = decompose ? glv.numBits : numBits;
+    final long points = decompose ? 2L * length : length;
+
+    int result = 1;
+    long minCost = Long.MAX_VALUE;
+    for (int c = 1; c <= VariableBaseMSM.MAX_WINDOW_SIZE; c++) {
+      final long cost = (bits / c + 1) * points + (1L << c);
+      if (cost < minCost) {
+        minCost = cost;
+        result = c;
+      }
+    }
+    return result;
+  }
+
+  public int size() {
+    return length;
+  }
+
+  public int windowSize() {
+    return windowSize;
+  }
+
+  public int numWindows() {
+    return numWindows;
+  }
+
+  /* Returns the ith base of the table */
+  public G1T base(final int i) {
+    return table.get(i * numWindows);
+  }
+
+  /**
+   * Precomputes the multiples of the bases [from, from + input.size()) of the table, with numBits
+   * doublings per base. The bases are split into chunks over the common ForkJoinPool. The header of
+   * a mapped table is marked incomplete, see load().
+   */
+  public PrecomputedMSM<G1T> setAll(final int from, final List<G1T> input) {
+    assert (from + input.size() <= length);
+    if (header != null) {
+      // The file no longer holds the table of its header, until load() marks it complete again
+      header.put(COMPLETE_INDEX, 0);
+      header.force();
+    }
+
+    VariableBaseMSM.parallelFor(
+        input.size(),
+        ForkJoinPool.getCommonPoolParallelism(),
+        (start, end) -> {
+          for (int chunk = start; chunk < end; chunk += PRECOMPUTATION_CHUNK) {
+            final int chunkEnd = Math.min(end, chunk + PRECOMPUTATION_CHUNK);
+            final List<G1T> multiples = new ArrayList<>((chunkEnd - chunk) * numWindows);
+            for (int i = chunk; i < chunkEnd; i++) {
+              G1T multiple = input.get(i);
+              for (int k = 0; k < numWindows; k++) {
+                multiples.add(multiple);
+                for (int j = 0; j < windowSize && k < numWindows - 1; j++) {
+                  multiple = multiple.dbl();
+                }
+              }
+            }
+            table.setAll((from + chunk) * numWindows, multiples);
+          }
+        });
+    return this;
+  }
+
+  /**
+   * Returns sum_i scalars[i] * P_(from + i), where the scalars have at most the numBits bits of the
+   * table.
+   */
+  public <FieldT extends AbstractFieldElementExpanded<FieldT>> G1T msm(
+      final int from, final List<FieldT> scalars) {
+    return msm(from, scalars, ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /* msm() with at most parallelism tasks, see BatchAffineMSM.bucketMSM() */
+  <FieldT extends AbstractFieldElementExpanded<FieldT>> G1T msm(
+      final int from, final List<FieldT> scalars, final int parallelism) {
+    final int size = scalars.size();
+    assert (from + size <= length);
+    if (size == 0) {
+      return table.zero();
+    }
+
+    // With the GLV endomorphism, the points 2 * i and 2 * i + 1 are the base from + i and its image
+    final IntFunction<BigInteger> input = i -> scalars.get(i).toBigInteger();
+    final int factor = glv != null ? 2 : 1;
+    final IntFunction<BigInteger> pointScalars;
+    if (glv != null) {
+      final BigInteger[] decomposed = VariableBaseMSM.glvScalars(size, input, glv, parallelism);
+      pointScalars = j -> decomposed[j];
+    } else {
+      pointScalars = input;
+    }
+    final int[][] digits =
+        VariableBaseMSM.signedDigits(
+            factor * size, pointScalars, windowSize, numWindows, parallelism);
+
+    // The digit of the window k of a point goes to the multiple 2^(c * k) of its base
+    final int[] multipleDigits = new int[factor * size * numWindows];
+    final int[] indices = new int[size * numWindows];
+    VariableBaseMSM.parallelFor(
+        size,
+        parallelism,
+        (start, end) -> {
+          for (int i = start; i < end; i++) {
+            for (int k = 0; k < numWindows; k++) {
+              final int multiple = i * numWindows + k;
+              indices[multiple] = (from + i) * numWindows + k;
+              for (int e = 0; e < factor; e++) {
+                multipleDigits[factor * multiple + e] = digits[k][factor * i + e];
+              }
+            }
+          }
+        });
+
+    return BatchAffineMSM.bucketMSM(multipleDigits, table, indices, glv, windowSize, parallelism);
+  }
+}
@@ -7,16 +7,28 @@
 
 package algebra.msm;
 
+import algebra.curves.AbstractG1;
+import algebra.curves.G1Vector;
+import algebra.curves.GLVParameters;
 import algebra.fields.AbstractFieldElementExpanded;
 import algebra.groups.AbstractGroup;
-import common.MathUtils;
+import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import org.apache.spark.HashPartitioner;
+import org.apache.spark.SparkContext;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function2;
 import scala.Tuple2;
 
 public class VariableBaseMSM {
@@ -24,6 +36,43 @@ public class VariableBaseMSM {
   /** See: Bos-Coster's algorithm for efficient MSMs */
   public static final BigInteger BOS_COSTER_MSM_THRESHOLD = new BigInteger("1048576");
 
+  /* Maximum window size of pippengerMSM(), i.e. at most 2^15 buckets */
+  public static final int MAX_WINDOW_SIZE = 16;
+
+  /* Minimum number of G1 bases from which pippengerMSM() uses the affine buckets of BatchAffineMSM */
+  public static final int BATCH_AFFINE_MSM_THRESHOLD = 1 << 12;
+
+  /**
+   * Minimum number of bases from which pippengerMSM() and BatchAffineMSM split their windows into
+   * tasks on the common ForkJoinPool, and minimum number of bases of a task. It is set by the
+   * system property zkspark.msm.parallelThreshold, e.g. to Integer.MAX_VALUE to run the MSMs on a
+   * single thread.
+   */
+  static final int PARALLEL_MSM_THRESHOLD =
+      Integer.getInteger("zkspark.msm.parallelThreshold", 1 << 10);
+
+  /**
+   * Minimum average number of bases per partition from which distributedMSM() and
+   * distributedDoubleMSM() split the windows of the partitions over several tasks, when there are
+   * fewer partitions than executors (see numWindowGroups()).
+   */
+  static final int DISTRIBUTED_WINDOW_MSM_THRESHOLD = 1 << 12;
+
+  /**
+   * Maximum ratio, in percent, of the estimated cost of the most expensive partition to the average
+   * cost of the partitions, up to which distributedMSM() and distributedDoubleMSM() keep the pairs
+   * in their partitions rather than shuffling them by cost (see balancePartitions()). It is set by
+   * the system property zkspark.msm.imbalanceThreshold.
+   */
+  static final int IMBALANCE_THRESHOLD_PERCENT =
+      Integer.getInteger("zkspark.msm.imbalanceThreshold", 125);
+
+  /* Maximum bit length of the tiny scalars, which are summed per value (see scalarClassMSM()) */
+  public static final int TINY_SCALAR_BITS = 8;
+
+  /* Maximum bit length of the small scalars, which get their own MSM (see scalarClassMSM()) */
+  public static final int SMALL_SCALAR_BITS = 64;
+
   /**
    * The algorithm starts by sorting the input in order of scalar size. For each iteration, it
    * computes the difference of the two largest scalars, and multiplies the accrued base by this
@@ -90,90 +139,703 @@ public class VariableBaseMSM {
 
   public static <GroupT extends AbstractGroup<GroupT>> GroupT pippengerMSM(
       @Nonnull final List<Tuple2<BigInteger, GroupT>> input, final int numBits) {
+    return pippengerMSM(input, numBits, ForkJoinPool.getCommonPoolParallelism());
+  }
 
-    final int length = input.size();
-    final int log2Length = Math.max(1, MathUtils.log2(length));
-    final int c = log2Length - (log2Length / 3);
+  /* pippengerMSM() with at most parallelism tasks, see sumWindows() */
+  static <GroupT extends AbstractGroup<GroupT>> GroupT pippengerMSM(
+      final List<Tuple2<BigInteger, GroupT>> input, final int numBits, final int parallelism) {
+    final IntFunction<GroupT> bases = i -> input.get(i)._2;
+    return pippengerMSM(
+        input.size(),
+        i -> input.get(i)._1,
+        () -> bases,
+        input.get(0)._2.zero(),
+        numBits,
+        parallelism);
+  }
 
-    final int numBuckets = 1 << c;
-    final int numGroups = (numBits + c - 1) / c;
+  /* Pippenger's algorithm over the pairs (scalars(i), bases(i)), see pippengerMSMs() */
+  private static <GroupT extends AbstractGroup<GroupT>> GroupT pippengerMSM(
+      final int length,
+      final IntFunction<BigInteger> scalars,
+      final Supplier<IntFunction<GroupT>> bases,
+      final GroupT zero,
+      final int numBits,
+      final int parallelism) {
+    return pippengerMSMs(
+            length, Collections.singletonList(scalars), bases, zero, numBits, parallelism)
+        .get(0);
+  }
 
-    final GroupT zero = input.get(0)._2.zero();
-    final ArrayList<GroupT> bucketsModel = new ArrayList<>(Collections.nCopies(numBuckets, zero));
+  /**
+   * Pippenger's algorithm over the pairs (scalars.get(j)(i), bases(i)) for 0 <= i < length, for
+   * each of the MSMs j over the same bases, with signed digits: the scalars are decomposed once
+   * into windows of c bits (see signedDigits()), whose digits lie in [-2^(c-1), 2^(c-1)], so that a
+   * negative digit subtracts its base from the bucket of its absolute value and each window only
+   * needs 2^(c-1) buckets. Each base is only added to or subtracted from a bucket, so when GroupT
+   * implements addAssign() and subAssign() in place, the functions of bases, one per task, may
+   * return a temporary that is overwritten by their next call, e.g. G1Vector.get(i, point), as long
+   * as length is below BATCH_AFFINE_MSM_THRESHOLD. From this threshold, the G1 bases that have a
+   * packed affine form are added to the affine buckets of BatchAffineMSM, see batchAffineMSMs().
+   *
+   * <p>When the bases have the GLV endomorphism phi, on G1 or G2, each scalar is decomposed into k1
+   * + k2 * lambda (see glvScalars()), and the MSM runs over twice as many pairs, the bases and
+   * their images by phi, with scalars of half the bits and thus half the windows. As for
+   * AbstractGroup.mul(), the bases must then lie in the subgroup of order r, e.g. those of a
+   * proving key, and the scalars are taken modulo r.
+   *
+   * <p>The windows, and chunks of the bases when there are fewer windows than parallelism, are
+   * summed by up to parallelism tasks on the common ForkJoinPool, each with its own buckets (see
+   * sumWindows()). The MSMs share a single pass over the bases of each window, which are loaded
+   * once and added to the buckets of each MSM, as well as the copies of the bases above.
+   */
+  private static <GroupT extends AbstractGroup<GroupT>> List<GroupT> pippengerMSMs(
+      final int length,
+      final List<IntFunction<BigInteger>> scalars,
+      final Supplier<IntFunction<GroupT>> bases,
+      final GroupT zero,
+      final int numBits,
+      final int parallelism) {
+    final int numMSMs = scalars.size();
+
+    if (length >= BATCH_AFFINE_MSM_THRESHOLD && hasBatchAffineForm(zero)) {
+      return batchAffineMSMs(length, scalars, bases.get(), zero, numBits, parallelism);
+    }
+
+    final GLVParameters glv = zero.glvParameters();
+    if (glv != null && numBits > glv.numBits) {
+      // The bases may be temporaries, and are copied once with their images
+      final List<IntFunction<BigInteger>> glvScalars = new ArrayList<>(numMSMs);
+      for (IntFunction<BigInteger> msmScalars : scalars) {
+        final BigInteger[] decomposed = glvScalars(length, msmScalars, glv, parallelism);
+        glvScalars.add(j -> decomposed[j]);
+      }
+      final IntFunction<GroupT> input = bases.get();
+      final ArrayList<GroupT> glvBases = new ArrayList<>(2 * length);
+      for (int i = 0; i < length; i++) {
+        final GroupT base = input.apply(i).mutableCopy();
+        glvBases.add(base);
+        glvBases.add(base.endomorphism());
+      }
+      return pippengerMSMs(
+          2 * length, glvScalars, () -> glvBases::get, zero, glv.numBits, parallelism);
+    }
 
-    GroupT result = zero;
+    final int numChunks = numChunks(length, numBits, parallelism);
+    final int c = windowSize((length + numChunks - 1) / numChunks, numBits);
+    final int numWindows = numBits / c + 1;
+    final int[][][] digits = new int[numMSMs][][];
+    for (int j = 0; j < numMSMs; j++) {
+      digits[j] = signedDigits(length, scalars.get(j), c, numWindows, parallelism);
+    }
 
-    for (int k = numGroups - 1; k >= 0; k--) {
-      if (k < numGroups - 1) {
-        for (int i = 0; i < c; i++) {
-          result = result.dbl();
+    return sumWindows(
+        length,
+        c,
+        numWindows,
+        numChunks,
+        numMSMs,
+        zero,
+        windowSums(digits, bases, zero, c),
+        parallelism);
+  }
+
+  /**
+   * Returns the WindowSums of the MSMs with the signed digits digits[j][k][i] of the scalar i of
+   * the MSM j in the window k, of c bits, over the bases, one function per task (see
+   * pippengerMSMs()).
+   */
+  private static <GroupT extends AbstractGroup<GroupT>> Supplier<WindowSum<GroupT>> windowSums(
+      final int[][][] digits,
+      final Supplier<IntFunction<GroupT>> bases,
+      final GroupT zero,
+      final int c) {
+    final int numMSMs = digits.length;
+    /* The bucket b holds the bases of the digits +/-(b + 1) */
+    final int numBuckets = 1 << (c - 1);
+
+    return () -> {
+      // The buckets of a task are mutable accumulators, allocated once and updated in place
+      // with addAssign() and subAssign().
+      final IntFunction<GroupT> taskBases = bases.get();
+      final List<ArrayList<GroupT>> msmBuckets = new ArrayList<>(numMSMs);
+      for (int j = 0; j < numMSMs; j++) {
+        final ArrayList<GroupT> buckets = new ArrayList<>(numBuckets);
+        for (int b = 0; b < numBuckets; b++) {
+          buckets.add(zero.mutableCopy());
         }
+        msmBuckets.add(buckets);
       }
 
-      final ArrayList<GroupT> buckets = new ArrayList<>(bucketsModel);
-
-      for (int i = 0; i < length; i++) {
-        int id = 0;
-        for (int j = 0; j < c; j++) {
-          if (input.get(i)._1.testBit(k * c + j)) {
-            id |= 1 << j;
+      return (k, from, to) -> {
+        for (int i = from; i < to; i++) {
+          // The bases in affine coordinates, e.g. the queries of the proving keys and the
+          // points of a G1Vector, are added with the mixed addition formulas (see
+          // BNG1.mixedAdd()).
+          GroupT base = null;
+          for (int j = 0; j < numMSMs; j++) {
+            final int digit = digits[j][k][i];
+            if (digit == 0) {
+              continue;
+            }
+            if (base == null) {
+              base = taskBases.apply(i);
+            }
+            final ArrayList<GroupT> buckets = msmBuckets.get(j);
+            if (digit > 0) {
+              buckets.set(digit - 1, buckets.get(digit - 1).addAssign(base));
+            } else {
+              buckets.set(-digit - 1, buckets.get(-digit - 1).subAssign(base));
+            }
           }
         }
 
-        if (id == 0) {
-          continue;
+        final List<GroupT> sums = new ArrayList<>(numMSMs);
+        for (ArrayList<GroupT> buckets : msmBuckets) {
+          GroupT runningSum = zero.mutableCopy();
+          GroupT sum = zero.mutableCopy();
+          for (int b = numBuckets - 1; b >= 0; b--) {
+            runningSum = runningSum.addAssign(buckets.get(b));
+            sum = sum.addAssign(runningSum);
+            buckets.set(b, buckets.get(b).set(zero));
+          }
+          sums.add(sum);
         }
+        return sums;
+      };
+    };
+  }
 
-        // Potentially use mixed addition here.
-        buckets.set(id, buckets.get(id).add(input.get(i)._2));
+  /* Returns the sums of the window k of the MSMs over the bases [from, to), see sumWindows() */
+  interface WindowSum<GroupT> {
+    List<GroupT> apply(final int k, final int from, final int to);
+  }
+
+  /**
+   * Returns sum_k 2^(c * k) * S_k for 0 <= k < numWindows for each of the numMSMs MSMs, where S_k
+   * is the sum of the window k of the MSM over the length bases. Each window is split into
+   * numChunks chunks of consecutive bases, and the pairs of a window and a chunk are distributed
+   * over up to parallelism tasks, each with its own WindowSum from windowSums. The sums are then
+   * combined in the order of the windows and chunks, so that the results do not depend on the
+   * scheduling of the tasks.
+   */
+  static <GroupT extends AbstractGroup<GroupT>> List<GroupT> sumWindows(
+      final int length,
+      final int c,
+      final int numWindows,
+      final int numChunks,
+      final int numMSMs,
+      final GroupT zero,
+      final Supplier<WindowSum<GroupT>> windowSums,
+      final int parallelism) {
+    final int numSums = numWindows * numChunks;
+    final List<List<GroupT>> sums = new ArrayList<>(Collections.nCopies(numSums, null));
+    final int numTasks =
+        length < PARALLEL_MSM_THRESHOLD ? 1 : Math.max(1, Math.min(numSums, parallelism));
+
+    invokeAll(
+        numTasks,
+        t -> {
+          final WindowSum<GroupT> windowSum = windowSums.get();
+          for (int j = t; j < numSums; j += numTasks) {
+            final int k = j / numChunks;
+            final int chunk = j % numChunks;
+            final int from = (int) ((long) length * chunk / numChunks);
+            final int to = (int) ((long) length * (chunk + 1) / numChunks);
+            sums.set(j, windowSum.apply(k, from, to));
+          }
+        });
+
+    final List<GroupT> results = new ArrayList<>(numMSMs);
+    for (int msm = 0; msm < numMSMs; msm++) {
+      GroupT result = zero.mutableCopy();
+      for (int k = numWindows - 1; k >= 0; k--) {
+        if (k < numWindows - 1) {
+          for (int i = 0; i < c; i++) {
+            result = result.dblAssign();
+          }
+        }
+        for (int chunk = 0; chunk < numChunks; chunk++) {
+          result = result.addAssign(sums.get(k * numChunks + chunk).get(msm));
+        }
       }
+      results.add(result);
+    }
+    return results;
+  }
 
-      GroupT runningSum = zero;
+  /**
+   * Returns the number of chunks of the bases in each window of pippengerMSM(), so that the windows
+   * and chunks give at least parallelism tasks, with chunks of at least PARALLEL_MSM_THRESHOLD
+   * bases. Each chunk sums its own buckets, so that the chunks are only used when the windows alone
+   * do not give enough tasks.
+   */
+  static int numChunks(final int length, final int numBits, final int parallelism) {
+    if (length < PARALLEL_MSM_THRESHOLD) {
+      return 1;
+    }
+    final int numWindows = numBits / windowSize(length, numBits) + 1;
+    final int numChunks = (parallelism + numWindows - 1) / numWindows;
+    return Math.max(1, Math.min(numChunks, length / PARALLEL_MSM_THRESHOLD));
+  }
 
-      for (int i = numBuckets - 1; i > 0; i--) {
-        // Potentially use mixed addition here.
-        runningSum = runningSum.add(buckets.get(i));
-        result = result.add(runningSum);
-      }
+  /**
+   * Runs task(t) for 0 <= t < numTasks, on this thread for a single task, and otherwise on the
+   * common ForkJoinPool.
+   */
+  static void invokeAll(final int numTasks, final IntConsumer task) {
+    if (numTasks == 1) {
+      task.accept(0);
+      return;
+    }
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>(numTasks);
+    for (int t = 0; t < numTasks; t++) {
+      final int index = t;
+      tasks.add(ForkJoinTask.adapt(() -> task.accept(index)));
+    }
+    if (ForkJoinTask.inForkJoinPool()) {
+      ForkJoinTask.invokeAll(tasks);
+    } else {
+      ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+  }
+
+  /**
+   * Runs body over the chunks [from, to) of [0, length), with up to parallelism tasks of at least
+   * PARALLEL_MSM_THRESHOLD elements.
+   */
+  static void parallelFor(final int length, final int parallelism, final IntRange body) {
+    final int numTasks = Math.max(1, Math.min(parallelism, length / PARALLEL_MSM_THRESHOLD));
+    invokeAll(
+        numTasks,
+        t ->
+            body.apply(
+                (int) ((long) length * t / numTasks), (int) ((long) length * (t + 1) / numTasks)));
+  }
+
+  /* Computes the elements [from, to) of a loop, see parallelFor() */
+  interface IntRange {
+    void apply(final int from, final int to);
+  }
+
+  /* Returns whether the points of the group of point have a packed affine form for BatchAffineMSM */
+  static boolean hasBatchAffineForm(final AbstractGroup<?> point) {
+    return point instanceof AbstractG1 && ((AbstractG1<?>) point).affineParameters() != null;
+  }
+
+  /**
+   * Runs BatchAffineMSM over the bases. The bases must not be temporaries, unlike those of
+   * pippengerMSMs(). When they are all in affine coordinates, e.g. the queries of a proving key,
+   * BatchAffineMSM reads them directly, and otherwise from a copy in a G1Vector, shared by the
+   * MSMs. A G1Vector is directly passed to BatchAffineMSM instead.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <GroupT extends AbstractGroup<GroupT>> List<GroupT> batchAffineMSMs(
+      final int length,
+      final List<IntFunction<BigInteger>> scalars,
+      final IntFunction<GroupT> bases,
+      final GroupT zero,
+      final int numBits,
+      final int parallelism) {
+    final List points = new ArrayList<>(length);
+    final int[] indices = new int[length];
+    boolean affine = true;
+    for (int i = 0; i < length; i++) {
+      final AbstractG1 point = (AbstractG1) bases.apply(i);
+      affine &= point.isAffine();
+      points.add(point);
+      indices[i] = i;
     }
+    final BatchAffineMSM.Bases msmBases =
+        affine
+            ? BatchAffineMSM.bases(points, (AbstractG1) zero)
+            : BatchAffineMSM.bases(
+                G1Vector.allocateDirect(length, (AbstractG1) zero).setAll(0, points));
+    return (List<GroupT>)
+        BatchAffineMSM.pippengerMSMs(length, scalars, msmBases, indices, numBits, parallelism);
+  }
 
+  /**
+   * Returns the GLV decompositions of the scalars: the scalars 2 * i and 2 * i + 1 of the result
+   * are the k1 and k2 of scalars(i) = k1 + k2 * lambda mod r, of at most glv.numBits bits, and may
+   * be negative (see GLVParameters.decompose()).
+   */
+  static BigInteger[] glvScalars(
+      final int length,
+      final IntFunction<BigInteger> scalars,
+      final GLVParameters glv,
+      final int parallelism) {
+    final BigInteger[] result = new BigInteger[2 * length];
+    parallelFor(
+        length,
+        parallelism,
+        (from, to) -> {
+          for (int i = from; i < to; i++) {
+            final BigInteger[] k = glv.decompose(scalars.apply(i));
+            result[2 * i] = k[0];
+            result[2 * i + 1] = k[1];
+          }
+        });
     return result;
   }
 
-  public static <
-          GroupT extends AbstractGroup<GroupT>, FieldT extends AbstractFieldElementExpanded<FieldT>>
-      GroupT serialMSM(final List<FieldT> scalars, final List<GroupT> bases) {
+  /**
+   * Returns the window size c of pippengerMSM() over length scalars of numBits bits, which
+   * minimizes its number of group additions: each of the numBits / c + 1 windows adds the length
+   * bases to the buckets, then sums its 2^(c-1) buckets with 2^c additions. The window size is
+   * bounded by MAX_WINDOW_SIZE, which bounds the memory of the buckets.
+   */
+  static int windowSize(final int length, final int numBits) {
+    int result = 1;
+    long minCost = Long.MAX_VALUE;
+    for (int c = 1; c <= MAX_WINDOW_SIZE; c++) {
+      final long cost = (long) (numBits / c + 1) * (length + (1L << c));
+      if (cost < minCost) {
+        minCost = cost;
+        result = c;
+      }
+    }
+    return result;
+  }
 
-    assert (bases.size() == scalars.size());
+  /**
+   * Decomposes the scalars, of at most numBits < c * numWindows bits, into numWindows signed digits
+   * of c bits: scalars(i) = sum_k digits[k][i] * 2^(c * k), with digits in [-2^(c-1) + 1, 2^(c-1)].
+   * A window whose value, plus the carry of the previous window, exceeds 2^(c-1) is replaced by its
+   * value minus 2^c and carries 1 to the next window. The digits of a negative scalar are those of
+   * its absolute value, negated. The digits are stored by window, as they are read by
+   * pippengerMSM().
+   */
+  static int[][] signedDigits(
+      final int length, final IntFunction<BigInteger> scalars, final int c, final int numWindows) {
+    return signedDigits(length, scalars, c, numWindows, 1);
+  }
 
-    final List<Tuple2<BigInteger, GroupT>> filteredInput = new ArrayList<>();
+  /* signedDigits() over chunks of the scalars, with up to parallelism tasks */
+  static int[][] signedDigits(
+      final int length,
+      final IntFunction<BigInteger> scalars,
+      final int c,
+      final int numWindows,
+      final int parallelism) {
+    final int[][] digits = new int[numWindows][length];
+    final int half = 1 << (c - 1);
+    final long mask = (1L << c) - 1;
+
+    parallelFor(
+        length,
+        parallelism,
+        (from, to) -> {
+          for (int i = from; i < to; i++) {
+            final BigInteger scalar = scalars.apply(i);
+            final long[] words = words(scalar.abs());
+            final int sign = scalar.signum() < 0 ? -1 : 1;
+            int carry = 0;
+            for (int k = 0; k < numWindows; k++) {
+              final int position = k * c;
+              final int word = position >>> 6;
+              final int shift = position & 63;
+
+              long bits = word < words.length ? words[word] >>> shift : 0;
+              if (shift + c > 64 && word + 1 < words.length) {
+                bits |= words[word + 1] << (64 - shift);
+              }
 
-    GroupT acc = bases.get(0).zero();
+              int digit = (int) (bits & mask) + carry;
+              carry = digit > half ? 1 : 0;
+              digit -= carry << c;
+              digits[k][i] = sign * digit;
+            }
+            assert (carry == 0);
+          }
+        });
+    return digits;
+  }
 
-    int numBits = 0;
-    for (int i = 0; i < bases.size(); i++) {
-      final BigInteger scalar = scalars.get(i).toBigInteger();
-      if (scalar.equals(BigInteger.ZERO)) {
+  /* Returns the 64-bit words of the non-negative scalar, least significant first. */
+  private static long[] words(final BigInteger scalar) {
+    final byte[] bytes = scalar.toByteArray();
+    final long[] words = new long[(bytes.length + 7) / 8];
+    for (int j = 0; j < bytes.length; j++) {
+      words[j >>> 3] |= (bytes[bytes.length - 1 - j] & 0xFFL) << (8 * (j & 7));
+    }
+    return words;
+  }
+
+  /**
+   * Returns sum_i scalars(i) * bases(i) for 0 <= i < length, with the pairs split into classes by
+   * the bit length of their scalars, since the witnesses are mostly made of boolean and small
+   * integer wires: the tiny scalars, of at most TINY_SCALAR_BITS bits, are summed per value (see
+   * tinyScalarMSM()), and the small scalars, of at most SMALL_SCALAR_BITS bits, and the full ones
+   * each have their own MSM, over windows of their own number of bits, so that a few large scalars
+   * do not force full-width windows, or the GLV decomposition, on the whole input. The zero scalars
+   * are skipped. The bases are only used by tinyScalarMSM(), and msm computes the other classes.
+   */
+  private static <GroupT extends AbstractGroup<GroupT>> GroupT scalarClassMSM(
+      final int length,
+      final IntFunction<BigInteger> scalars,
+      final IntFunction<GroupT> bases,
+      final GroupT zero,
+      final IndexedMSM<GroupT> msm) {
+    final int[] tiny = new int[length];
+    final int[] small = new int[length];
+    final int[] full = new int[length];
+    int numTiny = 0, numSmall = 0, numFull = 0;
+    int tinyBits = 0, smallBits = 0, fullBits = 0;
+    for (int i = 0; i < length; i++) {
+      final int numBits = scalars.apply(i).bitLength();
+      if (numBits == 0) {
         continue;
       }
+      if (numBits <= TINY_SCALAR_BITS) {
+        tiny[numTiny++] = i;
+        tinyBits = Math.max(tinyBits, numBits);
+      } else if (numBits <= SMALL_SCALAR_BITS) {
+        small[numSmall++] = i;
+        smallBits = Math.max(smallBits, numBits);
+      } else {
+        full[numFull++] = i;
+        fullBits = Math.max(fullBits, numBits);
+      }
+    }
+
+    GroupT acc = zero.mutableCopy();
+    if (numTiny > 0) {
+      acc = acc.addAssign(tinyScalarMSM(tiny, numTiny, tinyBits, scalars, bases, zero));
+    }
+    if (numSmall > 0) {
+      acc = acc.addAssign(msm.apply(small, numSmall, smallBits));
+    }
+    if (numFull > 0) {
+      acc = acc.addAssign(msm.apply(full, numFull, fullBits));
+    }
+    return acc;
+  }
 
-      final GroupT base = bases.get(i);
+  /* scalarClassMSM() with pippengerMSM() for the small and full scalars */
+  private static <GroupT extends AbstractGroup<GroupT>> GroupT scalarClassMSM(
+      final int length,
+      final IntFunction<BigInteger> scalars,
+      final IntFunction<GroupT> bases,
+      final GroupT zero) {
+    return scalarClassMSM(
+        length,
+        scalars,
+        bases,
+        zero,
+        (indices, classLength, numBits) ->
+            pippengerMSM(
+                classLength,
+                j -> scalars.apply(indices[j]),
+                () -> j -> bases.apply(indices[j]),
+                zero,
+                numBits,
+                ForkJoinPool.getCommonPoolParallelism()));
+  }
 
-      if (scalar.equals(BigInteger.ONE)) {
-        acc = acc.add(base);
-      } else {
-        filteredInput.add(new Tuple2<>(scalar, base));
-        numBits = Math.max(numBits, scalar.bitLength());
+  /* Returns the MSM of the pairs (scalars(indices[j]), bases(indices[j])) for 0 <= j < length */
+  interface IndexedMSM<GroupT> {
+    GroupT apply(final int[] indices, final int length, final int numBits);
+  }
+
+  /**
+   * Returns the MSM of the pairs (scalars(indices[j]), bases(indices[j])) for 0 <= j < length,
+   * whose scalars have at most numBits <= TINY_SCALAR_BITS bits. Each base is added to the bucket
+   * of the value v of its scalar, and sum_v v * B_v is computed with a running sum over the
+   * buckets, i.e. a single window of numBits bits, for length + 2 * 2^numBits additions. When there
+   * are few pairs, each base is instead multiplied by its scalar with double-and-add.
+   */
+  private static <GroupT extends AbstractGroup<GroupT>> GroupT tinyScalarMSM(
+      final int[] indices,
+      final int length,
+      final int numBits,
+      final IntFunction<BigInteger> scalars,
+      final IntFunction<GroupT> bases,
+      final GroupT zero) {
+    GroupT acc = zero.mutableCopy();
+    if ((long) length * numBits < 2L << numBits) {
+      for (int j = 0; j < length; j++) {
+        acc = acc.addAssign(bases.apply(indices[j]).mul(scalars.apply(indices[j])));
       }
+      return acc;
     }
 
-    if (!filteredInput.isEmpty()) {
-      acc = acc.add(pippengerMSM(filteredInput, numBits));
+    final ArrayList<GroupT> buckets = new ArrayList<>(Collections.nCopies(1 << numBits, null));
+    for (int j = 0; j < length; j++) {
+      final int value = scalars.apply(indices[j]).intValue();
+      final GroupT bucket = buckets.get(value);
+      final GroupT base = bases.apply(indices[j]);
+      buckets.set(value, bucket == null ? base.mutableCopy() : bucket.addAssign(base));
     }
 
+    GroupT runningSum = zero.mutableCopy();
+    for (int value = buckets.size() - 1; value > 0; value--) {
+      if (buckets.get(value) != null) {
+        runningSum = runningSum.addAssign(buckets.get(value));
+      }
+      acc = acc.addAssign(runningSum);
+    }
     return acc;
   }
 
+  /**
+   * Returns the cached pairs of input with a non-zero scalar, as a BigInteger. Within each input
+   * partition, the bases of each tiny scalar are first summed with add (see tinyScalarMSM()), so
+   * that only one pair per value is kept. The cost of a partition is estimated by the total number
+   * of bits of its scalars, i.e. of windows in Pippenger's algorithm. When the most expensive
+   * partition costs at most IMBALANCE_THRESHOLD_PERCENT percent of the average cost, the pairs are
+   * kept in their partitions, so that balanced inputs, e.g. a witness joined with a query of the
+   * proving key, are not shuffled again. Otherwise, they are spread over the partitions by cost
+   * rather than by the hash of their keys, so that the MSMs of the partitions take about the same
+   * time: the pairs of each partition are dealt to the partitions in turn, starting from the index
+   * of the partition, and each partition receives pairs until their total number of scalar bits
+   * reaches the bit length of the largest scalar seen so far.
+   */
+  static <BaseT, FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaRDD<Tuple2<BigInteger, BaseT>> balancePartitions(
+          final JavaRDD<Tuple2<FieldT, BaseT>> input, final Function2<BaseT, BaseT, BaseT> add) {
+    final int numPartitions = input.getNumPartitions();
+
+    final JavaRDD<Tuple2<BigInteger, BaseT>> pairs =
+        input
+            .mapPartitions(
+                partition -> {
+                  final ArrayList<BaseT> tinySums =
+                      new ArrayList<>(Collections.nCopies(1 << TINY_SCALAR_BITS, null));
+                  final List<Tuple2<BigInteger, BaseT>> result = new ArrayList<>();
+                  while (partition.hasNext()) {
+                    final Tuple2<FieldT, BaseT> pair = partition.next();
+                    final BigInteger scalar = pair._1.toBigInteger();
+                    final int numBits = scalar.bitLength();
+                    if (numBits == 0) {
+                      continue;
+                    }
+                    if (numBits <= TINY_SCALAR_BITS) {
+                      final BaseT sum = tinySums.get(scalar.intValue());
+                      tinySums.set(
+                          scalar.intValue(), sum == null ? pair._2 : add.call(sum, pair._2));
+                    } else {
+                      result.add(new Tuple2<>(scalar, pair._2));
+                    }
+                  }
+
+                  for (int value = 1; value < tinySums.size(); value++) {
+                    if (tinySums.get(value) != null) {
+                      result.add(new Tuple2<>(BigInteger.valueOf(value), tinySums.get(value)));
+                    }
+                  }
+                  return result.iterator();
+                })
+            .cache();
+
+    final List<Long> costs =
+        pairs
+            .mapPartitions(
+                partition -> {
+                  long cost = 0;
+                  while (partition.hasNext()) {
+                    cost += partition.next()._1.bitLength();
+                  }
+                  return Collections.singletonList(cost).iterator();
+                })
+            .collect();
+    long maxCost = 0, totalCost = 0;
+    for (long cost : costs) {
+      maxCost = Math.max(maxCost, cost);
+      totalCost += cost;
+    }
+    if (maxCost * numPartitions * 100 <= totalCost * IMBALANCE_THRESHOLD_PERCENT) {
+      return pairs;
+    }
+
+    final JavaRDD<Tuple2<BigInteger, BaseT>> balanced =
+        pairs
+            .mapPartitionsWithIndex(
+                (index, partition) -> {
+                  final List<Tuple2<Integer, Tuple2<BigInteger, BaseT>>> result = new ArrayList<>();
+                  int target = index % numPartitions;
+                  int targetBits = 0;
+                  int maxBits = 0;
+                  while (partition.hasNext()) {
+                    final Tuple2<BigInteger, BaseT> pair = partition.next();
+                    final int numBits = pair._1.bitLength();
+                    result.add(new Tuple2<>(target, pair));
+                    maxBits = Math.max(maxBits, numBits);
+                    targetBits += numBits;
+                    if (targetBits >= maxBits) {
+                      target = (target + 1) % numPartitions;
+                      targetBits = 0;
+                    }
+                  }
+                  return result.iterator();
+                },
+                false)
+            .mapToPair(pair -> pair)
+            .partitionBy(new HashPartitioner(numPartitions))
+            .values()
+            .cache();
+    balanced.count();
+    pairs.unpersist();
+    return balanced;
+  }
+
+  public static <
+          GroupT extends AbstractGroup<GroupT>, FieldT extends AbstractFieldElementExpanded<FieldT>>
+      GroupT serialMSM(final List<FieldT> scalars, final List<GroupT> bases) {
+
+    assert (bases.size() == scalars.size());
+
+    final BigInteger[] bigScalars = new BigInteger[scalars.size()];
+    for (int i = 0; i < bases.size(); i++) {
+      bigScalars[i] = scalars.get(i).toBigInteger();
+    }
+
+    return scalarClassMSM(bases.size(), i -> bigScalars[i], bases::get, bases.get(0).zero());
+  }
+
+  /**
+   * G1Vector version of serialMSM. The bases are loaded from the vector into a single point, so
+   * that no object is created per base.
+   */
+  public static <G1T extends AbstractG1<G1T>, FieldT extends AbstractFieldElementExpanded<FieldT>>
+      G1T serialMSM(final List<FieldT> scalars, final G1Vector<G1T> bases) {
+
+    assert (bases.size() == scalars.size());
+
+    final BigInteger[] bigScalars = new BigInteger[scalars.size()];
+    for (int i = 0; i < bases.size(); i++) {
+      bigScalars[i] = scalars.get(i).toBigInteger();
+    }
+
+    final G1T zero = bases.zero();
+    final G1T base = zero.mutableCopy();
+    return scalarClassMSM(
+        bases.size(),
+        i -> bigScalars[i],
+        i -> bases.get(i, base),
+        zero,
+        (indices, length, numBits) -> {
+          if (length >= BATCH_AFFINE_MSM_THRESHOLD) {
+            return BatchAffineMSM.pippengerMSM(
+                length, j -> bigScalars[indices[j]], bases, indices, numBits);
+          }
+          // Each task loads the bases into its own point
+          final Supplier<IntFunction<G1T>> taskBases =
+              () -> {
+                final G1T point = zero.mutableCopy();
+                return j -> bases.get(indices[j], point);
+              };
+          return pippengerMSM(
+              length,
+              j -> bigScalars[indices[j]],
+              taskBases,
+              zero,
+              numBits,
+              ForkJoinPool.getCommonPoolParallelism());
+        });
+  }
+
   public static <
           T1 extends AbstractGroup<T1>,
           T2 extends AbstractGroup<T2>,
@@ -185,34 +847,14 @@ public class VariableBaseMSM {
     final int size = bases.size();
     assert (size > 0);
 
-    final ArrayList<Tuple2<BigInteger, T1>> converted1 = new ArrayList<>(size);
-    final ArrayList<Tuple2<BigInteger, T2>> converted2 = new ArrayList<>(size);
-
-    T1 acc1 = bases.get(0)._1.zero();
-    T2 acc2 = bases.get(0)._2.zero();
-
-    int numBits = 0;
+    final BigInteger[] bigScalars = new BigInteger[size];
     for (int i = 0; i < size; i++) {
-      final Tuple2<T1, T2> value = bases.get(i);
-      final BigInteger scalar = scalars.get(i).toBigInteger();
-      if (scalar.equals(BigInteger.ZERO)) {
-        continue;
-      }
-
-      // Mixed addition
-      if (scalar.equals(BigInteger.ONE)) {
-        acc1 = acc1.add(value._1);
-        acc2 = acc2.add(value._2);
-      } else {
-        converted1.add(new Tuple2<>(scalar, value._1));
-        converted2.add(new Tuple2<>(scalar, value._2));
-        numBits = Math.max(numBits, scalar.bitLength());
-      }
+      bigScalars[i] = scalars.get(i).toBigInteger();
     }
 
     return new Tuple2<>(
-        converted1.isEmpty() ? acc1 : acc1.add(VariableBaseMSM.pippengerMSM(converted1, numBits)),
-        converted2.isEmpty() ? acc2 : acc2.add(VariableBaseMSM.pippengerMSM(converted2, numBits)));
+        scalarClassMSM(size, i -> bigScalars[i], i -> bases.get(i)._1, bases.get(0)._1.zero()),
+        scalarClassMSM(size, i -> bigScalars[i], i -> bases.get(i)._2, bases.get(0)._2.zero()));
   }
 
   public static <T1 extends AbstractGroup<T1>, T2 extends AbstractGroup<T2>>
@@ -221,88 +863,540 @@ public class VariableBaseMSM {
     final int size = input.size();
     assert (size > 0);
 
-    ArrayList<Tuple2<BigInteger, T1>> converted1 = new ArrayList<>(size);
-    ArrayList<Tuple2<BigInteger, T2>> converted2 = new ArrayList<>(size);
+    final IntFunction<BigInteger> scalars = i -> input.get(i)._1;
+    return new Tuple2<>(
+        scalarClassMSM(size, scalars, i -> input.get(i)._2._1, input.get(0)._2._1.zero()),
+        scalarClassMSM(size, scalars, i -> input.get(i)._2._2, input.get(0)._2._2.zero()));
+  }
+
+  /**
+   * Returns the MSM of the pairs of input, e.g. the join of a witness with a query of the proving
+   * key, after spreading them over the partitions by cost if they are unbalanced (see
+   * balancePartitions()). The MSM of each partition already runs its windows on all the cores of
+   * its executor (see pippengerMSMs()), but when there are fewer partitions than executors, the
+   * windows of the MSMs of the partitions may also be split over several tasks, to occupy the idle
+   * executors (see windowParallelMSM()).
+   */
+  public static <
+          GroupT extends AbstractGroup<GroupT>, FieldT extends AbstractFieldElementExpanded<FieldT>>
+      GroupT distributedMSM(final JavaRDD<Tuple2<FieldT, GroupT>> input) {
+    return distributedMSM(
+        input, numExecutors(input.context()), input.context().defaultParallelism());
+  }
+
+  /* distributedMSM() on a cluster of numExecutors executors with clusterParallelism cores */
+  static <GroupT extends AbstractGroup<GroupT>, FieldT extends AbstractFieldElementExpanded<FieldT>>
+      GroupT distributedMSM(
+          final JavaRDD<Tuple2<FieldT, GroupT>> input,
+          final int numExecutors,
+          final int clusterParallelism) {
+    final JavaRDD<Tuple2<BigInteger, GroupT>> balanced = balancePartitions(input, GroupT::add);
+    final GroupT result =
+        input.getNumPartitions() < numExecutors
+            ? cachedMSM(balanced, numExecutors, clusterParallelism)
+            : partitionMSM(balanced);
+    balanced.unpersist();
+    return result;
+  }
 
-    T1 acc1 = input.get(0)._2._1.zero();
-    T2 acc2 = input.get(0)._2._2.zero();
+  /* distributedMSM() over the pairs of bases of doubleMSM() */
+  public static <
+          G1T extends AbstractGroup<G1T>,
+          G2T extends AbstractGroup<G2T>,
+          FieldT extends AbstractFieldElementExpanded<FieldT>>
+      Tuple2<G1T, G2T> distributedDoubleMSM(final JavaRDD<Tuple2<FieldT, Tuple2<G1T, G2T>>> input) {
+    return distributedDoubleMSM(
+        input, numExecutors(input.context()), input.context().defaultParallelism());
+  }
 
-    int numBits = 0;
-    for (int i = 0; i < size; i++) {
-      final Tuple2<T1, T2> value = input.get(i)._2;
-      final BigInteger scalar = input.get(i)._1;
-      if (scalar.equals(BigInteger.ZERO)) {
-        continue;
-      }
+  /* distributedDoubleMSM() on a cluster of numExecutors executors with clusterParallelism cores */
+  static <
+          G1T extends AbstractGroup<G1T>,
+          G2T extends AbstractGroup<G2T>,
+          FieldT extends AbstractFieldElementExpanded<FieldT>>
+      Tuple2<G1T, G2T> distributedDoubleMSM(
+          final JavaRDD<Tuple2<FieldT, Tuple2<G1T, G2T>>> input,
+          final int numExecutors,
+          final int clusterParallelism) {
+    final JavaRDD<Tuple2<BigInteger, Tuple2<G1T, G2T>>> balanced =
+        balancePartitions(input, (e1, e2) -> new Tuple2<>(e1._1.add(e2._1), e1._2.add(e2._2)));
+    if (input.getNumPartitions() < numExecutors && !balanced.isEmpty()) {
+      final Tuple2<G1T, G2T> result =
+          new Tuple2<>(
+              cachedMSM(
+                  balanced.map(pair -> new Tuple2<>(pair._1, pair._2._1)),
+                  numExecutors,
+                  clusterParallelism),
+              cachedMSM(
+                  balanced.map(pair -> new Tuple2<>(pair._1, pair._2._2)),
+                  numExecutors,
+                  clusterParallelism));
+      balanced.unpersist();
+      return result;
+    }
+
+    final Tuple2<G1T, G2T> result =
+        balanced
+            .mapPartitions(
+                partition -> {
+                  final List<Tuple2<BigInteger, Tuple2<G1T, G2T>>> pairs = new ArrayList<>();
+                  while (partition.hasNext()) {
+                    pairs.add(partition.next());
+                  }
+                  return pairs.isEmpty()
+                      ? Collections.emptyListIterator()
+                      : Collections.singletonList(doubleMSM(pairs)).iterator();
+                })
+            .reduce((e1, e2) -> new Tuple2<>(e1._1.add(e2._1), e1._2.add(e2._2)));
+    balanced.unpersist();
+    return result;
+  }
+
+  /**
+   * Returns the number of executors of sc, or 1 in local mode, where the driver runs the tasks. The
+   * driver is counted among the block managers of the executors.
+   */
+  static int numExecutors(final SparkContext sc) {
+    return Math.max(1, sc.getExecutorMemoryStatus().size() - 1);
+  }
+
+  /* Returns the sum of the MSMs of the partitions of input (see scalarClassMSM()) */
+  private static <GroupT extends AbstractGroup<GroupT>> GroupT partitionMSM(
+      final JavaRDD<Tuple2<BigInteger, GroupT>> input) {
+    return input
+        .mapPartitions(
+            partition -> {
+              final List<BigInteger> scalars = new ArrayList<>();
+              final List<GroupT> bases = new ArrayList<>();
+              while (partition.hasNext()) {
+                final Tuple2<BigInteger, GroupT> pair = partition.next();
+                scalars.add(pair._1);
+                bases.add(pair._2);
+              }
+
+              return bases.isEmpty()
+                  ? Collections.emptyListIterator()
+                  : Collections.singletonList(
+                          scalarClassMSM(
+                              bases.size(), scalars::get, bases::get, bases.get(0).zero()))
+                      .iterator();
+            })
+        .reduce(GroupT::add);
+  }
 
-      // Mixed addition
-      if (scalar.equals(BigInteger.ONE)) {
-        acc1 = acc1.add(value._1);
-        acc2 = acc2.add(value._2);
+  /* Returns the number of pairs of input and the maximum bit length of their scalars */
+  private static <BaseT> Tuple2<Long, Integer> shape(
+      final JavaRDD<Tuple2<BigInteger, BaseT>> input) {
+    return input.aggregate(
+        new Tuple2<>(0L, 0),
+        (shape, pair) -> new Tuple2<>(shape._1 + 1, Math.max(shape._2, pair._1.bitLength())),
+        (e1, e2) -> new Tuple2<>(e1._1 + e2._1, Math.max(e1._2, e2._2)));
+  }
+
+  /**
+   * Returns the MSM of the cached pairs of input, with windowParallelMSM() when numWindowGroups()
+   * splits the windows of the partitions, and with partitionMSM() otherwise. The G1 bases that have
+   * a packed affine form are always summed by partitionMSM(), whose MSMs use the affine buckets of
+   * BatchAffineMSM, which are cheaper than splitting their windows into tasks.
+   */
+  private static <GroupT extends AbstractGroup<GroupT>> GroupT cachedMSM(
+      final JavaRDD<Tuple2<BigInteger, GroupT>> input,
+      final int numExecutors,
+      final int clusterParallelism) {
+    final List<Tuple2<BigInteger, GroupT>> first = input.take(1);
+    if (first.isEmpty() || hasBatchAffineForm(first.get(0)._2)) {
+      return partitionMSM(input);
+    }
+
+    final Tuple2<Long, Integer> shape = shape(input);
+    final GLVParameters glv = first.get(0)._2.glvParameters();
+    final boolean useGLV = glv != null && shape._2 > glv.numBits;
+    final long length = useGLV ? 2 * shape._1 : shape._1;
+    final int numBits = useGLV ? glv.numBits : shape._2;
+
+    final int numWindowGroups =
+        numWindowGroups(
+            length, input.getNumPartitions(), numExecutors, clusterParallelism, numBits);
+    return numWindowGroups == 1 ? partitionMSM(input) : windowParallelMSM(input, numWindowGroups);
+  }
+
+  /**
+   * Returns the number of groups of consecutive windows into which the MSMs of numPartitions
+   * partitions of length bases in total, with scalars of numBits bits, are split by
+   * windowParallelMSM(). There is a single group, i.e. a Pippenger MSM per partition, which already
+   * runs on all the cores of its executor, unless there are fewer partitions than executors, and
+   * the partitions have at least DISTRIBUTED_WINDOW_MSM_THRESHOLD bases on average. Each partition
+   * then gets enough groups to occupy the clusterParallelism cores of the cluster, with one task
+   * per core, and at least two windows per group.
+   */
+  static int numWindowGroups(
+      final long length,
+      final int numPartitions,
+      final int numExecutors,
+      final int clusterParallelism,
+      final int numBits) {
+    final long partitionLength = length / numPartitions;
+    if (numPartitions >= numExecutors || partitionLength < DISTRIBUTED_WINDOW_MSM_THRESHOLD) {
+      return 1;
+    }
+    final int c = windowSize((int) Math.min(partitionLength, Integer.MAX_VALUE), numBits);
+    final int numWindows = numBits / c + 1;
+    return Math.max(
+        1, Math.min((clusterParallelism + numPartitions - 1) / numPartitions, numWindows / 2));
+  }
+
+  /**
+   * Returns the MSM of the pairs of input, whose windows are split into numWindowGroups groups of
+   * consecutive windows, each summed by its own task over each partition, so that there are
+   * numWindowGroups times as many tasks as partitions. The scalars of each partition are first
+   * split by bit length and recoded once, in a cached RDD (see ScalarClassWindows), so that each
+   * task only fills the buckets of its windows. A task returns sum_k 2^(c * k) * S_k over its
+   * windows k, with c doublings per window, and the results of the tasks are simply added.
+   */
+  static <GroupT extends AbstractGroup<GroupT>> GroupT windowParallelMSM(
+      final JavaRDD<Tuple2<BigInteger, GroupT>> input, final int numWindowGroups) {
+    // The sum of the tiny scalars and the windows of the small and full scalars of each partition
+    final JavaRDD<Tuple2<GroupT, List<ScalarClassWindows<GroupT>>>> windows =
+        input
+            .mapPartitions(
+                partition -> {
+                  final List<BigInteger> scalars = new ArrayList<>();
+                  final List<GroupT> bases = new ArrayList<>();
+                  while (partition.hasNext()) {
+                    final Tuple2<BigInteger, GroupT> pair = partition.next();
+                    scalars.add(pair._1);
+                    bases.add(pair._2);
+                  }
+                  if (bases.isEmpty()) {
+                    return Collections.emptyListIterator();
+                  }
+
+                  final GroupT zero = bases.get(0).zero();
+                  final List<ScalarClassWindows<GroupT>> classes = new ArrayList<>(2);
+                  final GroupT tinySum =
+                      scalarClassMSM(
+                          bases.size(),
+                          scalars::get,
+                          bases::get,
+                          zero,
+                          (indices, length, numBits) -> {
+                            classes.add(
+                                new ScalarClassWindows<>(
+                                    indices, length, numBits, scalars::get, bases::get, zero));
+                            return zero;
+                          });
+                  return Collections.singletonList(new Tuple2<>(tinySum, classes)).iterator();
+                })
+            .cache();
+
+    JavaRDD<GroupT> groupSums = null;
+    for (int g = 0; g < numWindowGroups; g++) {
+      final int group = g;
+      final JavaRDD<GroupT> sums =
+          windows.map(
+              partition -> {
+                int numWindows = 0;
+                for (ScalarClassWindows<GroupT> scalarClass : partition._2) {
+                  numWindows += scalarClass.numWindows();
+                }
+                final int fromWindow = (int) ((long) numWindows * group / numWindowGroups);
+                final int toWindow = (int) ((long) numWindows * (group + 1) / numWindowGroups);
+
+                GroupT result =
+                    group == 0 ? partition._1.mutableCopy() : partition._1.zero().mutableCopy();
+                int offset = 0;
+                for (ScalarClassWindows<GroupT> scalarClass : partition._2) {
+                  final int from = Math.max(fromWindow - offset, 0);
+                  final int to = Math.min(toWindow - offset, scalarClass.numWindows());
+                  if (from < to) {
+                    result = result.addAssign(scalarClass.sum(from, to));
+                  }
+                  offset += scalarClass.numWindows();
+                }
+                return result;
+              });
+      groupSums = groupSums == null ? sums : groupSums.union(sums);
+    }
+
+    final GroupT result = groupSums.treeReduce(GroupT::add);
+    windows.unpersist();
+    return result;
+  }
+
+  /**
+   * The windows of the MSM of a class of scalars of a partition (see scalarClassMSM()), with their
+   * GLV decomposition when they have more bits than glv.numBits, as in pippengerMSMs(), and their
+   * signed digits in windows of c bits, so that the windows can be summed by separate tasks.
+   */
+  private static class ScalarClassWindows<GroupT extends AbstractGroup<GroupT>>
+      implements Serializable {
+    private final int c;
+    private final int[][] digits;
+    private final ArrayList<GroupT> bases;
+    private final GroupT zero;
+
+    /* The windows of the pairs (scalars(indices[j]), bases(indices[j])) for 0 <= j < length */
+    ScalarClassWindows(
+        final int[] indices,
+        final int length,
+        final int numBits,
+        final IntFunction<BigInteger> scalars,
+        final IntFunction<GroupT> bases,
+        final GroupT zero) {
+      final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+      final GLVParameters glv = zero.glvParameters();
+      this.zero = zero;
+      if (glv != null && numBits > glv.numBits) {
+        final BigInteger[] decomposed =
+            glvScalars(length, j -> scalars.apply(indices[j]), glv, parallelism);
+        this.bases = new ArrayList<>(2 * length);
+        for (int j = 0; j < length; j++) {
+          final GroupT base = bases.apply(indices[j]);
+          this.bases.add(base);
+          this.bases.add(base.endomorphism());
+        }
+        this.c = windowSize(2 * length, glv.numBits);
+        this.digits =
+            signedDigits(2 * length, j -> decomposed[j], c, glv.numBits / c + 1, parallelism);
       } else {
-        converted1.add(new Tuple2<>(scalar, value._1));
-        converted2.add(new Tuple2<>(scalar, value._2));
-        numBits = Math.max(numBits, scalar.bitLength());
+        this.bases = new ArrayList<>(length);
+        for (int j = 0; j < length; j++) {
+          this.bases.add(bases.apply(indices[j]));
+        }
+        this.c = windowSize(length, numBits);
+        this.digits =
+            signedDigits(length, j -> scalars.apply(indices[j]), c, numBits / c + 1, parallelism);
       }
     }
 
-    return new Tuple2<>(
-        converted1.isEmpty() ? acc1 : acc1.add(VariableBaseMSM.pippengerMSM(converted1, numBits)),
-        converted2.isEmpty() ? acc2 : acc2.add(VariableBaseMSM.pippengerMSM(converted2, numBits)));
+    int numWindows() {
+      return digits.length;
+    }
+
+    /* Returns sum_k 2^(c * k) * S_k for from <= k < to, where S_k is the sum of the window k */
+    GroupT sum(final int from, final int to) {
+      final WindowSum<GroupT> windowSum =
+          windowSums(new int[][][] {digits}, () -> bases::get, zero, c).get();
+      GroupT result = zero.mutableCopy();
+      for (int k = to - 1; k >= 0; k--) {
+        if (k < to - 1) {
+          for (int i = 0; i < c; i++) {
+            result = result.dblAssign();
+          }
+        }
+        if (k >= from) {
+          result = result.addAssign(windowSum.apply(k, 0, bases.size()).get(0));
+        }
+      }
+      return result;
+    }
   }
 
+  /**
+   * Returns the MSMs sum_i scalars.get(j).get(i) * bases.get(i) of each of the scalar vectors j,
+   * e.g. of the witnesses of several proofs of the same circuit. The MSMs share the decompositions
+   * and copies of the bases, and a single pass over the bases of each window (see pippengerMSMs()).
+   */
   public static <
           GroupT extends AbstractGroup<GroupT>, FieldT extends AbstractFieldElementExpanded<FieldT>>
-      GroupT distributedMSM(final JavaRDD<Tuple2<FieldT, GroupT>> input) {
+      List<GroupT> serialBatchMSM(final List<List<FieldT>> scalars, final List<GroupT> bases) {
+    final int length = bases.size();
+    final List<BigInteger[]> bigScalars = new ArrayList<>(scalars.size());
+    final int numBits = toBigIntegers(scalars, length, bigScalars);
+
+    final IntFunction<GroupT> input = bases::get;
+    return pippengerMSMs(
+        length,
+        scalarFunctions(bigScalars),
+        () -> input,
+        bases.get(0).zero(),
+        numBits,
+        ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /* serialBatchMSM() over the pairs of bases of doubleMSM() */
+  public static <
+          T1 extends AbstractGroup<T1>,
+          T2 extends AbstractGroup<T2>,
+          FieldT extends AbstractFieldElementExpanded<FieldT>>
+      List<Tuple2<T1, T2>> serialBatchDoubleMSM(
+          final List<List<FieldT>> scalars, final List<Tuple2<T1, T2>> bases) {
+    final int length = bases.size();
+    final List<BigInteger[]> bigScalars = new ArrayList<>(scalars.size());
+    final int numBits = toBigIntegers(scalars, length, bigScalars);
+    return doubleMSMs(length, scalarFunctions(bigScalars), bases, numBits);
+  }
+
+  /**
+   * Returns the MSMs of each of the scalars of the pairs of input, e.g. the join of the witnesses
+   * of several proofs with a query of their proving key, which all have the same number of scalars.
+   * Each partition runs a single batch of MSMs over its bases (see serialBatchMSM()), so that the
+   * bases are only joined and scanned once for the whole batch.
+   */
+  public static <
+          GroupT extends AbstractGroup<GroupT>, FieldT extends AbstractFieldElementExpanded<FieldT>>
+      List<GroupT> distributedBatchMSM(final JavaRDD<Tuple2<List<FieldT>, GroupT>> input) {
 
     return input
         .mapPartitions(
             partition -> {
-              final List<Tuple2<BigInteger, GroupT>> pairs = new ArrayList<>();
-
-              int numBits = 0;
-              while (partition.hasNext()) {
-                final Tuple2<FieldT, GroupT> pair = partition.next();
-
-                final BigInteger scalar = pair._1.toBigInteger();
-                if (scalar.equals(BigInteger.ZERO)) {
-                  continue;
-                }
-
-                pairs.add(new Tuple2<>(scalar, pair._2));
-                numBits = Math.max(numBits, scalar.bitLength());
+              final List<GroupT> bases = new ArrayList<>();
+              final List<List<BigInteger>> scalars = new ArrayList<>();
+              final int numBits = collectPartition(partition, bases, scalars);
+              if (bases.isEmpty()) {
+                return Collections.emptyListIterator();
               }
 
-              return pairs.isEmpty()
-                  ? Collections.emptyListIterator()
-                  : Collections.singletonList(pippengerMSM(pairs, numBits)).iterator();
+              final IntFunction<GroupT> partitionBases = bases::get;
+              return Collections.singletonList(
+                      pippengerMSMs(
+                          bases.size(),
+                          listFunctions(scalars),
+                          () -> partitionBases,
+                          bases.get(0).zero(),
+                          numBits,
+                          ForkJoinPool.getCommonPoolParallelism()))
+                  .iterator();
             })
-        .reduce(GroupT::add);
+        .reduce(VariableBaseMSM::addAll);
   }
 
+  /* distributedBatchMSM() over the pairs of bases of distributedDoubleMSM() */
   public static <
           G1T extends AbstractGroup<G1T>,
           G2T extends AbstractGroup<G2T>,
           FieldT extends AbstractFieldElementExpanded<FieldT>>
-      Tuple2<G1T, G2T> distributedDoubleMSM(final JavaRDD<Tuple2<FieldT, Tuple2<G1T, G2T>>> input) {
+      List<Tuple2<G1T, G2T>> distributedBatchDoubleMSM(
+          final JavaRDD<Tuple2<List<FieldT>, Tuple2<G1T, G2T>>> input) {
 
     return input
         .mapPartitions(
             partition -> {
-              final List<Tuple2<BigInteger, Tuple2<G1T, G2T>>> pairs = new ArrayList<>();
-              while (partition.hasNext()) {
-                Tuple2<FieldT, Tuple2<G1T, G2T>> pair = partition.next();
-                final BigInteger scalar = pair._1.toBigInteger();
-                if (scalar.equals(BigInteger.ZERO)) {
-                  continue;
-                }
-                pairs.add(new Tuple2<>(scalar, pair._2));
+              final List<Tuple2<G1T, G2T>> bases = new ArrayList<>();
+              final List<List<BigInteger>> scalars = new ArrayList<>();
+              final int numBits = collectPartition(partition, bases, scalars);
+              if (bases.isEmpty()) {
+                return Collections.emptyListIterator();
               }
-              return pairs.isEmpty()
-                  ? Collections.emptyListIterator()
-                  : Collections.singletonList(doubleMSM(pairs)).iterator();
+
+              return Collections.singletonList(
+                      doubleMSMs(bases.size(), listFunctions(scalars), bases, numBits))
+                  .iterator();
             })
-        .reduce((e1, e2) -> new Tuple2<>(e1._1.add(e2._1), e1._2.add(e2._2)));
+        .reduce(
+            (e1, e2) -> {
+              final List<Tuple2<G1T, G2T>> result = new ArrayList<>(e1.size());
+              for (int j = 0; j < e1.size(); j++) {
+                result.add(
+                    new Tuple2<>(e1.get(j)._1.add(e2.get(j)._1), e1.get(j)._2.add(e2.get(j)._2)));
+              }
+              return result;
+            });
+  }
+
+  /* Returns the MSMs of the scalars over the G1 and G2 elements of the pairs of bases */
+  private static <T1 extends AbstractGroup<T1>, T2 extends AbstractGroup<T2>>
+      List<Tuple2<T1, T2>> doubleMSMs(
+          final int length,
+          final List<IntFunction<BigInteger>> scalars,
+          final List<Tuple2<T1, T2>> bases,
+          final int numBits) {
+    final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    final IntFunction<T1> input1 = i -> bases.get(i)._1;
+    final IntFunction<T2> input2 = i -> bases.get(i)._2;
+    final List<T1> results1 =
+        pippengerMSMs(length, scalars, () -> input1, bases.get(0)._1.zero(), numBits, parallelism);
+    final List<T2> results2 =
+        pippengerMSMs(length, scalars, () -> input2, bases.get(0)._2.zero(), numBits, parallelism);
+
+    final List<Tuple2<T1, T2>> result = new ArrayList<>(scalars.size());
+    for (int j = 0; j < scalars.size(); j++) {
+      result.add(new Tuple2<>(results1.get(j), results2.get(j)));
+    }
+    return result;
+  }
+
+  /**
+   * Adds the BigInteger values of each of the scalar vectors, of the given length, to result, and
+   * returns their maximum number of bits.
+   */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>> int toBigIntegers(
+      final List<List<FieldT>> scalars, final int length, final List<BigInteger[]> result) {
+    int numBits = 0;
+    for (List<FieldT> vector : scalars) {
+      assert (vector.size() == length);
+      final BigInteger[] values = new BigInteger[length];
+      for (int i = 0; i < length; i++) {
+        values[i] = vector.get(i).toBigInteger();
+        numBits = Math.max(numBits, values[i].bitLength());
+      }
+      result.add(values);
+    }
+    return numBits;
+  }
+
+  /**
+   * Adds the bases of the pairs of the partition to bases and their scalars, as BigIntegers, to the
+   * vectors of scalars, skipping the bases whose scalars are all zero, and returns the maximum
+   * number of bits of the scalars.
+   */
+  private static <BaseT, FieldT extends AbstractFieldElementExpanded<FieldT>> int collectPartition(
+      final Iterator<Tuple2<List<FieldT>, BaseT>> partition,
+      final List<BaseT> bases,
+      final List<List<BigInteger>> scalars) {
+    int numBits = 0;
+    while (partition.hasNext()) {
+      final Tuple2<List<FieldT>, BaseT> pair = partition.next();
+      if (scalars.isEmpty()) {
+        for (int j = 0; j < pair._1.size(); j++) {
+          scalars.add(new ArrayList<>());
+        }
+      }
+      assert (pair._1.size() == scalars.size());
+
+      boolean isZero = true;
+      final BigInteger[] values = new BigInteger[scalars.size()];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = pair._1.get(j).toBigInteger();
+        isZero &= values[j].signum() == 0;
+        numBits = Math.max(numBits, values[j].bitLength());
+      }
+      if (isZero) {
+        continue;
+      }
+
+      bases.add(pair._2);
+      for (int j = 0; j < values.length; j++) {
+        scalars.get(j).add(values[j]);
+      }
+    }
+    return numBits;
+  }
+
+  private static List<IntFunction<BigInteger>> scalarFunctions(final List<BigInteger[]> scalars) {
+    final List<IntFunction<BigInteger>> result = new ArrayList<>(scalars.size());
+    for (BigInteger[] vector : scalars) {
+      result.add(i -> vector[i]);
+    }
+    return result;
+  }
+
+  private static List<IntFunction<BigInteger>> listFunctions(final List<List<BigInteger>> scalars) {
+    final List<IntFunction<BigInteger>> result = new ArrayList<>(scalars.size());
+    for (List<BigInteger> vector : scalars) {
+      result.add(vector::get);
+    }
+    return result;
+  }
+
+  /* Returns the elementwise sums of the results of two batches of MSMs */
+  private static <GroupT extends AbstractGroup<GroupT>> List<GroupT> addAll(
+      final List<GroupT> a, final List<GroupT> b) {
+    final List<GroupT> result = new ArrayList<>(a.size());
+    for (int j = 0; j < a.size(); j++) {
+      result.add(a.get(j).add(b.get(j)));
+    }
+    return result;
   }
 
   /* Used for profiling only */
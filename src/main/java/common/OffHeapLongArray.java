@@ -0,0 +1,128 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Array of longs stored outside of the Java heap, either in direct ByteBuffers or in a file mapped
+ * into memory. The array is split into segments of 2^SEGMENT_BITS longs, as a single ByteBuffer
+ * cannot exceed 2GB, and is therefore indexed by longs. Memory is released when the array is
+ * garbage collected, and a mapped file holds the contents of the array once it is unmapped.
+ */
+public class OffHeapLongArray {
+  /* Each segment holds 2^SEGMENT_BITS longs, i.e. 1GB */
+  public static final int SEGMENT_BITS = 27;
+  private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+  private final LongBuffer[] segments;
+  /* The mapped buffers of the segments, or null in direct memory */
+  private final MappedByteBuffer[] mapped;
+  private final long length;
+
+  private OffHeapLongArray(
+      final LongBuffer[] segments, final MappedByteBuffer[] mapped, final long length) {
+    this.segments = segments;
+    this.mapped = mapped;
+    this.length = length;
+  }
+
+  private static int numSegments(final long length) {
+    return (int) ((length + SEGMENT_MASK) >>> SEGMENT_BITS);
+  }
+
+  private static long segmentLength(final long length, final int segment) {
+    return Math.min(length - ((long) segment << SEGMENT_BITS), 1L << SEGMENT_BITS);
+  }
+
+  /* Returns a zero array of the given length, in direct memory. */
+  public static OffHeapLongArray allocateDirect(final long length) {
+    final LongBuffer[] segments = new LongBuffer[numSegments(length)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] =
+          ByteBuffer.allocateDirect((int) segmentLength(length, i) * Long.BYTES)
+              .order(ByteOrder.nativeOrder())
+              .asLongBuffer();
+    }
+    return new OffHeapLongArray(segments, null, length);
+  }
+
+  /**
+   * Returns an array of the given length mapped to the given file, which is created if needed and
+   * extended to the length of the array. The existing contents of the file, if any, are the initial
+   * contents of the array, stored in native byte order.
+   */
+  public static OffHeapLongArray map(final Path file, final long length) throws IOException {
+    return map(file, 0, length);
+  }
+
+  /**
+   * Returns an array of the given length mapped to the given file from the long at offset, e.g.
+   * after a header, see map(file, length).
+   */
+  public static OffHeapLongArray map(final Path file, final long offset, final long length)
+      throws IOException {
+    final LongBuffer[] segments = new LongBuffer[numSegments(length)];
+    final MappedByteBuffer[] mapped = new MappedByteBuffer[segments.length];
+    try (FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      for (int i = 0; i < segments.length; i++) {
+        mapped[i] =
+            channel.map(
+                FileChannel.MapMode.READ_WRITE,
+                (offset + ((long) i << SEGMENT_BITS)) * Long.BYTES,
+                segmentLength(length, i) * Long.BYTES);
+        segments[i] = mapped[i].order(ByteOrder.nativeOrder()).asLongBuffer();
+      }
+    }
+    return new OffHeapLongArray(segments, mapped, length);
+  }
+
+  /* Writes the contents of a mapped array to its file, see MappedByteBuffer.force(). */
+  public void force() {
+    if (mapped != null) {
+      for (MappedByteBuffer buffer : mapped) {
+        buffer.force();
+      }
+    }
+  }
+
+  public long length() {
+    return length;
+  }
+
+  public long get(final long index) {
+    return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & SEGMENT_MASK));
+  }
+
+  public void put(final long index, final long value) {
+    segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & SEGMENT_MASK), value);
+  }
+
+  /* Copies the count longs starting at index into dst[dstOffset, dstOffset + count). */
+  public void get(final long index, final long[] dst, final int dstOffset, final int count) {
+    for (int i = 0; i < count; i++) {
+      dst[dstOffset + i] = get(index + i);
+    }
+  }
+
+  /* Copies src[srcOffset, srcOffset + count) into the count longs starting at index. */
+  public void put(final long index, final long[] src, final int srcOffset, final int count) {
+    for (int i = 0; i < count; i++) {
+      put(index + i, src[srcOffset + i]);
+    }
+  }
+}
@@ -7,6 +7,8 @@
 
 package common;
 
+import algebra.curves.AbstractG1;
+import algebra.curves.AbstractG2;
 import algebra.fields.AbstractFieldElementExpanded;
 import algebra.groups.AbstractGroup;
 import configuration.Configuration;
@@ -120,4 +122,65 @@ public class Utils {
               }
             });
   }
+
+  /**
+   * Returns the points of input in affine coordinates, with one batched inversion per partition
+   * (see AbstractG1.batchToAffineCoordinates()). Used on the queries of the proving keys, whose
+   * bases are then added with mixed additions by the MSMs of the provers.
+   */
+  public static <G1T extends AbstractG1<G1T>> JavaPairRDD<Long, G1T> batchToAffineCoordinates(
+      final JavaPairRDD<Long, G1T> input) {
+    return input.mapPartitionsToPair(
+        partition -> {
+          final ArrayList<Long> indices = new ArrayList<>();
+          final ArrayList<G1T> points = new ArrayList<>();
+          while (partition.hasNext()) {
+            final Tuple2<Long, G1T> element = partition.next();
+            indices.add(element._1);
+            points.add(element._2);
+          }
+          if (points.isEmpty()) {
+            return Collections.emptyIterator();
+          }
+
+          final List<G1T> affinePoints = points.get(0).batchToAffineCoordinates(points);
+          final ArrayList<Tuple2<Long, G1T>> result = new ArrayList<>(points.size());
+          for (int i = 0; i < points.size(); i++) {
+            result.add(new Tuple2<>(indices.get(i), affinePoints.get(i)));
+          }
+          return result.iterator();
+        },
+        true);
+  }
+
+  /* Version of batchToAffineCoordinates() for the pairs of points of G1 and G2, e.g. query B. */
+  public static <G1T extends AbstractG1<G1T>, G2T extends AbstractG2<G2T>>
+      JavaPairRDD<Long, Tuple2<G1T, G2T>> batchToAffineCoordinatesPairs(
+          final JavaPairRDD<Long, Tuple2<G1T, G2T>> input) {
+    return input.mapPartitionsToPair(
+        partition -> {
+          final ArrayList<Long> indices = new ArrayList<>();
+          final ArrayList<G1T> pointsG1 = new ArrayList<>();
+          final ArrayList<G2T> pointsG2 = new ArrayList<>();
+          while (partition.hasNext()) {
+            final Tuple2<Long, Tuple2<G1T, G2T>> element = partition.next();
+            indices.add(element._1);
+            pointsG1.add(element._2._1);
+            pointsG2.add(element._2._2);
+          }
+          if (indices.isEmpty()) {
+            return Collections.emptyIterator();
+          }
+
+          final List<G1T> affineG1 = pointsG1.get(0).batchToAffineCoordinates(pointsG1);
+          final List<G2T> affineG2 = pointsG2.get(0).batchToAffineCoordinates(pointsG2);
+          final ArrayList<Tuple2<Long, Tuple2<G1T, G2T>>> result = new ArrayList<>(indices.size());
+          for (int i = 0; i < indices.size(); i++) {
+            result.add(
+                new Tuple2<>(indices.get(i), new Tuple2<>(affineG1.get(i), affineG2.get(i))));
+          }
+          return result.iterator();
+        },
+        true);
+  }
 }
@@ -367,6 +367,15 @@ public class Configuration implements Serializable {
     return numExecutors;
   }
 
+  public int numCores() {
+    return numCores;
+  }
+
+  /* Returns the amount of memory, in GB, of each executor. */
+  public int numMemory() {
+    return numMemory;
+  }
+
   public StorageLevel storageLevel() {
     return storageLevel;
   }
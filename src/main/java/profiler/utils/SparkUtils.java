@@ -64,6 +64,11 @@ public class SparkUtils {
       Fp6_3Over2.class,
       Fp12_2Over3Over2.class,
       Fp[].class,
+      MontgomeryFp.class,
+      MontgomeryParameters.class,
+      FieldVector.class,
+      FixedBasePowers.class,
+      long[].class,
       AbstractFieldElementExpanded.class,
       BN254aFr.class,
       BN254aFq.class,
@@ -9,9 +9,9 @@ package reductions.r1cs_to_qap;
 
 import algebra.fft.SerialFFT;
 import algebra.fields.AbstractFieldElementExpanded;
+import algebra.fields.FieldVector;
 import configuration.Configuration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import relations.objects.Assignment;
 import relations.objects.R1CSConstraint;
@@ -36,23 +36,30 @@ public class R1CStoQAP {
     final int numPrimary = r1cs.numPrimary();
     final int numVariables = r1cs.numVariables();
     final int numConstraints = r1cs.numConstraints();
-    // SerialFFT returns a pow 2 domain
+    // SerialFFT returns a domain of size 2^k or 3 * 2^k, see EvaluationDomain.lowestDomainSize
     final SerialFFT<FieldT> domain = new SerialFFT<>(numConstraints + numPrimary, t);
     final FieldT zero = t.zero();
 
-    final List<FieldT> At = new ArrayList<>(Collections.nCopies(numVariables, zero));
-    final List<FieldT> Bt = new ArrayList<>(Collections.nCopies(numVariables, zero));
-    final List<FieldT> Ct = new ArrayList<>(Collections.nCopies(numVariables, zero));
+    // A(t), B(t) and C(t) are accumulated in place, see AbstractFieldElement.mutableCopy().
+    final List<FieldT> At = new ArrayList<>(numVariables);
+    final List<FieldT> Bt = new ArrayList<>(numVariables);
+    final List<FieldT> Ct = new ArrayList<>(numVariables);
+    for (int i = 0; i < numVariables; i++) {
+      At.add(zero.mutableCopy());
+      Bt.add(zero.mutableCopy());
+      Ct.add(zero.mutableCopy());
+    }
     final List<FieldT> Ht = new ArrayList<>(domain.domainSize + 1);
 
     // Construct in Lagrange basis; add and process the constraints,
     // input_i * 0 = 0, to ensure soundness of input consistency.
     final List<FieldT> lagrangeCoefficients = domain.lagrangeCoefficients(t);
     for (int i = 0; i < r1cs.numPrimary(); i++) {
-      At.set(i, lagrangeCoefficients.get(numConstraints + i));
+      At.set(i, At.get(i).set(lagrangeCoefficients.get(numConstraints + i)));
     }
 
     // Process all other constraints; evaluate A(t), B(t), and C(t).
+    FieldT term = zero.mutableCopy();
     for (int i = 0; i < numConstraints; i++) {
       final R1CSConstraint<FieldT> constraint = r1cs.constraints(i);
       final FieldT ithLagrange = lagrangeCoefficients.get(i);
@@ -61,21 +68,24 @@ public class R1CStoQAP {
         final int index = (int) constraint.A(j).index();
         final FieldT value = constraint.A(j).value();
 
-        At.set(index, At.get(index).add(ithLagrange.mul(value)));
+        term = term.set(ithLagrange).mulAssign(value);
+        At.set(index, At.get(index).addAssign(term));
       }
 
       for (int j = 0; j < constraint.B().size(); j++) {
         final int index = (int) constraint.B(j).index();
         final FieldT value = constraint.B(j).value();
 
-        Bt.set(index, Bt.get(index).add(ithLagrange.mul(value)));
+        term = term.set(ithLagrange).mulAssign(value);
+        Bt.set(index, Bt.get(index).addAssign(term));
       }
 
       for (int j = 0; j < constraint.C().size(); j++) {
         final int index = (int) constraint.C(j).index();
         final FieldT value = constraint.C(j).value();
 
-        Ct.set(index, Ct.get(index).add(ithLagrange.mul(value)));
+        term = term.set(ithLagrange).mulAssign(value);
+        Ct.set(index, Ct.get(index).addAssign(term));
       }
     }
 
@@ -125,8 +135,9 @@ public class R1CStoQAP {
     final SerialFFT<FieldT> domain =
         new SerialFFT<>(r1cs.numConstraints() + r1cs.numPrimary(), fieldFactory);
 
-    final List<FieldT> A = new ArrayList<>(Collections.nCopies(domain.domainSize, zero));
-    final List<FieldT> B = new ArrayList<>(Collections.nCopies(domain.domainSize, zero));
+    // The evaluations are packed into FieldVectors, on which the FFTs below run in place.
+    final FieldVector<FieldT> A = new FieldVector<>(domain.domainSize, fieldFactory);
+    final FieldVector<FieldT> B = new FieldVector<>(domain.domainSize, fieldFactory);
     final Assignment<FieldT> oneFullAssignment = new Assignment<>(primary, auxiliary);
 
     // Account for the additional constraints input_i * 0 = 0.
@@ -139,72 +150,51 @@ public class R1CStoQAP {
     // Account for all other constraints: A and B.
     config.beginLog("Compute evaluation of polynomial A and B on set S.");
     for (int i = 0; i < r1cs.numConstraints(); i++) {
-      A.set(i, r1cs.constraints(i).A().evaluate(oneFullAssignment).add(A.get(i)));
+      A.set(i, r1cs.constraints(i).A().evaluate(oneFullAssignment));
       B.set(i, r1cs.constraints(i).B().evaluate(oneFullAssignment));
     }
     config.endLog("Compute evaluation of polynomial A and B on set S.");
 
-    // Perform radix-2 inverse FFT to determine the coefficients of A and B.
-    config.beginLog("Perform radix-2 inverse FFT to determine the coefficients of A and B.");
-    domain.radix2InverseFFT(A);
-    domain.radix2InverseFFT(B);
-    config.endLog("Perform radix-2 inverse FFT to determine the coefficients of A and B.");
-
-    // Compute evaluation of polynomials A and B on set T.
+    // Compute evaluation of polynomials A and B on set T, by an inverse FFT and a coset FFT
+    // chained without bit-reversal permutation.
     config.beginLog("Compute evaluation of polynomials A and B on set T.");
-    domain.radix2CosetFFT(A, multiplicativeGenerator);
-    domain.radix2CosetFFT(B, multiplicativeGenerator);
+    domain.evaluationsOnCoset(A, multiplicativeGenerator);
+    domain.evaluationsOnCoset(B, multiplicativeGenerator);
     config.endLog("Compute evaluation of polynomials A and B on set T.");
 
     // Compute the evaluation of polynomial H on a set T.
     config.beginLog("Compute the evaluation, (A * B), for polynomial H on a set T.");
-    List<FieldT> coefficientsH = new ArrayList<>();
-    for (int i = 0; i < domain.domainSize; i++) {
-      coefficientsH.add(A.get(i).mul(B.get(i)));
-    }
+    // The vector of A is reused for H, and B is released.
+    final FieldVector<FieldT> H = A.mulAssign(B);
     config.endLog("Compute the evaluation, (A * B), for polynomial H on a set T.");
 
-    // Clear memory for A and B.
-    A.clear();
-    B.clear();
-
     // Account for all other constraints: C.
     config.beginLog("Compute evaluation of polynomial C on set S.");
-    final List<FieldT> C = new ArrayList<>(Collections.nCopies(domain.domainSize, zero));
+    final FieldVector<FieldT> C = new FieldVector<>(domain.domainSize, fieldFactory);
     for (int i = 0; i < r1cs.numConstraints(); i++) {
       C.set(i, r1cs.constraints(i).C().evaluate(oneFullAssignment));
     }
     config.endLog("Compute evaluation of polynomial C on set S.");
 
-    // Perform radix-2 inverse FFT to determine the coefficients of C.
-    config.beginLog("Perform radix-2 inverse FFT to determine the coefficients of C.");
-    domain.radix2InverseFFT(C);
-    config.endLog("Perform radix-2 inverse FFT to determine the coefficients of C.");
-
     // Compute evaluation of polynomials C on set T.
     config.beginLog("Compute evaluation of polynomials C on set T.");
-    domain.radix2CosetFFT(C, multiplicativeGenerator);
+    domain.evaluationsOnCoset(C, multiplicativeGenerator);
     config.endLog("Compute evaluation of polynomials C on set T.");
 
     // Compute the evaluation of polynomial H on a set T.
     config.beginLog("Compute the evaluation, (A * B) - C, for polynomial H on a set T.");
-    for (int i = 0; i < domain.domainSize; i++) {
-      // Compute (A * B) - C into H.
-      coefficientsH.set(i, coefficientsH.get(i).sub(C.get(i)));
-    }
+    H.subAssign(C);
     config.endLog("Compute the evaluation, (A * B) - C, for polynomial H on a set T.");
 
-    // Clear memory for C.
-    C.clear();
-
     // Divide by Z on set T.
     config.beginLog("Divide by Z on set T.");
-    domain.divideByZOnCoset(multiplicativeGenerator, coefficientsH);
+    domain.divideByZOnCoset(multiplicativeGenerator, H);
     config.endLog("Divide by Z on set T.");
 
     // Compute coefficients of polynomial H.
     config.beginLog("Compute coefficients of polynomial H.");
-    domain.radix2CosetInverseFFT(coefficientsH, multiplicativeGenerator);
+    domain.radix2CosetInverseFFT(H, multiplicativeGenerator);
+    final List<FieldT> coefficientsH = H.toList();
     coefficientsH.add(zero);
     config.endLog("Compute coefficients of polynomial H.");
 
@@ -8,16 +8,19 @@
 package reductions.r1cs_to_qap;
 
 import algebra.fft.DistributedFFT;
+import algebra.fft.EvaluationDomain;
 import algebra.fft.FFTAuxiliary;
 import algebra.fields.AbstractFieldElementExpanded;
-import common.MathUtils;
+import algebra.fields.FixedBasePowers;
 import common.Utils;
 import configuration.Configuration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.broadcast.Broadcast;
 import relations.objects.Assignment;
 import relations.objects.LinearTerm;
 import relations.qap.QAPRelationRDD;
@@ -43,7 +46,7 @@ public class R1CStoQAPRDD {
     final int numPrimary = r1cs.numPrimary();
     final long numVariables = r1cs.numVariables();
     final long numConstraints = r1cs.numConstraints();
-    final long domainSize = MathUtils.lowestPowerOfTwo(numConstraints + numPrimary);
+    final long domainSize = EvaluationDomain.lowestDomainSize(numConstraints + numPrimary, t);
     final int numPartitions = config.numPartitions();
 
     /* Construct in the Lagrange basis. */
@@ -165,10 +168,12 @@ public class R1CStoQAPRDD {
             .reduceByKey(FieldT::add, numPartitions)
             .persist(config.storageLevel());
 
-    // Compute H(t).
+    // Compute H(t), from a broadcast table of the powers of t.
+    final Broadcast<FixedBasePowers<FieldT>> tPowers =
+        config.sparkContext().broadcast(new FixedBasePowers<>(t, domainSize));
     final JavaPairRDD<Long, FieldT> Ht =
         Utils.fillRDD(domainSize + 1, t.zero(), config)
-            .mapToPair(term -> new Tuple2<>(term._1, t.pow(term._1)));
+            .mapToPair(term -> new Tuple2<>(term._1, tPowers.getValue().pow(term._1)));
 
     // Compute vanishing polynomial at t.
     final FieldT Zt = DistributedFFT.computeZ(t, domainSize);
@@ -206,10 +211,11 @@ public class R1CStoQAPRDD {
 
     final FieldT multiplicativeGenerator = fieldFactory.multiplicativeGenerator();
     final FieldT zero = fieldFactory.zero();
-    // We do a Radix2-FFT to retrieve the QAP (polynomial form) from the R1CS (matrix form)
-    // via interpolation on a given domain of size a "big enough" power of 2. Add space for
+    // We do an FFT to retrieve the QAP (polynomial form) from the R1CS (matrix form) via
+    // interpolation on a given domain of a "big enough" size, 2^k or 3 * 2^k. Add space for
     // consistency checks for all primary inputs, including the 1 constant.
-    final long domainSize = MathUtils.lowestPowerOfTwo(r1cs.numConstraints() + r1cs.numPrimary());
+    final long domainSize =
+        EvaluationDomain.lowestDomainSize(r1cs.numConstraints() + r1cs.numPrimary(), fieldFactory);
 
     config.beginLog("Account for the additional constraints input_i * 0 = 0.");
     final List<Tuple2<Long, FieldT>> shiftedPrimary = new ArrayList<>();
@@ -260,7 +266,7 @@ public class R1CStoQAPRDD {
     //   union with additionalA
     //   union with zeroIndexedA
     //   combine common keys
-    JavaPairRDD<Long, FieldT> A =
+    final JavaPairRDD<Long, FieldT> A =
         r1cs.constraints()
             .A()
             .filter(e -> e._2.index() != 0)
@@ -279,7 +285,7 @@ public class R1CStoQAPRDD {
             .union(zeroIndexedA)
             .reduceByKey(FieldT::add);
 
-    JavaPairRDD<Long, FieldT> B =
+    final JavaPairRDD<Long, FieldT> B =
         r1cs.constraints()
             .B()
             .filter(e -> e._2.index() != 0)
@@ -297,7 +303,7 @@ public class R1CStoQAPRDD {
             .union(zeroIndexedB)
             .reduceByKey(FieldT::add);
 
-    JavaPairRDD<Long, FieldT> C =
+    final JavaPairRDD<Long, FieldT> C =
         r1cs.constraints()
             .C()
             .filter(e -> e._2.index() != 0)
@@ -316,37 +322,33 @@ public class R1CStoQAPRDD {
             .reduceByKey(FieldT::add);
     config.endLog("Compute evaluation of polynomials A, B, and C, on set S.");
 
-    final int rows = (int) MathUtils.lowestPowerOfTwo((long) Math.sqrt(domainSize));
-    final int cols = (int) (domainSize / rows);
+    // Split of the domain of the distributed FFTs, e.g. rows x columns.
+    final long[] dimensions = DistributedFFT.dimensions(domainSize, config);
 
+    // A, B and C are transformed together, each index holding the elements of the three.
     config.beginLog("Perform radix-2 inverse FFT to determine the coefficients of A, B, and C.");
-    A = DistributedFFT.radix2InverseFFT(A, rows, cols, fieldFactory);
-    B = DistributedFFT.radix2InverseFFT(B, rows, cols, fieldFactory);
-    C = DistributedFFT.radix2InverseFFT(C, rows, cols, fieldFactory);
+    final JavaPairRDD<Long, ArrayList<FieldT>> coefficientsABC =
+        DistributedFFT.batchRadix2InverseFFT(Arrays.asList(A, B, C), dimensions, fieldFactory);
     config.endLog("Perform radix-2 inverse FFT to determine the coefficients of A, B, and C.");
 
     config.beginLog("Compute evaluation of polynomials A, B, and C on set T.");
-    A = DistributedFFT.radix2CosetFFT(A, multiplicativeGenerator, rows, cols, fieldFactory);
-    B = DistributedFFT.radix2CosetFFT(B, multiplicativeGenerator, rows, cols, fieldFactory);
-    C = DistributedFFT.radix2CosetFFT(C, multiplicativeGenerator, rows, cols, fieldFactory);
+    final JavaPairRDD<Long, ArrayList<FieldT>> evaluationsABC =
+        DistributedFFT.batchRadix2CosetFFT(
+            coefficientsABC, 3, multiplicativeGenerator, dimensions, fieldFactory);
     config.endLog("Compute evaluation of polynomials A, B, and C on set T.");
 
-    config.beginLog("Compute the evaluation, (A * B) - C, for polynomial H on a set T.");
+    config.beginLog("Compute the evaluation, ((A * B) - C) / Z, for polynomial H on a set T.");
+    final FieldT inverseZCoset =
+        DistributedFFT.computeZ(multiplicativeGenerator, domainSize).inverse();
     JavaPairRDD<Long, FieldT> coefficientsH =
-        A.join(B)
-            .join(C, config.numPartitions())
-            .mapValues(element -> element._1._1.mul(element._1._2).sub(element._2));
-    config.endLog("Compute the evaluation, (A * B) - C, for polynomial H on a set T.");
-
-    config.beginLog("Divide by Z on set T.");
-    coefficientsH =
-        DistributedFFT.divideByZOnCoset(multiplicativeGenerator, coefficientsH, domainSize);
-    config.endLog("Divide by Z on set T.");
+        evaluationsABC.mapValues(
+            element -> element.get(0).mul(element.get(1)).sub(element.get(2)).mul(inverseZCoset));
+    config.endLog("Compute the evaluation, ((A * B) - C) / Z, for polynomial H on a set T.");
 
     config.beginLog("Compute coefficients of polynomial H.");
     coefficientsH =
         DistributedFFT.radix2CosetInverseFFT(
-                coefficientsH, multiplicativeGenerator, rows, cols, fieldFactory)
+                coefficientsH, multiplicativeGenerator, dimensions, fieldFactory)
             .union(
                 config
                     .sparkContext()
@@ -8,6 +8,7 @@
 package relations.objects;
 
 import algebra.fields.AbstractFieldElementExpanded;
+import algebra.fields.FieldVector;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +26,10 @@ public class Assignment<FieldT extends AbstractFieldElementExpanded<FieldT>>
     elements = new ArrayList<>(input);
   }
 
+  public Assignment(final FieldVector<FieldT> input) {
+    elements = input.toList();
+  }
+
   public Assignment(final Assignment<FieldT> primary, final Assignment<FieldT> auxiliary) {
     elements = new ArrayList<>();
     elements.addAll(primary.elements());
@@ -35,6 +40,11 @@ public class Assignment<FieldT extends AbstractFieldElementExpanded<FieldT>>
     return elements;
   }
 
+  /* Returns the elements packed into a FieldVector, see FieldVector. */
+  public FieldVector<FieldT> toFieldVector(final FieldT fieldFactory) {
+    return new FieldVector<>(elements, fieldFactory);
+  }
+
   public List<FieldT> subList(final int i, final int j) {
     return elements.subList(i, j);
   }
@@ -72,8 +72,10 @@ public class LinearCombination<FieldT extends AbstractFieldElementExpanded<Field
   // the ith entry in assignment
   // (and not by the (i-1)th entry as in libsnark).
   public FieldT evaluate(final Assignment<FieldT> input) {
-    FieldT result = input.get(0).zero();
-    final FieldT one = result.one();
+    final FieldT one = input.get(0).one();
+    // The terms are computed and accumulated in place, see AbstractFieldElement.mutableCopy().
+    FieldT result = input.get(0).zero().mutableCopy();
+    FieldT term = one.mutableCopy();
 
     // Note: Assuming the "coefficient" representation of the linear combination A = [0 0 1 0 0]
     // then the 0 terms are not represented in the LinearCombination object. In fact, in this
@@ -84,9 +86,9 @@ public class LinearCombination<FieldT extends AbstractFieldElementExpanded<Field
     // is selected in the linear combination.
     for (int i = 0; i < terms.size(); i++) {
       final long index = terms.get(i).index();
-      final FieldT value = (index == 0 ? one : input.get((int) index)).mul(terms.get(i).value());
+      term = term.set(index == 0 ? one : input.get((int) index)).mulAssign(terms.get(i).value());
 
-      result = result.add(value);
+      result = result.addAssign(term);
     }
     return result;
   }
@@ -9,6 +9,7 @@ package relations.qap;
 
 import algebra.fft.DistributedFFT;
 import algebra.fields.AbstractFieldElementExpanded;
+import algebra.fields.FixedBasePowers;
 import algebra.msm.NaiveMSM;
 import java.io.Serializable;
 import org.apache.spark.api.java.JavaPairRDD;
@@ -75,7 +76,8 @@ public class QAPRelationRDD<FieldT extends AbstractFieldElementExpanded<FieldT>>
       return false;
     }
 
-    final long numInvalidHt = this.Ht.filter((e) -> !this.t.pow(e._1).equals(e._2)).count();
+    final FixedBasePowers<FieldT> tPowers = new FixedBasePowers<>(this.t, this.degree());
+    final long numInvalidHt = this.Ht.filter((e) -> !tPowers.pow(e._1).equals(e._2)).count();
     if (numInvalidHt > 0) {
       return false;
     }
@@ -12,6 +12,9 @@ import algebra.curves.AbstractG2;
 import algebra.fields.AbstractFieldElementExpanded;
 import algebra.msm.VariableBaseMSM;
 import configuration.Configuration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import reductions.r1cs_to_qap.R1CStoQAPRDD;
@@ -47,31 +50,13 @@ public class DistributedProver {
     config.endLog("Computing witness polynomial");
 
     if (config.debugFlag()) {
-      // We are dividing degree 2(d-1) polynomial by degree d polynomial
-      // and not adding a PGHR-style ZK-patch, so our H is degree d-2.
-      final FieldT zero = fieldFactory.zero();
-      // 1. Filter the coeffs to only get the 3 coeffs at indices d-2, d-1, d
-      // 2. Carry out checks on these 3 coeffs, namely:
-      //    - coeff at d-2 can not be 0 (we want a poly of deg d-2)
-      //    - coeffs at d-1, d must be 0 (we want a poly of deg d-2)
-      qapWitness
-          .coefficientsH()
-          .filter(e -> e._1 >= qapWitness.degree() - 2)
-          .foreach(
-              coeff -> {
-                if (coeff._1 == qapWitness.degree() - 2) {
-                  assert (!coeff._2.equals(zero));
-                } else if (coeff._1 > qapWitness.degree() - 2) {
-                  assert (coeff._2.equals(zero));
-                }
-              });
       // Check that the witness satisfies the QAP relation
       // To that end, we pick a random evaluation point t and check
       // that the QAP is satisfied (i.e. this random evaluation point is not the one in the SRS)
       final FieldT t = fieldFactory.random(config.seed(), config.secureSeed());
       final QAPRelationRDD<FieldT> qap =
           R1CStoQAPRDD.R1CStoQAPRelation(provingKey.r1cs(), t, config);
-      assert (qap.isSatisfied(qapWitness));
+      checkWitness(qap, qapWitness, fieldFactory);
     }
 
     // Unpersist the R1CS constraints RDDs and free up memory.
@@ -83,14 +68,6 @@ public class DistributedProver {
     final FieldT r = fieldFactory.random(config.seed(), config.secureSeed());
     final FieldT s = fieldFactory.random(config.seed(), config.secureSeed());
 
-    // Get initial parameters from the proving key.
-    final G1T alphaG1 = provingKey.alphaG1();
-    final G1T betaG1 = provingKey.betaG1();
-    final G2T betaG2 = provingKey.betaG2();
-    final G1T deltaG1 = provingKey.deltaG1();
-    final G2T deltaG2 = provingKey.deltaG2();
-    final G1T rsDelta = deltaG1.mul(r.mul(s));
-
     // Number of partitions per RDD set in the config
     final int numPartitions = config.numPartitions();
 
@@ -155,21 +132,222 @@ public class DistributedProver {
     evaluationABC = evaluationABC.add(evaluationHtZtOverDelta);
     config.endLog("Computing evaluation to query H");
 
+    final Proof<G1T, G2T> proof =
+        proof(provingKey, evaluationAt, evaluationBt, evaluationABC, r, s);
+
+    config.endRuntime("Generate proof");
+
+    return proof;
+  }
+
+  /**
+   * Checks, in debug mode, that the coefficients of H describe a polynomial of degree d-2 and that
+   * the witness satisfies the QAP relation evaluated at a random point.
+   */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>> void checkWitness(
+      final QAPRelationRDD<FieldT> qap,
+      final QAPWitnessRDD<FieldT> qapWitness,
+      final FieldT fieldFactory) {
+    // We are dividing degree 2(d-1) polynomial by degree d polynomial
+    // and not adding a PGHR-style ZK-patch, so our H is degree d-2.
+    final FieldT zero = fieldFactory.zero();
+    // 1. Filter the coeffs to only get the 3 coeffs at indices d-2, d-1, d
+    // 2. Carry out checks on these 3 coeffs, namely:
+    //    - coeff at d-2 can not be 0 (we want a poly of deg d-2)
+    //    - coeffs at d-1, d must be 0 (we want a poly of deg d-2)
+    qapWitness
+        .coefficientsH()
+        .filter(e -> e._1 >= qapWitness.degree() - 2)
+        .foreach(
+            coeff -> {
+              if (coeff._1 == qapWitness.degree() - 2) {
+                assert (!coeff._2.equals(zero));
+              } else if (coeff._1 > qapWitness.degree() - 2) {
+                assert (coeff._2.equals(zero));
+              }
+            });
+    assert (qap.isSatisfied(qapWitness));
+  }
+
+  /**
+   * Returns the proofs of several assignments of the same circuit, with the witness polynomials of
+   * each assignment, and a single join of the batched assignments, and of the batched coefficients
+   * of H, with each query of the proving key. The MSMs of a query are then computed in one pass
+   * over its bases (see VariableBaseMSM.distributedBatchMSM()), so that the scans and the shuffles
+   * of the proving key are amortised over the batch. The primary inputs and the full assignments
+   * are given in the same order.
+   */
+  public static <
+          FieldT extends AbstractFieldElementExpanded<FieldT>,
+          G1T extends AbstractG1<G1T>,
+          G2T extends AbstractG2<G2T>>
+      List<Proof<G1T, G2T>> proveBatch(
+          final ProvingKeyRDD<FieldT, G1T, G2T> provingKey,
+          final List<Assignment<FieldT>> primaries,
+          final List<JavaPairRDD<Long, FieldT>> fullAssignments,
+          final FieldT fieldFactory,
+          final Configuration config) {
+    assert (primaries.size() == fullAssignments.size());
+    final int numProofs = primaries.size();
+    final int numPartitions = config.numPartitions();
+
+    config.beginLog("Computing witness polynomials");
+    // The QAP relation is the same for every assignment, so it is only evaluated once, at a random
+    // point, to check each witness in debug mode.
+    final QAPRelationRDD<FieldT> qap =
+        config.debugFlag()
+            ? R1CStoQAPRDD.R1CStoQAPRelation(
+                provingKey.r1cs(), fieldFactory.random(config.seed(), config.secureSeed()), config)
+            : null;
+    final List<JavaPairRDD<Long, FieldT>> coefficientsH = new ArrayList<>(numProofs);
+    for (int j = 0; j < numProofs; j++) {
+      final QAPWitnessRDD<FieldT> qapWitness =
+          R1CStoQAPRDD.R1CStoQAPWitness(
+              provingKey.r1cs(), primaries.get(j), fullAssignments.get(j), fieldFactory, config);
+      if (config.debugFlag()) {
+        checkWitness(qap, qapWitness, fieldFactory);
+      }
+      coefficientsH.add(qapWitness.coefficientsH());
+    }
+    config.endLog("Computing witness polynomials");
+
+    // Unpersist the R1CS constraints RDDs and free up memory.
+    provingKey.r1cs().constraints().A().unpersist();
+    provingKey.r1cs().constraints().B().unpersist();
+    provingKey.r1cs().constraints().C().unpersist();
+
+    // Choose two random field elements per proof for prover zero-knowledge.
+    final List<FieldT> r = new ArrayList<>(numProofs);
+    final List<FieldT> s = new ArrayList<>(numProofs);
+    for (int j = 0; j < numProofs; j++) {
+      r.add(fieldFactory.random(config.seed(), config.secureSeed()));
+      s.add(fieldFactory.random(config.seed(), config.secureSeed()));
+    }
+
+    config.beginRuntime("Generate proofs");
+
+    // The vectors (a_i^(0), ..., a_i^(numProofs - 1)) of the assignments, for each wire i
+    final JavaPairRDD<Long, List<FieldT>> batchedAssignments =
+        batch(fullAssignments, fieldFactory.zero(), numPartitions).cache();
+
+    config.beginLog("Computing evaluations to query A: summation of variable_i*A_i(t)");
+    final List<G1T> evaluationAt =
+        VariableBaseMSM.distributedBatchMSM(
+            batchedAssignments.join(provingKey.queryA(), numPartitions).values());
+    provingKey.queryA().unpersist();
+    config.endLog("Computing evaluations to query A: summation of variable_i*A_i(t)");
+
+    config.beginLog("Computing evaluations to query B: summation of variable_i*B_i(t)");
+    final List<Tuple2<G1T, G2T>> evaluationBt =
+        VariableBaseMSM.distributedBatchDoubleMSM(
+            batchedAssignments.join(provingKey.queryB(), numPartitions).values());
+    provingKey.queryB().unpersist();
+    config.endLog("Computing evaluations to query B: summation of variable_i*B_i(t)");
+
+    config.beginLog("Computing evaluations to deltaABC");
+    final List<G1T> evaluationABC =
+        VariableBaseMSM.distributedBatchMSM(
+            batchedAssignments.join(provingKey.deltaABCG1(), numPartitions).values());
+    provingKey.deltaABCG1().unpersist();
+    batchedAssignments.unpersist();
+    config.endLog("Computing evaluations to deltaABC");
+
+    config.beginLog("Computing evaluations to query H");
+    final List<G1T> evaluationHtZtOverDelta =
+        VariableBaseMSM.distributedBatchMSM(
+            batch(coefficientsH, fieldFactory.zero(), numPartitions)
+                .join(provingKey.queryH(), numPartitions)
+                .values());
+    provingKey.queryH().unpersist();
+    config.endLog("Computing evaluations to query H");
+
+    final List<Proof<G1T, G2T>> proofs = new ArrayList<>(numProofs);
+    for (int j = 0; j < numProofs; j++) {
+      proofs.add(
+          proof(
+              provingKey,
+              evaluationAt.get(j),
+              evaluationBt.get(j),
+              evaluationABC.get(j).add(evaluationHtZtOverDelta.get(j)),
+              r.get(j),
+              s.get(j)));
+    }
+
+    config.endRuntime("Generate proofs");
+
+    return proofs;
+  }
+
+  /**
+   * Returns the proof of the evaluations of the queries, where evaluationABC includes the
+   * evaluation of query H, and of the random elements r and s.
+   */
+  private static <
+          FieldT extends AbstractFieldElementExpanded<FieldT>,
+          G1T extends AbstractG1<G1T>,
+          G2T extends AbstractG2<G2T>>
+      Proof<G1T, G2T> proof(
+          final ProvingKeyRDD<FieldT, G1T, G2T> provingKey,
+          final G1T evaluationAt,
+          final Tuple2<G1T, G2T> evaluationBt,
+          final G1T evaluationABC,
+          final FieldT r,
+          final FieldT s) {
+    final G1T deltaG1 = provingKey.deltaG1();
+    final G1T rsDelta = deltaG1.mul(r.mul(s));
+
     // A = alpha + sum_i(a_i*A_i(t)) + r*delta
-    final G1T A = alphaG1.add(evaluationAt).add(deltaG1.mul(r));
+    final G1T A = provingKey.alphaG1().add(evaluationAt).add(deltaG1.mul(r));
 
     // B = beta + sum_i(a_i*B_i(t)) + s*delta
     final Tuple2<G1T, G2T> B =
         new Tuple2<>(
-            betaG1.add(evaluationBt._1).add(deltaG1.mul(s)),
-            betaG2.add(evaluationBt._2).add(deltaG2.mul(s)));
+            provingKey.betaG1().add(evaluationBt._1).add(deltaG1.mul(s)),
+            provingKey.betaG2().add(evaluationBt._2).add(provingKey.deltaG2().mul(s)));
 
     // C = sum_i(a_i*((beta*A_i(t) + alpha*B_i(t) + C_i(t)) + H(t)*Z(t))/delta) + A*s + r*b -
     // r*s*delta
     final G1T C = evaluationABC.add(A.mul(s)).add(B._1.mul(r)).sub(rsDelta);
 
-    config.endRuntime("Generate proof");
-
     return new Proof<>(A, B._2, C);
   }
+
+  /**
+   * Returns the pairs (i, [v_0(i), ..., v_(k-1)(i)]) of the k vectors, where the indices missing
+   * from a vector are set to zero.
+   */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>>
+      JavaPairRDD<Long, List<FieldT>> batch(
+          final List<JavaPairRDD<Long, FieldT>> vectors,
+          final FieldT zero,
+          final int numPartitions) {
+    final int numVectors = vectors.size();
+    JavaPairRDD<Long, Tuple2<Integer, FieldT>> tagged = null;
+    for (int j = 0; j < numVectors; j++) {
+      final int vector = j;
+      final JavaPairRDD<Long, Tuple2<Integer, FieldT>> values =
+          vectors.get(j).mapValues(value -> new Tuple2<>(vector, value));
+      tagged = tagged == null ? values : tagged.union(values);
+    }
+
+    return tagged.combineByKey(
+        value -> {
+          final List<FieldT> result = new ArrayList<>(Collections.nCopies(numVectors, zero));
+          result.set(value._1, value._2);
+          return result;
+        },
+        (result, value) -> {
+          result.set(value._1, value._2);
+          return result;
+        },
+        (result, other) -> {
+          for (int j = 0; j < numVectors; j++) {
+            if (!other.get(j).equals(zero)) {
+              result.set(j, other.get(j));
+            }
+          }
+          return result;
+        },
+        numPartitions);
+  }
 }
@@ -12,11 +12,14 @@ import algebra.curves.AbstractG2;
 import algebra.fields.AbstractFieldElementExpanded;
 import algebra.msm.VariableBaseMSM;
 import configuration.Configuration;
+import java.util.ArrayList;
+import java.util.List;
 import reductions.r1cs_to_qap.R1CStoQAP;
 import relations.objects.Assignment;
 import relations.qap.QAPRelation;
 import relations.qap.QAPWitness;
 import scala.Tuple2;
+import zk_proof_systems.zkSNARK.groth16.objects.PrecomputedProvingKey;
 import zk_proof_systems.zkSNARK.groth16.objects.Proof;
 import zk_proof_systems.zkSNARK.groth16.objects.ProvingKey;
 
@@ -76,36 +79,73 @@ public class SerialProver {
 
     config.beginRuntime("Proof");
 
+    // With a PrecomputedProvingKey, the G1 MSMs run over the precomputed tables of the queries
+    final PrecomputedProvingKey<FieldT, G1T, G2T> tables =
+        provingKey instanceof PrecomputedProvingKey
+            ? (PrecomputedProvingKey<FieldT, G1T, G2T>) provingKey
+            : null;
+
     config.beginLog("Computing evaluation to query A: summation of variable_i*A_i(t)");
-    G1T evaluationAt =
-        VariableBaseMSM.serialMSM(primary.elements(), provingKey.queryA().subList(0, numPrimary));
-    evaluationAt =
-        evaluationAt.add(
-            VariableBaseMSM.serialMSM(
-                auxiliary.elements(), provingKey.queryA().subList(numPrimary, numVariables)));
+    final G1T evaluationAt;
+    if (tables != null) {
+      evaluationAt =
+          tables
+              .queryATable()
+              .msm(0, primary.elements())
+              .add(tables.queryATable().msm(numPrimary, auxiliary.elements()));
+    } else {
+      evaluationAt =
+          VariableBaseMSM.serialMSM(primary.elements(), provingKey.queryA().subList(0, numPrimary))
+              .add(
+                  VariableBaseMSM.serialMSM(
+                      auxiliary.elements(), provingKey.queryA().subList(numPrimary, numVariables)));
+    }
     config.endLog("Computing evaluation to query A: summation of variable_i*A_i(t)");
 
     config.beginLog("Computing evaluation to query B: summation of variable_i*B_i(t)");
-    final Tuple2<G1T, G2T> evaluationBtPrimary =
-        VariableBaseMSM.doubleMSM(primary.elements(), provingKey.queryB().subList(0, numPrimary));
-    final Tuple2<G1T, G2T> evaluationBtWitness =
-        VariableBaseMSM.doubleMSM(
-            auxiliary.elements(), provingKey.queryB().subList(numPrimary, numVariables));
-    final G1T evaluationBtG1 = evaluationBtPrimary._1.add(evaluationBtWitness._1);
-    final G2T evaluationBtG2 = evaluationBtPrimary._2.add(evaluationBtWitness._2);
+    final G1T evaluationBtG1;
+    final G2T evaluationBtG2;
+    if (tables != null) {
+      final List<G2T> queryBG2 = new ArrayList<>(numVariables);
+      for (Tuple2<G1T, G2T> element : provingKey.queryB()) {
+        queryBG2.add(element._2);
+      }
+      evaluationBtG1 =
+          tables
+              .queryBG1Table()
+              .msm(0, primary.elements())
+              .add(tables.queryBG1Table().msm(numPrimary, auxiliary.elements()));
+      evaluationBtG2 =
+          VariableBaseMSM.serialMSM(primary.elements(), queryBG2.subList(0, numPrimary))
+              .add(
+                  VariableBaseMSM.serialMSM(
+                      auxiliary.elements(), queryBG2.subList(numPrimary, numVariables)));
+    } else {
+      final Tuple2<G1T, G2T> evaluationBtPrimary =
+          VariableBaseMSM.doubleMSM(primary.elements(), provingKey.queryB().subList(0, numPrimary));
+      final Tuple2<G1T, G2T> evaluationBtWitness =
+          VariableBaseMSM.doubleMSM(
+              auxiliary.elements(), provingKey.queryB().subList(numPrimary, numVariables));
+      evaluationBtG1 = evaluationBtPrimary._1.add(evaluationBtWitness._1);
+      evaluationBtG2 = evaluationBtPrimary._2.add(evaluationBtWitness._2);
+    }
     config.endLog("Computing evaluation to query B: summation of variable_i*B_i(t)");
 
     config.beginLog("Computing evaluation to query H");
     final G1T evaluationHtZt =
-        VariableBaseMSM.serialMSM(qapWitness.coefficientsH(), provingKey.queryH());
+        tables != null
+            ? tables.queryHTable().msm(0, qapWitness.coefficientsH())
+            : VariableBaseMSM.serialMSM(qapWitness.coefficientsH(), provingKey.queryH());
     config.endLog("Computing evaluation to query H");
 
     // Compute evaluationABC = a_i*((beta*A_i(t) + alpha*B_i(t) + C_i(t)) + H(t)*Z(t))/delta.
     config.beginLog("Computing evaluation to deltaABC");
     final int numWitness = numVariables - numPrimary;
     G1T evaluationABC =
-        VariableBaseMSM.serialMSM(
-            auxiliary.subList(0, numWitness), provingKey.deltaABCG1().subList(0, numWitness));
+        tables != null
+            ? tables.deltaABCG1Table().msm(0, auxiliary.subList(0, numWitness))
+            : VariableBaseMSM.serialMSM(
+                auxiliary.subList(0, numWitness), provingKey.deltaABCG1().subList(0, numWitness));
     evaluationABC = evaluationABC.add(evaluationHtZt); // H(t)*Z(t)/delta
     config.endLog("Computing evaluation to deltaABC");
 
@@ -12,9 +12,11 @@ import algebra.curves.AbstractG2;
 import algebra.curves.AbstractGT;
 import algebra.curves.AbstractPairing;
 import algebra.fields.AbstractFieldElementExpanded;
+import algebra.fields.FieldUtils;
 import algebra.msm.FixedBaseMSM;
 import configuration.Configuration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import reductions.r1cs_to_qap.R1CStoQAP;
 import relations.qap.QAPRelation;
@@ -44,8 +46,9 @@ public class SerialSetup {
     final FieldT beta = fieldFactory.random(config.seed(), config.secureSeed());
     final FieldT gamma = fieldFactory.random(config.seed(), config.secureSeed());
     final FieldT delta = fieldFactory.random(config.seed(), config.secureSeed());
-    final FieldT inverseGamma = gamma.inverse();
-    final FieldT inverseDelta = delta.inverse();
+    final List<FieldT> inverses = FieldUtils.batchInverse(Arrays.asList(gamma, delta));
+    final FieldT inverseGamma = inverses.get(0);
+    final FieldT inverseDelta = inverses.get(1);
 
     // A quadratic arithmetic program evaluated at t.
     final QAPRelation<FieldT> qap = R1CStoQAP.R1CStoQAPRelation(r1cs, t);
@@ -114,18 +117,22 @@ public class SerialSetup {
     final G1T deltaG1 = generatorG1.mul(delta);
     final G2T deltaG2 = generatorG2.mul(delta);
 
+    // The queries of the proving key are normalized to affine coordinates, with one batched
+    // inversion per query.
     config.beginLog("Encode deltaABC for R1CS proving key", false);
     final List<G1T> deltaABCG1 =
-        FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, deltaABC);
+        g1Factory.batchToAffineCoordinates(
+            FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, deltaABC));
     config.endLog("Encode deltaABC for R1CS proving key", false);
 
     config.beginLog("Computing query A", false);
     final List<G1T> queryA =
-        FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.At());
+        g1Factory.batchToAffineCoordinates(
+            FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.At()));
     config.endLog("Computing query A", false);
 
     config.beginLog("Computing query B", false);
-    final List<Tuple2<G1T, G2T>> queryB =
+    final List<Tuple2<G1T, G2T>> jacobianQueryB =
         FixedBaseMSM.doubleBatchMSM(
             scalarSizeG1,
             windowSizeG1,
@@ -134,15 +141,28 @@ public class SerialSetup {
             windowSizeG2,
             windowTableG2,
             qap.Bt());
+    final List<G1T> queryBG1 = new ArrayList<>(jacobianQueryB.size());
+    final List<G2T> queryBG2 = new ArrayList<>(jacobianQueryB.size());
+    for (Tuple2<G1T, G2T> element : jacobianQueryB) {
+      queryBG1.add(element._1);
+      queryBG2.add(element._2);
+    }
+    final List<G1T> affineQueryBG1 = g1Factory.batchToAffineCoordinates(queryBG1);
+    final List<G2T> affineQueryBG2 = g2Factory.batchToAffineCoordinates(queryBG2);
+    final List<Tuple2<G1T, G2T>> queryB = new ArrayList<>(jacobianQueryB.size());
+    for (int i = 0; i < jacobianQueryB.size(); i++) {
+      queryB.add(new Tuple2<>(affineQueryBG1.get(i), affineQueryBG2.get(i)));
+    }
     config.endLog("Computing query B", false);
 
     config.beginLog("Computing query H", false);
-    final FieldT inverseDeltaZt = qap.Zt().mul(delta.inverse());
+    final FieldT inverseDeltaZt = qap.Zt().mul(inverseDelta);
     for (int i = 0; i < qap.Ht().size(); i++) {
       qap.Ht().set(i, qap.Ht().get(i).mul(inverseDeltaZt));
     }
     final List<G1T> queryH =
-        FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.Ht());
+        g1Factory.batchToAffineCoordinates(
+            FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.Ht()));
     config.endLog("Computing query H", false);
 
     config.endLog("Generating R1CS proving key");
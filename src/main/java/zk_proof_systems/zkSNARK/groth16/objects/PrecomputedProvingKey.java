@@ -0,0 +1,140 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package zk_proof_systems.zkSNARK.groth16.objects;
+
+import algebra.curves.AbstractG1;
+import algebra.curves.AbstractG2;
+import algebra.fields.AbstractFieldElementExpanded;
+import algebra.msm.PrecomputedMSM;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import scala.Tuple2;
+
+/**
+ * Groth16 proving key with the precomputed tables of its G1 queries (see PrecomputedMSM), with
+ * which SerialProver computes the G1 MSMs of a proof without doublings and with a single set of
+ * buckets, at the cost of the memory of the tables, i.e. numWindows points per base. The tables are
+ * held in direct memory, or in files that are reused by the later runs of a fixed circuit.
+ */
+public class PrecomputedProvingKey<
+        FieldT extends AbstractFieldElementExpanded<FieldT>,
+        G1T extends AbstractG1<G1T>,
+        G2T extends AbstractG2<G2T>>
+    extends ProvingKey<FieldT, G1T, G2T> {
+
+  private final PrecomputedMSM<G1T> deltaABCG1Table;
+  private final PrecomputedMSM<G1T> queryATable;
+  // The table of the G1 elements of queryB
+  private final PrecomputedMSM<G1T> queryBG1Table;
+  private final PrecomputedMSM<G1T> queryHTable;
+
+  public PrecomputedProvingKey(
+      final ProvingKey<FieldT, G1T, G2T> _provingKey,
+      final PrecomputedMSM<G1T> _deltaABCG1Table,
+      final PrecomputedMSM<G1T> _queryATable,
+      final PrecomputedMSM<G1T> _queryBG1Table,
+      final PrecomputedMSM<G1T> _queryHTable) {
+    super(
+        _provingKey.alphaG1(),
+        _provingKey.betaG1(),
+        _provingKey.betaG2(),
+        _provingKey.deltaG1(),
+        _provingKey.deltaG2(),
+        _provingKey.deltaABCG1(),
+        _provingKey.queryA(),
+        _provingKey.queryB(),
+        _provingKey.queryH(),
+        _provingKey.r1cs());
+    assert (_deltaABCG1Table.size() == _provingKey.deltaABCG1().size());
+    assert (_queryATable.size() == _provingKey.queryA().size());
+    assert (_queryBG1Table.size() == _provingKey.queryB().size());
+    assert (_queryHTable.size() == _provingKey.queryH().size());
+    deltaABCG1Table = _deltaABCG1Table;
+    queryATable = _queryATable;
+    queryBG1Table = _queryBG1Table;
+    queryHTable = _queryHTable;
+  }
+
+  /* Precomputes the tables of the proving key in direct memory */
+  public static <
+          FieldT extends AbstractFieldElementExpanded<FieldT>,
+          G1T extends AbstractG1<G1T>,
+          G2T extends AbstractG2<G2T>>
+      PrecomputedProvingKey<FieldT, G1T, G2T> allocateDirect(
+          final ProvingKey<FieldT, G1T, G2T> provingKey, final FieldT fieldFactory) {
+    final int numBits = numBits(fieldFactory);
+    return new PrecomputedProvingKey<>(
+        provingKey,
+        table(provingKey.deltaABCG1(), numBits),
+        table(provingKey.queryA(), numBits),
+        table(queryBG1(provingKey), numBits),
+        table(provingKey.queryH(), numBits));
+  }
+
+  /**
+   * Returns the proving key with the tables mapped to the files deltaABCG1.table, queryA.table,
+   * queryB.table and queryH.table of the given directory, which are only precomputed when they do
+   * not hold the tables of the proving key yet (see PrecomputedMSM.load()).
+   */
+  public static <
+          FieldT extends AbstractFieldElementExpanded<FieldT>,
+          G1T extends AbstractG1<G1T>,
+          G2T extends AbstractG2<G2T>>
+      PrecomputedProvingKey<FieldT, G1T, G2T> load(
+          final ProvingKey<FieldT, G1T, G2T> provingKey,
+          final FieldT fieldFactory,
+          final Path directory)
+          throws IOException {
+    final int numBits = numBits(fieldFactory);
+    return new PrecomputedProvingKey<>(
+        provingKey,
+        PrecomputedMSM.load(
+            directory.resolve("deltaABCG1.table"), provingKey.deltaABCG1(), numBits),
+        PrecomputedMSM.load(directory.resolve("queryA.table"), provingKey.queryA(), numBits),
+        PrecomputedMSM.load(directory.resolve("queryB.table"), queryBG1(provingKey), numBits),
+        PrecomputedMSM.load(directory.resolve("queryH.table"), provingKey.queryH(), numBits));
+  }
+
+  /* Returns the number of bits of the scalars, i.e. of the order of the field */
+  private static <FieldT extends AbstractFieldElementExpanded<FieldT>> int numBits(
+      final FieldT fieldFactory) {
+    return fieldFactory.one().negate().toBigInteger().bitLength();
+  }
+
+  private static <G1T extends AbstractG1<G1T>> PrecomputedMSM<G1T> table(
+      final List<G1T> bases, final int numBits) {
+    return PrecomputedMSM.allocateDirect(bases.size(), numBits, bases.get(0)).setAll(0, bases);
+  }
+
+  private static <G1T extends AbstractG1<G1T>, G2T extends AbstractG2<G2T>> List<G1T> queryBG1(
+      final ProvingKey<?, G1T, G2T> provingKey) {
+    final List<G1T> result = new ArrayList<>(provingKey.queryB().size());
+    for (Tuple2<G1T, G2T> element : provingKey.queryB()) {
+      result.add(element._1);
+    }
+    return result;
+  }
+
+  public PrecomputedMSM<G1T> deltaABCG1Table() {
+    return deltaABCG1Table;
+  }
+
+  public PrecomputedMSM<G1T> queryATable() {
+    return queryATable;
+  }
+
+  public PrecomputedMSM<G1T> queryBG1Table() {
+    return queryBG1Table;
+  }
+
+  public PrecomputedMSM<G1T> queryHTable() {
+    return queryHTable;
+  }
+}
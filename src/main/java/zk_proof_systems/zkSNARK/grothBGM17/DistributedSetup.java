@@ -112,8 +112,9 @@ public class DistributedSetup {
 
     config.beginLog("Computing query A");
     final JavaPairRDD<Long, G1T> queryA =
-        FixedBaseMSM.distributedBatchMSM(
-                scalarSizeG1, windowSizeG1, windowTableG1, qap.At(), config.sparkContext())
+        Utils.batchToAffineCoordinates(
+                FixedBaseMSM.distributedBatchMSM(
+                    scalarSizeG1, windowSizeG1, windowTableG1, qap.At(), config.sparkContext()))
             .persist(config.storageLevel());
     queryA.count();
     qap.At().unpersist();
@@ -121,15 +122,16 @@ public class DistributedSetup {
 
     config.beginLog("Computing query B");
     final JavaPairRDD<Long, Tuple2<G1T, G2T>> queryB =
-        FixedBaseMSM.distributedDoubleBatchMSM(
-                scalarSizeG1,
-                windowSizeG1,
-                windowTableG1,
-                scalarSizeG2,
-                windowSizeG2,
-                windowTableG2,
-                qap.Bt(),
-                config.sparkContext())
+        Utils.batchToAffineCoordinatesPairs(
+                FixedBaseMSM.distributedDoubleBatchMSM(
+                    scalarSizeG1,
+                    windowSizeG1,
+                    windowTableG1,
+                    scalarSizeG2,
+                    windowSizeG2,
+                    windowTableG2,
+                    qap.Bt(),
+                    config.sparkContext()))
             .persist(config.storageLevel());
     queryB.count();
     qap.Bt().unpersist();
@@ -140,8 +142,13 @@ public class DistributedSetup {
     final JavaPairRDD<Long, FieldT> inverseDeltaHtZt =
         qap.Ht().mapValues((e) -> e.mul(inverseDeltaZt));
     final JavaPairRDD<Long, G1T> queryH =
-        FixedBaseMSM.distributedBatchMSM(
-                scalarSizeG1, windowSizeG1, windowTableG1, inverseDeltaHtZt, config.sparkContext())
+        Utils.batchToAffineCoordinates(
+                FixedBaseMSM.distributedBatchMSM(
+                    scalarSizeG1,
+                    windowSizeG1,
+                    windowTableG1,
+                    inverseDeltaHtZt,
+                    config.sparkContext()))
             .persist(config.storageLevel());
     queryH.count();
     qap.Ht().unpersist();
@@ -149,8 +156,9 @@ public class DistributedSetup {
 
     config.beginLog("Encoding deltaABC for R1CS proving key");
     final JavaPairRDD<Long, G1T> deltaABCG1 =
-        FixedBaseMSM.distributedBatchMSM(
-                scalarSizeG1, windowSizeG1, windowTableG1, deltaABC, config.sparkContext())
+        Utils.batchToAffineCoordinates(
+                FixedBaseMSM.distributedBatchMSM(
+                    scalarSizeG1, windowSizeG1, windowTableG1, deltaABC, config.sparkContext()))
             .persist(config.storageLevel());
     deltaABCG1.count();
     qap.Ct().unpersist();
@@ -117,18 +117,22 @@ public class SerialSetup {
     final G1T deltaG1 = generatorG1.mul(delta);
     final G2T deltaG2 = generatorG2.mul(delta);
 
+    // The queries of the proving key are normalized to affine coordinates, with one batched
+    // inversion per query.
     config.beginLog("Encode deltaABC for R1CS proving key", false);
     final List<G1T> deltaABCG1 =
-        FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, deltaABC);
+        g1Factory.batchToAffineCoordinates(
+            FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, deltaABC));
     config.endLog("Encode deltaABC for R1CS proving key", false);
 
     config.beginLog("Computing query A", false);
     final List<G1T> queryA =
-        FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.At());
+        g1Factory.batchToAffineCoordinates(
+            FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.At()));
     config.endLog("Computing query A", false);
 
     config.beginLog("Computing query B", false);
-    final List<Tuple2<G1T, G2T>> queryB =
+    final List<Tuple2<G1T, G2T>> jacobianQueryB =
         FixedBaseMSM.doubleBatchMSM(
             scalarSizeG1,
             windowSizeG1,
@@ -137,6 +141,18 @@ public class SerialSetup {
             windowSizeG2,
             windowTableG2,
             qap.Bt());
+    final List<G1T> queryBG1 = new ArrayList<>(jacobianQueryB.size());
+    final List<G2T> queryBG2 = new ArrayList<>(jacobianQueryB.size());
+    for (Tuple2<G1T, G2T> element : jacobianQueryB) {
+      queryBG1.add(element._1);
+      queryBG2.add(element._2);
+    }
+    final List<G1T> affineQueryBG1 = g1Factory.batchToAffineCoordinates(queryBG1);
+    final List<G2T> affineQueryBG2 = g2Factory.batchToAffineCoordinates(queryBG2);
+    final List<Tuple2<G1T, G2T>> queryB = new ArrayList<>(jacobianQueryB.size());
+    for (int i = 0; i < jacobianQueryB.size(); i++) {
+      queryB.add(new Tuple2<>(affineQueryBG1.get(i), affineQueryBG2.get(i)));
+    }
     config.endLog("Computing query B", false);
 
     config.beginLog("Computing query H", false);
@@ -145,7 +161,8 @@ public class SerialSetup {
       qap.Ht().set(i, qap.Ht().get(i).mul(inverseDeltaZt));
     }
     final List<G1T> queryH =
-        FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.Ht());
+        g1Factory.batchToAffineCoordinates(
+            FixedBaseMSM.batchMSM(scalarSizeG1, windowSizeG1, windowTableG1, qap.Ht()));
     config.endLog("Computing query H", false);
 
     config.endLog("Generating R1CS proving key");
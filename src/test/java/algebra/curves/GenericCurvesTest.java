@@ -1,10 +1,20 @@
 package algebra.curves;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import algebra.groups.AbstractGroup;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.UnaryOperator;
 
 public class GenericCurvesTest {
   protected <GroupT extends AbstractGroup<GroupT>> void GroupTest(final GroupT groupFactory) {
@@ -71,5 +81,193 @@ public class GenericCurvesTest {
 
     // A*s + A*r = A*(r+s)
     assertTrue(A.mul(rand1).add(A.mul(rand2)).equals(A.mul(randsum)));
+
+    // In-place accumulation agrees with add() and dbl() and leaves its operands unchanged
+    GroupT acc = zero.mutableCopy();
+    acc = acc.addAssign(A);
+    assertTrue(acc.equals(A));
+    acc = acc.addAssign(B);
+    assertTrue(acc.equals(A.add(B)));
+    acc = acc.dblAssign();
+    assertTrue(acc.equals(A.add(B).dbl()));
+    acc = acc.addAssign(acc.mutableCopy());
+    assertTrue(acc.equals(A.add(B).dbl().dbl()));
+    acc = acc.addAssign(zero);
+    assertTrue(acc.equals(A.add(B).dbl().dbl()));
+    acc = acc.addAssign(A.add(B).dbl().dbl().negate());
+    assertTrue(acc.isZero());
+    acc = acc.set(B);
+    assertTrue(acc.equals(B));
+    acc = acc.subAssign(A);
+    assertTrue(acc.equals(B.sub(A)));
+    acc = acc.subAssign(B.sub(A));
+    assertTrue(acc.isZero());
+    acc = acc.subAssign(A);
+    assertTrue(acc.equals(A.negate()));
+    acc = acc.subAssign(A);
+    assertTrue(acc.equals(A.negate().dbl()));
+    assertTrue(zero.isZero());
+    assertTrue(A.equals(groupFactory.random(seed1, null)));
+  }
+
+  protected <G1T extends AbstractG1<G1T>> void G1AffineTest(final G1T groupFactory) {
+    AffineTest(groupFactory, G1T::toAffineCoordinates, groupFactory::batchToAffineCoordinates);
+  }
+
+  protected <G2T extends AbstractG2<G2T>> void G2AffineTest(final G2T groupFactory) {
+    AffineTest(groupFactory, G2T::toAffineCoordinates, groupFactory::batchToAffineCoordinates);
+  }
+
+  /**
+   * Tests the affine coordinates of a group of points, with toAffine and batchToAffine its
+   * toAffineCoordinates() and batchToAffineCoordinates() methods.
+   */
+  private <GroupT extends AbstractGroup<GroupT>> void AffineTest(
+      final GroupT groupFactory,
+      final UnaryOperator<GroupT> toAffine,
+      final UnaryOperator<List<GroupT>> batchToAffine) {
+    final GroupT A = groupFactory.random(4L, null);
+    final List<GroupT> points =
+        Arrays.asList(A, groupFactory.zero(), A.dbl(), groupFactory.one(), A.dbl().negate());
+    final List<GroupT> affinePoints = batchToAffine.apply(points);
+    assertEquals(points.size(), affinePoints.size());
+    for (int i = 0; i < points.size(); i++) {
+      assertTrue(affinePoints.get(i).equals(points.get(i)));
+      assertTrue(affinePoints.get(i).equals(toAffine.apply(points.get(i))));
+    }
+
+    // Additions with an affine operand use the mixed addition formulas, including the doubling
+    // and the cancelling cases
+    final GroupT B = A.dbl().add(A.dbl().dbl());
+    for (int i = 0; i < points.size(); i++) {
+      final GroupT affine = affinePoints.get(i);
+      assertTrue(B.add(affine).equals(B.add(points.get(i))));
+      assertTrue(affine.add(B).equals(B.add(points.get(i))));
+      assertTrue(A.add(affine).equals(A.add(points.get(i))));
+    }
+    final GroupT affineA = affinePoints.get(0);
+    assertTrue(A.add(affineA).equals(A.dbl()));
+    assertTrue(A.add(affineA.negate()).isZero());
+    assertTrue(affineA.add(affineA).equals(A.dbl()));
+
+    // The affine form of an affine accumulator is a copy, which its updates leave unchanged
+    GroupT affineAcc = affineA.mutableCopy();
+    final GroupT affineCopy = toAffine.apply(affineAcc);
+    affineAcc = affineAcc.addAssign(B);
+    assertTrue(affineCopy.equals(A));
+
+    GroupT acc = B.mutableCopy();
+    for (int i = 0; i < points.size(); i++) {
+      acc = acc.addAssign(affinePoints.get(i));
+      acc = acc.subAssign(affinePoints.get((i + 1) % points.size()));
+    }
+    assertTrue(acc.equals(B));
+    acc = acc.set(A);
+    acc = acc.addAssign(affineA);
+    assertTrue(acc.equals(A.dbl()));
+    acc = acc.subAssign(affineA).subAssign(affineA);
+    assertTrue(acc.isZero());
+  }
+
+  protected <G1T extends AbstractG1<G1T>> void G1GLVTest(final G1T groupFactory) {
+    GLVTest(groupFactory, G1T::toAffineCoordinates);
+  }
+
+  protected <G2T extends AbstractG2<G2T>> void G2GLVTest(final G2T groupFactory) {
+    GLVTest(groupFactory, G2T::toAffineCoordinates);
+  }
+
+  /**
+   * Tests the GLV endomorphism and scalar multiplication of a group of points, with toAffine its
+   * toAffineCoordinates() method.
+   */
+  private <GroupT extends AbstractGroup<GroupT>> void GLVTest(
+      final GroupT groupFactory, final UnaryOperator<GroupT> toAffine) {
+    final GLVParameters glv = groupFactory.glvParameters();
+    final GroupT A = groupFactory.random(5L, null);
+    final BigInteger r = glv.order;
+
+    // phi(A) = lambda * A, and phi is a homomorphism
+    assertTrue(A.endomorphism().equals(doubleAndAdd(A, glv.lambda)));
+    assertTrue(A.dbl().add(A).endomorphism().equals(A.endomorphism().dbl().add(A.endomorphism())));
+    assertTrue(A.negate().endomorphism().equals(A.endomorphism().negate()));
+    assertTrue(groupFactory.zero().endomorphism().isZero());
+
+    final Random random = new Random(5);
+    final BigInteger[] scalars = {
+      BigInteger.ONE.shiftLeft(glv.numBits),
+      r.subtract(BigInteger.ONE),
+      glv.lambda,
+      r,
+      r.add(BigInteger.TEN),
+      new BigInteger(r.bitLength() - 1, random),
+      new BigInteger(r.bitLength() - 1, random),
+      new BigInteger(r.bitLength() - 1, random)
+    };
+    for (BigInteger scalar : scalars) {
+      final BigInteger[] k = glv.decompose(scalar);
+      assertTrue(k[0].abs().bitLength() <= glv.numBits);
+      assertTrue(k[1].abs().bitLength() <= glv.numBits);
+      assertEquals(scalar.mod(r), k[0].add(k[1].multiply(glv.lambda)).mod(r));
+
+      assertTrue(A.mul(scalar).equals(doubleAndAdd(A, scalar.mod(r))));
+      assertTrue(A.mulNoEndomorphism(scalar).equals(doubleAndAdd(A, scalar)));
+      assertTrue(toAffine.apply(A).mul(scalar).equals(A.mul(scalar)));
+    }
+    assertTrue(A.mul(r).isZero());
+    assertTrue(groupFactory.zero().mul(r.subtract(BigInteger.ONE)).isZero());
+  }
+
+  /**
+   * Initializes the class of the points of groupFactory before the class of their parameters, in a
+   * new class loader, as an executor does when it deserializes a point, and checks that the
+   * constants of the parameters are bound to parameters, e.g. that one() does not throw.
+   */
+  protected void InitializationOrderTest(final Object groupFactory) throws Exception {
+    final ClassLoader parent = getClass().getClassLoader();
+    final ClassLoader loader =
+        new ClassLoader(parent) {
+          @Override
+          protected Class<?> loadClass(final String name, final boolean resolve)
+              throws ClassNotFoundException {
+            if (!name.startsWith("algebra.")) {
+              return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+              final Class<?> loaded = findLoadedClass(name);
+              if (loaded != null) {
+                return loaded;
+              }
+              try (final InputStream in =
+                  parent.getResourceAsStream(name.replace('.', '/') + ".class")) {
+                final byte[] bytes = in.readAllBytes();
+                return defineClass(name, bytes, 0, bytes.length);
+              } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+              }
+            }
+          }
+        };
+
+    final Class<?> point = Class.forName(groupFactory.getClass().getName(), true, loader);
+    // The parameters are the last type argument of the curve class of the points, e.g. BNG1
+    final Type[] types =
+        ((ParameterizedType) point.getGenericSuperclass()).getActualTypeArguments();
+    final Class<?> parameters = (Class<?>) types[types.length - 1];
+    final Object one = parameters.getField("ONE").get(null);
+    assertNotNull(point.getMethod("one").invoke(one));
+  }
+
+  /* Returns scalar * point, with the double-and-add method and without the GLV endomorphism */
+  private <GroupT extends AbstractGroup<GroupT>> GroupT doubleAndAdd(
+      final GroupT point, final BigInteger scalar) {
+    GroupT result = point.zero();
+    for (int i = scalar.bitLength() - 1; i >= 0; i--) {
+      result = result.dbl();
+      if (scalar.testBit(i)) {
+        result = result.add(point);
+      }
+    }
+    return result;
   }
 }
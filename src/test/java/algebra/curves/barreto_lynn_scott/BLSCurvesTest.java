@@ -0,0 +1,54 @@
+package algebra.curves.barreto_lynn_scott;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import algebra.curves.GenericCurvesTest;
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fq;
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377G1;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377G1Parameters;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377G2Parameters;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377GTParameters;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+
+public class BLSCurvesTest extends GenericCurvesTest {
+  @Test
+  public void BLS12_377Test() {
+    // Test G1 of BLS12_377
+    GroupTest(BLS12_377G1Parameters.ONE);
+    // Test G2 of BLS12_377
+    GroupTest(BLS12_377G2Parameters.ONE);
+    // Test the batched affine normalization and the mixed additions of BLS12_377
+    G1AffineTest(BLS12_377G1Parameters.ONE);
+    G2AffineTest(BLS12_377G2Parameters.ONE);
+    // Test the GLV endomorphisms of G1 and G2 of BLS12_377
+    G1GLVTest(BLS12_377G1Parameters.ONE);
+    G2GLVTest(BLS12_377G2Parameters.ONE);
+  }
+
+  @Test
+  public void BLS12_377InitializationOrderTest() throws Exception {
+    InitializationOrderTest(BLS12_377G1Parameters.ONE);
+    InitializationOrderTest(BLS12_377G2Parameters.ONE);
+    InitializationOrderTest(BLS12_377GTParameters.ONE);
+  }
+
+  @Test
+  public void BLS12_377NonSubgroupMulTest() {
+    // (-1, 0) is a point of order 2 of y^2 = x^3 + 1, so that G + T has order 2r and lies outside
+    // the subgroup of order r, on which alone the GLV endomorphism acts as lambda.
+    final BLS12_377G1 G = BLS12_377G1Parameters.ONE;
+    final BLS12_377G1 T =
+        new BLS12_377G1(
+            BLS12_377Fq.ONE.one().negate(), BLS12_377Fq.ONE.zero(), BLS12_377Fq.ONE.one());
+    final BLS12_377G1 P = G.add(T);
+    final BigInteger r = G.glvParameters().order;
+
+    assertTrue(T.dbl().isZero());
+    assertFalse(P.mul(r).isZero());
+    assertTrue(P.mul(r).equals(T));
+    assertTrue(P.mul(r.add(BigInteger.ONE)).equals(G));
+    assertTrue(P.mulNoEndomorphism(r.subtract(BigInteger.ONE)).equals(G.negate()));
+  }
+}
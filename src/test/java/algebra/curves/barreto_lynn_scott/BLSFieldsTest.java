@@ -89,5 +89,6 @@ public class BLSFieldsTest extends GenericCurveFieldsTest {
     testField(Fp12factory, a, b, c);
     testFrobeniusMap(Fp12factory, Fq12Parameters);
     testMulBy024(Fp12factory, Fq12Parameters);
+    testLazyReduction(Fq12Parameters);
   }
 }
@@ -3,8 +3,10 @@ package algebra.curves.barreto_naehrig;
 import algebra.curves.GenericCurvesTest;
 import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG1Parameters;
 import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG2Parameters;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aGTParameters;
 import algebra.curves.barreto_naehrig.bn254b.bn254b_parameters.BN254bG1Parameters;
 import algebra.curves.barreto_naehrig.bn254b.bn254b_parameters.BN254bG2Parameters;
+import algebra.curves.barreto_naehrig.bn254b.bn254b_parameters.BN254bGTParameters;
 import org.junit.jupiter.api.Test;
 
 public class BNCurvesTest extends GenericCurvesTest {
@@ -14,6 +16,19 @@ public class BNCurvesTest extends GenericCurvesTest {
     GroupTest(BN254aG1Parameters.ONE);
     // Test G2 of BN254a
     GroupTest(BN254aG2Parameters.ONE);
+    // Test the batched affine normalization and the mixed additions of BN254a
+    G1AffineTest(BN254aG1Parameters.ONE);
+    G2AffineTest(BN254aG2Parameters.ONE);
+    // Test the GLV endomorphisms of G1 and G2 of BN254a
+    G1GLVTest(BN254aG1Parameters.ONE);
+    G2GLVTest(BN254aG2Parameters.ONE);
+  }
+
+  @Test
+  public void BN254aInitializationOrderTest() throws Exception {
+    InitializationOrderTest(BN254aG1Parameters.ONE);
+    InitializationOrderTest(BN254aG2Parameters.ONE);
+    InitializationOrderTest(BN254aGTParameters.ONE);
   }
 
   @Test
@@ -22,5 +37,18 @@ public class BNCurvesTest extends GenericCurvesTest {
     GroupTest(BN254bG1Parameters.ONE);
     // Test G2 of BN254b
     GroupTest(BN254bG2Parameters.ONE);
+    // Test the batched affine normalization and the mixed additions of BN254b
+    G1AffineTest(BN254bG1Parameters.ONE);
+    G2AffineTest(BN254bG2Parameters.ONE);
+    // Test the GLV endomorphisms of G1 and G2 of BN254b
+    G1GLVTest(BN254bG1Parameters.ONE);
+    G2GLVTest(BN254bG2Parameters.ONE);
+  }
+
+  @Test
+  public void BN254bInitializationOrderTest() throws Exception {
+    InitializationOrderTest(BN254bG1Parameters.ONE);
+    InitializationOrderTest(BN254bG2Parameters.ONE);
+    InitializationOrderTest(BN254bGTParameters.ONE);
   }
 }
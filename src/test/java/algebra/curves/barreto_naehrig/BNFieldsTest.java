@@ -91,6 +91,7 @@ public class BNFieldsTest extends GenericCurveFieldsTest {
     testField(Fp12factory, a, b, c);
     testFrobeniusMap(Fp12factory, Fq12Parameters);
     testMulBy024(Fp12factory, Fq12Parameters);
+    testLazyReduction(Fq12Parameters);
   }
 
   // BN254b test cases
@@ -166,5 +167,6 @@ public class BNFieldsTest extends GenericCurveFieldsTest {
     testField(Fp12factory, a, b, c);
     testFrobeniusMap(Fp12factory, Fq12Parameters);
     testMulBy024(Fp12factory, Fq12Parameters);
+    testLazyReduction(Fq12Parameters);
   }
 }
@@ -7,14 +7,20 @@
 
 package algebra.fft;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
 import algebra.fields.ComplexField;
+import algebra.fields.Fp;
+import algebra.fields.mock.fieldparameters.LargeFpParameters;
 import common.Utils;
 import configuration.Configuration;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.storage.StorageLevel;
@@ -270,4 +276,200 @@ public class DistributedFFTTest implements Serializable {
           assertTrue(input.get(coeff._1.intValue()).equals(coeff._2));
         });
   }
+
+  @Test
+  public void VerifyBlockFFTTest() {
+    final Fp fieldFactory = new Fp(1, new LargeFpParameters());
+    // Square and rectangular matrices, split into several blocks, and sparse inputs.
+    for (int[] split : new int[][] {{8, 8, 4}, {4, 16, 8}, {16, 2, 3}}) {
+      final int rows = split[0];
+      final int columns = split[1];
+      final int m = rows * columns;
+      final SerialFFT<Fp> serialDomain = new SerialFFT<>(m, fieldFactory);
+
+      final ArrayList<Fp> input = new ArrayList<>(m);
+      final ArrayList<Tuple2<Long, Fp>> pairs = new ArrayList<>();
+      for (int i = 0; i < m; i++) {
+        input.add(i % 5 == 3 ? fieldFactory.zero() : fieldFactory.random((long) i, null));
+        if (i % 5 != 3) {
+          pairs.add(new Tuple2<>((long) i, input.get(i)));
+        }
+      }
+      final ArrayList<Fp> inverse = new ArrayList<>(input);
+      final JavaPairRDD<Long, Fp> inputRDD = sc.parallelizePairs(pairs, split[2]);
+
+      serialDomain.radix2FFT(input);
+      serialDomain.radix2InverseFFT(inverse);
+      final Map<Long, Fp> fft =
+          DistributedFFT.radix2FFT(inputRDD, rows, columns, fieldFactory).collectAsMap();
+      final Map<Long, Fp> inverseFFT =
+          DistributedFFT.radix2InverseFFT(inputRDD, rows, columns, fieldFactory).collectAsMap();
+      assertEquals(m, fft.size());
+      for (int i = 0; i < m; i++) {
+        assertEquals(input.get(i), fft.get((long) i));
+        assertEquals(inverse.get(i), inverseFFT.get((long) i));
+      }
+    }
+  }
+
+  @Test
+  public void VerifyBatchFFTTest() {
+    final Fp fieldFactory = new Fp(1, new LargeFpParameters());
+    final Fp g = fieldFactory.multiplicativeGenerator();
+    final int rows = 4;
+    final int columns = 8;
+    final int m = rows * columns;
+    final long[] dimensions = {rows, columns};
+    final SerialFFT<Fp> serialDomain = new SerialFFT<>(m, fieldFactory);
+
+    final List<ArrayList<Fp>> serial = new ArrayList<>();
+    final List<JavaPairRDD<Long, Fp>> inputs = new ArrayList<>();
+    for (int p = 0; p < 3; p++) {
+      final ArrayList<Fp> input = new ArrayList<>(m);
+      final ArrayList<Tuple2<Long, Fp>> pairs = new ArrayList<>();
+      for (int i = 0; i < m; i++) {
+        input.add(i % 3 == p ? fieldFactory.zero() : fieldFactory.random((long) (p * m + i), null));
+        if (i % 3 != p) {
+          pairs.add(new Tuple2<>((long) i, input.get(i)));
+        }
+      }
+      serial.add(input);
+      inputs.add(sc.parallelizePairs(pairs, 4));
+    }
+
+    // Inverse FFT followed by the coset FFT, as in the QAP witness map, and the coset inverse FFT
+    // of the FFT, which leaves the inputs shifted by g^{-i}.
+    final JavaPairRDD<Long, ArrayList<Fp>> coefficients =
+        DistributedFFT.batchRadix2InverseFFT(inputs, dimensions, fieldFactory);
+    final Map<Long, ArrayList<Fp>> evaluations =
+        DistributedFFT.batchRadix2CosetFFT(coefficients, 3, g, dimensions, fieldFactory)
+            .collectAsMap();
+    final Map<Long, ArrayList<Fp>> cosetInverse =
+        DistributedFFT.batchRadix2CosetInverseFFT(
+                DistributedFFT.batchRadix2FFT(inputs, dimensions, fieldFactory),
+                3,
+                g,
+                dimensions,
+                fieldFactory)
+            .collectAsMap();
+    final Map<Long, Fp> singleCoset =
+        DistributedFFT.radix2CosetFFT(inputs.get(1), g, rows, columns, fieldFactory).collectAsMap();
+    assertEquals(m, evaluations.size());
+    for (int p = 0; p < 3; p++) {
+      final ArrayList<Fp> expected = new ArrayList<>(serial.get(p));
+      serialDomain.radix2InverseFFT(expected);
+      serialDomain.radix2CosetFFT(expected, g);
+      final ArrayList<Fp> expectedCoset = new ArrayList<>(serial.get(p));
+      serialDomain.radix2CosetFFT(expectedCoset, g);
+      for (int i = 0; i < m; i++) {
+        assertEquals(expected.get(i), evaluations.get((long) i).get(p));
+        assertEquals(
+            serial.get(p).get(i).mul(g.inverse().pow(i)), cosetInverse.get((long) i).get(p));
+        if (p == 1) {
+          assertEquals(expectedCoset.get(i), singleCoset.get((long) i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void VerifyMultiDimensionalFFTTest() {
+    final Configuration config = new Configuration();
+    assertArrayEquals(new long[] {4, 8}, DistributedFFT.dimensions(32, config));
+    assertArrayEquals(new long[] {1 << 15, 1 << 15}, DistributedFFT.dimensions(1L << 30, config));
+    assertArrayEquals(
+        new long[] {1 << 10, 1 << 10, 1 << 11}, DistributedFFT.dimensions(1L << 31, config));
+
+    final Fp fieldFactory = new Fp(1, new LargeFpParameters());
+    final Fp g = fieldFactory.multiplicativeGenerator();
+    // Three and four dimensions, including lines of a single element.
+    for (long[] dimensions : new long[][] {{4, 2, 8}, {2, 4, 2, 2}, {1, 8, 4}}) {
+      int m = 1;
+      for (long n : dimensions) {
+        m *= n;
+      }
+      final SerialFFT<Fp> serialDomain = new SerialFFT<>(m, fieldFactory);
+
+      final ArrayList<Fp> input = new ArrayList<>(m);
+      for (int i = 0; i < m; i++) {
+        input.add(fieldFactory.random((long) i, null));
+      }
+      final ArrayList<Fp> coset = new ArrayList<>(input);
+      final ArrayList<Fp> cosetInverse = new ArrayList<>(input);
+      final JavaPairRDD<Long, Fp> inputRDD = sc.parallelizePairs(Utils.convertToPairs(input), 4);
+
+      serialDomain.radix2FFT(input);
+      serialDomain.radix2CosetFFT(coset, g);
+      serialDomain.radix2CosetInverseFFT(cosetInverse, g);
+      final Map<Long, Fp> fft =
+          DistributedFFT.radix2FFT(inputRDD, dimensions, fieldFactory).collectAsMap();
+      final Map<Long, Fp> cosetFFT =
+          DistributedFFT.radix2CosetFFT(inputRDD, g, dimensions, fieldFactory).collectAsMap();
+      final Map<Long, Fp> cosetInverseFFT =
+          DistributedFFT.radix2CosetInverseFFT(inputRDD, g, dimensions, fieldFactory)
+              .collectAsMap();
+      for (int i = 0; i < m; i++) {
+        assertEquals(input.get(i), fft.get((long) i));
+        assertEquals(coset.get(i), cosetFFT.get((long) i));
+        assertEquals(cosetInverse.get(i), cosetInverseFFT.get((long) i));
+      }
+    }
+  }
+
+  @Test
+  public void VerifyMixedRadixFFTTest() {
+    final Configuration config = new Configuration();
+    assertArrayEquals(new long[] {4, 12}, DistributedFFT.dimensions(48, config));
+    assertArrayEquals(new long[] {1, 6}, DistributedFFT.dimensions(6, config));
+
+    final BN254aFr fieldFactory = BN254aFr.ONE;
+    final BN254aFr g = fieldFactory.multiplicativeGenerator();
+    // The factor 3 in the last, the first and a middle dimension.
+    for (long[] dimensions : new long[][] {{4, 12}, {6, 4}, {2, 6, 2}}) {
+      int m = 1;
+      for (long n : dimensions) {
+        m *= n;
+      }
+      final SerialFFT<BN254aFr> serialDomain = new SerialFFT<>(m, fieldFactory);
+      assertEquals(m, serialDomain.domainSize);
+
+      final ArrayList<BN254aFr> input = new ArrayList<>(m);
+      for (int i = 0; i < m; i++) {
+        input.add(fieldFactory.random((long) i, null));
+      }
+      final ArrayList<BN254aFr> coset = new ArrayList<>(input);
+      final ArrayList<BN254aFr> cosetInverse = new ArrayList<>(input);
+      final JavaPairRDD<Long, BN254aFr> inputRDD =
+          sc.parallelizePairs(Utils.convertToPairs(input), 4);
+
+      serialDomain.radix2FFT(input);
+      serialDomain.radix2CosetFFT(coset, g);
+      serialDomain.radix2CosetInverseFFT(cosetInverse, g);
+      final Map<Long, BN254aFr> fft =
+          DistributedFFT.radix2FFT(inputRDD, dimensions, fieldFactory).collectAsMap();
+      final Map<Long, BN254aFr> cosetFFT =
+          DistributedFFT.radix2CosetFFT(inputRDD, g, dimensions, fieldFactory).collectAsMap();
+      final Map<Long, BN254aFr> cosetInverseFFT =
+          DistributedFFT.radix2CosetInverseFFT(inputRDD, g, dimensions, fieldFactory)
+              .collectAsMap();
+      for (int i = 0; i < m; i++) {
+        assertEquals(input.get(i), fft.get((long) i));
+        assertEquals(coset.get(i), cosetFFT.get((long) i));
+        assertEquals(cosetInverse.get(i), cosetInverseFFT.get((long) i));
+      }
+    }
+
+    final int m = 48;
+    final BN254aFr t = fieldFactory.random(7L, null);
+    final List<BN254aFr> serialLagrange = new SerialFFT<>(m, fieldFactory).lagrangeCoefficients(t);
+    final Map<Long, BN254aFr> lagrange =
+        DistributedFFT.lagrangeCoeffs(
+                t, 40, new Configuration(1, 1, 1, 1, sc, StorageLevel.MEMORY_ONLY()))
+            .collectAsMap();
+    assertEquals(m, lagrange.size());
+    for (int i = 0; i < m; i++) {
+      assertEquals(serialLagrange.get(i), lagrange.get((long) i));
+    }
+    assertEquals(t.pow(m).sub(t.one()), DistributedFFT.computeZ(t, 40));
+  }
 }
@@ -7,10 +7,15 @@
 
 package algebra.fft;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
 import algebra.fields.ComplexField;
+import algebra.fields.FieldVector;
 import algebra.fields.Fp;
+import algebra.fields.OffHeapFieldVector;
 import algebra.fields.mock.fieldparameters.LargeFpParameters;
 import common.NaiveEvaluation;
 import java.io.Serializable;
@@ -261,4 +266,314 @@ public class SerialFFTTest implements Serializable {
       assertTrue(original.get(i).equals(serial.get(i)));
     }
   }
+
+  @Test
+  public void PrimeFieldVectorFFTTest() {
+    final int m = 16;
+    final Fp FieldFactory = new Fp(1, FpParameters);
+    final SerialFFT<Fp> domain = new SerialFFT<>(m, FieldFactory);
+
+    ArrayList<Fp> serial = new ArrayList<>(m);
+    for (int i = 0; i < m; i++) {
+      serial.add(FieldFactory.random((long) i, null));
+    }
+    final FieldVector<Fp> vector = new FieldVector<>(serial, FieldFactory);
+    final Fp shift = new Fp(3, FpParameters);
+
+    domain.radix2FFT(serial);
+    domain.radix2FFT(vector);
+    assertEquals(serial, vector.toList());
+
+    domain.radix2CosetInverseFFT(serial, shift);
+    domain.radix2CosetInverseFFT(vector, shift);
+    assertEquals(serial, vector.toList());
+
+    domain.radix2CosetFFT(serial, shift);
+    domain.radix2CosetFFT(vector, shift);
+    domain.divideByZOnCoset(shift, serial);
+    domain.divideByZOnCoset(shift, vector);
+    assertEquals(serial, vector.toList());
+
+    domain.radix2InverseFFT(serial);
+    domain.radix2InverseFFT(vector);
+    assertEquals(serial, vector.toList());
+  }
+
+  @Test
+  public void PrimeFieldOffHeapFFTTest() {
+    final int m = 64;
+    final Fp FieldFactory = new Fp(1, FpParameters);
+    final SerialFFT<Fp> domain = new SerialFFT<>(m, FieldFactory);
+
+    ArrayList<Fp> serial = new ArrayList<>(m);
+    for (int i = 0; i < m; i++) {
+      serial.add(FieldFactory.random((long) i, null));
+    }
+    final OffHeapFieldVector<Fp> vector = OffHeapFieldVector.allocateDirect(m, FieldFactory);
+    vector.setAll(new FieldVector<>(serial, FieldFactory));
+    final Fp shift = new Fp(3, FpParameters);
+
+    // Small blocks, so that the FFT also runs the stages spanning several blocks.
+    final Fp omega = FieldFactory.rootOfUnity(m);
+    domain.radix2FFT(serial);
+    FFTAuxiliary.serialRadix2FFT(vector, omega, 8);
+    assertEquals(serial, vector.toFieldVector().toList());
+
+    FFTAuxiliary.serialRadix2FFT(vector, omega, 2);
+    FFTAuxiliary.multiplyByCoset(vector, shift, 5);
+    domain.radix2FFT(serial);
+    FFTAuxiliary.multiplyByCoset(serial, shift);
+    assertEquals(serial, vector.toFieldVector().toList());
+
+    domain.radix2CosetInverseFFT(serial, shift);
+    domain.radix2CosetInverseFFT(vector, shift);
+    assertEquals(serial, vector.toFieldVector().toList());
+
+    domain.radix2CosetFFT(serial, shift);
+    domain.radix2CosetFFT(vector, shift);
+    domain.divideByZOnCoset(shift, serial);
+    domain.divideByZOnCoset(shift, vector);
+    assertEquals(serial, vector.toFieldVector().toList());
+  }
+
+  @Test
+  public void EvaluationDomainTest() {
+    final int m = 32;
+    final Fp FieldFactory = new Fp(1, FpParameters);
+    final Fp g = FieldFactory.multiplicativeGenerator();
+    final EvaluationDomain<Fp> evaluationDomain = EvaluationDomain.get(m, FieldFactory);
+    assertTrue(evaluationDomain == EvaluationDomain.get(m - 3, FieldFactory));
+    assertTrue(evaluationDomain != EvaluationDomain.get(2 * m, FieldFactory));
+    assertEquals(g, evaluationDomain.coset());
+    assertEquals(
+        FieldFactory.rootOfUnity(m).pow(5), evaluationDomain.twiddleVector().toList().get(5));
+    assertEquals(
+        g.pow(m).sub(FieldFactory.one()).mul(evaluationDomain.inverseZCoset()), FieldFactory.one());
+
+    // The tables of a domain are counted by the byte bound of the cache.
+    final EvaluationDomain<Fp> shifted =
+        EvaluationDomain.get(m, FieldFactory, new Fp(5, FpParameters));
+    assertTrue(shifted != evaluationDomain);
+    assertEquals(0, shifted.tableBytes());
+    final long twiddleBytes = (long) Long.BYTES * shifted.twiddleVector().limbs().length;
+    shifted.twiddleVector();
+    assertEquals(twiddleBytes, shifted.tableBytes());
+    shifted.cosetPowerVector();
+    assertEquals(3 * twiddleBytes, shifted.tableBytes());
+
+    ArrayList<Fp> serial = new ArrayList<>(m);
+    for (int i = 0; i < m; i++) {
+      serial.add(FieldFactory.random((long) i, null));
+    }
+    final ArrayList<Fp> naive = new ArrayList<>(serial);
+    final FieldVector<Fp> vector = new FieldVector<>(serial, FieldFactory);
+
+    // The coset FFTs over the coset of the domain use its tables of powers of g.
+    final SerialFFT<Fp> domain = new SerialFFT<>(m, FieldFactory);
+    domain.radix2CosetFFT(serial, g);
+    domain.radix2CosetFFT(vector, g);
+    FFTAuxiliary.multiplyByCoset(naive, g);
+    FFTAuxiliary.serialRadix2FFT(naive, FFTAuxiliary.powers(FieldFactory.rootOfUnity(m), m / 2));
+    assertEquals(naive, serial);
+    assertEquals(naive, vector.toList());
+
+    domain.divideByZOnCoset(g, serial);
+    domain.divideByZOnCoset(g, vector);
+    assertEquals(serial, vector.toList());
+
+    domain.radix2CosetInverseFFT(serial, g);
+    domain.radix2CosetInverseFFT(vector, g);
+    assertEquals(serial, vector.toList());
+    for (int i = 0; i < m; i++) {
+      assertEquals(
+          FieldFactory.random((long) i, null).mul(evaluationDomain.inverseZCoset()), serial.get(i));
+    }
+  }
+
+  @Test
+  public void ParallelFFTTest() {
+    final int m = 64;
+    final Fp FieldFactory = new Fp(1, FpParameters);
+    final EvaluationDomain<Fp> evaluationDomain = EvaluationDomain.get(m, FieldFactory);
+
+    ArrayList<Fp> serial = new ArrayList<>(m);
+    for (int i = 0; i < m; i++) {
+      serial.add(FieldFactory.random((long) i, null));
+    }
+    final ArrayList<Fp> parallel = new ArrayList<>(serial);
+    final FieldVector<Fp> vector = new FieldVector<>(serial, FieldFactory);
+
+    // A small threshold, so that the recursive halves and the chunks of the last stages run on
+    // the ForkJoinPool.
+    FFTAuxiliary.serialRadix2FFT(
+        serial, evaluationDomain.twiddleVector().toList(), Integer.MAX_VALUE);
+    FFTAuxiliary.serialRadix2FFT(parallel, evaluationDomain.twiddleVector().toList(), 4);
+    FFTAuxiliary.serialRadix2FFT(vector, evaluationDomain.twiddleVector(), 4);
+    assertEquals(serial, parallel);
+    assertEquals(serial, vector.toList());
+
+    final Fp shift = new Fp(3, FpParameters);
+    FFTAuxiliary.mulAssign(vector, vector.limbs(shift), 0, 5);
+    FFTAuxiliary.mulAssign(vector, evaluationDomain.cosetPowerVector().limbs(), 1, 5);
+    for (int i = 0; i < m; i++) {
+      assertEquals(
+          serial.get(i).mul(shift).mul(evaluationDomain.cosetPowerVector().get(i)), vector.get(i));
+    }
+  }
+
+  @Test
+  public void SixStepFFTTest() {
+    final Fp FieldFactory = new Fp(1, FpParameters);
+    // Square and rectangular splits of the domain.
+    for (int m : new int[] {4, 64, 128}) {
+      final EvaluationDomain<Fp> evaluationDomain = EvaluationDomain.get(m, FieldFactory);
+
+      ArrayList<Fp> serial = new ArrayList<>(m);
+      for (int i = 0; i < m; i++) {
+        serial.add(FieldFactory.random((long) i, null));
+      }
+      final FieldVector<Fp> vector = new FieldVector<>(serial, FieldFactory);
+      final FieldVector<Fp> parallel = new FieldVector<>(serial, FieldFactory);
+
+      FFTAuxiliary.serialRadix2FFT(serial, evaluationDomain.twiddleVector().toList());
+      FFTAuxiliary.sixStepRadix2FFT(vector, evaluationDomain.twiddleVector(), Integer.MAX_VALUE);
+      FFTAuxiliary.sixStepRadix2FFT(parallel, evaluationDomain.twiddleVector(), 8);
+      assertEquals(serial, vector.toList());
+      assertEquals(serial, parallel.toList());
+
+      FFTAuxiliary.sixStepRadix2FFT(vector, evaluationDomain.inverseTwiddleVector(), 8);
+      vector.scaleAssign(evaluationDomain.sizeInverse());
+      for (int i = 0; i < m; i++) {
+        assertEquals(FieldFactory.random((long) i, null), vector.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void BitReversedFFTTest() {
+    final Fp FieldFactory = new Fp(1, FpParameters);
+    final Fp g = FieldFactory.multiplicativeGenerator();
+    // Odd and even numbers of stages, for the radix-4 pairs of stages.
+    for (int m : new int[] {2, 8, 32, 64}) {
+      final SerialFFT<Fp> domain = new SerialFFT<>(m, FieldFactory);
+      final EvaluationDomain<Fp> evaluationDomain = EvaluationDomain.get(m, FieldFactory);
+
+      ArrayList<Fp> serial = new ArrayList<>(m);
+      for (int i = 0; i < m; i++) {
+        serial.add(FieldFactory.random((long) i, null));
+      }
+      final FieldVector<Fp> input = new FieldVector<>(serial, FieldFactory);
+      final FieldVector<Fp> vector = input.copy();
+      final FieldVector<Fp> parallel = input.copy();
+      final FieldVector<Fp> coset = input.copy();
+
+      domain.radix2FFT(serial);
+      final FieldVector<Fp> bitReversed =
+          FFTAuxiliary.bitReversed(new FieldVector<>(serial, FieldFactory), m);
+      domain.radix2FFTToBitReversed(vector);
+      FFTAuxiliary.radix2DIF(parallel, evaluationDomain.twiddleVector(), 4);
+      assertEquals(bitReversed.toList(), vector.toList());
+      assertEquals(bitReversed.toList(), parallel.toList());
+
+      final FieldVector<Fp> bitReversedInput = FFTAuxiliary.bitReversed(input, m);
+      domain.radix2FFTFromBitReversed(bitReversedInput);
+      assertEquals(serial, bitReversedInput.toList());
+      domain.radix2InverseFFTFromBitReversed(vector);
+      assertEquals(input.toList(), vector.toList());
+      final FieldVector<Fp> roundTrip = input.copy();
+      domain.radix2InverseFFTToBitReversed(roundTrip);
+      FFTAuxiliary.radix2DIT(roundTrip, evaluationDomain.twiddleVector(), 4);
+      assertEquals(input.toList(), roundTrip.toList());
+
+      // The inverse FFT and coset FFT chained without permutation.
+      final FieldVector<Fp> expected = input.copy();
+      domain.radix2InverseFFT(expected);
+      domain.radix2CosetFFT(expected, g);
+      domain.evaluationsOnCoset(coset, g);
+      assertEquals(expected.toList(), coset.toList());
+    }
+  }
+
+  @Test
+  public void MixedRadixFFTTest() {
+    final BN254aFr FieldFactory = BN254aFr.ONE;
+    final BN254aFr g = FieldFactory.multiplicativeGenerator();
+    assertEquals(48, EvaluationDomain.lowestDomainSize(33, FieldFactory));
+    assertEquals(64, EvaluationDomain.lowestDomainSize(49, FieldFactory));
+    assertEquals(6, EvaluationDomain.lowestDomainSize(5, FieldFactory));
+    assertEquals(4, EvaluationDomain.lowestDomainSize(3, FieldFactory));
+    // The mock field has no cube roots of unity.
+    assertEquals(64, EvaluationDomain.lowestDomainSize(33, new Fp(1, FpParameters)));
+
+    // The roots of unity of the orders dividing 48 are powers of each other.
+    final BN254aFr omega48 = FieldFactory.rootOfUnity(48);
+    assertTrue(omega48.pow(48).isOne());
+    assertFalse(omega48.pow(16).isOne());
+    assertFalse(omega48.pow(24).isOne());
+    assertEquals(FieldFactory.rootOfUnity(16), omega48.pow(3));
+    assertEquals(FieldFactory.rootOfUnity(6), omega48.pow(8));
+
+    // Odd and even numbers of radix-2 stages.
+    for (int m : new int[] {6, 12, 48, 96}) {
+      final SerialFFT<BN254aFr> domain = new SerialFFT<>(m - 1, FieldFactory);
+      final EvaluationDomain<BN254aFr> evaluationDomain = EvaluationDomain.get(m, FieldFactory);
+      assertEquals(m, domain.domainSize);
+
+      final ArrayList<BN254aFr> serial = new ArrayList<>(m);
+      for (int i = 0; i < m; i++) {
+        serial.add(FieldFactory.random((long) i, null));
+      }
+      final ArrayList<BN254aFr> parallel = new ArrayList<>(serial);
+      final FieldVector<BN254aFr> input = new FieldVector<>(serial, FieldFactory);
+      final FieldVector<BN254aFr> vector = input.copy();
+      final FieldVector<BN254aFr> dif = input.copy();
+      final FieldVector<BN254aFr> coset = input.copy();
+      final OffHeapFieldVector<BN254aFr> offHeap =
+          OffHeapFieldVector.allocateDirect(m, FieldFactory).setAll(input);
+
+      domain.radix2FFT(serial);
+      final BN254aFr omega = domain.getDomainElement(1);
+      for (int i = 0; i < m; i++) {
+        assertEquals(
+            NaiveEvaluation.evaluatePolynomial(input.toList(), omega.pow(i)), serial.get(i));
+      }
+      FFTAuxiliary.serialRadix2FFT(parallel, evaluationDomain.twiddleVector().toList(), 4);
+      FFTAuxiliary.serialRadix2FFT(vector, evaluationDomain.twiddleVector(), 4);
+      FFTAuxiliary.serialRadix2FFT(offHeap, omega, 4);
+      assertEquals(serial, parallel);
+      assertEquals(serial, vector.toList());
+      assertEquals(serial, offHeap.toFieldVector().toList());
+
+      domain.radix2InverseFFT(vector);
+      assertEquals(input.toList(), vector.toList());
+      domain.radix2InverseFFT(offHeap);
+      assertEquals(input.toList(), offHeap.toFieldVector().toList());
+
+      // Without permutation, in the order of bitReversed().
+      final FieldVector<BN254aFr> bitReversed =
+          FFTAuxiliary.bitReversed(new FieldVector<>(serial, FieldFactory), m);
+      FFTAuxiliary.radix2DIF(dif, evaluationDomain.twiddleVector(), 4);
+      assertEquals(bitReversed.toList(), dif.toList());
+      final FieldVector<BN254aFr> bitReversedInput = FFTAuxiliary.bitReversed(input, m);
+      domain.radix2FFTFromBitReversed(bitReversedInput);
+      assertEquals(serial, bitReversedInput.toList());
+      domain.radix2InverseFFTFromBitReversed(dif);
+      assertEquals(input.toList(), dif.toList());
+
+      final FieldVector<BN254aFr> expected = input.copy();
+      domain.radix2InverseFFT(expected);
+      domain.radix2CosetFFT(expected, g);
+      domain.evaluationsOnCoset(coset, g);
+      assertEquals(expected.toList(), coset.toList());
+
+      // The Lagrange coefficients at t interpolate the evaluations on the domain.
+      final BN254aFr t = FieldFactory.random(5L, null);
+      final List<BN254aFr> lagrange = domain.lagrangeCoefficients(t);
+      BN254aFr interpolation = FieldFactory.zero();
+      for (int i = 0; i < m; i++) {
+        interpolation = interpolation.add(lagrange.get(i).mul(serial.get(i)));
+      }
+      assertEquals(NaiveEvaluation.evaluatePolynomial(input.toList(), t), interpolation);
+    }
+  }
 }
@@ -0,0 +1,145 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fq;
+import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
+import algebra.fields.mock.fieldparameters.LargeFpParameters;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class FieldVectorTest {
+  private static final int SIZE = 37;
+
+  private <FieldT extends AbstractFieldElementExpanded<FieldT>> List<FieldT> randomElements(
+      final FieldT fieldFactory, final long seed) {
+    final List<FieldT> elements = new ArrayList<>(SIZE);
+    elements.add(fieldFactory.zero());
+    elements.add(fieldFactory.one());
+    for (int i = 2; i < SIZE; i++) {
+      elements.add(fieldFactory.random(seed + i, null).mul(fieldFactory.random(seed - i, null)));
+    }
+    return elements;
+  }
+
+  private <FieldT extends AbstractFieldElementExpanded<FieldT>> void testFieldVector(
+      final FieldT fieldFactory) throws Exception {
+    assertSame(
+        fieldFactory.montgomeryElement().FpParameters.montgomeryParameters(),
+        fieldFactory.montgomeryParameters());
+
+    final List<FieldT> a = randomElements(fieldFactory, 1);
+    final List<FieldT> b = randomElements(fieldFactory, 1000);
+    final FieldT scalar = fieldFactory.random(7L, null);
+
+    final FieldVector<FieldT> aVector = new FieldVector<>(a, fieldFactory);
+    final FieldVector<FieldT> bVector = new FieldVector<>(b, fieldFactory);
+    assertEquals(SIZE, aVector.size());
+    assertEquals(a, aVector.toList());
+    assertTrue(new FieldVector<>(SIZE, fieldFactory).get(SIZE - 1).isZero());
+
+    final List<FieldT> sum = aVector.copy().addAssign(bVector).toList();
+    final List<FieldT> difference = aVector.copy().subAssign(bVector).toList();
+    final List<FieldT> product = aVector.copy().mulAssign(bVector).toList();
+    final List<FieldT> scaled = aVector.copy().scaleAssign(scalar).toList();
+    for (int i = 0; i < SIZE; i++) {
+      assertEquals(a.get(i).add(b.get(i)), sum.get(i));
+      assertEquals(a.get(i).sub(b.get(i)), difference.get(i));
+      assertEquals(a.get(i).mul(b.get(i)), product.get(i));
+      assertEquals(a.get(i).mul(scalar), scaled.get(i));
+    }
+    // The operations above are applied to copies.
+    assertEquals(a, aVector.toList());
+
+    final FieldVector<FieldT> slice = aVector.slice(3, 11);
+    assertEquals(a.subList(3, 11), slice.toList());
+    slice.set(0, bVector, 0);
+    assertEquals(b.get(0), slice.get(0));
+    assertEquals(a.get(3), aVector.get(3));
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(aVector);
+    }
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      @SuppressWarnings("unchecked")
+      final FieldVector<FieldT> copy = (FieldVector<FieldT>) in.readObject();
+      assertTrue(copy.equals(aVector));
+      assertEquals(aVector, copy);
+      assertEquals(aVector.hashCode(), copy.hashCode());
+      assertNotEquals(aVector, bVector);
+      assertNotEquals(aVector, a);
+      assertEquals(product, copy.mulAssign(bVector).toList());
+    }
+  }
+
+  private <FieldT extends AbstractFieldElementExpanded<FieldT>> void testOffHeapFieldVector(
+      final FieldT fieldFactory) throws Exception {
+    final List<FieldT> a = randomElements(fieldFactory, 1);
+    final FieldT scalar = fieldFactory.random(7L, null);
+    final FieldVector<FieldT> aVector = new FieldVector<>(a, fieldFactory);
+
+    final OffHeapFieldVector<FieldT> direct = OffHeapFieldVector.allocateDirect(SIZE, fieldFactory);
+    assertTrue(direct.get(SIZE - 1).isZero());
+    direct.setAll(aVector);
+    assertTrue(direct.toFieldVector().equals(aVector));
+    direct.set(1, scalar);
+    assertEquals(scalar, direct.get(1));
+    direct.set(1, a.get(1));
+
+    final Path file = Files.createTempFile("field-vector", ".bin");
+    try {
+      final OffHeapFieldVector<FieldT> mapped = OffHeapFieldVector.map(file, SIZE, fieldFactory);
+      mapped.setAll(aVector).scaleAssign(scalar, 5);
+      final List<FieldT> scaled = aVector.copy().scaleAssign(scalar).toList();
+      assertEquals(scaled, mapped.toFieldVector().toList());
+      // A new mapping of the file holds the same elements.
+      assertEquals(
+          scaled, OffHeapFieldVector.map(file, SIZE, fieldFactory).toFieldVector().toList());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void FpVectorTest() throws Exception {
+    testFieldVector(new Fp(1, new LargeFpParameters()));
+    testOffHeapFieldVector(new Fp(1, new LargeFpParameters()));
+  }
+
+  @Test
+  public void BN254aFrVectorTest() throws Exception {
+    testFieldVector(BN254aFr.ONE);
+    testOffHeapFieldVector(BN254aFr.ONE);
+  }
+
+  @Test
+  public void BLS12_377FqVectorTest() throws Exception {
+    testFieldVector(BLS12_377Fq.ONE);
+    testOffHeapFieldVector(BLS12_377Fq.ONE);
+  }
+
+  @Test
+  public void UnpackedFieldTest() {
+    assertNull(new ComplexField().montgomeryParameters());
+  }
+}
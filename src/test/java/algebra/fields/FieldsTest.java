@@ -107,5 +107,6 @@ public class FieldsTest extends GenericFieldsTest {
 
     testField(ffactory, a, b, c);
     testMulBy024(Fp12Parameters.ONE(), Fp12Parameters);
+    testLazyReduction(Fp12Parameters);
   }
 }
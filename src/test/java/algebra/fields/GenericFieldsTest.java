@@ -6,6 +6,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import algebra.fields.abstractfieldparameters.AbstractFp12_2Over3Over2_Parameters;
 import algebra.fields.abstractfieldparameters.AbstractFp2Parameters;
 import algebra.fields.abstractfieldparameters.AbstractFp6_3Over2_Parameters;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class GenericFieldsTest {
   protected <FieldT extends AbstractFieldElement<FieldT>> void testField(
@@ -68,6 +72,45 @@ public class GenericFieldsTest {
     assertTrue((a.add(b)).mul(c).equals(a.mul(c).add(b.mul(c))));
     // (a+b)^2 = a^2 + 2ab + b^2
     assertTrue((a.add(b)).square().equals(a.square().add(a.mul(b).add(a.mul(b))).add(b.square())));
+
+    // In-place operations agree with the immutable ones and leave their operands unchanged
+    final FieldT aCopy = a.mutableCopy();
+    FieldT acc = a.mutableCopy();
+    acc = acc.addAssign(b);
+    assertTrue(acc.equals(a.add(b)));
+    acc = acc.mulAssign(c);
+    assertTrue(acc.equals(a.add(b).mul(c)));
+    acc = acc.subAssign(a);
+    assertTrue(acc.equals(a.add(b).mul(c).sub(a)));
+    acc = acc.squareAssign();
+    assertTrue(acc.equals(a.add(b).mul(c).sub(a).square()));
+    acc = acc.negateAssign();
+    assertTrue(acc.equals(a.add(b).mul(c).sub(a).square().negate()));
+    acc = acc.set(c);
+    assertTrue(acc.equals(c));
+    acc = acc.mulAssign(acc);
+    assertTrue(acc.equals(c.square()));
+    assertTrue(a.equals(aCopy));
+    assertTrue(zero.isZero());
+    assertTrue(one.isOne());
+
+    // Batch inversion agrees with inverse() and leaves zero elements unchanged
+    // (only powers of a are used, as the mock towers are not all fields)
+    final List<FieldT> inverses = FieldUtils.batchInverse(Arrays.asList(a, zero, a.square(), one));
+    assertTrue(inverses.get(0).equals(a.inverse()));
+    assertTrue(inverses.get(1).isZero());
+    assertTrue(inverses.get(2).equals(a.inverse().square()));
+    assertTrue(inverses.get(3).isOne());
+    assertTrue(FieldUtils.batchInverse(new ArrayList<FieldT>()).isEmpty());
+
+    // Fixed-base powers agree with pow(), including across window boundaries
+    // (the exponents are small enough for ComplexField to be exact)
+    final FixedBasePowers<FieldT> aPowers = new FixedBasePowers<>(a, 40);
+    final FixedBasePowers<FieldT> aPowers3 = new FixedBasePowers<>(a, 40, 3);
+    for (long exponent : new long[] {0, 1, 2, 7, 8, 9, 31, 32, 40}) {
+      assertTrue(aPowers.pow(exponent).equals(a.pow(exponent)));
+      assertTrue(aPowers3.pow(exponent).equals(a.pow(exponent)));
+    }
   }
 
   protected <FieldT extends AbstractFieldElementExpanded<FieldT>> void testFieldExpanded(
@@ -110,4 +153,113 @@ public class GenericFieldsTest {
 
     assertTrue(naiveResult.equals(mulBy024Result));
   }
+
+  /**
+   * Checks that the lazily reduced mul() and square() of Fp2, Fp6_3Over2 and Fp12_2Over3Over2 agree
+   * with the schoolbook products below, which reduce after every operation of Fp, on random
+   * elements and on elements whose coefficients are 0, 1 or close to the modulus.
+   */
+  protected void testLazyReduction(final AbstractFp12_2Over3Over2_Parameters Fp12Parameters) {
+    final AbstractFp2Parameters Fp2Parameters = Fp12Parameters.Fp2Parameters();
+    final AbstractFp6_3Over2_Parameters Fp6Parameters = Fp12Parameters.Fp6Parameters();
+    final BigInteger p = Fp2Parameters.FpParameters().modulus();
+    final BigInteger[] edges = {
+      BigInteger.ZERO,
+      BigInteger.ONE,
+      p.subtract(BigInteger.ONE),
+      p.subtract(BigInteger.valueOf(2)),
+      p.shiftRight(1),
+      p.shiftRight(1).add(BigInteger.ONE)
+    };
+
+    final List<Fp2> Fp2Elements = new ArrayList<>();
+    for (BigInteger c0 : edges) {
+      for (BigInteger c1 : edges) {
+        Fp2Elements.add(new Fp2(c0, c1, Fp2Parameters));
+      }
+    }
+    for (long seed = 0; seed < 4; seed++) {
+      Fp2Elements.add(Fp2Parameters.ONE().random(seed, null));
+    }
+    for (Fp2 a : Fp2Elements) {
+      for (Fp2 b : Fp2Elements) {
+        assertTrue(a.mul(b).equals(schoolbookMul(a, b, Fp2Parameters)));
+      }
+      assertTrue(a.square().equals(schoolbookMul(a, a, Fp2Parameters)));
+    }
+
+    final Fp2 max = new Fp2(edges[2], edges[2], Fp2Parameters);
+    final Fp2 half = new Fp2(edges[4], edges[5], Fp2Parameters);
+    final List<Fp6_3Over2> Fp6Elements = new ArrayList<>();
+    Fp6Elements.add(new Fp6_3Over2(max, max, max, Fp6Parameters));
+    Fp6Elements.add(new Fp6_3Over2(half, max, Fp2Parameters.ZERO(), Fp6Parameters));
+    Fp6Elements.add(new Fp6_3Over2(Fp2Parameters.ONE(), half, max, Fp6Parameters));
+    for (long seed = 0; seed < 4; seed++) {
+      Fp6Elements.add(Fp6Parameters.ONE().random(seed, null));
+    }
+    for (Fp6_3Over2 a : Fp6Elements) {
+      for (Fp6_3Over2 b : Fp6Elements) {
+        assertTrue(a.mul(b).equals(schoolbookMul(a, b, Fp6Parameters)));
+      }
+      assertTrue(a.square().equals(schoolbookMul(a, a, Fp6Parameters)));
+    }
+
+    for (Fp6_3Over2 a0 : Fp6Elements) {
+      for (Fp6_3Over2 a1 : Fp6Elements) {
+        final Fp12_2Over3Over2 a = new Fp12_2Over3Over2(a0, a1, Fp12Parameters);
+        final Fp12_2Over3Over2 b = new Fp12_2Over3Over2(a1, a1.add(a0), Fp12Parameters);
+        assertTrue(a.mul(b).equals(schoolbookMul(a, b, Fp12Parameters)));
+        assertTrue(a.square().equals(schoolbookMul(a, a, Fp12Parameters)));
+      }
+    }
+  }
+
+  /* (a0 + a1 * u) * (b0 + b1 * u), with u^2 = nonresidue */
+  private static Fp2 schoolbookMul(
+      final Fp2 a, final Fp2 b, final AbstractFp2Parameters Fp2Parameters) {
+    return new Fp2(
+        a.c0.mul(b.c0).add(Fp2Parameters.nonresidue().mul(a.c1.mul(b.c1))),
+        a.c0.mul(b.c1).add(a.c1.mul(b.c0)),
+        Fp2Parameters);
+  }
+
+  /* (a0 + a1 * v + a2 * v^2) * (b0 + b1 * v + b2 * v^2), with v^3 = nonresidue */
+  private static Fp6_3Over2 schoolbookMul(
+      final Fp6_3Over2 a, final Fp6_3Over2 b, final AbstractFp6_3Over2_Parameters Fp6Parameters) {
+    final AbstractFp2Parameters Fp2Parameters = Fp6Parameters.Fp2Parameters();
+    final Fp2 nonresidue = Fp6Parameters.nonresidue();
+    final Fp2 a0b0 = schoolbookMul(a.c0, b.c0, Fp2Parameters);
+    final Fp2 a0b1 = schoolbookMul(a.c0, b.c1, Fp2Parameters);
+    final Fp2 a0b2 = schoolbookMul(a.c0, b.c2, Fp2Parameters);
+    final Fp2 a1b0 = schoolbookMul(a.c1, b.c0, Fp2Parameters);
+    final Fp2 a1b1 = schoolbookMul(a.c1, b.c1, Fp2Parameters);
+    final Fp2 a1b2 = schoolbookMul(a.c1, b.c2, Fp2Parameters);
+    final Fp2 a2b0 = schoolbookMul(a.c2, b.c0, Fp2Parameters);
+    final Fp2 a2b1 = schoolbookMul(a.c2, b.c1, Fp2Parameters);
+    final Fp2 a2b2 = schoolbookMul(a.c2, b.c2, Fp2Parameters);
+    return new Fp6_3Over2(
+        a0b0.add(schoolbookMul(nonresidue, a1b2.add(a2b1), Fp2Parameters)),
+        a0b1.add(a1b0).add(schoolbookMul(nonresidue, a2b2, Fp2Parameters)),
+        a0b2.add(a1b1).add(a2b0),
+        Fp6Parameters);
+  }
+
+  /* (a0 + a1 * w) * (b0 + b1 * w), with w^2 = v */
+  private static Fp12_2Over3Over2 schoolbookMul(
+      final Fp12_2Over3Over2 a,
+      final Fp12_2Over3Over2 b,
+      final AbstractFp12_2Over3Over2_Parameters Fp12Parameters) {
+    final AbstractFp6_3Over2_Parameters Fp6Parameters = Fp12Parameters.Fp6Parameters();
+    final Fp6_3Over2 a1b1 = schoolbookMul(a.c1, b.c1, Fp6Parameters);
+    final Fp6_3Over2 a1b1v =
+        new Fp6_3Over2(
+            schoolbookMul(Fp12Parameters.nonresidue(), a1b1.c2, Fp12Parameters.Fp2Parameters()),
+            a1b1.c0,
+            a1b1.c1,
+            Fp6Parameters);
+    return new Fp12_2Over3Over2(
+        schoolbookMul(a.c0, b.c0, Fp6Parameters).add(a1b1v),
+        schoolbookMul(a.c0, b.c1, Fp6Parameters).add(schoolbookMul(a.c1, b.c0, Fp6Parameters)),
+        Fp12Parameters);
+  }
 }
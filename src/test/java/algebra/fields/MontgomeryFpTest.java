@@ -0,0 +1,156 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.fields;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377FqParameters;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377FrParameters;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aFqParameters;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aFrParameters;
+import algebra.curves.barreto_naehrig.bn254b.bn254b_parameters.BN254bFqParameters;
+import algebra.curves.barreto_naehrig.bn254b.bn254b_parameters.BN254bFrParameters;
+import algebra.fields.abstractfieldparameters.AbstractFpParameters;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Checks that MontgomeryFp agrees with the BigInteger-based Fp on the curve fields. */
+public class MontgomeryFpTest extends GenericFieldsTest {
+  private static final int NUM_RANDOM_VALUES = 64;
+
+  private List<BigInteger> testValues(final AbstractFpParameters FpParameters) {
+    final BigInteger modulus = FpParameters.modulus();
+    final List<BigInteger> values = new ArrayList<>();
+    values.add(BigInteger.ZERO);
+    values.add(BigInteger.ONE);
+    values.add(BigInteger.TWO);
+    values.add(modulus.subtract(BigInteger.ONE));
+    values.add(modulus.subtract(BigInteger.TWO));
+    values.add(modulus.shiftRight(1));
+    values.add(BigInteger.ONE.shiftLeft(64));
+    values.add(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE));
+
+    final Random rand = new Random(42);
+    for (int i = 0; i < NUM_RANDOM_VALUES; i++) {
+      values.add(new BigInteger(modulus.bitLength() + 8, rand).mod(modulus));
+    }
+    return values;
+  }
+
+  private void assertEquivalent(final Fp expected, final MontgomeryFp actual) {
+    assertEquals(expected.toBigInteger(), actual.toBigInteger());
+  }
+
+  private void testEquivalence(final AbstractFpParameters FpParameters) {
+    final List<BigInteger> values = testValues(FpParameters);
+    for (int i = 0; i < values.size(); i++) {
+      final Fp a = new Fp(values.get(i), FpParameters);
+      final MontgomeryFp aMont = new MontgomeryFp(values.get(i), FpParameters);
+      assertEquivalent(a, aMont);
+      assertEquals(a.isZero(), aMont.isZero());
+      assertEquals(a.isOne(), aMont.isOne());
+      assertEquivalent(a.negate(), aMont.negate());
+      assertEquivalent(a.square(), aMont.square());
+      assertEquals(a.bitSize(), aMont.bitSize());
+      if (!a.isZero()) {
+        assertEquivalent(a.inverse(), aMont.inverse());
+      }
+
+      final Fp b = new Fp(values.get((i * 7 + 3) % values.size()), FpParameters);
+      final MontgomeryFp bMont = new MontgomeryFp(b);
+      assertEquivalent(a.add(b), aMont.add(bMont));
+      assertEquivalent(a.sub(b), aMont.sub(bMont));
+      assertEquivalent(b.sub(a), bMont.sub(aMont));
+      assertEquivalent(a.mul(b), aMont.mul(bMont));
+      assertEquals(a.equals(b), aMont.equals(bMont));
+    }
+
+    final List<MontgomeryFp> elements = new ArrayList<>();
+    for (BigInteger value : values) {
+      elements.add(new MontgomeryFp(value, FpParameters));
+    }
+    final List<MontgomeryFp> inverses = FieldUtils.batchInverse(elements);
+    for (int i = 0; i < values.size(); i++) {
+      final Fp a = new Fp(values.get(i), FpParameters);
+      assertEquivalent(a.isZero() ? a : a.inverse(), inverses.get(i));
+    }
+
+    final MontgomeryFp base = new MontgomeryFp(values.get(values.size() - 1), FpParameters);
+    final BigInteger exponent = FpParameters.euler();
+    assertEquivalent(base.toFp().pow(exponent), base.pow(exponent));
+
+    // Negative and unreduced inputs are reduced mod p, as in Fp.
+    final BigInteger unreduced =
+        FpParameters.modulus().multiply(BigInteger.TEN).add(BigInteger.TEN);
+    assertEquivalent(new Fp(unreduced, FpParameters), new MontgomeryFp(unreduced, FpParameters));
+    assertEquivalent(new Fp(-17, FpParameters), new MontgomeryFp(-17, FpParameters));
+
+    // Same pseudorandom elements as Fp for the same seeds.
+    final MontgomeryFp factory = new MontgomeryFp(FpParameters.ONE());
+    assertEquivalent(FpParameters.ONE().random(4L, null), factory.random(4L, null));
+    assertTrue(factory.zero().isZero());
+    assertTrue(factory.one().isOne());
+  }
+
+  private void testMontgomeryField(final AbstractFpParameters FpParameters) {
+    final MontgomeryFp ffactory = new MontgomeryFp(FpParameters.ONE());
+    final MontgomeryFp a = ffactory.construct(23456789);
+    final MontgomeryFp b = ffactory.construct(927243);
+    final MontgomeryFp c = ffactory.construct(652623743);
+
+    testField(ffactory, a, b, c);
+    testFieldExpanded(ffactory, FpParameters.s());
+    testEquivalence(FpParameters);
+  }
+
+  @Test
+  public void BN254aFrTest() {
+    final BN254aFrParameters FrParameters = new BN254aFrParameters();
+    assertEquals(4, FrParameters.montgomeryParameters().numLimbs);
+    testMontgomeryField(FrParameters);
+  }
+
+  @Test
+  public void BN254aFqTest() {
+    final BN254aFqParameters FqParameters = new BN254aFqParameters();
+    assertEquals(4, FqParameters.montgomeryParameters().numLimbs);
+    testMontgomeryField(FqParameters);
+  }
+
+  @Test
+  public void BN254bFrTest() {
+    final BN254bFrParameters FrParameters = new BN254bFrParameters();
+    assertEquals(4, FrParameters.montgomeryParameters().numLimbs);
+    testMontgomeryField(FrParameters);
+  }
+
+  @Test
+  public void BN254bFqTest() {
+    final BN254bFqParameters FqParameters = new BN254bFqParameters();
+    assertEquals(4, FqParameters.montgomeryParameters().numLimbs);
+    testMontgomeryField(FqParameters);
+  }
+
+  @Test
+  public void BLS12_377FrTest() {
+    final BLS12_377FrParameters FrParameters = new BLS12_377FrParameters();
+    assertEquals(4, FrParameters.montgomeryParameters().numLimbs);
+    testMontgomeryField(FrParameters);
+  }
+
+  @Test
+  public void BLS12_377FqTest() {
+    final BLS12_377FqParameters FqParameters = new BLS12_377FqParameters();
+    assertEquals(6, FqParameters.montgomeryParameters().numLimbs);
+    testMontgomeryField(FqParameters);
+  }
+}
@@ -7,14 +7,26 @@
 
 package algebra.msm;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import algebra.curves.GLVParameters;
+import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
+import algebra.curves.barreto_naehrig.bn254a.BN254aG1;
+import algebra.curves.barreto_naehrig.bn254a.BN254aG2;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG1Parameters;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG2Parameters;
 import algebra.fields.Fp;
 import algebra.fields.mock.fieldparameters.LargeFpParameters;
 import algebra.groups.mock.AdditiveIntegerGroup;
 import algebra.groups.mock.integergroupparameters.LargeAdditiveIntegerGroupParameters;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.junit.jupiter.api.AfterEach;
@@ -122,6 +134,201 @@ public class DistributedVariableBaseMSMTest implements Serializable {
     assertTrue(result.equals(answer));
   }
 
+  @Test
+  public void DistributedBalancedMSMTest() {
+    // The pairs are spread over the partitions by cost, with the tiny scalars summed per value in
+    // each input partition, which gives the same result as the serial MSMs.
+    final int size = 500;
+    final ArrayList<BN254aFr> scalars = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aG1, BN254aG2>> bases = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aFr, BN254aG1>> input1 = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aFr, Tuple2<BN254aG1, BN254aG2>>> input2 = new ArrayList<>(size);
+    BN254aG1 point1 = BN254aG1Parameters.ONE;
+    BN254aG2 point2 = BN254aG2Parameters.ONE;
+    for (int i = 0; i < size; i++) {
+      point1 = point1.add(BN254aG1Parameters.ONE);
+      point2 = point2.add(BN254aG2Parameters.ONE);
+      final BN254aFr scalar =
+          i < size / 10 ? BN254aFr.ONE.random((long) i, null) : new BN254aFr(i % 5);
+      scalars.add(scalar);
+      bases.add(new Tuple2<>(point1, point2));
+      input1.add(new Tuple2<>(scalar, point1));
+      input2.add(new Tuple2<>(scalar, bases.get(i)));
+    }
+
+    final Tuple2<BN254aG1, BN254aG2> expected = VariableBaseMSM.doubleMSM(scalars, bases);
+    assertTrue(expected._1.equals(VariableBaseMSM.distributedMSM(sc.parallelize(input1, 7))));
+    final Tuple2<BN254aG1, BN254aG2> result =
+        VariableBaseMSM.distributedDoubleMSM(sc.parallelize(input2, 7));
+    assertTrue(expected._1.equals(result._1));
+    assertTrue(expected._2.equals(result._2));
+  }
+
+  @Test
+  public void BalancePartitionsTest() {
+    // Partitions of similar costs are kept as they are, while the pairs of an expensive partition
+    // are shuffled by cost over all the partitions.
+    final int size = 400;
+    final int numPartitions = 4;
+    final ArrayList<Tuple2<BN254aFr, Integer>> balanced = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aFr, Integer>> skewed = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final BN254aFr scalar = BN254aFr.ONE.random((long) i, null);
+      balanced.add(new Tuple2<>(scalar, i));
+      skewed.add(new Tuple2<>(i < size / numPartitions ? scalar : BN254aFr.ONE.zero(), i));
+    }
+
+    final JavaRDD<Tuple2<BigInteger, Integer>> kept =
+        VariableBaseMSM.balancePartitions(sc.parallelize(balanced, numPartitions), Integer::sum);
+    assertFalse(kept.toDebugString().contains("ShuffledRDD"));
+    for (int count : kept.glom().map(List::size).collect()) {
+      assertEquals(size / numPartitions, count);
+    }
+    kept.unpersist();
+
+    final JavaRDD<Tuple2<BigInteger, Integer>> shuffled =
+        VariableBaseMSM.balancePartitions(sc.parallelize(skewed, numPartitions), Integer::sum);
+    assertTrue(shuffled.toDebugString().contains("ShuffledRDD"));
+    final List<Integer> counts = shuffled.glom().map(List::size).collect();
+    assertEquals(numPartitions, counts.size());
+    for (int count : counts) {
+      assertTrue(count >= size / numPartitions / numPartitions - 1);
+    }
+    assertEquals(
+        size / numPartitions * (size / numPartitions - 1) / 2,
+        (int) shuffled.map(pair -> pair._2).reduce(Integer::sum));
+    shuffled.unpersist();
+  }
+
+  @Test
+  public void WindowParallelMSMTest() {
+    // The windows of the tiny, small and full scalars of each partition are split into groups,
+    // each summed by its own task, with the GLV decomposition of the full scalars on G2.
+    final int size = 300;
+    final ArrayList<BN254aFr> scalars = new ArrayList<>(size);
+    final ArrayList<BN254aG2> bases = new ArrayList<>(size);
+    final ArrayList<Tuple2<BigInteger, BN254aG2>> input = new ArrayList<>(size);
+    BN254aG2 point = BN254aG2Parameters.ONE;
+    for (int i = 0; i < size; i++) {
+      point = point.add(BN254aG2Parameters.ONE);
+      final BN254aFr scalar = windowParallelScalar(i);
+      scalars.add(scalar);
+      bases.add(point);
+      input.add(new Tuple2<>(scalar.toBigInteger(), point));
+    }
+    final BN254aG2 expected = VariableBaseMSM.serialMSM(scalars, bases);
+
+    final JavaRDD<Tuple2<BigInteger, BN254aG2>> sparkInput = sc.parallelize(input, 3).cache();
+    for (int numWindowGroups : new int[] {1, 2, 7, 100}) {
+      assertTrue(expected.equals(VariableBaseMSM.windowParallelMSM(sparkInput, numWindowGroups)));
+    }
+
+    // Without the GLV endomorphism
+    final LargeFpParameters FpParameters = new LargeFpParameters();
+    final ArrayList<Fp> fpScalars = new ArrayList<>(size);
+    final ArrayList<AdditiveIntegerGroup> fpBases = new ArrayList<>(size);
+    final ArrayList<Tuple2<BigInteger, AdditiveIntegerGroup>> fpInput = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final Fp scalar = new Fp(scalars.get(i).toBigInteger(), FpParameters);
+      final AdditiveIntegerGroup base = new AdditiveIntegerGroup(i + 1, GroupParameters);
+      fpScalars.add(scalar);
+      fpBases.add(base);
+      fpInput.add(new Tuple2<>(scalar.toBigInteger(), base));
+    }
+    final AdditiveIntegerGroup fpExpected = VariableBaseMSM.serialMSM(fpScalars, fpBases);
+    for (int numWindowGroups : new int[] {1, 3}) {
+      assertTrue(
+          fpExpected.equals(
+              VariableBaseMSM.windowParallelMSM(sc.parallelize(fpInput, 2), numWindowGroups)));
+    }
+  }
+
+  @Test
+  public void DistributedWindowParallelMSMTest() {
+    // With fewer partitions than executors, and enough bases per partition, the windows of the
+    // MSMs over G2 are split over the cores of the cluster, while those over G1 keep the affine
+    // buckets of BatchAffineMSM.
+    final int size = VariableBaseMSM.DISTRIBUTED_WINDOW_MSM_THRESHOLD * 2 / 3;
+    final int numExecutors = 4;
+    // The tiny scalars are summed per value, and the others are decomposed with GLV.
+    final int numPairs = size - size / 5 + 200 / 5 - 1;
+    final GLVParameters glv = BN254aG2Parameters.ONE.glvParameters();
+    assertTrue(VariableBaseMSM.numWindowGroups(2L * numPairs, 1, numExecutors, 4, glv.numBits) > 1);
+
+    final ArrayList<BN254aFr> scalars = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aG1, BN254aG2>> bases = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aFr, Tuple2<BN254aG1, BN254aG2>>> pairs = new ArrayList<>(size);
+    BN254aG1 point1 = BN254aG1Parameters.ONE;
+    BN254aG2 point2 = BN254aG2Parameters.ONE;
+    for (int i = 0; i < size; i++) {
+      point1 = point1.add(BN254aG1Parameters.ONE);
+      point2 = point2.add(BN254aG2Parameters.ONE);
+      final BN254aFr scalar = windowParallelScalar(i);
+      scalars.add(scalar);
+      bases.add(new Tuple2<>(point1, point2));
+      pairs.add(new Tuple2<>(scalar, bases.get(i)));
+    }
+    final Tuple2<BN254aG1, BN254aG2> expected = VariableBaseMSM.doubleMSM(scalars, bases);
+
+    final Tuple2<BN254aG1, BN254aG2> result =
+        VariableBaseMSM.distributedDoubleMSM(sc.parallelize(pairs, 1), numExecutors, 4);
+    assertTrue(expected._1.equals(result._1));
+    assertTrue(expected._2.equals(result._2));
+  }
+
+  /* A tiny, small or full scalar, depending on i */
+  private BN254aFr windowParallelScalar(final int i) {
+    if (i % 5 == 0) {
+      return new BN254aFr(i % 200);
+    } else if (i % 5 == 1) {
+      return new BN254aFr(new BigInteger(64, new Random(i)));
+    }
+    return BN254aFr.ONE.random((long) i, null);
+  }
+
+  @Test
+  public void NumWindowGroupsTest() {
+    final int threshold = VariableBaseMSM.DISTRIBUTED_WINDOW_MSM_THRESHOLD;
+    // As many partitions as executors, or too few bases per partition
+    assertEquals(1, VariableBaseMSM.numWindowGroups(1L << 30, 16, 16, 16, 254));
+    assertEquals(1, VariableBaseMSM.numWindowGroups(2L * threshold - 1, 2, 16, 16, 254));
+    // The MSM of each partition already runs on all the cores of its executor
+    assertEquals(1, VariableBaseMSM.numWindowGroups(1L << 20, 2, 2, 16, 254));
+    // Enough groups to occupy the cores
+    assertEquals(8, VariableBaseMSM.numWindowGroups(1L << 20, 2, 4, 16, 254));
+    assertEquals(3, VariableBaseMSM.numWindowGroups(1L << 20, 3, 8, 8, 254));
+    // At least two windows per group
+    final int c = VariableBaseMSM.windowSize(1 << 20, 16);
+    assertEquals((16 / c + 1) / 2, VariableBaseMSM.numWindowGroups(1L << 20, 1, 64, 64, 16));
+  }
+
+  @Test
+  public void DistributedBatchMSMTest() {
+    final LargeFpParameters FpParameters = new LargeFpParameters();
+    final Fp zero = FpParameters.ZERO();
+    ArrayList<Tuple2<List<Fp>, AdditiveIntegerGroup>> input = new ArrayList<>(4);
+    input.add(
+        new Tuple2<>(
+            Arrays.asList(new Fp("3", FpParameters), new Fp("1", FpParameters)),
+            new AdditiveIntegerGroup(5, GroupParameters)));
+    input.add(
+        new Tuple2<>(
+            Arrays.asList(new Fp("11", FpParameters), zero),
+            new AdditiveIntegerGroup(2, GroupParameters)));
+    input.add(
+        new Tuple2<>(Arrays.asList(zero, zero), new AdditiveIntegerGroup(7, GroupParameters)));
+    input.add(
+        new Tuple2<>(
+            Arrays.asList(new Fp("8", FpParameters), new Fp("4", FpParameters)),
+            new AdditiveIntegerGroup(3, GroupParameters)));
+
+    JavaRDD<Tuple2<List<Fp>, AdditiveIntegerGroup>> sparkInput = sc.parallelize(input, 3);
+
+    List<AdditiveIntegerGroup> result = VariableBaseMSM.distributedBatchMSM(sparkInput);
+    assertTrue(result.get(0).equals(new AdditiveIntegerGroup(61, GroupParameters)));
+    assertTrue(result.get(1).equals(new AdditiveIntegerGroup(17, GroupParameters)));
+  }
+
   @Test
   public void DistributedMSMDuplicatesTest() {
     final LargeFpParameters FpParameters = new LargeFpParameters();
@@ -0,0 +1,148 @@
+/* @file
+ *****************************************************************************
+ * @author     This file is part of zkspark, developed by SCIPR Lab
+ *             and contributors (see AUTHORS).
+ * @copyright  MIT license (see LICENSE file)
+ *****************************************************************************/
+
+package algebra.msm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fr;
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377G1;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377G1Parameters;
+import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
+import algebra.curves.barreto_naehrig.bn254a.BN254aG1;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG1Parameters;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PrecomputedMSMTest {
+
+  @Test
+  public void BN254aPrecomputedMSMTest() {
+    final int size = 300;
+    final BN254aG1 generator = BN254aG1Parameters.ONE;
+    final int numBits = BN254aFr.ONE.negate().toBigInteger().bitLength();
+
+    // Include repeated and opposite bases, points at infinity, and the scalars 0, 1 and -1.
+    final List<BN254aG1> bases = new ArrayList<>(size);
+    final List<BN254aFr> scalars = new ArrayList<>(size);
+    BN254aG1 point = generator;
+    for (int i = 0; i < size; i++) {
+      point = point.add(generator);
+      bases.add(
+          i % 10 == 1
+              ? bases.get(i - 1)
+              : i % 10 == 2 ? bases.get(i - 1).negate() : i % 50 == 3 ? generator.zero() : point);
+      scalars.add(
+          i % 13 == 0
+              ? BN254aFr.ZERO
+              : i % 13 == 1
+                  ? BN254aFr.ONE
+                  : i % 13 == 2 ? BN254aFr.ONE.negate() : BN254aFr.ONE.random((long) i, null));
+    }
+
+    final PrecomputedMSM<BN254aG1> table =
+        PrecomputedMSM.allocateDirect(size, numBits, generator).setAll(0, bases);
+    assertEquals(size, table.size());
+    assertEquals(table.numWindows(), PrecomputedMSM.tableSize(size, numBits, generator) / size);
+    for (int i = 0; i < size; i++) {
+      assertTrue(bases.get(i).equals(table.base(i)));
+    }
+
+    final BN254aG1 expected = VariableBaseMSM.serialMSM(scalars, bases);
+    assertTrue(expected.equals(table.msm(0, scalars)));
+
+    // A range of the bases, over a single task and over several tasks of chunks of the digits
+    final int from = 17;
+    final List<BN254aFr> range = scalars.subList(0, size - from);
+    final BN254aG1 rangeExpected = VariableBaseMSM.serialMSM(range, bases.subList(from, size));
+    assertTrue(rangeExpected.equals(table.msm(from, range, 1)));
+    assertTrue(rangeExpected.equals(table.msm(from, range, 5)));
+    assertTrue(generator.zero().equals(table.msm(from, new ArrayList<BN254aFr>())));
+  }
+
+  @Test
+  public void SmallScalarsMSMTest() {
+    // Scalars of fewer bits than the decomposed scalars are not decomposed
+    final int size = 40;
+    final int numBits = 20;
+    final BLS12_377G1 generator = BLS12_377G1Parameters.ONE;
+
+    final List<BLS12_377G1> bases = new ArrayList<>(size);
+    final List<BLS12_377Fr> scalars = new ArrayList<>(size);
+    BLS12_377G1 expected = generator.zero();
+    for (int i = 0; i < size; i++) {
+      final BLS12_377G1 base = generator.mul(new BigInteger(Integer.toString(i + 3)));
+      final BigInteger scalar = new BigInteger(Integer.toString(i * 25013 + 1));
+      bases.add(base);
+      scalars.add(new BLS12_377Fr(scalar));
+      expected = expected.add(base.mul(scalar));
+    }
+
+    final PrecomputedMSM<BLS12_377G1> table =
+        PrecomputedMSM.allocateDirect(size, numBits, generator).setAll(0, bases);
+    assertEquals(numBits / table.windowSize() + 1, table.numWindows());
+    assertTrue(expected.equals(table.msm(0, scalars)));
+  }
+
+  @Test
+  public void MappedPrecomputedMSMTest() throws Exception {
+    final int size = 60;
+    final BN254aG1 generator = BN254aG1Parameters.ONE;
+    final int numBits = BN254aFr.ONE.negate().toBigInteger().bitLength();
+
+    final List<BN254aG1> bases = new ArrayList<>(size);
+    final List<BN254aG1> otherBases = new ArrayList<>(size);
+    final List<BN254aFr> scalars = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      bases.add(generator.mul(new BigInteger(Integer.toString(i + 1))));
+      otherBases.add(generator.mul(new BigInteger(Integer.toString(i + 2))));
+      scalars.add(BN254aFr.ONE.random((long) i, null));
+    }
+    // The same first and last bases, and another base in the middle
+    final List<BN254aG1> middleBases = new ArrayList<>(bases);
+    middleBases.set(size / 2, generator.mul(new BigInteger(Integer.toString(size + 1))));
+    final BN254aG1 expected = VariableBaseMSM.serialMSM(scalars, bases);
+
+    final Path file = Files.createTempFile("precomputed-msm", ".table");
+    try {
+      // The table is precomputed into the file, then reused, and precomputed again for other bases
+      assertTrue(expected.equals(PrecomputedMSM.load(file, bases, numBits).msm(0, scalars)));
+      final long fileSize = Files.size(file);
+      assertEquals(
+          ((long) PrecomputedMSM.tableSize(size, numBits, generator) * generator.affineLength()
+                  + PrecomputedMSM.HEADER_LONGS)
+              * Long.BYTES,
+          fileSize);
+      assertTrue(
+          expected.equals(PrecomputedMSM.map(file, size, numBits, generator).msm(0, scalars)));
+      assertTrue(expected.equals(PrecomputedMSM.load(file, bases, numBits).msm(0, scalars)));
+      assertTrue(
+          VariableBaseMSM.serialMSM(scalars, otherBases)
+              .equals(PrecomputedMSM.load(file, otherBases, numBits).msm(0, scalars)));
+
+      // The hash of the header covers all the bases
+      assertTrue(expected.equals(PrecomputedMSM.load(file, bases, numBits).msm(0, scalars)));
+      assertTrue(
+          VariableBaseMSM.serialMSM(scalars, middleBases)
+              .equals(PrecomputedMSM.load(file, middleBases, numBits).msm(0, scalars)));
+
+      // A precomputation that did not complete, here of the other bases into the table of bases,
+      // is not reused
+      assertTrue(expected.equals(PrecomputedMSM.load(file, bases, numBits).msm(0, scalars)));
+      PrecomputedMSM.map(file, size, numBits, generator).setAll(0, otherBases);
+      assertTrue(expected.equals(PrecomputedMSM.load(file, bases, numBits).msm(0, scalars)));
+      assertEquals(fileSize, Files.size(file));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -9,8 +9,16 @@ package algebra.msm;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fr;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377G1Parameters;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377G2Parameters;
+import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG1Parameters;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG2Parameters;
+import algebra.fields.AbstractFieldElementExpanded;
 import algebra.fields.Fp;
 import algebra.fields.mock.fieldparameters.LargeFpParameters;
+import algebra.groups.AbstractGroup;
 import algebra.groups.mock.AdditiveIntegerGroup;
 import algebra.groups.mock.integergroupparameters.LargeAdditiveIntegerGroupParameters;
 import java.io.Serializable;
@@ -68,4 +76,36 @@ public class SerialFixedBaseMSMTest implements Serializable {
     System.out.println(result.toString() + " == " + answers.toString());
     assertTrue(result.equals(answers));
   }
+
+  @Test
+  public void GLVMSMTest() {
+    // The tables of the groups with the GLV endomorphism cover half of the bits of the scalars
+    GLVMSMTest(BN254aG1Parameters.ONE, BN254aFr.ONE);
+    GLVMSMTest(BN254aG2Parameters.ONE, BN254aFr.ONE);
+    GLVMSMTest(BLS12_377G1Parameters.ONE, BLS12_377Fr.ONE);
+    GLVMSMTest(BLS12_377G2Parameters.ONE, BLS12_377Fr.ONE);
+  }
+
+  private <
+          GroupT extends AbstractGroup<GroupT>, FieldT extends AbstractFieldElementExpanded<FieldT>>
+      void GLVMSMTest(final GroupT generator, final FieldT fieldFactory) {
+    final GroupT base = generator.mul(new BigInteger("5"));
+    final int scalarSize = generator.glvParameters().order.bitLength();
+    final int windowSize = 4;
+    final List<List<GroupT>> windowTable =
+        FixedBaseMSM.getWindowTable(base, scalarSize, windowSize);
+    assertTrue(windowTable.size() * windowSize < scalarSize);
+
+    final List<FieldT> scalars = new ArrayList<>();
+    scalars.add(fieldFactory.zero());
+    scalars.add(fieldFactory.one());
+    scalars.add(fieldFactory.one().negate());
+    for (long i = 0; i < 8; i++) {
+      scalars.add(fieldFactory.random(i, null));
+    }
+    final List<GroupT> result = FixedBaseMSM.batchMSM(scalarSize, windowSize, windowTable, scalars);
+    for (int i = 0; i < scalars.size(); i++) {
+      assertTrue(result.get(i).equals(base.mul(scalars.get(i).toBigInteger())));
+    }
+  }
 }
@@ -7,13 +7,28 @@
 
 package algebra.msm;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import algebra.curves.G1Vector;
+import algebra.curves.GLVParameters;
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377Fields.BLS12_377Fr;
+import algebra.curves.barreto_lynn_scott.bls12_377.BLS12_377G1;
+import algebra.curves.barreto_lynn_scott.bls12_377.bls12_377_parameters.BLS12_377G1Parameters;
+import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
+import algebra.curves.barreto_naehrig.bn254a.BN254aG1;
+import algebra.curves.barreto_naehrig.bn254a.BN254aG2;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG1Parameters;
+import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG2Parameters;
 import algebra.groups.mock.AdditiveIntegerGroup;
 import algebra.groups.mock.integergroupparameters.LargeAdditiveIntegerGroupParameters;
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import scala.Tuple2;
@@ -73,4 +88,377 @@ public class SerialVariableBaseMSMTest implements Serializable {
     System.out.println(result.toString() + " == " + answer.toString());
     assertTrue(result.equals(answer));
   }
+
+  @Test
+  public void SignedDigitsTest() {
+    final BigInteger[] scalars = {
+      BigInteger.ZERO,
+      BigInteger.ONE,
+      new BigInteger("255"),
+      BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE),
+      BigInteger.ONE.shiftLeft(127),
+      new BigInteger("73786976294838206465"),
+      BN254aFr.ONE.negate().toBigInteger()
+    };
+    final int numBits = scalars[scalars.length - 1].bitLength();
+
+    for (int c = 1; c <= VariableBaseMSM.MAX_WINDOW_SIZE; c++) {
+      final int numWindows = numBits / c + 1;
+      final int[][] digits =
+          VariableBaseMSM.signedDigits(scalars.length, i -> scalars[i], c, numWindows);
+      for (int i = 0; i < scalars.length; i++) {
+        BigInteger value = BigInteger.ZERO;
+        for (int k = numWindows - 1; k >= 0; k--) {
+          final int digit = digits[k][i];
+          assertTrue(digit > -(1 << (c - 1)) && digit <= 1 << (c - 1));
+          value = value.shiftLeft(c).add(BigInteger.valueOf(digit));
+        }
+        assertEquals(scalars[i], value);
+      }
+    }
+
+    // The digits of a negative scalar are those of its absolute value, negated
+    final int[][] digits =
+        VariableBaseMSM.signedDigits(scalars.length, i -> scalars[i].negate(), 5, numBits / 5 + 1);
+    for (int i = 0; i < scalars.length; i++) {
+      BigInteger value = BigInteger.ZERO;
+      for (int k = digits.length - 1; k >= 0; k--) {
+        value = value.shiftLeft(5).add(BigInteger.valueOf(digits[k][i]));
+      }
+      assertEquals(scalars[i].negate(), value);
+    }
+  }
+
+  @Test
+  public void PippengerMSMTest() {
+    // The lengths give window sizes from 2 to 8 bits
+    for (int size : new int[] {2, 5, 17, 64, 300, 1000}) {
+      final ArrayList<BigInteger> scalars = new ArrayList<>(size);
+      final ArrayList<AdditiveIntegerGroup> bases = new ArrayList<>(size);
+      final ArrayList<Tuple2<BigInteger, AdditiveIntegerGroup>> input = new ArrayList<>(size);
+      int numBits = 0;
+      for (int i = 0; i < size; i++) {
+        // Include scalars whose windows are all 1s, which carry through every window.
+        final BigInteger scalar =
+            i % 5 == 0
+                ? BigInteger.ONE.shiftLeft(i % 254 + 1).subtract(BigInteger.ONE)
+                : BN254aFr.ONE.random((long) i, null).toBigInteger();
+        final AdditiveIntegerGroup base = new AdditiveIntegerGroup(3 * i + 1, GroupParameters);
+        scalars.add(scalar);
+        bases.add(base);
+        input.add(new Tuple2<>(scalar, base));
+        numBits = Math.max(numBits, scalar.bitLength());
+      }
+      assertEquals(
+          NaiveMSM.variableBaseMSM(scalars, bases), VariableBaseMSM.pippengerMSM(input, numBits));
+    }
+
+    final int size = 40;
+    final BN254aG1 generator = BN254aG1Parameters.ONE;
+    final ArrayList<BigInteger> scalars = new ArrayList<>(size);
+    final ArrayList<BN254aG1> bases = new ArrayList<>(size);
+    final ArrayList<Tuple2<BigInteger, BN254aG1>> input = new ArrayList<>(size);
+    int numBits = 0;
+    for (int i = 0; i < size; i++) {
+      final BigInteger scalar =
+          i % 4 == 0
+              ? BN254aFr.ONE.negate().toBigInteger()
+              : BN254aFr.ONE.random((long) i, null).toBigInteger();
+      final BN254aG1 base = generator.mul(new BigInteger(Integer.toString(i + 1)));
+      scalars.add(scalar);
+      bases.add(base);
+      input.add(new Tuple2<>(scalar, base));
+      numBits = Math.max(numBits, scalar.bitLength());
+    }
+    assertTrue(
+        NaiveMSM.variableBaseMSM(scalars, bases)
+            .equals(VariableBaseMSM.pippengerMSM(input, numBits)));
+  }
+
+  @Test
+  public void BatchAffineMSMTest() {
+    final BN254aG1 generator = BN254aG1Parameters.ONE;
+    final BigInteger minusOne = BN254aFr.ONE.negate().toBigInteger();
+
+    // Include repeated and opposite bases, which double and clear the affine buckets, points at
+    // infinity, and repeated scalars, whose additions conflict in the batches.
+    final int size = 600;
+    final ArrayList<BN254aG1> bases = new ArrayList<>(size);
+    final ArrayList<BigInteger> scalars = new ArrayList<>(size);
+    BN254aG1 point = generator;
+    for (int i = 0; i < size; i++) {
+      point = point.add(generator);
+      if (i % 10 == 1) {
+        bases.add(bases.get(i - 1));
+      } else if (i % 10 == 2) {
+        bases.add(bases.get(i - 1).negate());
+      } else if (i % 50 == 3) {
+        bases.add(generator.zero());
+      } else {
+        bases.add(point);
+      }
+      scalars.add(
+          i % 3 == 0
+              ? minusOne
+              : i % 7 == 0
+                  ? new BigInteger("2")
+                  : BN254aFr.ONE.random((long) i, null).toBigInteger());
+    }
+
+    final ArrayList<Tuple2<BigInteger, BN254aG1>> input = new ArrayList<>(size);
+    final int[] indices = new int[size];
+    for (int i = 0; i < size; i++) {
+      input.add(new Tuple2<>(scalars.get(i), bases.get(i)));
+      indices[i] = i;
+    }
+    final int numBits = minusOne.bitLength();
+    final BN254aG1 expected = VariableBaseMSM.pippengerMSM(input, numBits);
+
+    final G1Vector<BN254aG1> vector = G1Vector.allocateDirect(size, generator).setAll(0, bases);
+    assertTrue(
+        expected.equals(BatchAffineMSM.pippengerMSM(size, scalars::get, vector, indices, numBits)));
+
+    // From the threshold, serialMSM() selects BatchAffineMSM
+    final int largeSize = VariableBaseMSM.BATCH_AFFINE_MSM_THRESHOLD + size;
+    final ArrayList<BN254aFr> largeScalars = new ArrayList<>(largeSize);
+    final ArrayList<BN254aG1> largeBases = new ArrayList<>(largeSize);
+    for (int i = 0; i < largeSize; i++) {
+      largeScalars.add(BN254aFr.ONE.random((long) i, null));
+      largeBases.add(bases.get(i % size));
+    }
+    final int half = largeSize / 2;
+    final BN254aG1 largeExpected =
+        VariableBaseMSM.serialMSM(largeScalars.subList(0, half), largeBases.subList(0, half))
+            .add(
+                VariableBaseMSM.serialMSM(
+                    largeScalars.subList(half, largeSize), largeBases.subList(half, largeSize)));
+    assertTrue(largeExpected.equals(VariableBaseMSM.serialMSM(largeScalars, largeBases)));
+
+    // Affine bases, as in the proving keys, are read by BatchAffineMSM from the list itself
+    final List<BN254aG1> affineBases = generator.batchToAffineCoordinates(largeBases);
+    for (BN254aG1 base : affineBases) {
+      assertTrue(base.isAffine());
+    }
+    assertTrue(largeExpected.equals(VariableBaseMSM.serialMSM(largeScalars, affineBases)));
+  }
+
+  @Test
+  public void GLVMSMTest() {
+    final BLS12_377G1 generator = BLS12_377G1Parameters.ONE;
+    final GLVParameters glv = generator.glvParameters();
+
+    // The scalars include those whose decompositions are negative, and the bases include
+    // repeated and opposite bases and points at infinity, as in BatchAffineMSMTest.
+    final int size = 300;
+    final ArrayList<BLS12_377G1> bases = new ArrayList<>(size);
+    final ArrayList<BigInteger> scalars = new ArrayList<>(size);
+    final ArrayList<Tuple2<BigInteger, BLS12_377G1>> input = new ArrayList<>(size);
+    final int[] indices = new int[size];
+    BLS12_377G1 point = generator;
+    BLS12_377G1 expected = generator.zero();
+    for (int i = 0; i < size; i++) {
+      point = point.add(generator);
+      final BLS12_377G1 base =
+          i % 10 == 1
+              ? bases.get(i - 1)
+              : i % 10 == 2 ? bases.get(i - 1).negate() : i % 50 == 3 ? generator.zero() : point;
+      final BigInteger scalar =
+          i % 3 == 0
+              ? glv.order.subtract(BigInteger.ONE)
+              : BLS12_377Fr.ONE.random((long) i, null).toBigInteger();
+      bases.add(base);
+      scalars.add(scalar);
+      input.add(new Tuple2<>(scalar, base));
+      indices[i] = i;
+
+      expected = expected.add(base.mul(scalar));
+    }
+    final int numBits = glv.order.bitLength();
+
+    assertTrue(expected.equals(VariableBaseMSM.pippengerMSM(input, numBits)));
+    final G1Vector<BLS12_377G1> vector = G1Vector.allocateDirect(size, generator).setAll(0, bases);
+    assertTrue(
+        expected.equals(BatchAffineMSM.pippengerMSM(size, scalars::get, vector, indices, numBits)));
+  }
+
+  @Test
+  public void G2GLVMSMTest() {
+    final int size = 40;
+    final ArrayList<BN254aFr> scalars = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aG1, BN254aG2>> bases = new ArrayList<>(size);
+    BN254aG1 expected1 = BN254aG1Parameters.ZERO;
+    BN254aG2 expected2 = BN254aG2Parameters.ZERO;
+    for (int i = 0; i < size; i++) {
+      final BN254aFr scalar =
+          i % 5 == 0 ? BN254aFr.ONE.negate() : BN254aFr.ONE.random((long) i, null);
+      final BigInteger factor = new BigInteger(Integer.toString(i + 1));
+      final BN254aG1 base1 = BN254aG1Parameters.ONE.mul(factor);
+      final BN254aG2 base2 = BN254aG2Parameters.ONE.mul(factor);
+      scalars.add(scalar);
+      bases.add(new Tuple2<>(base1, base2));
+      expected1 = expected1.add(base1.mul(scalar.toBigInteger()));
+      expected2 = expected2.add(base2.mul(scalar.toBigInteger()));
+    }
+
+    final Tuple2<BN254aG1, BN254aG2> result = VariableBaseMSM.doubleMSM(scalars, bases);
+    assertTrue(expected1.equals(result._1));
+    assertTrue(expected2.equals(result._2));
+  }
+
+  @Test
+  public void ParallelMSMTest() {
+    // From PARALLEL_MSM_THRESHOLD bases, the windows are split into tasks, and into chunks of the
+    // bases when there are more tasks than windows. The result does not depend on the tasks.
+    final int size = 2 * VariableBaseMSM.PARALLEL_MSM_THRESHOLD + 100;
+    final BigInteger minusOne = BN254aFr.ONE.negate().toBigInteger();
+    final int numBits = minusOne.bitLength();
+
+    final ArrayList<BigInteger> scalars = new ArrayList<>(size);
+    final ArrayList<BN254aG1> bases1 = new ArrayList<>(size);
+    final ArrayList<Tuple2<BigInteger, BN254aG2>> input2 = new ArrayList<>(size);
+    final int[] indices = new int[size];
+    BN254aG1 point1 = BN254aG1Parameters.ONE;
+    BN254aG2 point2 = BN254aG2Parameters.ONE;
+    for (int i = 0; i < size; i++) {
+      point1 = point1.add(BN254aG1Parameters.ONE);
+      point2 = point2.add(BN254aG2Parameters.ONE);
+      final BigInteger scalar =
+          i % 3 == 0 ? minusOne : BN254aFr.ONE.random((long) i, null).toBigInteger();
+      scalars.add(scalar);
+      bases1.add(point1);
+      input2.add(new Tuple2<>(scalar, point2));
+      indices[i] = i;
+    }
+
+    final G1Vector<BN254aG1> vector =
+        G1Vector.allocateDirect(size, BN254aG1Parameters.ONE).setAll(0, bases1);
+    final BN254aG1 expected1 =
+        BatchAffineMSM.pippengerMSM(size, scalars::get, vector, indices, numBits, 1);
+    final BN254aG2 expected2 = VariableBaseMSM.pippengerMSM(input2, numBits, 1);
+    for (int parallelism : new int[] {2, 7, 64}) {
+      assertTrue(
+          expected1.equals(
+              BatchAffineMSM.pippengerMSM(
+                  size, scalars::get, vector, indices, numBits, parallelism)));
+      assertTrue(expected2.equals(VariableBaseMSM.pippengerMSM(input2, numBits, parallelism)));
+    }
+  }
+
+  @Test
+  public void ScalarClassMSMTest() {
+    // Zero, tiny (summed per value), small and full scalars, with enough tiny scalars for their
+    // buckets, and with only a few of them, which are multiplied directly.
+    for (int size : new int[] {600, 9}) {
+      final ArrayList<BN254aFr> scalars = new ArrayList<>(size);
+      final ArrayList<BN254aG1> bases1 = new ArrayList<>(size);
+      final ArrayList<Tuple2<BN254aG1, BN254aG2>> bases2 = new ArrayList<>(size);
+      BN254aG1 point1 = BN254aG1Parameters.ONE;
+      BN254aG2 point2 = BN254aG2Parameters.ONE;
+      BN254aG1 expected1 = BN254aG1Parameters.ZERO;
+      BN254aG2 expected2 = BN254aG2Parameters.ZERO;
+      for (int i = 0; i < size; i++) {
+        point1 = point1.add(BN254aG1Parameters.ONE);
+        point2 = point2.add(BN254aG2Parameters.ONE);
+        final BN254aFr scalar;
+        switch (i % 4) {
+          case 0:
+            scalar = new BN254aFr(i % 3);
+            break;
+          case 1:
+            scalar = new BN254aFr(new BigInteger(40, new Random(i)));
+            break;
+          case 2:
+            scalar = BN254aFr.ONE.random((long) i, null);
+            break;
+          default:
+            scalar = new BN254aFr(i % 256);
+        }
+        scalars.add(scalar);
+        bases1.add(point1);
+        bases2.add(new Tuple2<>(point1, point2));
+        expected1 = expected1.add(point1.mul(scalar.toBigInteger()));
+        expected2 = expected2.add(point2.mul(scalar.toBigInteger()));
+      }
+
+      final G1Vector<BN254aG1> vector =
+          G1Vector.allocateDirect(size, BN254aG1Parameters.ONE).setAll(0, bases1);
+      final Tuple2<BN254aG1, BN254aG2> result = VariableBaseMSM.doubleMSM(scalars, bases2);
+      assertTrue(expected1.equals(VariableBaseMSM.serialMSM(scalars, bases1)));
+      assertTrue(expected1.equals(VariableBaseMSM.serialMSM(scalars, vector)));
+      assertTrue(expected1.equals(result._1));
+      assertTrue(expected2.equals(result._2));
+    }
+  }
+
+  @Test
+  public void BatchMSMTest() {
+    // Each MSM of the batch is equal to the MSM of its scalars, including a vector of zeros, over
+    // enough bases for the windows to be split into chunks.
+    final int size = VariableBaseMSM.PARALLEL_MSM_THRESHOLD + 100;
+    final int numVectors = 3;
+
+    final ArrayList<BN254aG1> bases1 = new ArrayList<>(size);
+    final ArrayList<Tuple2<BN254aG1, BN254aG2>> bases2 = new ArrayList<>(size);
+    final ArrayList<List<BN254aFr>> scalars = new ArrayList<>(numVectors);
+    for (int j = 0; j < numVectors; j++) {
+      scalars.add(new ArrayList<>(size));
+    }
+    BN254aG1 point1 = BN254aG1Parameters.ONE;
+    BN254aG2 point2 = BN254aG2Parameters.ONE;
+    for (int i = 0; i < size; i++) {
+      point1 = point1.add(BN254aG1Parameters.ONE);
+      point2 = point2.add(BN254aG2Parameters.ONE);
+      bases1.add(point1);
+      bases2.add(new Tuple2<>(point1, point2));
+      scalars.get(0).add(BN254aFr.ONE.random((long) i, null));
+      scalars.get(1).add(i % 2 == 0 ? BN254aFr.ONE : BN254aFr.ONE.random((long) -i, null));
+      scalars.get(2).add(BN254aFr.ONE.zero());
+    }
+
+    final List<BN254aG1> result1 = VariableBaseMSM.serialBatchMSM(scalars, bases1);
+    final List<Tuple2<BN254aG1, BN254aG2>> result2 =
+        VariableBaseMSM.serialBatchDoubleMSM(scalars, bases2);
+    assertEquals(numVectors, result1.size());
+    assertEquals(numVectors, result2.size());
+    for (int j = 0; j < numVectors; j++) {
+      final Tuple2<BN254aG1, BN254aG2> expected = VariableBaseMSM.doubleMSM(scalars.get(j), bases2);
+      assertTrue(expected._1.equals(VariableBaseMSM.serialMSM(scalars.get(j), bases1)));
+      assertTrue(expected._1.equals(result1.get(j)));
+      assertTrue(expected._1.equals(result2.get(j)._1));
+      assertTrue(expected._2.equals(result2.get(j)._2));
+    }
+  }
+
+  @Test
+  public void G1VectorMSMTest() throws Exception {
+    final int size = 50;
+    final BN254aG1 generator = BN254aG1Parameters.ONE;
+
+    final ArrayList<BN254aFr> scalars = new ArrayList<>(size);
+    final ArrayList<BN254aG1> bases = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      scalars.add(i % 7 == 0 ? BN254aFr.ONE : BN254aFr.ONE.random((long) i, null));
+      // Include points at infinity and points in projective coordinates.
+      bases.add(
+          i % 11 == 0 ? generator.zero() : generator.mul(new BigInteger(Integer.toString(i))));
+    }
+    scalars.set(3, BN254aFr.ZERO);
+
+    final BN254aG1 expected = VariableBaseMSM.serialMSM(scalars, bases);
+
+    final G1Vector<BN254aG1> direct = G1Vector.allocateDirect(size, generator).setAll(0, bases);
+    for (int i = 0; i < size; i++) {
+      assertTrue(bases.get(i).equals(direct.get(i)));
+    }
+    assertTrue(expected.equals(VariableBaseMSM.serialMSM(scalars, direct)));
+
+    final Path file = Files.createTempFile("g1-vector", ".bin");
+    try {
+      G1Vector.map(file, size, generator).setAll(0, bases);
+      final G1Vector<BN254aG1> mapped = G1Vector.map(file, size, generator);
+      assertTrue(expected.equals(VariableBaseMSM.serialMSM(scalars, mapped)));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
 }
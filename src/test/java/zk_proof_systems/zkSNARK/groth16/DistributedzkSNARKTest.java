@@ -7,6 +7,9 @@
 
 package zk_proof_systems.zkSNARK.groth16;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import algebra.curves.barreto_naehrig.*;
@@ -17,12 +20,15 @@ import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNGTParamet
 import algebra.curves.barreto_naehrig.bn254b.BN254bFields.BN254bFr;
 import algebra.curves.barreto_naehrig.bn254b.BN254bG1;
 import algebra.curves.barreto_naehrig.bn254b.BN254bG2;
+import algebra.curves.barreto_naehrig.bn254b.BN254bGT;
 import algebra.curves.barreto_naehrig.bn254b.BN254bPairing;
 import algebra.curves.barreto_naehrig.bn254b.bn254b_parameters.BN254bG1Parameters;
 import algebra.curves.barreto_naehrig.bn254b.bn254b_parameters.BN254bG2Parameters;
 import algebra.curves.mock.*;
 import configuration.Configuration;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
@@ -173,4 +179,58 @@ public class DistributedzkSNARKTest implements Serializable {
     DistributedBNProofSystemTest(
         numInputs, numConstraints, fieldFactory, g1Factory, g2Factory, pairing);
   }
+
+  @Test
+  public void DistributedBN254bBatchProofSystemTest() {
+    final int numInputs = 1023;
+    final int numConstraints = 1024;
+    final int numProofs = 3;
+    final BN254bFr fieldFactory = new BN254bFr(1);
+    final BN254bG1 g1Factory = BN254bG1Parameters.ONE;
+    final BN254bG2 g2Factory = BN254bG2Parameters.ONE;
+    final BN254bPairing pairing = new BN254bPairing();
+
+    // The constraints of the generated circuit do not depend on the seed, only its assignment
+    // does: each seed gives a distinct satisfying assignment of the same R1CS.
+    final long seed = config.seed();
+    R1CSRelationRDD<BN254bFr> r1cs = null;
+    final List<Assignment<BN254bFr>> primaries = new ArrayList<>(numProofs);
+    final List<JavaPairRDD<Long, BN254bFr>> fullAssignments = new ArrayList<>(numProofs);
+    for (int j = 0; j < numProofs; j++) {
+      config.setSeed(seed + j);
+      final Tuple3<R1CSRelationRDD<BN254bFr>, Assignment<BN254bFr>, JavaPairRDD<Long, BN254bFr>>
+          construction =
+              R1CSConstructor.parallelConstruct(numConstraints, numInputs, fieldFactory, config);
+      if (r1cs == null) {
+        r1cs = construction._1();
+      }
+      primaries.add(construction._2());
+      fullAssignments.add(construction._3());
+    }
+    config.setSeed(seed);
+    for (int j = 1; j < numProofs; j++) {
+      assertNotEquals(primaries.get(0).elements(), primaries.get(j).elements());
+    }
+
+    final CRS<BN254bFr, BN254bG1, BN254bG2, BN254bGT> CRS =
+        DistributedSetup.generate(r1cs, fieldFactory, g1Factory, g2Factory, pairing, config);
+
+    final List<Proof<BN254bG1, BN254bG2>> proofs =
+        DistributedProver.proveBatch(
+            CRS.provingKeyRDD(), primaries, fullAssignments, fieldFactory, config);
+
+    assertEquals(numProofs, proofs.size());
+    for (int j = 0; j < numProofs; j++) {
+      assertTrue(
+          Verifier.verify(CRS.verificationKey(), primaries.get(j), proofs.get(j), pairing, config));
+      // A proof must not be accepted for the primary input of another assignment.
+      assertFalse(
+          Verifier.verify(
+              CRS.verificationKey(),
+              primaries.get((j + 1) % numProofs),
+              proofs.get(j),
+              pairing,
+              config));
+    }
+  }
 }
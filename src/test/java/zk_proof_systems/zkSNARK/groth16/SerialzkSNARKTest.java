@@ -16,6 +16,7 @@ import algebra.curves.barreto_naehrig.abstract_bn_parameters.AbstractBNGTParamet
 import algebra.curves.barreto_naehrig.bn254a.BN254aFields.BN254aFr;
 import algebra.curves.barreto_naehrig.bn254a.BN254aG1;
 import algebra.curves.barreto_naehrig.bn254a.BN254aG2;
+import algebra.curves.barreto_naehrig.bn254a.BN254aGT;
 import algebra.curves.barreto_naehrig.bn254a.BN254aPairing;
 import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG1Parameters;
 import algebra.curves.barreto_naehrig.bn254a.bn254a_parameters.BN254aG2Parameters;
@@ -32,6 +33,12 @@ import algebra.fields.Fp;
 import algebra.fields.mock.fieldparameters.LargeFpParameters;
 import configuration.Configuration;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import profiler.generation.R1CSConstructor;
@@ -39,7 +46,9 @@ import relations.objects.Assignment;
 import relations.r1cs.R1CSRelation;
 import scala.Tuple3;
 import zk_proof_systems.zkSNARK.groth16.objects.CRS;
+import zk_proof_systems.zkSNARK.groth16.objects.PrecomputedProvingKey;
 import zk_proof_systems.zkSNARK.groth16.objects.Proof;
+import zk_proof_systems.zkSNARK.groth16.objects.ProvingKey;
 
 public class SerialzkSNARKTest implements Serializable {
   private Configuration config;
@@ -156,4 +165,44 @@ public class SerialzkSNARKTest implements Serializable {
 
     SerialBNProofSystemTest(numInputs, numConstraints, fieldFactory, g1Factory, g2Factory, pairing);
   }
+
+  @Test
+  public void SerialBN254aPrecomputedProofSystemTest() throws Exception {
+    final int numInputs = 1023;
+    final int numConstraints = 1024;
+    final BN254aFr fieldFactory = BN254aFr.ONE;
+    final BN254aPairing pairing = new BN254aPairing();
+
+    final Tuple3<R1CSRelation<BN254aFr>, Assignment<BN254aFr>, Assignment<BN254aFr>> construction =
+        R1CSConstructor.serialConstruct(numConstraints, numInputs, fieldFactory, config);
+    final R1CSRelation<BN254aFr> r1cs = construction._1();
+    final Assignment<BN254aFr> primary = construction._2();
+    final Assignment<BN254aFr> auxiliary = construction._3();
+
+    final CRS<BN254aFr, BN254aG1, BN254aG2, BN254aGT> CRS =
+        SerialSetup.generate(
+            r1cs, fieldFactory, BN254aG1Parameters.ONE, BN254aG2Parameters.ONE, pairing, config);
+
+    // The tables in direct memory, then in files, which are reused by the second proof
+    final Path directory = Files.createTempDirectory("proving-key-tables");
+    try {
+      final List<ProvingKey<BN254aFr, BN254aG1, BN254aG2>> provingKeys =
+          Arrays.asList(
+              PrecomputedProvingKey.allocateDirect(CRS.provingKey(), fieldFactory),
+              PrecomputedProvingKey.load(CRS.provingKey(), fieldFactory, directory),
+              PrecomputedProvingKey.load(CRS.provingKey(), fieldFactory, directory));
+      for (ProvingKey<BN254aFr, BN254aG1, BN254aG2> provingKey : provingKeys) {
+        final Proof<BN254aG1, BN254aG2> proof =
+            SerialProver.prove(provingKey, primary, auxiliary, fieldFactory, config);
+        assertTrue(Verifier.verify(CRS.verificationKey(), primary, proof, pairing, config));
+      }
+    } finally {
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : files.collect(Collectors.toList())) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+    }
+  }
 }